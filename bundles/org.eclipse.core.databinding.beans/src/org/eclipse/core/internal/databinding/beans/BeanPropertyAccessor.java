@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Reads and writes a bean property through method handles, which are created
+ * once for the property instead of invoking its methods reflectively on each
+ * access.
+ * <p>
+ * The sources and values the methods do not accept, and the properties which
+ * methods cannot be accessed, are handed over to {@link BeanPropertyHelper},
+ * which reports them as before.
+ * </p>
+ */
+public class BeanPropertyAccessor {
+	private static final MethodType READER_TYPE = MethodType.methodType(
+			Object.class, Object.class);
+
+	private static final MethodType WRITER_TYPE = MethodType.methodType(
+			void.class, Object.class, Object.class);
+
+	private final PropertyDescriptor propertyDescriptor;
+
+	private final MethodHandle reader;
+
+	private final Class<?> readerClass;
+
+	private final MethodHandle writer;
+
+	private final Class<?> writerClass;
+
+	private final Class<?> valueClass;
+
+	private final boolean primitive;
+
+	/**
+	 * @param propertyDescriptor
+	 *            the property to access
+	 */
+	public BeanPropertyAccessor(PropertyDescriptor propertyDescriptor) {
+		this.propertyDescriptor = propertyDescriptor;
+		Method readMethod = propertyDescriptor.getReadMethod();
+		reader = readMethod == null ? null : unreflect(readMethod, READER_TYPE);
+		readerClass = readMethod == null ? null : readMethod.getDeclaringClass();
+		Method writeMethod = propertyDescriptor.getWriteMethod();
+		writer = writeMethod == null ? null : unreflect(writeMethod,
+				WRITER_TYPE);
+		writerClass = writeMethod == null ? null : writeMethod
+				.getDeclaringClass();
+		Class<?> parameterType = writeMethod == null ? Object.class
+				: writeMethod.getParameterTypes()[0];
+		primitive = parameterType.isPrimitive();
+		valueClass = MethodType.methodType(parameterType).wrap().returnType();
+	}
+
+	private static MethodHandle unreflect(Method method, MethodType type) {
+		try {
+			if (!method.isAccessible()) {
+				method.setAccessible(true);
+			}
+			return MethodHandles.lookup().unreflect(method).asType(type);
+		} catch (SecurityException | IllegalAccessException e) {
+			// left to reflection, which reports the failure on access
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the contents of the property for the given bean.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @return the contents of the property for the given bean
+	 * @see BeanPropertyHelper#readProperty(Object, PropertyDescriptor)
+	 */
+	public Object read(Object source) {
+		if (reader == null || !readerClass.isInstance(source)) {
+			return BeanPropertyHelper.readProperty(source, propertyDescriptor);
+		}
+		try {
+			return (Object) reader.invokeExact(source);
+		} catch (Throwable e) {
+			// thrown by the read method, wrapped like BeanPropertyHelper does
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Sets the contents of the property on the given bean to the given value.
+	 *
+	 * @param source
+	 *            the source bean
+	 * @param value
+	 *            the new value of the property
+	 * @see BeanPropertyHelper#writeProperty(Object, PropertyDescriptor,
+	 *      Object)
+	 */
+	public void write(Object source, Object value) {
+		if (writer == null || !writerClass.isInstance(source)
+				|| (value == null ? primitive : !valueClass.isInstance(value))) {
+			BeanPropertyHelper.writeProperty(source, propertyDescriptor, value);
+			return;
+		}
+		try {
+			writer.invokeExact(source, value);
+		} catch (Throwable e) {
+			// thrown by the write method, wrapped like BeanPropertyHelper does
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,9 @@
 package org.eclipse.core.internal.databinding.beans;
 
 import java.beans.PropertyChangeListener;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 import org.eclipse.core.databinding.beans.BeansObservables;
@@ -28,6 +30,33 @@ import org.eclipse.core.runtime.Status;
  * @since 1.0
  */
 public class BeanPropertyListenerSupport {
+	private static final MethodType NAMED_LISTENER_TYPE = MethodType
+			.methodType(void.class, Object.class, String.class,
+					PropertyChangeListener.class);
+
+	private static final MethodType LISTENER_TYPE = MethodType.methodType(
+			void.class, Object.class, PropertyChangeListener.class);
+
+	/**
+	 * The listener methods of each bean class, looked up once per class.
+	 * <p>
+	 * This does not keep the class loaders of the bean classes alive: a
+	 * <code>ClassValue</code> stores the value of a class in that class, so the
+	 * method handles, which reference the bean class, only make a cycle which
+	 * is collected with it. Neither the values nor their class reference the
+	 * <code>ClassValue</code> itself. A map with weak keys would instead keep
+	 * each class alive through the method handles of its value.
+	 * </p>
+	 */
+	private static final ClassValue<ListenerMethod[]> LISTENER_METHODS = new ClassValue<ListenerMethod[]>() {
+		@Override
+		protected ListenerMethod[] computeValue(Class<?> type) {
+			return new ListenerMethod[] {
+					new ListenerMethod(type, "addPropertyChangeListener"), //$NON-NLS-1$
+					new ListenerMethod(type, "removePropertyChangeListener") }; //$NON-NLS-1$
+		}
+	};
+
 	/**
 	 * Start listen to target (if it supports the JavaBean property change
 	 * listener pattern)
@@ -42,7 +71,8 @@ public class BeanPropertyListenerSupport {
 		Assert.isNotNull(listener, "Listener cannot be null"); //$NON-NLS-1$
 		Assert.isNotNull(propertyName, "Property name cannot be null"); //$NON-NLS-1$
 		processListener(bean, propertyName, listener,
-				"addPropertyChangeListener", "Could not attach listener to ");//$NON-NLS-1$ //$NON-NLS-2$
+				LISTENER_METHODS.get(bean.getClass())[0],
+				"Could not attach listener to ");//$NON-NLS-1$
 	}
 
 	/**
@@ -58,68 +88,92 @@ public class BeanPropertyListenerSupport {
 		Assert.isNotNull(listener, "Listener cannot be null"); //$NON-NLS-1$
 		Assert.isNotNull(propertyName, "Property name cannot be null"); //$NON-NLS-1$
 
-		processListener(
-				bean,
-				propertyName,
-				listener,
-				"removePropertyChangeListener", "Cound not remove listener from "); //$NON-NLS-1$ //$NON-NLS-2$
+		processListener(bean, propertyName, listener,
+				LISTENER_METHODS.get(bean.getClass())[1],
+				"Cound not remove listener from "); //$NON-NLS-1$
 	}
 
 	/**
-	 * Invokes the method for the provided <code>methodName</code> attempting to
-	 * first use the method with the property name and then the unnamed version.
+	 * Invokes the given listener method, which is either the method with the
+	 * property name or the unnamed version.
 	 *
 	 * @param bean
 	 *            object to invoke the method on
-	 * @param methodName
+	 * @param method
 	 *            either addPropertyChangeListener or
-	 *            removePropertyChangeListener
+	 *            removePropertyChangeListener of the bean class
 	 * @param message
 	 *            string that will be prefixed to the target in an error message
 	 *
 	 * @return <code>true</code> if the method was invoked successfully
 	 */
 	private static boolean processListener(Object bean, String propertyName,
-			PropertyChangeListener listener, String methodName, String message) {
-		Method method = null;
-		Object[] parameters = null;
-
+			PropertyChangeListener listener, ListenerMethod method,
+			String message) {
+		if (method.handle == null) {
+			if (method.error != null) {
+				log(IStatus.WARNING, message + bean, method.error);
+			}
+			return false;
+		}
 		try {
-			try {
-				method = bean.getClass().getMethod(
-						methodName,
-						new Class[] { String.class,
-								PropertyChangeListener.class });
-
-				parameters = new Object[] { propertyName, listener };
-			} catch (NoSuchMethodException e) {
-				method = bean.getClass().getMethod(methodName,
-						new Class[] { PropertyChangeListener.class });
-
-				parameters = new Object[] { listener };
+			if (method.named) {
+				method.handle.invokeExact(bean, propertyName, listener);
+			} else {
+				method.handle.invokeExact(bean, listener);
 			}
-		} catch (SecurityException e) {
-			// ignore
-		} catch (NoSuchMethodException e) {
+			return true;
+		} catch (Throwable e) {
 			log(IStatus.WARNING, message + bean, e);
 		}
+		return false;
+	}
 
-		if (method != null) {
-			if (!method.isAccessible()) {
-				method.setAccessible(true);
-			}
+	/**
+	 * A listener method of a bean class, compiled into a method handle.
+	 */
+	private static class ListenerMethod {
+		final MethodHandle handle;
+
+		/**
+		 * Whether the method takes the property name.
+		 */
+		final boolean named;
+
+		/**
+		 * The reason why the bean class has no such method, or
+		 * <code>null</code>.
+		 */
+		final Exception error;
+
+		ListenerMethod(Class<?> beanClass, String methodName) {
+			MethodHandle handle = null;
+			boolean named = false;
+			Exception error = null;
 			try {
-				method.invoke(bean, parameters);
-				return true;
-			} catch (IllegalArgumentException e) {
-				log(IStatus.WARNING, message + bean, e);
-			} catch (IllegalAccessException e) {
-				log(IStatus.WARNING, message + bean, e);
-			} catch (InvocationTargetException e) {
-				log(IStatus.WARNING, message + bean, e);
+				Method method;
+				try {
+					method = beanClass.getMethod(methodName, new Class[] {
+							String.class, PropertyChangeListener.class });
+					named = true;
+				} catch (NoSuchMethodException e) {
+					method = beanClass.getMethod(methodName,
+							new Class[] { PropertyChangeListener.class });
+				}
+				if (!method.isAccessible()) {
+					method.setAccessible(true);
+				}
+				handle = MethodHandles.lookup().unreflect(method)
+						.asType(named ? NAMED_LISTENER_TYPE : LISTENER_TYPE);
+			} catch (SecurityException e) {
+				// ignore
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				error = e;
 			}
+			this.handle = handle;
+			this.named = named;
+			this.error = error;
 		}
-		return false;
 	}
 
 	/**
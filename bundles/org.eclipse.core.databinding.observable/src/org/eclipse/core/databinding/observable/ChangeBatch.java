@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.core.databinding.observable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.list.ListChangeEvent;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+import org.eclipse.core.databinding.observable.map.MapChangeEvent;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.SetChangeEvent;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.ValueDiff;
+
+/**
+ * The events held back during a {@link Realm#batch(Runnable) batch}. The
+ * change, stale, value, list, set and map events of an observable are merged
+ * into one event of each type, fired when the batch completes. The other
+ * events are fired right away.
+ */
+/* package */class ChangeBatch {
+
+	/**
+	 * The pending events of each change manager. The managers are compared by
+	 * identity, as observable collections are equal to their contents.
+	 */
+	private Map<ChangeManager, List<ObservableEvent>> pendingEvents = new IdentityHashMap<>();
+
+	/**
+	 * The change managers with pending events, in the order they first fired
+	 * an event.
+	 */
+	private List<ChangeManager> managers = new ArrayList<>();
+
+	/**
+	 * Holds back <code>event</code> until the batch completes, merging it with
+	 * the pending event of the same type.
+	 *
+	 * @param manager
+	 *            the change manager firing the event
+	 * @param event
+	 *            the event
+	 * @return <code>false</code> if the event must be fired right away
+	 */
+	boolean defer(ChangeManager manager, ObservableEvent event) {
+		if (!isMergeable(event)) {
+			return false;
+		}
+		List<ObservableEvent> events = pendingEvents.get(manager);
+		if (events == null) {
+			events = new ArrayList<>(2);
+			pendingEvents.put(manager, events);
+			managers.add(manager);
+		}
+		Object listenerType = event.getListenerType();
+		for (int i = 0; i < events.size(); i++) {
+			ObservableEvent pending = events.get(i);
+			if (pending.getListenerType() == listenerType) {
+				events.set(i, merge(pending, event));
+				return true;
+			}
+		}
+		events.add(merge(null, event));
+		return true;
+	}
+
+	private static boolean isMergeable(ObservableEvent event) {
+		return event instanceof ChangeEvent || event instanceof StaleEvent || event instanceof ValueChangeEvent
+				|| event instanceof ListChangeEvent || event instanceof SetChangeEvent
+				|| event instanceof MapChangeEvent;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static ObservableEvent merge(ObservableEvent pending, ObservableEvent event) {
+		if (event instanceof ValueChangeEvent) {
+			ValueChangeEvent<?> valueEvent = (ValueChangeEvent<?>) event;
+			if (pending == null) {
+				return new ValueChangeEvent(valueEvent.getObservableValue(), new MergedValueDiff(valueEvent.diff));
+			}
+			((MergedValueDiff) ((ValueChangeEvent<?>) pending).diff).last = valueEvent.diff;
+		} else if (event instanceof ListChangeEvent) {
+			ListChangeEvent<?> listEvent = (ListChangeEvent<?>) event;
+			if (pending == null) {
+				pending = new ListChangeEvent(listEvent.getObservableList(), new MergedListDiff());
+			}
+			((MergedListDiff) ((ListChangeEvent<?>) pending).diff).diffs.add(listEvent.diff);
+		} else if (event instanceof SetChangeEvent) {
+			SetChangeEvent<?> setEvent = (SetChangeEvent<?>) event;
+			if (pending == null) {
+				pending = new SetChangeEvent(setEvent.getObservableSet(), new MergedSetDiff());
+			}
+			((MergedSetDiff) ((SetChangeEvent<?>) pending).diff).diffs.add(setEvent.diff);
+		} else if (event instanceof MapChangeEvent) {
+			MapChangeEvent<?, ?> mapEvent = (MapChangeEvent<?, ?>) event;
+			if (pending == null) {
+				pending = new MapChangeEvent(mapEvent.getObservableMap(), new MergedMapDiff());
+			}
+			((MergedMapDiff) ((MapChangeEvent<?, ?>) pending).diff).diffs.add(mapEvent.diff);
+		} else if (pending == null) {
+			// change and stale events carry no data
+			return event;
+		}
+		return pending;
+	}
+
+	/**
+	 * Fires the pending events. The events fired by the listeners are held
+	 * back and fired in turn once all the pending events are fired, so that an
+	 * observable depending on several of the changed observables, such as a
+	 * computed value, is notified once.
+	 */
+	void commit() {
+		while (!managers.isEmpty()) {
+			Map<ChangeManager, List<ObservableEvent>> events = pendingEvents;
+			List<ChangeManager> changedManagers = managers;
+			pendingEvents = new IdentityHashMap<>();
+			managers = new ArrayList<>();
+			for (ChangeManager manager : changedManagers) {
+				for (ObservableEvent event : events.get(manager)) {
+					manager.fireEventNow(event);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The difference between the old value of the first diff and the new value
+	 * of the last one. The values are only asked for when the listeners ask
+	 * for them, as computed values compute them lazily.
+	 */
+	private static class MergedValueDiff<T> extends ValueDiff<T> {
+
+		private final ValueDiff<? extends T> first;
+
+		ValueDiff<? extends T> last;
+
+		MergedValueDiff(ValueDiff<? extends T> first) {
+			this.first = first;
+			this.last = first;
+		}
+
+		@Override
+		public T getOldValue() {
+			return first.getOldValue();
+		}
+
+		@Override
+		public T getNewValue() {
+			return last.getNewValue();
+		}
+	}
+
+	/**
+	 * The entries of the merged diffs, one after the other.
+	 */
+	private static class MergedListDiff<E> extends ListDiff<E> {
+
+		final List<ListDiff<? extends E>> diffs = new ArrayList<>(2);
+
+		private ListDiffEntry<E>[] differences;
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public ListDiffEntry<E>[] getDifferences() {
+			if (differences == null) {
+				List<ListDiffEntry<E>> entries = new ArrayList<>();
+				for (ListDiff<? extends E> diff : diffs) {
+					for (ListDiffEntry<? extends E> entry : diff.getDifferences()) {
+						entries.add((ListDiffEntry<E>) entry);
+					}
+				}
+				differences = entries.toArray(new ListDiffEntry[entries.size()]);
+			}
+			return differences;
+		}
+	}
+
+	/**
+	 * The net additions and removals of the merged diffs.
+	 */
+	private static class MergedSetDiff<E> extends SetDiff<E> {
+
+		final List<SetDiff<? extends E>> diffs = new ArrayList<>(2);
+
+		private Set<E> additions;
+
+		private Set<E> removals;
+
+		@Override
+		public Set<E> getAdditions() {
+			merge();
+			return additions;
+		}
+
+		@Override
+		public Set<E> getRemovals() {
+			merge();
+			return removals;
+		}
+
+		private void merge() {
+			if (additions != null) {
+				return;
+			}
+			Set<E> added = new HashSet<>();
+			Set<E> removed = new HashSet<>();
+			for (SetDiff<? extends E> diff : diffs) {
+				for (E element : diff.getRemovals()) {
+					if (!added.remove(element)) {
+						removed.add(element);
+					}
+				}
+				for (E element : diff.getAdditions()) {
+					if (!removed.remove(element)) {
+						added.add(element);
+					}
+				}
+			}
+			additions = Collections.unmodifiableSet(added);
+			removals = Collections.unmodifiableSet(removed);
+		}
+	}
+
+	/**
+	 * The net additions, removals and changes of the merged diffs.
+	 */
+	private static class MergedMapDiff<K, V> extends MapDiff<K, V> {
+
+		private static final Object ABSENT = new Object();
+
+		final List<MapDiff<? extends K, ? extends V>> diffs = new ArrayList<>(2);
+
+		private MapDiff<K, V> merged;
+
+		@Override
+		public Set<K> getAddedKeys() {
+			return getMerged().getAddedKeys();
+		}
+
+		@Override
+		public Set<K> getRemovedKeys() {
+			return getMerged().getRemovedKeys();
+		}
+
+		@Override
+		public Set<K> getChangedKeys() {
+			return getMerged().getChangedKeys();
+		}
+
+		@Override
+		public V getOldValue(Object key) {
+			return getMerged().getOldValue(key);
+		}
+
+		@Override
+		public V getNewValue(Object key) {
+			return getMerged().getNewValue(key);
+		}
+
+		@SuppressWarnings("unchecked")
+		private MapDiff<K, V> getMerged() {
+			if (merged != null) {
+				return merged;
+			}
+			// the values of the keys before and after the batch
+			Map<K, Object> firstValues = new LinkedHashMap<>();
+			Map<K, Object> lastValues = new HashMap<>();
+			for (MapDiff<? extends K, ? extends V> diff : diffs) {
+				for (K key : diff.getRemovedKeys()) {
+					putFirst(firstValues, key, diff.getOldValue(key));
+					lastValues.put(key, ABSENT);
+				}
+				for (K key : diff.getAddedKeys()) {
+					putFirst(firstValues, key, ABSENT);
+					lastValues.put(key, diff.getNewValue(key));
+				}
+				for (K key : diff.getChangedKeys()) {
+					putFirst(firstValues, key, diff.getOldValue(key));
+					lastValues.put(key, diff.getNewValue(key));
+				}
+			}
+			Set<K> addedKeys = new HashSet<>();
+			Set<K> removedKeys = new HashSet<>();
+			Set<K> changedKeys = new HashSet<>();
+			Map<K, V> oldValues = new HashMap<>();
+			Map<K, V> newValues = new HashMap<>();
+			for (Map.Entry<K, Object> entry : firstValues.entrySet()) {
+				K key = entry.getKey();
+				Object oldValue = entry.getValue();
+				Object newValue = lastValues.get(key);
+				if (oldValue == ABSENT) {
+					if (newValue != ABSENT) {
+						addedKeys.add(key);
+						newValues.put(key, (V) newValue);
+					}
+				} else if (newValue == ABSENT) {
+					removedKeys.add(key);
+					oldValues.put(key, (V) oldValue);
+				} else {
+					changedKeys.add(key);
+					oldValues.put(key, (V) oldValue);
+					newValues.put(key, (V) newValue);
+				}
+			}
+			merged = Diffs.createMapDiff(addedKeys, removedKeys, changedKeys, oldValues, newValues);
+			return merged;
+		}
+
+		private static <K> void putFirst(Map<K, Object> values, K key, Object value) {
+			if (!values.containsKey(key)) {
+				values.put(key, value);
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,10 +12,10 @@
  *******************************************************************************/
 package org.eclipse.core.databinding.observable;
 
-import java.util.Set;
+import java.util.Arrays;
 
 import org.eclipse.core.databinding.util.Policy;
-import org.eclipse.core.internal.databinding.identity.IdentitySet;
+import org.eclipse.core.internal.databinding.observable.DependencySet;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -61,20 +61,54 @@ import org.eclipse.core.runtime.Status;
 public class ObservableTracker {
 
 	/**
-	 * Threadlocal storage pointing to the current Set of IObservables, or null
-	 * if none. Note that this is actually the top of a stack. Whenever a method
-	 * changes the current value, it remembers the old value as a local variable
-	 * and restores the old value when the method exits.
+	 * The tracking state of a thread. Note that its fields are actually the top
+	 * of a stack. Whenever a method changes the current value, it remembers the
+	 * old value as a local variable and restores the old value when the method
+	 * exits.
 	 */
-	private static ThreadLocal<IChangeListener> currentChangeListener = new ThreadLocal<>();
+	private static final class Frame {
+		IChangeListener changeListener;
 
-	private static ThreadLocal<IStaleListener> currentStaleListener = new ThreadLocal<>();
+		IStaleListener staleListener;
 
-	private static ThreadLocal<Set<IObservable>> currentGetterCalledSet = new ThreadLocal<>();
+		/**
+		 * The current set of read IObservables, or null if none.
+		 */
+		DependencySet getterCalledSet;
 
-	private static ThreadLocal<Set<IObservable>> currentObservableCreatedSet = new ThreadLocal<>();
+		/**
+		 * The current set of created IObservables, or null if none.
+		 */
+		DependencySet observableCreatedSet;
 
-	private static ThreadLocal<Integer> currentIgnoreCount = new ThreadLocal<>();
+		int ignoreCount;
+
+		/**
+		 * The sets of the running calls, reused by the next calls of the same
+		 * depth.
+		 */
+		private DependencySet[] sets = new DependencySet[4];
+
+		private int depth;
+
+		DependencySet pushSet() {
+			if (depth == sets.length) {
+				sets = Arrays.copyOf(sets, depth * 2);
+			}
+			DependencySet set = sets[depth];
+			if (set == null) {
+				set = sets[depth] = new DependencySet();
+			}
+			depth++;
+			return set;
+		}
+
+		void popSet() {
+			sets[--depth].clear();
+		}
+	}
+
+	private static ThreadLocal<Frame> currentFrame = ThreadLocal.withInitial(Frame::new);
 
 	/**
 	 * Invokes the given runnable, and returns the set of IObservables that were
@@ -93,31 +127,36 @@ public class ObservableTracker {
 	 */
 	public static IObservable[] runAndMonitor(Runnable runnable,
 			IChangeListener changeListener, IStaleListener staleListener) {
+		Frame frame = currentFrame.get();
 		// Remember the previous value in the listener stack
-		Set<IObservable> lastObservableSet = currentGetterCalledSet.get();
-		IChangeListener lastChangeListener = currentChangeListener.get();
-		IStaleListener lastStaleListener = currentStaleListener.get();
-		Integer lastIgnore = currentIgnoreCount.get();
+		DependencySet lastObservableSet = frame.getterCalledSet;
+		IChangeListener lastChangeListener = frame.changeListener;
+		IStaleListener lastStaleListener = frame.staleListener;
+		int lastIgnore = frame.ignoreCount;
 
-		Set<IObservable> observableSet = new IdentitySet<>();
-		// Push the new listeners to the top of the stack
-		currentGetterCalledSet.set(observableSet);
-		currentChangeListener.set(changeListener);
-		currentStaleListener.set(staleListener);
-		currentIgnoreCount.set(null);
+		DependencySet observableSet = frame.pushSet();
 		try {
-			runnable.run();
+			// Push the new listeners to the top of the stack
+			frame.getterCalledSet = observableSet;
+			frame.changeListener = changeListener;
+			frame.staleListener = staleListener;
+			frame.ignoreCount = 0;
+			try {
+				runnable.run();
+			} finally {
+				// Pop the new listener off the top of the stack (by restoring
+				// the previous listener)
+				frame.getterCalledSet = lastObservableSet;
+				frame.changeListener = lastChangeListener;
+				frame.staleListener = lastStaleListener;
+				checkUnmatchedIgnore(frame, runnable);
+				frame.ignoreCount = lastIgnore;
+			}
+
+			return observableSet.toArray();
 		} finally {
-			// Pop the new listener off the top of the stack (by restoring the
-			// previous listener)
-			currentGetterCalledSet.set(lastObservableSet);
-			currentChangeListener.set(lastChangeListener);
-			currentStaleListener.set(lastStaleListener);
-			checkUnmatchedIgnore(runnable);
-			currentIgnoreCount.set(lastIgnore);
+			frame.popSet();
 		}
-
-		return observableSet.toArray(new IObservable[observableSet.size()]);
 	}
 
 	/**
@@ -137,34 +176,39 @@ public class ObservableTracker {
 	 * @since 1.2
 	 */
 	public static IObservable[] runAndCollect(Runnable runnable) {
-		Set<IObservable> lastObservableCreatedSet = currentObservableCreatedSet.get();
-		Integer lastIgnore = currentIgnoreCount.get();
+		Frame frame = currentFrame.get();
+		DependencySet lastObservableCreatedSet = frame.observableCreatedSet;
+		int lastIgnore = frame.ignoreCount;
 
-		Set<IObservable> observableSet = new IdentitySet<>();
-		// Push the new listeners to the top of the stack
-		currentObservableCreatedSet.set(observableSet);
-		currentIgnoreCount.set(null);
+		DependencySet observableSet = frame.pushSet();
 		try {
-			runnable.run();
+			// Push the new listeners to the top of the stack
+			frame.observableCreatedSet = observableSet;
+			frame.ignoreCount = 0;
+			try {
+				runnable.run();
+			} finally {
+				// Pop the new listener off the top of the stack (by restoring
+				// the previous listener)
+				frame.observableCreatedSet = lastObservableCreatedSet;
+				checkUnmatchedIgnore(frame, runnable);
+				frame.ignoreCount = lastIgnore;
+			}
+
+			return observableSet.toArray();
 		} finally {
-			// Pop the new listener off the top of the stack (by restoring the
-			// previous listener)
-			currentObservableCreatedSet.set(lastObservableCreatedSet);
-			checkUnmatchedIgnore(runnable);
-			currentIgnoreCount.set(lastIgnore);
+			frame.popSet();
 		}
-
-		return observableSet.toArray(new IObservable[observableSet.size()]);
 	}
 
-	private static void checkUnmatchedIgnore(Runnable runnable) {
-		if (isIgnore()) {
+	private static void checkUnmatchedIgnore(Frame frame, Runnable runnable) {
+		if (frame.ignoreCount > 0) {
 			Policy.getLog()
 					.log(new Status(
 							IStatus.ERROR,
 							Policy.JFACE_DATABINDING,
 							"There were " //$NON-NLS-1$
-									+ currentIgnoreCount.get()
+									+ frame.ignoreCount
 									+ " unmatched setIgnore(true) invocations in runnable " //$NON-NLS-1$
 									+ runnable));
 		}
@@ -191,15 +235,13 @@ public class ObservableTracker {
 	 * @since 1.3
 	 */
 	public static void setIgnore(boolean ignore) {
-		Integer lastCount = currentIgnoreCount.get();
-
-		int newCount = (lastCount == null ? 0 : lastCount.intValue())
-				+ (ignore ? 1 : -1);
+		Frame frame = currentFrame.get();
+		int newCount = frame.ignoreCount + (ignore ? 1 : -1);
 
 		if (newCount < 0)
 			throw new IllegalStateException("Ignore count is already zero"); //$NON-NLS-1$
 
-		currentIgnoreCount.set(newCount == 0 ? null : Integer.valueOf(newCount));
+		frame.ignoreCount = newCount;
 	}
 
 	/**
@@ -228,10 +270,6 @@ public class ObservableTracker {
 				+ Integer.toHexString(System.identityHashCode(observable));
 	}
 
-	private static boolean isIgnore() {
-		return currentIgnoreCount.get() != null;
-	}
-
 	/**
 	 * Notifies the ObservableTracker that an observable was read from. The
 	 * JavaDoc for methods that invoke this method should include the following
@@ -251,16 +289,17 @@ public class ObservableTracker {
 			Assert.isTrue(false, "Getter called outside realm of observable " //$NON-NLS-1$
 					+ toString(observable));
 
-		if (isIgnore())
+		Frame frame = currentFrame.get();
+		if (frame.ignoreCount > 0)
 			return;
 
-		Set<IObservable> getterCalledSet = currentGetterCalledSet.get();
+		DependencySet getterCalledSet = frame.getterCalledSet;
 		if (getterCalledSet != null && getterCalledSet.add(observable)) {
 			// If anyone is listening for observable usage...
-			IChangeListener changeListener = currentChangeListener.get();
+			IChangeListener changeListener = frame.changeListener;
 			if (changeListener != null)
 				observable.addChangeListener(changeListener);
-			IStaleListener staleListener = currentStaleListener.get();
+			IStaleListener staleListener = frame.staleListener;
 			if (staleListener != null)
 				observable.addStaleListener(staleListener);
 		}
@@ -274,9 +313,10 @@ public class ObservableTracker {
 	 * @since 1.2
 	 */
 	public static void observableCreated(IObservable observable) {
-		if (isIgnore())
+		Frame frame = currentFrame.get();
+		if (frame.ignoreCount > 0)
 			return;
-		Set<IObservable> observableCreatedSet = currentObservableCreatedSet.get();
+		DependencySet observableCreatedSet = frame.observableCreatedSet;
 		if (observableCreatedSet != null) {
 			observableCreatedSet.add(observable);
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ import java.util.TimerTask;
 
 import org.eclipse.core.databinding.util.Policy;
 import org.eclipse.core.internal.databinding.observable.Queue;
+import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.SafeRunner;
@@ -121,6 +122,11 @@ public abstract class Realm {
 
 	Queue workQueue = new Queue();
 
+	/**
+	 * The events held back by the running batch, or <code>null</code>.
+	 */
+	ChangeBatch batch;
+
 	/**
 	 * Runs the given runnable. If an exception occurs within the runnable, it
 	 * is logged and not re-thrown. If the runnable implements
@@ -321,6 +327,55 @@ public abstract class Realm {
 		}
 	}
 
+	/**
+	 * Runs the given runnable in a batch of changes. The observables of this
+	 * realm changed by the runnable notify their listeners when the runnable
+	 * completes, with one event merging all their changes of each kind: the
+	 * entries of their list diffs, the net additions and removals of their set
+	 * and map diffs, and the first old value and last new value of their value
+	 * diffs. The events fired by the listeners, such as those of the computed
+	 * values depending on the changed observables, are merged as well, so that
+	 * each observable notifies its listeners once per round.
+	 * <p>
+	 * Value changing and dispose events are fired right away. Batches may be
+	 * nested, in which case the events are fired when the outermost batch
+	 * completes. The events are fired even if the runnable throws an
+	 * exception.
+	 * </p>
+	 * <p>
+	 * This method must be called from within this realm.
+	 * </p>
+	 *
+	 * @param runnable
+	 *            the runnable changing the observables
+	 * @since 1.7
+	 */
+	public void batch(Runnable runnable) {
+		Assert.isTrue(isCurrent(), "Batch started outside of realm"); //$NON-NLS-1$
+		if (batch != null) {
+			runnable.run();
+			return;
+		}
+		batch = new ChangeBatch();
+		try {
+			runnable.run();
+		} finally {
+			try {
+				batch.commit();
+			} finally {
+				batch = null;
+			}
+		}
+	}
+
+	/**
+	 * @return whether a {@link #batch(Runnable) batch} is running in this realm
+	 * @since 1.7
+	 */
+	public boolean isBatching() {
+		return batch != null;
+	}
+
 	/**
 	 * Sets the provided <code>realm</code> as the default for the duration of
 	 * {@link Runnable#run()} and resets the previous realm after completion.
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import org.eclipse.core.databinding.observable.IObservable;
+
+/**
+ * A set of observables compared by identity, kept in the order they were
+ * added. The observables are hashed into an open-addressing table, so that
+ * adding one allocates nothing, and the set can be cleared and reused for the
+ * next evaluation.
+ */
+public final class DependencySet {
+	/**
+	 * The capacity above which the table is shrunk when the set is cleared.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 256;
+
+	/**
+	 * The size above which {@link #update} hashes the old dependencies instead
+	 * of comparing them with each new one.
+	 */
+	private static final int LINEAR_SEARCH_SIZE = 8;
+
+	private IObservable[] elements;
+
+	private int size;
+
+	/**
+	 * The indexes in {@link #elements} plus one, or zero for empty slots.
+	 */
+	private int[] table;
+
+	/**
+	 * Creates an empty set.
+	 */
+	public DependencySet() {
+		elements = new IObservable[8];
+		table = new int[16];
+	}
+
+	/**
+	 * @param observable
+	 * @return <code>true</code> if the observable was not in the set yet
+	 */
+	public boolean add(IObservable observable) {
+		int slot = slot(observable);
+		if (table[slot] != 0) {
+			return false;
+		}
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, size * 2);
+		}
+		elements[size++] = observable;
+		table[slot] = size;
+		if (size * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+		return true;
+	}
+
+	/**
+	 * @param observable
+	 * @return whether the observable is in the set
+	 */
+	public boolean contains(IObservable observable) {
+		return table[slot(observable)] != 0;
+	}
+
+	/**
+	 * @return the number of observables in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the observables, in the order they were added
+	 */
+	public IObservable[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	/**
+	 * Removes all the observables, keeping the table for reuse unless it grew
+	 * large.
+	 */
+	public void clear() {
+		if (table.length > MAX_RETAINED_CAPACITY) {
+			elements = new IObservable[8];
+			table = new int[16];
+		} else {
+			Arrays.fill(elements, 0, size, null);
+			Arrays.fill(table, 0);
+		}
+		size = 0;
+	}
+
+	/**
+	 * @return the slot of the observable, or the empty slot where it belongs
+	 */
+	private int slot(IObservable observable) {
+		int mask = table.length - 1;
+		int slot = hash(observable) & mask;
+		while (table[slot] != 0 && elements[table[slot] - 1] != observable) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static int hash(IObservable observable) {
+		int hash = System.identityHashCode(observable);
+		// identity hash codes are often multiples of 8
+		return hash ^ (hash >>> 16) ^ (hash >>> 7);
+	}
+
+	private void rehash(int capacity) {
+		table = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < size; i++) {
+			int slot = hash(elements[i]) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Compares the dependencies of two evaluations, so that the listeners of
+	 * the dependencies which were kept do not need to be removed and added
+	 * again.
+	 *
+	 * @param oldDependencies
+	 *            the dependencies of the previous evaluation, or
+	 *            <code>null</code>
+	 * @param newDependencies
+	 *            the dependencies of the new evaluation
+	 * @param added
+	 *            called with each new dependency not in
+	 *            <code>oldDependencies</code>
+	 * @param removed
+	 *            called with each old dependency not in
+	 *            <code>newDependencies</code>
+	 */
+	public static void update(IObservable[] oldDependencies, IObservable[] newDependencies,
+			Consumer<IObservable> added, Consumer<IObservable> removed) {
+		if (oldDependencies == null || oldDependencies.length == 0) {
+			for (IObservable observable : newDependencies) {
+				added.accept(observable);
+			}
+			return;
+		}
+		if (oldDependencies.length <= LINEAR_SEARCH_SIZE && newDependencies.length <= LINEAR_SEARCH_SIZE) {
+			for (IObservable observable : oldDependencies) {
+				if (indexOf(newDependencies, observable) == -1) {
+					removed.accept(observable);
+				}
+			}
+			for (IObservable observable : newDependencies) {
+				if (indexOf(oldDependencies, observable) == -1) {
+					added.accept(observable);
+				}
+			}
+			return;
+		}
+		DependencySet oldSet = new DependencySet();
+		for (IObservable observable : oldDependencies) {
+			oldSet.add(observable);
+		}
+		DependencySet newSet = new DependencySet();
+		for (IObservable observable : newDependencies) {
+			newSet.add(observable);
+		}
+		for (IObservable observable : oldDependencies) {
+			if (!newSet.contains(observable)) {
+				removed.accept(observable);
+			}
+		}
+		for (IObservable observable : newDependencies) {
+			if (!oldSet.contains(observable)) {
+				added.accept(observable);
+			}
+		}
+	}
+
+	private static int indexOf(IObservable[] observables, IObservable observable) {
+		for (int i = 0; i < observables.length; i++) {
+			if (observables[i] == observable) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
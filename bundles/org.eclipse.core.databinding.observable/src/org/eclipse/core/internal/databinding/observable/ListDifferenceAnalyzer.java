@@ -0,0 +1,406 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.observable;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiffEntry;
+
+/**
+ * Computes the differences between two lists, adapted from EMF's
+ * ListDifferenceAnalyzer.
+ * <p>
+ * The analyzer walks the new list and transforms a copy of the old list until
+ * both are equal, removing, adding or moving one element at a time. The copy
+ * is kept in a balanced tree indexed by position, and the positions of each
+ * element in both lists are hashed, so that each step takes a logarithmic time
+ * instead of a time linear in the size of the lists. The entries are the same
+ * as those of the original algorithm.
+ * </p>
+ * <p>
+ * The elements are compared with {@link Object#equals(Object)} and hashed with
+ * {@link Object#hashCode()}.
+ * </p>
+ *
+ * @param <E>
+ *            the list element type
+ */
+public class ListDifferenceAnalyzer<E> {
+
+	private final List<? extends E> newList;
+
+	private final List<ListDiffEntry<E>> listDiffs;
+
+	/**
+	 * The elements of the old list which are not at their final position yet,
+	 * that is the elements at and after the current index.
+	 */
+	private final Sequence<E> pending = new Sequence<>();
+
+	/**
+	 * The nodes of the pending elements by element: a {@link Node} or a
+	 * {@link TreeSet} of nodes sorted by position.
+	 */
+	private final Map<Object, Object> nodesByElement = new HashMap<>();
+
+	/**
+	 * The position of the first occurrence of each element in the new list.
+	 */
+	private final Map<Object, Integer> firstNewIndexes = new HashMap<>();
+
+	/**
+	 * The next position of the same element in the new list, by position.
+	 */
+	private final int[] nextNewIndexes;
+
+	/**
+	 * The first position of an element in the new list at or after the
+	 * current index, by the position of its first occurrence.
+	 */
+	private final int[] currentNewIndexes;
+
+	private final Comparator<Node<E>> byPosition = (node1, node2) -> Integer.compare(node1.getPosition(),
+			node2.getPosition());
+
+	private int index;
+
+	private ListDifferenceAnalyzer(List<? extends E> oldList, List<? extends E> newList,
+			List<ListDiffEntry<E>> listDiffs) {
+		this.newList = newList;
+		this.listDiffs = listDiffs;
+		Object[] newElements = newList.toArray();
+		nextNewIndexes = new int[newElements.length];
+		currentNewIndexes = new int[newElements.length];
+		for (int i = newElements.length - 1; i >= 0; i--) {
+			Integer next = firstNewIndexes.put(newElements[i], Integer.valueOf(i));
+			nextNewIndexes[i] = next == null ? -1 : next.intValue();
+			currentNewIndexes[i] = i;
+		}
+		for (E element : oldList) {
+			Node<E> node = new Node<>(element);
+			pending.add(pending.size(), node);
+			addNode(node);
+		}
+	}
+
+	/**
+	 * Adds the entries transforming <code>oldList</code> into
+	 * <code>newList</code> to <code>listDiffs</code>.
+	 *
+	 * @param oldList
+	 *            the old list state
+	 * @param newList
+	 *            the new list state
+	 * @param listDiffs
+	 *            the list receiving the entries
+	 */
+	public static <E> void createListDiffs(List<? extends E> oldList, List<? extends E> newList,
+			List<ListDiffEntry<E>> listDiffs) {
+		new ListDifferenceAnalyzer<E>(oldList, newList, listDiffs).analyze();
+	}
+
+	private void analyze() {
+		for (E newValue : newList) {
+			if (pending.size() == 0) {
+				// append newValue to newList
+				listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+			} else {
+				boolean done;
+				do {
+					done = true;
+					E oldValue = pending.get(0).element;
+					if (!Util.equals(oldValue, newValue)) {
+						int oldIndexOfNewValue = oldIndexOf(newValue);
+						if (oldIndexOfNewValue != -1) {
+							int newIndexOfOldValue = newIndexOf(oldValue);
+							if (newIndexOfOldValue == -1) {
+								// removing oldValue from list[index]
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								remove(index);
+								done = false;
+							} else if (newIndexOfOldValue > oldIndexOfNewValue) {
+								// moving oldValue from list[index] to
+								// [newIndexOfOldValue]
+								int size = index + pending.size();
+								if (size <= newIndexOfOldValue) {
+									// The element cannot be moved to the
+									// correct index now, however later
+									// iterations will insert elements in
+									// front of it, eventually moving it into
+									// the correct spot.
+									newIndexOfOldValue = size - 1;
+								}
+								listDiffs.add(Diffs.createListDiffEntry(index, false, oldValue));
+								remove(index);
+								listDiffs.add(Diffs.createListDiffEntry(newIndexOfOldValue, true, oldValue));
+								add(newIndexOfOldValue, oldValue);
+								done = false;
+							} else {
+								// move newValue from list[oldIndexOfNewValue]
+								// to [index]
+								listDiffs.add(Diffs.createListDiffEntry(oldIndexOfNewValue, false, newValue));
+								remove(oldIndexOfNewValue);
+								listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+								add(index, newValue);
+							}
+						} else {
+							// add newValue at list[index]
+							add(index, newValue);
+							listDiffs.add(Diffs.createListDiffEntry(index, true, newValue));
+						}
+					}
+				} while (!done);
+				// list[index] is equal to newValue from now on
+				remove(index);
+			}
+			++index;
+		}
+		for (int i = index + pending.size(); i > index;) {
+			// remove excess trailing elements not present in newList
+			--i;
+			listDiffs.add(Diffs.createListDiffEntry(i, false, pending.get(i - index).element));
+		}
+	}
+
+	/**
+	 * @return the position of the first pending occurrence of
+	 *         <code>element</code> in the old list, or -1 if not found
+	 */
+	@SuppressWarnings("unchecked")
+	private int oldIndexOf(Object element) {
+		Object nodes = nodesByElement.get(element);
+		if (nodes == null) {
+			return -1;
+		}
+		Node<E> first = nodes instanceof Node ? (Node<E>) nodes : ((TreeSet<Node<E>>) nodes).first();
+		return index + first.getPosition();
+	}
+
+	/**
+	 * @return the position of the first occurrence of <code>element</code> in
+	 *         the new list at or after the current index, or -1 if not found
+	 */
+	private int newIndexOf(Object element) {
+		Integer first = firstNewIndexes.get(element);
+		if (first == null) {
+			return -1;
+		}
+		// the current index never decreases
+		int newIndex = currentNewIndexes[first.intValue()];
+		while (newIndex != -1 && newIndex < index) {
+			newIndex = nextNewIndexes[newIndex];
+		}
+		currentNewIndexes[first.intValue()] = newIndex;
+		return newIndex;
+	}
+
+	private void add(int position, E element) {
+		Node<E> node = new Node<>(element);
+		pending.add(position - index, node);
+		addNode(node);
+	}
+
+	private void remove(int position) {
+		removeNode(pending.get(position - index));
+		pending.remove(position - index);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addNode(Node<E> node) {
+		Object nodes = nodesByElement.get(node.element);
+		if (nodes == null) {
+			nodesByElement.put(node.element, node);
+		} else if (nodes instanceof Node) {
+			TreeSet<Node<E>> set = new TreeSet<>(byPosition);
+			set.add((Node<E>) nodes);
+			set.add(node);
+			nodesByElement.put(node.element, set);
+		} else {
+			((TreeSet<Node<E>>) nodes).add(node);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void removeNode(Node<E> node) {
+		Object nodes = nodesByElement.get(node.element);
+		if (nodes == node) {
+			nodesByElement.remove(node.element);
+		} else {
+			TreeSet<Node<E>> set = (TreeSet<Node<E>>) nodes;
+			set.remove(node);
+			if (set.size() == 1) {
+				nodesByElement.put(node.element, set.first());
+			}
+		}
+	}
+
+	/**
+	 * A node of the tree of a {@link Sequence}.
+	 */
+	private static final class Node<E> {
+
+		final E element;
+
+		final int priority;
+
+		int size = 1;
+
+		Node<E> left;
+
+		Node<E> right;
+
+		Node<E> parent;
+
+		Node(E element) {
+			this.element = element;
+			this.priority = Sequence.RANDOM.nextInt();
+		}
+
+		/**
+		 * @return the position of the node in its sequence
+		 */
+		int getPosition() {
+			int position = size(left);
+			for (Node<E> node = this; node.parent != null; node = node.parent) {
+				if (node == node.parent.right) {
+					position += size(node.parent.left) + 1;
+				}
+			}
+			return position;
+		}
+
+		void update() {
+			size = 1 + size(left) + size(right);
+			if (left != null) {
+				left.parent = this;
+			}
+			if (right != null) {
+				right.parent = this;
+			}
+		}
+
+		static int size(Node<?> node) {
+			return node == null ? 0 : node.size;
+		}
+	}
+
+	/**
+	 * A list of nodes stored in a treap, which inserts, removes and finds the
+	 * nodes by position in a logarithmic time.
+	 */
+	private static final class Sequence<E> {
+
+		static final Random RANDOM = new Random();
+
+		private Node<E> root;
+
+		/**
+		 * The two parts of the last split.
+		 */
+		private Node<E> first;
+
+		private Node<E> second;
+
+		int size() {
+			return Node.size(root);
+		}
+
+		Node<E> get(int position) {
+			Node<E> node = root;
+			while (true) {
+				int leftSize = Node.size(node.left);
+				if (position < leftSize) {
+					node = node.left;
+				} else if (position == leftSize) {
+					return node;
+				} else {
+					position -= leftSize + 1;
+					node = node.right;
+				}
+			}
+		}
+
+		void add(int position, Node<E> node) {
+			split(root, position);
+			Node<E> tail = second;
+			setRoot(merge(merge(first, node), tail));
+		}
+
+		void remove(int position) {
+			split(root, position);
+			Node<E> head = first;
+			split(second, 1);
+			setRoot(merge(head, second));
+		}
+
+		private void setRoot(Node<E> node) {
+			root = node;
+			if (node != null) {
+				node.parent = null;
+			}
+		}
+
+		/**
+		 * Splits <code>node</code> into the nodes before
+		 * <code>position</code>, stored in {@link #first}, and the others,
+		 * stored in {@link #second}.
+		 */
+		private void split(Node<E> node, int position) {
+			if (node == null) {
+				first = null;
+				second = null;
+				return;
+			}
+			int leftSize = Node.size(node.left);
+			if (position <= leftSize) {
+				split(node.left, position);
+				node.left = second;
+				node.update();
+				second = node;
+			} else {
+				split(node.right, position - leftSize - 1);
+				node.right = first;
+				node.update();
+				first = node;
+			}
+			if (first != null) {
+				first.parent = null;
+			}
+			if (second != null) {
+				second.parent = null;
+			}
+		}
+
+		private Node<E> merge(Node<E> left, Node<E> right) {
+			if (left == null) {
+				return right;
+			}
+			if (right == null) {
+				return left;
+			}
+			if (left.priority > right.priority) {
+				left.right = merge(left.right, right);
+				left.update();
+				return left;
+			}
+			right.left = merge(left, right.left);
+			right.update();
+			return right;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Google, Inc. and others.
+ * Copyright (c) 2015, 2018 Google, Inc. and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,7 @@ import org.eclipse.core.databinding.observable.IObservable;
 import org.eclipse.core.databinding.observable.ObservableTracker;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.databinding.observable.sideeffect.ISideEffect;
+import org.eclipse.core.internal.databinding.observable.DependencySet;
 import org.eclipse.core.runtime.Assert;
 
 /**
@@ -91,6 +92,11 @@ public final class SideEffect implements ISideEffect {
 	 * Dependencies which we are currently listening for change events from
 	 */
 	private IObservable[] dependencies;
+	/**
+	 * True while the runnable runs. The changes it makes to its own
+	 * dependencies do not dirty the side-effect.
+	 */
+	private boolean updating;
 	private Realm realm;
 
 	private PrivateInterface privateInterface = new PrivateInterface();
@@ -181,19 +187,23 @@ public final class SideEffect implements ISideEffect {
 	private void update() {
 		if (dirty && pauseDepth <= 0) {
 			dirty = false;
-			// Hold a reference to the old dependencies to prevent them from
-			// being garbage collected until we've computed the new set. In the
-			// event that a dependency is lazily created, this prevents it from
-			// being destroyed and immediately recreated.
-
-			// Stop listening for dependency changes.
-			stopListening();
+			// Keep listening to the old dependencies until we've computed the
+			// new set, so that only the listeners of the dependencies which
+			// changed are removed or added. In the event that a dependency is
+			// lazily created, this also prevents it from being destroyed and
+			// immediately recreated.
 
 			// This line will do the following:
 			// - Run the calculate method
 			// - While doing so, add any observable that is touched to the
 			// dependencies list
-			IObservable[] newDependencies = ObservableTracker.runAndMonitor(runnable, null, null);
+			IObservable[] newDependencies;
+			updating = true;
+			try {
+				newDependencies = ObservableTracker.runAndMonitor(runnable, null, null);
+			} finally {
+				updating = false;
+			}
 
 			// If the side-effect disposed itself, exit without attaching any
 			// listeners.
@@ -201,9 +211,9 @@ public final class SideEffect implements ISideEffect {
 				return;
 			}
 
-			for (IObservable next : newDependencies) {
-				next.addChangeListener(privateInterface);
-			}
+			DependencySet.update(dependencies, newDependencies,
+					next -> next.addChangeListener(privateInterface),
+					next -> next.removeChangeListener(privateInterface));
 
 			dependencies = newDependencies;
 		}
@@ -334,7 +344,9 @@ public final class SideEffect implements ISideEffect {
 	private class PrivateInterface implements IChangeListener, Runnable {
 		@Override
 		public void handleChange(ChangeEvent event) {
-			markDirtyInternal();
+			if (!updating) {
+				markDirtyInternal();
+			}
 		}
 
 		@Override
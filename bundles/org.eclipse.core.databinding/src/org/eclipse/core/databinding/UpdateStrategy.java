@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -198,58 +198,58 @@ import com.ibm.icu.text.NumberFormat;
 							new Pair("java.lang.String", "java.lang.Boolean"), "org.eclipse.core.internal.databinding.conversion.StringToBooleanConverter"); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Byte"), StringToByteConverter.toByte(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Byte"), StringToByteConverter.toByte(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
 							new Pair("java.lang.String", "java.util.Date"), "org.eclipse.core.internal.databinding.conversion.StringToDateConverter"); //$NON-NLS-1$//$NON-NLS-2$ //$NON-NLS-3$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Short"), StringToShortConverter.toShort(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Short"), StringToShortConverter.toShort(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
 							new Pair("java.lang.String", "java.lang.Character"), StringToCharacterConverter.toCharacter(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Integer"), StringToNumberConverter.toInteger(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Integer"), StringToNumberConverter.toInteger(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Double"), StringToNumberConverter.toDouble(numberFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Double"), StringToNumberConverter.toDouble(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Long"), StringToNumberConverter.toLong(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Long"), StringToNumberConverter.toLong(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.lang.Float"), StringToNumberConverter.toFloat(numberFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.lang.Float"), StringToNumberConverter.toFloat(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.math.BigInteger"), StringToNumberConverter.toBigInteger(integerFormat)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.math.BigInteger"), StringToNumberConverter.toBigInteger()); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.String", "java.math.BigDecimal"), StringToNumberConverter.toBigDecimal(numberFormat)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.String", "java.math.BigDecimal"), StringToNumberConverter.toBigDecimal()); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Integer", "java.lang.String"), NumberToStringConverter.fromInteger(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Integer", "java.lang.String"), NumberToStringConverter.fromInteger(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Long", "java.lang.String"), NumberToStringConverter.fromLong(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Long", "java.lang.String"), NumberToStringConverter.fromLong(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Double", "java.lang.String"), NumberToStringConverter.fromDouble(numberFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Double", "java.lang.String"), NumberToStringConverter.fromDouble(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Float", "java.lang.String"), NumberToStringConverter.fromFloat(numberFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Float", "java.lang.String"), NumberToStringConverter.fromFloat(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.math.BigInteger", "java.lang.String"), NumberToStringConverter.fromBigInteger(integerFormat)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.math.BigInteger", "java.lang.String"), NumberToStringConverter.fromBigInteger()); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.math.BigDecimal", "java.lang.String"), NumberToStringConverter.fromBigDecimal(numberFormat)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.math.BigDecimal", "java.lang.String"), NumberToStringConverter.fromBigDecimal()); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Byte", "java.lang.String"), IntegerToStringConverter.fromByte(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Byte", "java.lang.String"), IntegerToStringConverter.fromByte(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
-							new Pair("java.lang.Short", "java.lang.String"), IntegerToStringConverter.fromShort(integerFormat, false)); //$NON-NLS-1$//$NON-NLS-2$
+							new Pair("java.lang.Short", "java.lang.String"), IntegerToStringConverter.fromShort(false)); //$NON-NLS-1$//$NON-NLS-2$
 			converterMap
 					.put(
 							new Pair("java.lang.Character", "java.lang.String"), CharacterToStringConverter.fromCharacter(false)); //$NON-NLS-1$//$NON-NLS-2$
@@ -261,7 +261,7 @@ import com.ibm.icu.text.NumberFormat;
 			// Integer.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", INTEGER_CLASS), StringToNumberConverter.toInteger(integerFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", INTEGER_CLASS), StringToNumberConverter.toInteger(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(INTEGER_CLASS, "java.lang.Integer"), new IdentityConverter(Integer.class, Integer.class)); //$NON-NLS-1$
@@ -270,18 +270,18 @@ import com.ibm.icu.text.NumberFormat;
 							new Pair(INTEGER_CLASS, "java.lang.Object"), new IdentityConverter(Integer.class, Object.class)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(INTEGER_CLASS, "java.lang.String"), NumberToStringConverter.fromInteger(integerFormat, true)); //$NON-NLS-1$
+							new Pair(INTEGER_CLASS, "java.lang.String"), NumberToStringConverter.fromInteger(true)); //$NON-NLS-1$
 
 			// Byte.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", BYTE_CLASS), StringToByteConverter.toByte(integerFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", BYTE_CLASS), StringToByteConverter.toByte(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(BYTE_CLASS, "java.lang.Byte"), new IdentityConverter(Byte.class, Byte.class)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(BYTE_CLASS, "java.lang.String"), IntegerToStringConverter.fromByte(integerFormat, true)); //$NON-NLS-1$
+							new Pair(BYTE_CLASS, "java.lang.String"), IntegerToStringConverter.fromByte(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(BYTE_CLASS, "java.lang.Object"), new IdentityConverter(Byte.class, Object.class)); //$NON-NLS-1$
@@ -289,10 +289,10 @@ import com.ibm.icu.text.NumberFormat;
 			// Double.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", DOUBLE_CLASS), StringToNumberConverter.toDouble(numberFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", DOUBLE_CLASS), StringToNumberConverter.toDouble(true)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(DOUBLE_CLASS, "java.lang.String"), NumberToStringConverter.fromDouble(numberFormat, true)); //$NON-NLS-1$
+							new Pair(DOUBLE_CLASS, "java.lang.String"), NumberToStringConverter.fromDouble(true)); //$NON-NLS-1$
 
 			converterMap
 					.put(
@@ -318,10 +318,10 @@ import com.ibm.icu.text.NumberFormat;
 			// Float.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", FLOAT_CLASS), StringToNumberConverter.toFloat(numberFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", FLOAT_CLASS), StringToNumberConverter.toFloat(true)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(FLOAT_CLASS, "java.lang.String"), NumberToStringConverter.fromFloat(numberFormat, true)); //$NON-NLS-1$
+							new Pair(FLOAT_CLASS, "java.lang.String"), NumberToStringConverter.fromFloat(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(FLOAT_CLASS, "java.lang.Float"), new IdentityConverter(Float.class, Float.class)); //$NON-NLS-1$
@@ -332,13 +332,13 @@ import com.ibm.icu.text.NumberFormat;
 			// Short.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", SHORT_CLASS), StringToShortConverter.toShort(integerFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", SHORT_CLASS), StringToShortConverter.toShort(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(SHORT_CLASS, "java.lang.Short"), new IdentityConverter(Short.class, Short.class)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(SHORT_CLASS, "java.lang.String"), IntegerToStringConverter.fromShort(integerFormat, true)); //$NON-NLS-1$
+							new Pair(SHORT_CLASS, "java.lang.String"), IntegerToStringConverter.fromShort(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(SHORT_CLASS, "java.lang.Object"), new IdentityConverter(Short.class, Object.class)); //$NON-NLS-1$
@@ -346,10 +346,10 @@ import com.ibm.icu.text.NumberFormat;
 			// Long.class
 			converterMap
 					.put(
-							new Pair("java.lang.String", LONG_CLASS), StringToNumberConverter.toLong(integerFormat, true)); //$NON-NLS-1$
+							new Pair("java.lang.String", LONG_CLASS), StringToNumberConverter.toLong(true)); //$NON-NLS-1$
 			converterMap
 					.put(
-							new Pair(LONG_CLASS, "java.lang.String"), NumberToStringConverter.fromLong(integerFormat, true)); //$NON-NLS-1$
+							new Pair(LONG_CLASS, "java.lang.String"), NumberToStringConverter.fromLong(true)); //$NON-NLS-1$
 			converterMap
 					.put(
 							new Pair(LONG_CLASS, "java.lang.Long"), new IdentityConverter(Long.class, Long.class)); //$NON-NLS-1$
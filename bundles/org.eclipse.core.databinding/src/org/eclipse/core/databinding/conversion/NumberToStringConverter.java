@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,17 +17,21 @@ import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import org.eclipse.core.internal.databinding.conversion.ThreadLocalFormat;
+
 import com.ibm.icu.text.DecimalFormat;
 import com.ibm.icu.text.NumberFormat;
 
 /**
  * Converts a Number to a String using <code>NumberFormat.format(...)</code>.
- * This class is thread safe.
+ * This class is thread safe: a number format given to the converter is used
+ * while synchronized on it, and each thread formats with its own copy of the
+ * number format of the default locale.
  *
  * @since 1.0
  */
 public class NumberToStringConverter extends Converter {
-	private final NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 	private final Class fromType;
 	private boolean fromTypeFitsLong;
 	private boolean fromTypeIsDecimalType;
@@ -66,7 +70,7 @@ public class NumberToStringConverter extends Converter {
 	 * @param numberFormat
 	 * @param fromType
 	 */
-	private NumberToStringConverter(NumberFormat numberFormat, Class fromType) {
+	private NumberToStringConverter(ThreadLocalFormat<NumberFormat> numberFormat, Class fromType) {
 		super(fromType, String.class);
 
 		this.numberFormat = numberFormat;
@@ -107,21 +111,22 @@ public class NumberToStringConverter extends Converter {
 		}
 
 		Number number = (Number) fromObject;
+		NumberFormat format = numberFormat.get();
 		String result = null;
 		if (fromTypeFitsLong) {
-			synchronized (numberFormat) {
-				result = numberFormat.format(number.longValue());
+			synchronized (format) {
+				result = format.format(number.longValue());
 			}
 		} else if (fromTypeIsDecimalType) {
-			synchronized (numberFormat) {
-				result = numberFormat.format(number.doubleValue());
+			synchronized (format) {
+				result = format.format(number.doubleValue());
 			}
 		} else if (fromTypeIsBigInteger) {
-			synchronized (numberFormat) {
-				result = numberFormat.format((BigInteger) number);
+			synchronized (format) {
+				result = format.format((BigInteger) number);
 			}
 		} else if (fromTypeIsBigDecimal) {
-			if(icuBigDecimal != null && icuBigDecimalCtr != null && numberFormat instanceof DecimalFormat) {
+			if(icuBigDecimal != null && icuBigDecimalCtr != null && format instanceof DecimalFormat) {
 				// Full ICU4J present. Convert java.math.BigDecimal to ICU BigDecimal to format. Bug #180392.
 				BigDecimal o = (BigDecimal) fromObject;
 				try {
@@ -132,8 +137,8 @@ public class NumberToStringConverter extends Converter {
 				catch(IllegalAccessException e) {}
 				// Otherwise, replacement plugin present and supports java.math.BigDecimal.
 			}
-			synchronized (numberFormat) {
-				result = numberFormat.format(fromObject);
+			synchronized (format) {
+				result = format.format(fromObject);
 			}
 		}
 
@@ -147,7 +152,7 @@ public class NumberToStringConverter extends Converter {
 	 * @return Double converter for the default locale
 	 */
 	public static NumberToStringConverter fromDouble(boolean primitive) {
-		return fromDouble(NumberFormat.getNumberInstance(), primitive);
+		return fromDouble(ThreadLocalFormat.getNumberInstance(), primitive);
 	}
 
 	/**
@@ -157,6 +162,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromDouble(NumberFormat numberFormat,
 			boolean primitive) {
+		return fromDouble(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromDouble(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Double.TYPE : Double.class);
 	}
@@ -167,7 +177,7 @@ public class NumberToStringConverter extends Converter {
 	 * @return Long converter for the default locale
 	 */
 	public static NumberToStringConverter fromLong(boolean primitive) {
-		return fromLong(NumberFormat.getIntegerInstance(), primitive);
+		return fromLong(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -177,6 +187,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromLong(NumberFormat numberFormat,
 			boolean primitive) {
+		return fromLong(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromLong(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Long.TYPE : Long.class);
 	}
@@ -187,7 +202,7 @@ public class NumberToStringConverter extends Converter {
 	 * @return Float converter for the default locale
 	 */
 	public static NumberToStringConverter fromFloat(boolean primitive) {
-		return fromFloat(NumberFormat.getNumberInstance(), primitive);
+		return fromFloat(ThreadLocalFormat.getNumberInstance(), primitive);
 	}
 
 	/**
@@ -197,6 +212,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromFloat(NumberFormat numberFormat,
 			boolean primitive) {
+		return fromFloat(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromFloat(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Float.TYPE : Float.class);
 	}
@@ -207,7 +227,7 @@ public class NumberToStringConverter extends Converter {
 	 * @return Integer converter for the default locale
 	 */
 	public static NumberToStringConverter fromInteger(boolean primitive) {
-		return fromInteger(NumberFormat.getIntegerInstance(), primitive);
+		return fromInteger(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -217,6 +237,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromInteger(
 			NumberFormat numberFormat, boolean primitive) {
+		return fromInteger(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromInteger(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Integer.TYPE : Integer.class);
 	}
@@ -225,7 +250,7 @@ public class NumberToStringConverter extends Converter {
 	 * @return BigInteger convert for the default locale
 	 */
 	public static NumberToStringConverter fromBigInteger() {
-		return fromBigInteger(NumberFormat.getIntegerInstance());
+		return fromBigInteger(ThreadLocalFormat.getIntegerInstance());
 	}
 
 	/**
@@ -234,6 +259,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromBigInteger(
 			NumberFormat numberFormat) {
+		return fromBigInteger(ThreadLocalFormat.of(numberFormat));
+	}
+
+	private static NumberToStringConverter fromBigInteger(
+			ThreadLocalFormat<NumberFormat> numberFormat) {
 		return new NumberToStringConverter(numberFormat, BigInteger.class);
 	}
 
@@ -242,7 +272,7 @@ public class NumberToStringConverter extends Converter {
 	 * @since 1.2
 	 */
 	public static NumberToStringConverter fromBigDecimal() {
-		return fromBigDecimal(NumberFormat.getNumberInstance());
+		return fromBigDecimal(ThreadLocalFormat.getNumberInstance());
 	}
 
 	/**
@@ -252,6 +282,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromBigDecimal(
 			NumberFormat numberFormat) {
+		return fromBigDecimal(ThreadLocalFormat.of(numberFormat));
+	}
+
+	private static NumberToStringConverter fromBigDecimal(
+			ThreadLocalFormat<NumberFormat> numberFormat) {
 		return new NumberToStringConverter(numberFormat, BigDecimal.class);
 	}
 
@@ -262,7 +297,7 @@ public class NumberToStringConverter extends Converter {
 	 * @since 1.2
 	 */
 	public static NumberToStringConverter fromShort(boolean primitive) {
-		return fromShort(NumberFormat.getIntegerInstance(), primitive);
+		return fromShort(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -273,6 +308,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromShort(
 			NumberFormat numberFormat, boolean primitive) {
+		return fromShort(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromShort(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Short.TYPE : Short.class);
 	}
@@ -284,7 +324,7 @@ public class NumberToStringConverter extends Converter {
 	 * @since 1.2
 	 */
 	public static NumberToStringConverter fromByte(boolean primitive) {
-		return fromByte(NumberFormat.getIntegerInstance(), primitive);
+		return fromByte(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -295,6 +335,11 @@ public class NumberToStringConverter extends Converter {
 	 */
 	public static NumberToStringConverter fromByte(
 			NumberFormat numberFormat, boolean primitive) {
+		return fromByte(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static NumberToStringConverter fromByte(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new NumberToStringConverter(numberFormat,
 				(primitive) ? Byte.TYPE : Byte.class);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,22 +21,25 @@ import java.math.BigInteger;
 
 import org.eclipse.core.internal.databinding.conversion.StringToNumberParser;
 import org.eclipse.core.internal.databinding.conversion.StringToNumberParser.ParseResult;
+import org.eclipse.core.internal.databinding.conversion.ThreadLocalFormat;
 import org.eclipse.core.internal.databinding.validation.NumberFormatConverter;
 
 import com.ibm.icu.text.NumberFormat;
 
 /**
  * Converts a String to a Number using <code>NumberFormat.parse(...)</code>.
- * This class is thread safe.
+ * This class is thread safe: a number format given to the converter is used
+ * while synchronized on it, and each thread parses with its own copy of the
+ * number format of the default locale.
  *
  * @since 1.0
  */
 public class StringToNumberConverter extends NumberFormatConverter {
 	private Class<?> toType;
 	/**
-	 * NumberFormat instance to use for conversion. Access must be synchronized.
+	 * NumberFormat to use for conversion.
 	 */
-	private NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 
 	/**
 	 * Minimum possible value for the type. Can be <code>null</code> as
@@ -115,7 +118,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 *            a convenience that allows for the checking against one type
 	 *            rather than boxed and unboxed types
 	 */
-	private StringToNumberConverter(NumberFormat numberFormat, Class<?> toType,
+	private StringToNumberConverter(ThreadLocalFormat<NumberFormat> numberFormat, Class<?> toType,
 			Number min, Number max, Class<?> boxedType) {
 		super(String.class, toType, numberFormat);
 
@@ -242,7 +245,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to Integer converter for the default locale
 	 */
 	public static StringToNumberConverter toInteger(boolean primitive) {
-		return toInteger(NumberFormat.getIntegerInstance(), primitive);
+		return toInteger(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -252,6 +255,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toInteger(NumberFormat numberFormat,
 			boolean primitive) {
+		return toInteger(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toInteger(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Integer.TYPE : Integer.class, MIN_INTEGER,
 				MAX_INTEGER, Integer.class);
@@ -263,7 +271,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to Double converter for the default locale
 	 */
 	public static StringToNumberConverter toDouble(boolean primitive) {
-		return toDouble(NumberFormat.getNumberInstance(), primitive);
+		return toDouble(ThreadLocalFormat.getNumberInstance(), primitive);
 	}
 
 	/**
@@ -273,6 +281,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toDouble(NumberFormat numberFormat,
 			boolean primitive) {
+		return toDouble(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toDouble(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Double.TYPE : Double.class, MIN_DOUBLE,
 				MAX_DOUBLE, Double.class);
@@ -284,7 +297,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to Long converter for the default locale
 	 */
 	public static StringToNumberConverter toLong(boolean primitive) {
-		return toLong(NumberFormat.getIntegerInstance(), primitive);
+		return toLong(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -294,6 +307,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toLong(NumberFormat numberFormat,
 			boolean primitive) {
+		return toLong(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toLong(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Long.TYPE : Long.class, MIN_LONG, MAX_LONG,
 				Long.class);
@@ -305,7 +323,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to Float converter for the default locale
 	 */
 	public static StringToNumberConverter toFloat(boolean primitive) {
-		return toFloat(NumberFormat.getNumberInstance(), primitive);
+		return toFloat(ThreadLocalFormat.getNumberInstance(), primitive);
 	}
 
 	/**
@@ -315,6 +333,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toFloat(NumberFormat numberFormat,
 			boolean primitive) {
+		return toFloat(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toFloat(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Float.TYPE : Float.class, MIN_FLOAT, MAX_FLOAT,
 				Float.class);
@@ -324,7 +347,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to BigInteger converter for the default locale
 	 */
 	public static StringToNumberConverter toBigInteger() {
-		return toBigInteger(NumberFormat.getIntegerInstance());
+		return toBigInteger(ThreadLocalFormat.getIntegerInstance());
 	}
 
 	/**
@@ -332,6 +355,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @return to BigInteger converter with the provided numberFormat
 	 */
 	public static StringToNumberConverter toBigInteger(NumberFormat numberFormat) {
+		return toBigInteger(ThreadLocalFormat.of(numberFormat));
+	}
+
+	private static StringToNumberConverter toBigInteger(
+			ThreadLocalFormat<NumberFormat> numberFormat) {
 		return new StringToNumberConverter(numberFormat, BigInteger.class,
 				null, null, BigInteger.class);
 	}
@@ -341,7 +369,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @since 1.2
 	 */
 	public static StringToNumberConverter toBigDecimal() {
-		return toBigDecimal(NumberFormat.getNumberInstance());
+		return toBigDecimal(ThreadLocalFormat.getNumberInstance());
 	}
 
 	/**
@@ -350,6 +378,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @since 1.2
 	 */
 	public static StringToNumberConverter toBigDecimal(NumberFormat numberFormat) {
+		return toBigDecimal(ThreadLocalFormat.of(numberFormat));
+	}
+
+	private static StringToNumberConverter toBigDecimal(
+			ThreadLocalFormat<NumberFormat> numberFormat) {
 		return new StringToNumberConverter(numberFormat, BigDecimal.class,
 				null, null, BigDecimal.class);
 	}
@@ -361,7 +394,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @since 1.2
 	 */
 	public static StringToNumberConverter toShort(boolean primitive) {
-		return toShort(NumberFormat.getIntegerInstance(), primitive);
+		return toShort(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -372,6 +405,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toShort(NumberFormat numberFormat,
 			boolean primitive) {
+		return toShort(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toShort(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Short.TYPE : Short.class, MIN_SHORT,
 				MAX_SHORT, Short.class);
@@ -384,7 +422,7 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 * @since 1.2
 	 */
 	public static StringToNumberConverter toByte(boolean primitive) {
-		return toByte(NumberFormat.getIntegerInstance(), primitive);
+		return toByte(ThreadLocalFormat.getIntegerInstance(), primitive);
 	}
 
 	/**
@@ -395,6 +433,11 @@ public class StringToNumberConverter extends NumberFormatConverter {
 	 */
 	public static StringToNumberConverter toByte(NumberFormat numberFormat,
 			boolean primitive) {
+		return toByte(ThreadLocalFormat.of(numberFormat), primitive);
+	}
+
+	private static StringToNumberConverter toByte(
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
 		return new StringToNumberConverter(numberFormat,
 				(primitive) ? Byte.TYPE : Byte.class, MIN_BYTE,
 				MAX_BYTE, Byte.class);
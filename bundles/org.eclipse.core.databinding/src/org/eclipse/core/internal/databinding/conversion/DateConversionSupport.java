@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2005, 2009 db4objects Inc.  http://www.db4o.com
+ * Copyright (C) 2005, 2018 db4objects Inc.  http://www.db4o.com
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -39,16 +39,17 @@ public abstract class DateConversionSupport {
 	/**
 	 * Alternative formatters for date, time and date/time.
 	 * Raw milliseconds are covered as a special case.
+	 * The formatters are shared by the converters of the same locale, each
+	 * thread using its own copies.
 	 */
-	// TODO: These could be shared, but would have to be synchronized.
-	private DateFormat[] formatters = {
-			new SimpleDateFormat(BindingMessages.getString(BindingMessages.DATE_FORMAT_DATE_TIME)),
-			new SimpleDateFormat(BindingMessages.getString(BindingMessages.DATEFORMAT_TIME)),
-			DateFormat.getDateTimeInstance(DATE_FORMAT, DateFormat.SHORT),
-			DateFormat.getDateInstance(DATE_FORMAT),
-			DateFormat.getTimeInstance(DateFormat.SHORT),
-            DateFormat.getDateTimeInstance(DATE_FORMAT,DateFormat.MEDIUM),
-            DateFormat.getTimeInstance(DateFormat.MEDIUM)
+	private final ThreadLocalFormat<?>[] formatters = {
+			ThreadLocalFormat.getDateFormat(BindingMessages.getString(BindingMessages.DATE_FORMAT_DATE_TIME)),
+			ThreadLocalFormat.getDateFormat(BindingMessages.getString(BindingMessages.DATEFORMAT_TIME)),
+			ThreadLocalFormat.getDateTimeInstance(DATE_FORMAT, DateFormat.SHORT),
+			ThreadLocalFormat.getDateTimeInstance(DATE_FORMAT, DateFormat.NONE),
+			ThreadLocalFormat.getDateTimeInstance(DateFormat.NONE, DateFormat.SHORT),
+			ThreadLocalFormat.getDateTimeInstance(DATE_FORMAT, DateFormat.MEDIUM),
+			ThreadLocalFormat.getDateTimeInstance(DateFormat.NONE, DateFormat.MEDIUM)
 	};
 
 	/**
@@ -75,7 +76,7 @@ public abstract class DateConversionSupport {
 				if (str == null) {
 					return null;
 				}
-				Date date=formatters[formatterIdx].parse(str,pos);
+				Date date=formatter(formatterIdx).parse(str,pos);
 				if(pos.getErrorIndex()!=-1||pos.getIndex()!=str.length()) {
 					return null;
 				}
@@ -103,7 +104,7 @@ public abstract class DateConversionSupport {
 		if (date == null)
 			return null;
 		if(formatterIdx>=0) {
-			return formatters[formatterIdx].format(date);
+			return formatter(formatterIdx).format(date);
 		}
 		return String.valueOf(date.getTime());
 	}
@@ -127,6 +128,10 @@ public abstract class DateConversionSupport {
 			throw new IllegalArgumentException("'index' [" + index + "] is out of bounds.");  //$NON-NLS-1$//$NON-NLS-2$
 		}
 
-		return formatters[index];
+		return formatter(index);
+	}
+
+	private DateFormat formatter(int index) {
+		return (DateFormat) formatters[index].get();
 	}
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,12 +22,15 @@ import com.ibm.icu.text.NumberFormat;
  * This class is a temporary as this ability exists in NumberToStringConverter
  * except that short and byte are missing.
  * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
  *
  * @since 1.0
  */
 public class IntegerToStringConverter extends Converter {
 	private final boolean primitive;
-	private final NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 	private final Class boxedType;
 
 	/**
@@ -35,8 +38,8 @@ public class IntegerToStringConverter extends Converter {
 	 * @param fromType
 	 * @param boxedType
 	 */
-	private IntegerToStringConverter(NumberFormat numberFormat, Class fromType,
-			Class boxedType) {
+	private IntegerToStringConverter(ThreadLocalFormat<NumberFormat> numberFormat,
+			Class fromType, Class boxedType) {
 		super(fromType, String.class);
 		this.primitive = fromType.isPrimitive();
 		this.numberFormat = numberFormat;
@@ -55,7 +58,10 @@ public class IntegerToStringConverter extends Converter {
 					"'fromObject' is not of type [" + boxedType + "]."); //$NON-NLS-1$//$NON-NLS-2$
 		}
 
-		return numberFormat.format(((Number) fromObject).longValue());
+		NumberFormat format = numberFormat.get();
+		synchronized (format) {
+			return format.format(((Number) fromObject).longValue());
+		}
 	}
 
 	/**
@@ -63,7 +69,8 @@ public class IntegerToStringConverter extends Converter {
 	 * @return converter
 	 */
 	public static IntegerToStringConverter fromShort(boolean primitive) {
-		return fromShort(NumberFormat.getIntegerInstance(), primitive);
+		return new IntegerToStringConverter(ThreadLocalFormat.getIntegerInstance(),
+				primitive ? Short.TYPE : Short.class, Short.class);
 	}
 
 	/**
@@ -73,7 +80,7 @@ public class IntegerToStringConverter extends Converter {
 	 */
 	public static IntegerToStringConverter fromShort(NumberFormat numberFormat,
 			boolean primitive) {
-		return new IntegerToStringConverter(numberFormat,
+		return new IntegerToStringConverter(ThreadLocalFormat.of(numberFormat),
 				primitive ? Short.TYPE : Short.class, Short.class);
 	}
 
@@ -82,7 +89,8 @@ public class IntegerToStringConverter extends Converter {
 	 * @return converter
 	 */
 	public static IntegerToStringConverter fromByte(boolean primitive) {
-		return fromByte(NumberFormat.getIntegerInstance(), primitive);
+		return new IntegerToStringConverter(ThreadLocalFormat.getIntegerInstance(),
+				primitive ? Byte.TYPE : Byte.class, Byte.class);
 	}
 
 	/**
@@ -92,7 +100,7 @@ public class IntegerToStringConverter extends Converter {
 	 */
 	public static IntegerToStringConverter fromByte(NumberFormat numberFormat,
 			boolean primitive) {
-		return new IntegerToStringConverter(numberFormat, primitive ? Byte.TYPE
-				: Byte.class, Byte.class);
+		return new IntegerToStringConverter(ThreadLocalFormat.of(numberFormat),
+				primitive ? Byte.TYPE : Byte.class, Byte.class);
 	}
 }
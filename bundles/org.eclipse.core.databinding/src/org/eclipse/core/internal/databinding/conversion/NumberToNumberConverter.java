@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,7 +24,7 @@ import com.ibm.icu.text.NumberFormat;
  * @since 1.0
  */
 public abstract class NumberToNumberConverter extends Converter {
-	private NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 
 	private boolean primitive;
 
@@ -33,7 +33,8 @@ public abstract class NumberToNumberConverter extends Converter {
 	protected NumberToNumberConverter(NumberFormat numberFormat,
 			Class fromType, Class toType) {
 		super(fromType, toType);
-		this.numberFormat = numberFormat;
+		this.numberFormat = numberFormat == null ? null : ThreadLocalFormat
+				.of(numberFormat);
 		this.primitive = toType.isPrimitive();
 	}
 
@@ -81,12 +82,11 @@ public abstract class NumberToNumberConverter extends Converter {
 	protected abstract Number doConvert(Number number);
 
 	/**
-	 * NumberFormat being used by the converter. Access to the format must be
-	 * synchronized on the number format instance.
+	 * NumberFormat being used by the converter, used while synchronized on it.
 	 *
 	 * @return number format
 	 */
-	public NumberFormat getNumberFormat() {
+	public ThreadLocalFormat<NumberFormat> getNumberFormat() {
 		return numberFormat;
 	}
 }
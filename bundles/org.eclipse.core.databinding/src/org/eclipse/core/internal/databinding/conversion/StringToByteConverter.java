@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2005, 2015 db4objects Inc.  http://www.db4o.com
+ * Copyright (C) 2005, 2018 db4objects Inc.  http://www.db4o.com
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -21,14 +21,14 @@ import com.ibm.icu.text.NumberFormat;
  */
 public class StringToByteConverter extends NumberFormatConverter {
 	private String outOfRangeMessage;
-	private NumberFormat numberFormat;
+	private ThreadLocalFormat<NumberFormat> numberFormat;
 	private boolean primitive;
 
 	/**
 	 * @param numberFormat
 	 * @param toType
 	 */
-	private StringToByteConverter(NumberFormat numberFormat, Class toType) {
+	private StringToByteConverter(ThreadLocalFormat<NumberFormat> numberFormat, Class toType) {
 		super(String.class, toType, numberFormat);
 		primitive = toType.isPrimitive();
 		this.numberFormat = numberFormat;
@@ -41,7 +41,7 @@ public class StringToByteConverter extends NumberFormatConverter {
 	 */
 	public static StringToByteConverter toByte(NumberFormat numberFormat,
 			boolean primitive) {
-		return new StringToByteConverter(numberFormat, (primitive) ? Byte.TYPE : Byte.class);
+		return new StringToByteConverter(ThreadLocalFormat.of(numberFormat), (primitive) ? Byte.TYPE : Byte.class);
 	}
 
 	/**
@@ -49,7 +49,8 @@ public class StringToByteConverter extends NumberFormatConverter {
 	 * @return converter
 	 */
 	public static StringToByteConverter toByte(boolean primitive) {
-		return toByte(NumberFormat.getIntegerInstance(), primitive);
+		return new StringToByteConverter(ThreadLocalFormat.getIntegerInstance(),
+				(primitive) ? Byte.TYPE : Byte.class);
 	}
 
 	@Override
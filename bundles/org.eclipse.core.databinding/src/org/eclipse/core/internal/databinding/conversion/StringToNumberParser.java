@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,11 +38,35 @@ public class StringToNumberParser {
 	/**
 	 * @param value
 	 * @param numberFormat
+	 *            when accessed method synchronizes on instance
 	 * @param primitive
 	 * @return result
 	 */
 	public static ParseResult parse(Object value, NumberFormat numberFormat,
 			boolean primitive) {
+		synchronized (numberFormat) {
+			return doParse(value, numberFormat, primitive);
+		}
+	}
+
+	/**
+	 * Parses the value with the number format of the current thread.
+	 *
+	 * @param value
+	 * @param numberFormat
+	 * @param primitive
+	 * @return result
+	 */
+	public static ParseResult parse(Object value,
+			ThreadLocalFormat<NumberFormat> numberFormat, boolean primitive) {
+		NumberFormat format = numberFormat.get();
+		synchronized (format) {
+			return doParse(value, format, primitive);
+		}
+	}
+
+	private static ParseResult doParse(Object value, NumberFormat numberFormat,
+			boolean primitive) {
 		if (!(value instanceof String)) {
 			throw new IllegalArgumentException(
 					"Value to convert is not a String"); //$NON-NLS-1$
@@ -54,18 +78,16 @@ public class StringToNumberParser {
 			return result;
 		}
 
-		synchronized (numberFormat) {
-			ParsePosition position = new ParsePosition(0);
-			Number parseResult = null;
-			parseResult = numberFormat.parse(source, position);
+		ParsePosition position = new ParsePosition(0);
+		Number parseResult = null;
+		parseResult = numberFormat.parse(source, position);
 
-			if (position.getIndex() != source.length()
-					|| position.getErrorIndex() > -1) {
+		if (position.getIndex() != source.length()
+				|| position.getErrorIndex() > -1) {
 
-				result.position = position;
-			} else {
-				result.number = parseResult;
-			}
+			result.position = position;
+		} else {
+			result.number = parseResult;
 		}
 
 		return result;
@@ -148,6 +170,28 @@ public class StringToNumberParser {
 				"Validate_NumberOutOfRangeError", new Object[] { min, max }); //$NON-NLS-1$
 	}
 
+	/**
+	 * Formats an appropriate message for an out of range error, with the
+	 * number format of the current thread.
+	 *
+	 * @param minValue
+	 * @param maxValue
+	 * @param numberFormat
+	 * @return message
+	 */
+	public static String createOutOfRangeMessage(Number minValue,
+			Number maxValue, ThreadLocalFormat<NumberFormat> numberFormat) {
+		NumberFormat format = numberFormat.get();
+		String min;
+		String max;
+		synchronized (format) {
+			min = format.format(minValue);
+			max = format.format(maxValue);
+		}
+		return BindingMessages.formatString(
+				"Validate_NumberOutOfRangeError", new Object[] { min, max }); //$NON-NLS-1$
+	}
+
 	/**
 	 * Returns <code>true</code> if the provided <code>number</code> is in the
 	 * range of a integer.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,7 @@ import com.ibm.icu.text.NumberFormat;
  * @since 1.0
  */
 public class StringToShortConverter extends NumberFormatConverter {
-	private final NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 	private final boolean primitive;
 
 	private String outOfRangeMessage;
@@ -28,7 +28,7 @@ public class StringToShortConverter extends NumberFormatConverter {
 	/**
 	 * Constructs a new instance.
 	 */
-	private StringToShortConverter(NumberFormat numberFormat, Class toType) {
+	private StringToShortConverter(ThreadLocalFormat<NumberFormat> numberFormat, Class toType) {
 		super(String.class, toType, numberFormat);
 		this.numberFormat = numberFormat;
 		primitive = toType.isPrimitive();
@@ -72,7 +72,8 @@ public class StringToShortConverter extends NumberFormatConverter {
 	 * @return to Short converter for the default locale
 	 */
 	public static StringToShortConverter toShort(boolean primitive) {
-		return toShort(NumberFormat.getIntegerInstance(), primitive);
+		return new StringToShortConverter(ThreadLocalFormat.getIntegerInstance(),
+				(primitive) ? Short.TYPE : Short.class);
 	}
 
 	/**
@@ -82,7 +83,7 @@ public class StringToShortConverter extends NumberFormatConverter {
 	 */
 	public static StringToShortConverter toShort(NumberFormat numberFormat,
 			boolean primitive) {
-		return new StringToShortConverter(numberFormat,
+		return new StringToShortConverter(ThreadLocalFormat.of(numberFormat),
 				(primitive) ? Short.TYPE : Short.class);
 	}
 }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.conversion;
+
+import java.text.Format;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Locale.Category;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.ibm.icu.text.DateFormat;
+import com.ibm.icu.text.NumberFormat;
+import com.ibm.icu.text.SimpleDateFormat;
+
+/**
+ * Holds the format of a converter or validator which may be called from any
+ * realm.
+ * <p>
+ * A format given by the client is kept as is, so that the changes the client
+ * makes to it are seen, and every thread gets that same instance. The formats
+ * of the default locale are created by the converters themselves: each thread
+ * gets its own copy of them, and they are shared by all the converters, keyed
+ * by their kind, locale and pattern.
+ * </p>
+ * <p>
+ * Number formats are used while synchronized on the instance returned by
+ * {@link #get()}, as the converters always did. The lock on a copy is never
+ * contended.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @param <F>
+ *            the type of the format
+ */
+public final class ThreadLocalFormat<F extends Format> {
+	private static final Map<Object, ThreadLocalFormat<?>> sharedFormats = new ConcurrentHashMap<>();
+
+	/**
+	 * The format of the client, or <code>null</code> if each thread has its
+	 * own copy.
+	 */
+	private final F format;
+
+	private final ThreadLocal<F> formats;
+
+	private ThreadLocalFormat(F format, ThreadLocal<F> formats) {
+		this.format = format;
+		this.formats = formats;
+	}
+
+	/**
+	 * @param format
+	 *            the format of the client, used by all the threads
+	 * @return the holder of <code>format</code>
+	 */
+	public static <F extends Format> ThreadLocalFormat<F> of(F format) {
+		if (format == null) {
+			throw new IllegalArgumentException("Parameter 'format' cannot be null."); //$NON-NLS-1$
+		}
+		return new ThreadLocalFormat<>(format, null);
+	}
+
+	/**
+	 * Returns the format to use in the current thread: either a copy private
+	 * to the thread, or the format of the client, shared by all the threads.
+	 * Number formats are used while synchronized on it.
+	 *
+	 * @return the format of the current thread
+	 */
+	public F get() {
+		return format != null ? format : formats.get();
+	}
+
+	/**
+	 * @return the integer format of the default locale
+	 * @see NumberFormat#getIntegerInstance()
+	 */
+	public static ThreadLocalFormat<NumberFormat> getIntegerInstance() {
+		Locale locale = Locale.getDefault(Category.FORMAT);
+		return shared(() -> NumberFormat.getIntegerInstance(locale), "integer", locale); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the number format of the default locale
+	 * @see NumberFormat#getNumberInstance()
+	 */
+	public static ThreadLocalFormat<NumberFormat> getNumberInstance() {
+		Locale locale = Locale.getDefault(Category.FORMAT);
+		return shared(() -> NumberFormat.getNumberInstance(locale), "number", locale); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param pattern
+	 *            the date pattern
+	 * @return the date format of the default locale with the given pattern
+	 * @see SimpleDateFormat#SimpleDateFormat(String)
+	 */
+	public static ThreadLocalFormat<DateFormat> getDateFormat(String pattern) {
+		Locale locale = Locale.getDefault(Category.FORMAT);
+		return shared(() -> new SimpleDateFormat(pattern, locale), "pattern", locale, pattern); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param dateStyle
+	 *            the date style, or -1 for no date
+	 * @param timeStyle
+	 *            the time style, or -1 for no time
+	 * @return the date format of the default locale with the given styles
+	 * @see DateFormat#getDateTimeInstance(int, int)
+	 */
+	public static ThreadLocalFormat<DateFormat> getDateTimeInstance(int dateStyle, int timeStyle) {
+		Locale locale = Locale.getDefault(Category.FORMAT);
+		return shared(() -> DateFormat.getDateTimeInstance(dateStyle, timeStyle, locale), "style", locale, //$NON-NLS-1$
+				Integer.valueOf(dateStyle), Integer.valueOf(timeStyle));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <F extends Format> ThreadLocalFormat<F> shared(Supplier<F> factory, Object... key) {
+		return (ThreadLocalFormat<F>) sharedFormats.computeIfAbsent(Arrays.asList(key), k -> {
+			F template = factory.get();
+			return new ThreadLocalFormat<>(null, ThreadLocal.withInitial(() -> (F) template.clone()));
+		});
+	}
+}
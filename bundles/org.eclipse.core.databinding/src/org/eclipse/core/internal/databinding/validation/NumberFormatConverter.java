@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,16 +12,19 @@
 package org.eclipse.core.internal.databinding.validation;
 
 import org.eclipse.core.databinding.conversion.Converter;
+import org.eclipse.core.internal.databinding.conversion.ThreadLocalFormat;
 
 import com.ibm.icu.text.NumberFormat;
 
 /**
- * Converter that uses a number format for conversion.
+ * Converter that uses a number format for conversion. A number format given to
+ * the converter is used while synchronized on it; each thread converts with its
+ * own copy of a format of the default locale.
  *
  * @since 1.0
  */
 public abstract class NumberFormatConverter extends Converter {
-	private final NumberFormat numberFormat;
+	private final ThreadLocalFormat<NumberFormat> numberFormat;
 
 	/**
 	 * @param fromType
@@ -29,6 +32,15 @@ public abstract class NumberFormatConverter extends Converter {
 	 * @param numberFormat
 	 */
 	public NumberFormatConverter(Object fromType, Object toType, NumberFormat numberFormat) {
+		this(fromType, toType, ThreadLocalFormat.of(numberFormat));
+	}
+
+	/**
+	 * @param fromType
+	 * @param toType
+	 * @param numberFormat
+	 */
+	public NumberFormatConverter(Object fromType, Object toType, ThreadLocalFormat<NumberFormat> numberFormat) {
 		super(fromType, toType);
 
 		this.numberFormat = numberFormat;
@@ -37,7 +49,7 @@ public abstract class NumberFormatConverter extends Converter {
 	/**
 	 * @return number format
 	 */
-	/*package */ NumberFormat getNumberFormat() {
+	/*package */ ThreadLocalFormat<NumberFormat> getNumberFormat() {
 		return numberFormat;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2014 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,8 @@ public class BindingServiceImpl implements EBindingService {
 
 	private ContextSet contextSet = ContextSet.EMPTY;
 
+	private volatile BindingTrie bindingTrie;
+
 	@Override
 	public Binding createBinding(TriggerSequence sequence, ParameterizedCommand command,
 			String contextId, Map<String, String> attributes) {
@@ -157,6 +159,23 @@ public class BindingServiceImpl implements EBindingService {
 		return manager.getPartialMatches(contextSet, sequence);
 	}
 
+	/**
+	 * Return the bindings of the active contexts compiled into a trie, for the
+	 * key binding dispatcher to resolve each key stroke with one lookup. The
+	 * trie is compiled on first use after the active contexts, the active
+	 * schemes or the bindings change.
+	 *
+	 * @return the trie of the active bindings
+	 */
+	public BindingTrie getBindingTrie() {
+		BindingTrie trie = bindingTrie;
+		if (trie == null || trie.getContextSet() != contextSet || !manager.isCurrent(trie)) {
+			trie = manager.compile(contextSet);
+			bindingTrie = trie;
+		}
+		return trie;
+	}
+
 	/**
 	 * @return the context for this service.
 	 */
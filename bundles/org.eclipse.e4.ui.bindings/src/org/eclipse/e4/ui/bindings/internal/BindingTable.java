@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2014 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -127,6 +128,7 @@ public class BindingTable {
 	private Map<TriggerSequence, ArrayList<Binding>> bindingsByPrefix = new HashMap<TriggerSequence, ArrayList<Binding>>();
 	private Map<TriggerSequence, ArrayList<Binding>> conflicts = new HashMap<TriggerSequence, ArrayList<Binding>>();
 	private Map<TriggerSequence, ArrayList<Binding>> orderedBindingsByTrigger = new HashMap<TriggerSequence, ArrayList<Binding>>();
+	private int modificationCount;
 
 	/**
 	 * @param context
@@ -172,12 +174,10 @@ public class BindingTable {
 					orderedBindingsByTrigger.put(binding.getTriggerSequence(), bindingList);
 				}
 				bindingList.add(binding);
-				bindingList.add(possibleConflict);
-				Collections.sort(bindingList, BEST_SEQUENCE);
+				insertSorted(bindingList, possibleConflict);
 			}
 		} else {
-			bindingList.add(binding);
-			Collections.sort(bindingList, BEST_SEQUENCE);
+			insertSorted(bindingList, binding);
 		}
 
 		if (possibleConflict != null && bindingList != null && !bindingList.isEmpty()
@@ -187,6 +187,27 @@ public class BindingTable {
 		}
 
 		evaluateOrderedBindings(binding.getTriggerSequence(), binding);
+		modificationCount++;
+	}
+
+	/**
+	 * Insert <code>binding</code> into <code>list</code>, which is sorted by
+	 * {@link #BEST_SEQUENCE}, after the bindings comparing equal to it. The
+	 * list is in the same order as if the binding were appended and the list
+	 * sorted again.
+	 */
+	private static void insertSorted(List<Binding> list, Binding binding) {
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (BEST_SEQUENCE.compare(list.get(mid), binding) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		list.add(low, binding);
 	}
 
 	private void addBindingSimple(Binding binding) {
@@ -198,8 +219,7 @@ public class BindingTable {
 			sequences = new ArrayList<Binding>();
 			bindingsByCommand.put(binding.getParameterizedCommand(), sequences);
 		}
-		sequences.add(binding);
-		Collections.sort(sequences, BEST_SEQUENCE);
+		insertSorted(sequences, binding);
 
 		TriggerSequence[] prefs = binding.getTriggerSequence().getPrefixes();
 		for (int i = 1; i < prefs.length; i++) {
@@ -254,6 +274,7 @@ public class BindingTable {
 				evaluateOrderedBindings(binding.getTriggerSequence(), null);
 			}
 		}
+		modificationCount++;
 	}
 
 	/**
@@ -337,6 +358,24 @@ public class BindingTable {
 		return bindingsByPrefix.get(seq) != null;
 	}
 
+	/**
+	 * @return the number of times a binding was added or removed, to detect
+	 *         the compiled tries which are out of date
+	 */
+	int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Add the trigger sequences this table has a perfect match, a partial
+	 * match or conflicts for.
+	 */
+	void collectTriggerSequences(Collection<TriggerSequence> sequences) {
+		sequences.addAll(bindingsByTrigger.keySet());
+		sequences.addAll(bindingsByPrefix.keySet());
+		sequences.addAll(conflicts.keySet());
+	}
+
 	public Collection<Binding> getBindings() {
 		return Collections.unmodifiableCollection(bindings);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,10 @@ package org.eclipse.e4.ui.bindings.internal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 import javax.inject.Inject;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.contexts.Context;
@@ -36,6 +38,13 @@ public class BindingTableManager {
 
 	private String[] activeSchemeIds;
 
+	/**
+	 * Incremented each time a table or the active schemes change, to detect
+	 * the compiled tries which are out of date. The tables count the changes
+	 * of their bindings.
+	 */
+	private int generation;
+
 	public void addTable(BindingTable table) {
 		String contextId = getTableId(table.getId());
 		if (eclipseContext.containsKey(contextId)) {
@@ -43,6 +52,7 @@ public class BindingTableManager {
 			//			throw new IllegalArgumentException("Already contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.set(contextId, table);
+		generation++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (!contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -61,6 +71,7 @@ public class BindingTableManager {
 			throw new IllegalArgumentException("Does not contains table " + contextId); //$NON-NLS-1$
 		}
 		eclipseContext.remove(contextId);
+		generation++;
 		final List<Context> contexts = definedTables.getContexts();
 		if (contexts.contains(table.getTableId())) {
 			// this is only valid because I'm throwing away the old definedTables contextSet
@@ -234,12 +245,66 @@ public class BindingTableManager {
 		return bindings;
 	}
 
+	/**
+	 * Compile the bindings of the tables of <code>contextSet</code> into a
+	 * trie answering the same queries as this manager for the context set.
+	 *
+	 * @param contextSet
+	 *            the active contexts
+	 * @return the trie, which stays valid until {@link #isCurrent(BindingTrie)}
+	 *         returns <code>false</code>
+	 */
+	public BindingTrie compile(ContextSet contextSet) {
+		List<Context> contexts = contextSet.getContexts();
+		BindingTable[] tables = new BindingTable[contexts.size()];
+		int[] modificationCounts = new int[tables.length];
+		Set<TriggerSequence> sequences = new LinkedHashSet<TriggerSequence>();
+		for (int i = 0; i < tables.length; i++) {
+			BindingTable table = getTable(contexts.get(i).getId());
+			if (table != null) {
+				tables[i] = table;
+				modificationCounts[i] = table.getModificationCount();
+				table.collectTriggerSequences(sequences);
+			}
+		}
+		BindingTrie trie = new BindingTrie(contextSet, generation, tables, modificationCounts);
+		for (TriggerSequence sequence : sequences) {
+			trie.add(sequence).setMatches(getPerfectMatch(contextSet, sequence),
+					getConflictsFor(contextSet, sequence), isPartialMatch(contextSet, sequence),
+					getPartialMatches(contextSet, sequence));
+		}
+		return trie;
+	}
+
+	/**
+	 * @param trie
+	 *            a compiled trie
+	 * @return whether no table, binding or active scheme changed since
+	 *         <code>trie</code> was compiled
+	 */
+	public boolean isCurrent(BindingTrie trie) {
+		if (trie.getGeneration() != generation) {
+			return false;
+		}
+		// the tables may also be added or removed through a parent context
+		List<Context> contexts = trie.getContextSet().getContexts();
+		for (int i = 0; i < contexts.size(); i++) {
+			BindingTable table = getTable(contexts.get(i).getId());
+			if (table != trie.getTable(i)
+					|| table != null && table.getModificationCount() != trie.getModificationCount(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * @param activeSchemeIds
 	 */
 	public void setActiveSchemes(String[] activeSchemeIds) {
 		this.activeSchemeIds = activeSchemeIds;
 		BindingTable.BEST_SEQUENCE.setActiveSchemes(activeSchemeIds);
+		generation++;
 	}
 
 	/*
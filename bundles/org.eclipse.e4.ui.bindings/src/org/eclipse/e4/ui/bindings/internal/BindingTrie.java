@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.bindings.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.Trigger;
+import org.eclipse.jface.bindings.TriggerSequence;
+
+/**
+ * The bindings of the tables of a {@link ContextSet}, compiled into a trie of
+ * triggers. Each node holds the answers of the {@link BindingTableManager}
+ * for the trigger sequence leading to it, so that a key stroke is resolved by
+ * following a single edge from the node of the previous key strokes.
+ * <p>
+ * A trie is immutable. The {@link BindingTableManager} compiles a new one when
+ * the active contexts, the active schemes or the bindings change.
+ * </p>
+ */
+public final class BindingTrie {
+
+	/**
+	 * The node of a trigger sequence no binding starts with.
+	 */
+	public static final Node NO_MATCH = new Node();
+
+	/**
+	 * The bindings of a trigger sequence.
+	 */
+	public static final class Node {
+
+		private Binding perfectMatch;
+
+		private Collection<Binding> conflicts;
+
+		private boolean partialMatch;
+
+		private Collection<Binding> partialMatches = Collections.emptyList();
+
+		private Map<Trigger, Node> children = Collections.emptyMap();
+
+		Node() {
+		}
+
+		/**
+		 * @param trigger
+		 *            the next trigger
+		 * @return the node of the sequence followed by <code>trigger</code>,
+		 *         never <code>null</code>
+		 */
+		public Node getChild(Trigger trigger) {
+			Node child = children.get(trigger);
+			return child == null ? NO_MATCH : child;
+		}
+
+		/**
+		 * @return the binding of the sequence, or <code>null</code>
+		 * @see BindingTableManager#getPerfectMatch(ContextSet, TriggerSequence)
+		 */
+		public Binding getPerfectMatch() {
+			return perfectMatch;
+		}
+
+		/**
+		 * @return the conflicting bindings of the sequence, or
+		 *         <code>null</code>
+		 * @see BindingTableManager#getConflictsFor(ContextSet, TriggerSequence)
+		 */
+		public Collection<Binding> getConflicts() {
+			return conflicts;
+		}
+
+		/**
+		 * @return whether the sequence is a prefix of a binding
+		 * @see BindingTableManager#isPartialMatch(ContextSet, TriggerSequence)
+		 */
+		public boolean isPartialMatch() {
+			return partialMatch;
+		}
+
+		/**
+		 * @return the bindings starting with the sequence, never
+		 *         <code>null</code>
+		 * @see BindingTableManager#getPartialMatches(ContextSet,
+		 *      TriggerSequence)
+		 */
+		public Collection<Binding> getPartialMatches() {
+			return partialMatches;
+		}
+
+		Node addChild(Trigger trigger) {
+			if (children.isEmpty()) {
+				children = new HashMap<Trigger, Node>(4);
+			}
+			Node child = children.get(trigger);
+			if (child == null) {
+				child = new Node();
+				children.put(trigger, child);
+			}
+			return child;
+		}
+
+		void setMatches(Binding perfectMatch, Collection<Binding> conflicts, boolean partialMatch,
+				Collection<Binding> partialMatches) {
+			this.perfectMatch = perfectMatch;
+			this.conflicts = conflicts == null ? null : toList(conflicts);
+			this.partialMatch = partialMatch;
+			if (!partialMatches.isEmpty()) {
+				this.partialMatches = toList(partialMatches);
+			}
+		}
+
+		private static List<Binding> toList(Collection<Binding> bindings) {
+			return Collections.unmodifiableList(new ArrayList<Binding>(bindings));
+		}
+	}
+
+	private final ContextSet contextSet;
+
+	private final int generation;
+
+	/**
+	 * The table of each context when the trie was compiled, or
+	 * <code>null</code>.
+	 */
+	private final BindingTable[] tables;
+
+	/**
+	 * The modification count of each table when the trie was compiled.
+	 */
+	private final int[] modificationCounts;
+
+	private final Node root = new Node();
+
+	/**
+	 * The nodes by trigger sequence, to look up a sequence without walking
+	 * down its triggers.
+	 */
+	private final Map<TriggerSequence, Node> nodes = new HashMap<TriggerSequence, Node>();
+
+	BindingTrie(ContextSet contextSet, int generation, BindingTable[] tables, int[] modificationCounts) {
+		this.contextSet = contextSet;
+		this.generation = generation;
+		this.tables = tables;
+		this.modificationCounts = modificationCounts;
+	}
+
+	/**
+	 * @return the contexts which bindings are compiled
+	 */
+	public ContextSet getContextSet() {
+		return contextSet;
+	}
+
+	int getGeneration() {
+		return generation;
+	}
+
+	BindingTable getTable(int index) {
+		return tables[index];
+	}
+
+	int getModificationCount(int index) {
+		return modificationCounts[index];
+	}
+
+	/**
+	 * @return the node of the empty sequence
+	 */
+	public Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * @param sequence
+	 *            the trigger sequence
+	 * @return the node of <code>sequence</code>, never <code>null</code>
+	 */
+	public Node getNode(TriggerSequence sequence) {
+		if (sequence.isEmpty()) {
+			return root;
+		}
+		Node node = nodes.get(sequence);
+		return node == null ? NO_MATCH : node;
+	}
+
+	Node add(TriggerSequence sequence) {
+		Node node = nodes.get(sequence);
+		if (node == null) {
+			// the prefixes of the sequence lead to its node
+			TriggerSequence[] prefixes = sequence.getPrefixes();
+			Trigger[] triggers = sequence.getTriggers();
+			node = root;
+			for (int i = 0; i < triggers.length; i++) {
+				node = node.addChild(triggers[i]);
+				nodes.put(i + 1 < prefixes.length ? prefixes[i + 1] : sequence, node);
+			}
+		}
+		return node;
+	}
+}
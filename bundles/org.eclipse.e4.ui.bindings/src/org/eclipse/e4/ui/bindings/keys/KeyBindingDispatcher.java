@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,8 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.bindings.EBindingService;
+import org.eclipse.e4.ui.bindings.internal.BindingServiceImpl;
+import org.eclipse.e4.ui.bindings.internal.BindingTrie;
 import org.eclipse.e4.ui.bindings.internal.KeyAssistDialog;
 import org.eclipse.jface.bindings.Binding;
 import org.eclipse.jface.bindings.keys.KeySequence;
@@ -457,43 +459,55 @@ public class KeyBindingDispatcher {
 	}
 
 	/**
-	 * Determines whether the key sequence partially matches on of the active key bindings.
+	 * Returns the node of the trie of the active bindings reached by the key sequence.
 	 *
+	 * @param trie
+	 *            The trie of the active bindings; may be <code>null</code>.
 	 * @param keySequence
-	 *            The key sequence to check for a partial match; must never be <code>null</code>.
-	 * @return <code>true</code> if there is a partial match; <code>false</code> otherwise.
+	 *            The key sequence before the key stroke; must never be <code>null</code>.
+	 * @param keyStroke
+	 *            The key stroke; must never be <code>null</code>.
+	 * @return The node, or <code>null</code> if there is no trie.
+	 */
+	private static BindingTrie.Node getNode(BindingTrie trie, KeySequence keySequence, KeyStroke keyStroke) {
+		return trie == null ? null : trie.getNode(keySequence).getChild(keyStroke);
+	}
+
+	/**
+	 * @return The trie of the active bindings, or <code>null</code> if the binding service does
+	 *         not compile its bindings.
 	 */
-	private boolean isPartialMatch(KeySequence keySequence) {
-		return getBindingService().isPartialMatch(keySequence);
+	private BindingTrie getBindingTrie() {
+		EBindingService service = getBindingService();
+		return service instanceof BindingServiceImpl ? ((BindingServiceImpl) service).getBindingTrie() : null;
 	}
 
 	/**
-	 * Determines whether the key sequence perfectly matches on of the active key
-	 * bindings.
+	 * Determines whether the key sequence partially matches on of the active key bindings.
 	 *
 	 * @param keySequence
-	 *            The key sequence to check for a perfect match; must never be
-	 *            <code>null</code>.
-	 * @param context
-	 * @return <code>true</code> if there is a perfect match; <code>false</code>
-	 *         otherwise.
+	 *            The key sequence to check for a partial match; must never be <code>null</code>.
+	 * @param node
+	 *            The node of the key sequence; may be <code>null</code>.
+	 * @return <code>true</code> if there is a partial match; <code>false</code> otherwise.
 	 */
-	private boolean isUniqueMatch(KeySequence keySequence, IEclipseContext context) {
-		return getBindingService().isPerfectMatch(keySequence)
-				|| getExecutableMatches(keySequence, context).size() == 1;
+	private boolean isPartialMatch(KeySequence keySequence, BindingTrie.Node node) {
+		return node == null ? getBindingService().isPartialMatch(keySequence) : node.isPartialMatch();
 	}
 
 	/**
 	 * @param keySequence
-	 * @param context2
-	 * @return
+	 * @param node
+	 *            The node of the key sequence; may be <code>null</code>.
+	 * @return the bindings of the key sequence which can be executed
 	 */
-	private Collection<Binding> getExecutableMatches(KeySequence keySequence, IEclipseContext context2) {
-		Binding binding = getBindingService().getPerfectMatch(keySequence);
+	private Collection<Binding> getExecutableMatches(KeySequence keySequence, BindingTrie.Node node) {
+		Binding binding = node == null ? getBindingService().getPerfectMatch(keySequence) : node.getPerfectMatch();
 		if (binding != null) {
 			return Collections.singleton(binding);
 		}
-		Collection<Binding> conflicts = getBindingService().getConflictsFor(keySequence);
+		Collection<Binding> conflicts = node == null ? getBindingService().getConflictsFor(keySequence)
+				: node.getConflicts();
 		if (conflicts != null) {
 			return conflicts.stream()
 					.filter(match -> getHandlerService().canExecute(match.getParameterizedCommand(), context))
@@ -511,18 +525,20 @@ public class KeyBindingDispatcher {
 		KeySequence errorSequence = null;
 		Collection<Binding> errorMatch = null;
 
-		IEclipseContext createContext = createContext(event);
 		KeySequence sequenceBeforeKeyStroke = state;
+		BindingTrie trie = getBindingTrie();
 		for (KeyStroke keyStroke : potentialKeyStrokes) {
 			KeySequence sequenceAfterKeyStroke = KeySequence.getInstance(sequenceBeforeKeyStroke,
 					keyStroke);
-			if (isPartialMatch(sequenceAfterKeyStroke)) {
+			BindingTrie.Node node = getNode(trie, sequenceBeforeKeyStroke, keyStroke);
+			if (isPartialMatch(sequenceAfterKeyStroke, node)) {
 				incrementState(sequenceAfterKeyStroke);
 				return true;
+			}
 
-			} else if (isUniqueMatch(sequenceAfterKeyStroke, createContext)) {
-				final ParameterizedCommand cmd = getExecutableMatches(sequenceAfterKeyStroke, context).iterator().next()
-						.getParameterizedCommand();
+			Collection<Binding> executableMatches = getExecutableMatches(sequenceAfterKeyStroke, node);
+			if (executableMatches.size() == 1) {
+				final ParameterizedCommand cmd = executableMatches.iterator().next().getParameterizedCommand();
 				try {
 					return executeCommand(cmd, event) || !sequenceBeforeKeyStroke.isEmpty();
 				} catch (final CommandException e) {
@@ -538,12 +554,9 @@ public class KeyBindingDispatcher {
 				// We don't want to swallow keyboard navigation keys.
 				return false;
 
-			} else {
-				Collection<Binding> errorMatches = getExecutableMatches(sequenceAfterKeyStroke, context);
-				if (errorMatches != null && !errorMatches.isEmpty()) {
-					errorSequence = sequenceAfterKeyStroke;
-					errorMatch = errorMatches;
-				}
+			} else if (!executableMatches.isEmpty()) {
+				errorSequence = sequenceAfterKeyStroke;
+				errorMatch = executableMatches;
 			}
 		}
 		resetState(true);
@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.impl.dom.CSSExtendedPropertiesImpl;
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
 import org.w3c.dom.Attr;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -414,6 +415,11 @@ public abstract class ElementAdapter implements Element, CSSStylableElement {
 	 * Apply styles for the native widget.
 	 */
 	protected void doApplyStyles() {
+		if (engine instanceof AbstractCSSEngine) {
+			// restyled with the other dirty elements in incremental mode
+			((AbstractCSSEngine) engine).markDirty(getNativeWidget(), false);
+			return;
+		}
 		try {
 			engine.applyStyles(getNativeWidget(), false, true);
 		} catch (Exception ex) {
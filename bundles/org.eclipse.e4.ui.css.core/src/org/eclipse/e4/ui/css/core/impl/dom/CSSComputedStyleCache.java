@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+/**
+ * Bounded cache of computed styles used by {@link ViewCSSImpl}.
+ * <p>
+ * Many elements share the same name, id, CSS class, pseudo state and
+ * ancestors. Such elements are matched by the same rules, so the computed
+ * style is cached by a signature of the selector relevant attributes of the
+ * element and of its ancestors. The cache is cleared each time the rules of
+ * the {@link CSSRuleIndex} change.
+ * </p>
+ */
+public class CSSComputedStyleCache {
+
+	/**
+	 * Default maximum number of cached computed styles.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	/**
+	 * Maximum number of pseudo classes that fit in the pseudo state bit mask
+	 * of a node.
+	 */
+	private static final int MAX_PSEUDO_CLASSES = 32;
+
+	/**
+	 * Cached value of elements which are not matched by any rule.
+	 */
+	private static final Object NO_STYLE = new Object();
+
+	/**
+	 * Immutable signature of an element and its ancestors.
+	 */
+	private static final class StyleSignature {
+
+		private final Object[] keys;
+
+		private final int hashCode;
+
+		StyleSignature(Object[] keys) {
+			this.keys = keys;
+			this.hashCode = Arrays.hashCode(keys);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof StyleSignature)) {
+				return false;
+			}
+			StyleSignature other = (StyleSignature) obj;
+			return hashCode == other.hashCode && Arrays.equals(keys, other.keys);
+		}
+	}
+
+	private final Map<StyleSignature, Object> cache;
+
+	private int modificationCount = -1;
+
+	private long hitCount;
+
+	private long missCount;
+
+	/**
+	 * Creates a new cache holding at most {@link #DEFAULT_MAX_SIZE} computed
+	 * styles.
+	 */
+	public CSSComputedStyleCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a new cache holding at most <code>maxSize</code> computed
+	 * styles.
+	 */
+	public CSSComputedStyleCache(final int maxSize) {
+		this.cache = new LinkedHashMap<StyleSignature, Object>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StyleSignature, Object> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Return the computed style of the element, from the cache if an element
+	 * with the same signature was computed before.
+	 */
+	CSSStyleDeclaration getComputedStyle(ViewCSSImpl viewCSS, CSSRuleIndex ruleIndex, Element elt,
+			String pseudoElt) {
+		if (modificationCount != ruleIndex.getModificationCount()) {
+			cache.clear();
+			modificationCount = ruleIndex.getModificationCount();
+		}
+		StyleSignature signature = createSignature(ruleIndex, elt, pseudoElt);
+		if (signature == null) {
+			return viewCSS.getComputedStyle(ruleIndex, elt, pseudoElt);
+		}
+		Object style = cache.get(signature);
+		if (style != null) {
+			hitCount++;
+			return style == NO_STYLE ? null : (CSSStyleDeclaration) style;
+		}
+		missCount++;
+		CSSStyleDeclaration computedStyle = viewCSS.getComputedStyle(ruleIndex, elt, pseudoElt);
+		cache.put(signature, computedStyle == null ? NO_STYLE : computedStyle);
+		return computedStyle;
+	}
+
+	/**
+	 * Return the signature of the element, or <code>null</code> if the rules
+	 * of the index do not allow to derive the style from a signature.
+	 */
+	private static StyleSignature createSignature(CSSRuleIndex ruleIndex, Element elt, String pseudoElt) {
+		if (!ruleIndex.isSignatureComplete()) {
+			return null;
+		}
+		Set<String> attributeNames = ruleIndex.getAttributeNames();
+		Set<String> pseudoClasses = ruleIndex.getPseudoClasses();
+		if (pseudoClasses.size() > MAX_PSEUDO_CLASSES) {
+			return null;
+		}
+		List<Object> keys = new ArrayList<>();
+		keys.add(pseudoElt);
+		for (Node node = elt; node instanceof Element; node = node.getParentNode()) {
+			Element element = (Element) node;
+			keys.add(element.getPrefix() == null ? element.getNodeName() : element.getLocalName());
+			keys.add(element.getNamespaceURI());
+			for (String attributeName : attributeNames) {
+				keys.add(element.hasAttribute(attributeName) ? element.getAttribute(attributeName) : null);
+			}
+			if (element instanceof CSSStylableElement) {
+				CSSStylableElement stylableElement = (CSSStylableElement) element;
+				keys.add(stylableElement.getCSSId());
+				keys.add(stylableElement.getCSSClass());
+				long pseudoState = 0;
+				int bit = 0;
+				for (String pseudoClass : pseudoClasses) {
+					if (stylableElement.isPseudoInstanceOf(pseudoClass)) {
+						pseudoState |= 1L << bit;
+						if (stylableElement.isStaticPseudoInstance(pseudoClass)) {
+							pseudoState |= 1L << (bit + 1);
+						}
+					}
+					bit += 2;
+				}
+				keys.add(Long.valueOf(pseudoState));
+			} else {
+				keys.add(element.getAttribute("id"));
+				keys.add(element.getAttribute("class"));
+			}
+		}
+		return new StyleSignature(keys.toArray());
+	}
+
+	/**
+	 * Remove all the cached computed styles.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Return the number of cached computed styles.
+	 *
+	 * @return the number of cached computed styles
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Return the number of computed styles found in the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Return the number of computed styles which had to be computed.
+	 *
+	 * @return the number of cache misses
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Reset the hit and miss counters.
+	 */
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+	}
+}
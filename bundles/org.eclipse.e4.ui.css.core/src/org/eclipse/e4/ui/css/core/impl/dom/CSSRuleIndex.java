@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
+import org.eclipse.e4.ui.css.core.impl.sac.AbstractAttributeCondition;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSAndConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSIdConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSLangConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoClassConditionImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.CSSPseudoElementSelectorImpl;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedCondition;
+import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleRule;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Index of the style rule selectors of a {@link DocumentCSSImpl}, bucketed by
+ * the key of their rightmost simple selector: the id, a CSS class, the element
+ * local name or, if none of those apply, the universal bucket.
+ * <p>
+ * A selector can only match an element if the element carries the key of its
+ * bucket, so {@link ViewCSSImpl} only needs to evaluate the selectors of the
+ * buckets of the element instead of every rule of every style sheet.
+ * </p>
+ */
+public class CSSRuleIndex {
+
+	/**
+	 * A selector of a style rule along with its position in the document.
+	 */
+	static final class Entry {
+
+		final CSSStyleRule rule;
+
+		final ExtendedSelector selector;
+
+		final int specificity;
+
+		final int order;
+
+		Entry(CSSStyleRule rule, ExtendedSelector selector, int order) {
+			this.rule = rule;
+			this.selector = selector;
+			this.specificity = selector.getSpecificity();
+			this.order = order;
+		}
+	}
+
+	private static final Comparator<Entry> ORDER_COMPARATOR = (e1, e2) -> Integer.compare(e1.order, e2.order);
+
+	private final Map<String, List<Entry>> idRules = new HashMap<>();
+
+	private final Map<String, List<Entry>> classRules = new HashMap<>();
+
+	private final Map<String, List<Entry>> elementRules = new HashMap<>();
+
+	private final List<Entry> universalRules = new ArrayList<>();
+
+	private int size;
+
+	/**
+	 * Names of the attributes tested by the indexed selectors.
+	 */
+	private final Set<String> attributeNames = new TreeSet<>();
+
+	/**
+	 * Pseudo classes tested by the indexed selectors.
+	 */
+	private final Set<String> pseudoClasses = new TreeSet<>();
+
+	/**
+	 * Whether the indexed selectors only depend on the element and its
+	 * ancestors, see {@link #isSignatureComplete()}.
+	 */
+	private boolean signatureComplete = true;
+
+	private int modificationCount;
+
+	/**
+	 * Add the style rules of the given style sheet to the index. The rules
+	 * are ordered after the rules of the style sheets added before.
+	 *
+	 * @param styleSheet
+	 */
+	public void addStyleSheet(CSSStyleSheet styleSheet) {
+		CSSRuleList rules = styleSheet.getCssRules();
+		if (rules == null) {
+			return;
+		}
+		modificationCount++;
+		int length = rules.getLength();
+		for (int i = 0; i < length; i++) {
+			CSSRule rule = rules.item(i);
+			if (rule.getType() == CSSRule.STYLE_RULE && rule instanceof ExtendedCSSRule) {
+				SelectorList selectorList = ((ExtendedCSSRule) rule).getSelectorList();
+				int l = selectorList.getLength();
+				for (int j = 0; j < l; j++) {
+					Selector selector = selectorList.item(j);
+					if (selector instanceof ExtendedSelector) {
+						addSelector((CSSStyleRule) rule, (ExtendedSelector) selector);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all the rules from the index.
+	 */
+	public void clear() {
+		idRules.clear();
+		classRules.clear();
+		elementRules.clear();
+		universalRules.clear();
+		size = 0;
+		attributeNames.clear();
+		pseudoClasses.clear();
+		signatureComplete = true;
+		modificationCount++;
+	}
+
+	/**
+	 * Return the number of indexed selectors.
+	 *
+	 * @return the number of indexed selectors
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Return a counter which changes each time rules are added to or removed
+	 * from the index.
+	 *
+	 * @return the modification counter
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Return the names of the attributes tested by the indexed selectors.
+	 */
+	Set<String> getAttributeNames() {
+		return attributeNames;
+	}
+
+	/**
+	 * Return the pseudo classes tested by the indexed selectors.
+	 */
+	Set<String> getPseudoClasses() {
+		return pseudoClasses;
+	}
+
+	/**
+	 * Return <code>true</code> if the indexed selectors match an element based
+	 * only on the name, id, class, tested attributes and pseudo classes of the
+	 * element and of its ancestors. This is not the case
+	 * if a selector tests the siblings of an element or uses a selector or
+	 * condition this index does not know about.
+	 *
+	 * @return <code>true</code> if the computed style of an element can be
+	 *         derived from the element and its ancestors only
+	 */
+	public boolean isSignatureComplete() {
+		return signatureComplete;
+	}
+
+	private void addSelector(CSSStyleRule rule, ExtendedSelector selector) {
+		collectSignatureKeys(selector);
+		Entry entry = new Entry(rule, selector, size++);
+		Selector simpleSelector = getRightmostSelector(selector);
+		if (simpleSelector instanceof ConditionalSelector) {
+			ConditionalSelector conditionalSelector = (ConditionalSelector) simpleSelector;
+			String id = findConditionValue(conditionalSelector.getCondition(), true);
+			if (id != null) {
+				addEntry(idRules, id, entry);
+				return;
+			}
+			String cssClass = findConditionValue(conditionalSelector.getCondition(), false);
+			if (cssClass != null) {
+				addEntry(classRules, cssClass, entry);
+				return;
+			}
+			simpleSelector = conditionalSelector.getSimpleSelector();
+		}
+		if (simpleSelector instanceof CSSElementSelectorImpl) {
+			String localName = ((CSSElementSelectorImpl) simpleSelector).getLocalName();
+			if (localName != null) {
+				addEntry(elementRules, localName, entry);
+				return;
+			}
+		}
+		universalRules.add(entry);
+	}
+
+	private static void addEntry(Map<String, List<Entry>> map, String key, Entry entry) {
+		List<Entry> entries = map.get(key);
+		if (entries == null) {
+			entries = new ArrayList<>();
+			map.put(key, entries);
+		}
+		entries.add(entry);
+	}
+
+	private void collectSignatureKeys(Selector selector) {
+		if (selector instanceof DescendantSelector) {
+			collectSignatureKeys(((DescendantSelector) selector).getAncestorSelector());
+			collectSignatureKeys(((DescendantSelector) selector).getSimpleSelector());
+		} else if (selector instanceof ConditionalSelector) {
+			collectSignatureKeys(((ConditionalSelector) selector).getSimpleSelector());
+			collectSignatureKeys(((ConditionalSelector) selector).getCondition());
+		} else if (!(selector instanceof CSSElementSelectorImpl)
+				&& !(selector instanceof CSSPseudoElementSelectorImpl)) {
+			// sibling selectors or unknown selectors
+			signatureComplete = false;
+		}
+	}
+
+	private void collectSignatureKeys(Condition condition) {
+		if (condition instanceof CSSAndConditionImpl) {
+			collectSignatureKeys(((CSSAndConditionImpl) condition).getFirstCondition());
+			collectSignatureKeys(((CSSAndConditionImpl) condition).getSecondCondition());
+		} else if (condition instanceof CSSPseudoClassConditionImpl) {
+			pseudoClasses.add(((CSSPseudoClassConditionImpl) condition).getValue());
+		} else if (condition instanceof AbstractAttributeCondition || condition instanceof CSSLangConditionImpl) {
+			((ExtendedCondition) condition).fillAttributeSet(attributeNames);
+		} else {
+			signatureComplete = false;
+		}
+	}
+
+	/**
+	 * Return the simple selector which has to match the element itself.
+	 */
+	private static Selector getRightmostSelector(Selector selector) {
+		Selector current = selector;
+		while (true) {
+			if (current instanceof DescendantSelector) {
+				current = ((DescendantSelector) current).getSimpleSelector();
+			} else if (current instanceof SiblingSelector) {
+				current = ((SiblingSelector) current).getSiblingSelector();
+			} else {
+				return current;
+			}
+		}
+	}
+
+	/**
+	 * Return the value of an id (or class) condition which is required for the
+	 * given condition to match, or <code>null</code> if there is none.
+	 */
+	private static String findConditionValue(Condition condition, boolean id) {
+		if (id && condition instanceof CSSIdConditionImpl) {
+			return ((CSSIdConditionImpl) condition).getValue();
+		}
+		if (!id && condition instanceof CSSClassConditionImpl) {
+			return ((CSSClassConditionImpl) condition).getValue();
+		}
+		if (condition.getConditionType() == Condition.SAC_AND_CONDITION
+				&& condition instanceof CombinatorCondition) {
+			CombinatorCondition combinator = (CombinatorCondition) condition;
+			String value = findConditionValue(combinator.getFirstCondition(), id);
+			if (value == null) {
+				value = findConditionValue(combinator.getSecondCondition(), id);
+			}
+			return value;
+		}
+		return null;
+	}
+
+	/**
+	 * Return the selectors which may match the given element, in document
+	 * order.
+	 *
+	 * @param elt
+	 * @return the candidate selectors
+	 */
+	List<Entry> getCandidates(Element elt) {
+		List<Entry> candidates = new ArrayList<>();
+		int buckets = 0;
+		buckets += addCandidates(candidates, elementRules.get(getElementName(elt)));
+		String id = getId(elt);
+		if (id != null) {
+			buckets += addCandidates(candidates, idRules.get(id));
+		}
+		String cssClass = getCSSClass(elt);
+		if (cssClass != null && !classRules.isEmpty()) {
+			List<String> seen = null;
+			int length = cssClass.length();
+			int start = 0;
+			while (start < length) {
+				while (start < length && Character.isSpaceChar(cssClass.charAt(start))) {
+					start++;
+				}
+				int end = start;
+				while (end < length && !Character.isSpaceChar(cssClass.charAt(end))) {
+					end++;
+				}
+				if (end > start) {
+					String name = cssClass.substring(start, end);
+					List<Entry> entries = classRules.get(name);
+					if (entries != null) {
+						if (seen == null) {
+							seen = new ArrayList<>(2);
+						}
+						if (!seen.contains(name)) {
+							seen.add(name);
+							buckets += addCandidates(candidates, entries);
+						}
+					}
+				}
+				start = end;
+			}
+		}
+		buckets += addCandidates(candidates, universalRules);
+		if (buckets > 1) {
+			Collections.sort(candidates, ORDER_COMPARATOR);
+		}
+		return candidates;
+	}
+
+	private static int addCandidates(List<Entry> candidates, List<Entry> entries) {
+		if (entries == null || entries.isEmpty()) {
+			return 0;
+		}
+		candidates.addAll(entries);
+		return 1;
+	}
+
+	private static String getElementName(Element elt) {
+		// Same lookup as CSSElementSelectorImpl#match(Element, String)
+		return elt.getPrefix() == null ? elt.getNodeName() : elt.getLocalName();
+	}
+
+	private static String getId(Element elt) {
+		if (elt instanceof CSSStylableElement) {
+			return ((CSSStylableElement) elt).getCSSId();
+		}
+		return elt.getAttribute("id");
+	}
+
+	private static String getCSSClass(Element elt) {
+		if (elt instanceof CSSStylableElement) {
+			return ((CSSStylableElement) elt).getCSSClass();
+		}
+		return elt.getAttribute("class");
+	}
+}
@@ -43,6 +43,11 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	 */
 	private Map<Integer, List<?>> styleDeclarationMap;
 
+	/**
+	 * Style rule selectors indexed by their rightmost selector key.
+	 */
+	private final CSSRuleIndex ruleIndex = new CSSRuleIndex();
+
 	@Override
 	public StyleSheetList getStyleSheets() {
 		return styleSheetList;
@@ -56,12 +61,26 @@ public class DocumentCSSImpl implements ExtendedDocumentCSS {
 	@Override
 	public void addStyleSheet(StyleSheet styleSheet) {
 		styleSheetList.addStyleSheet(styleSheet);
+		if (styleSheet instanceof CSSStyleSheet) {
+			ruleIndex.addStyleSheet((CSSStyleSheet) styleSheet);
+		}
 	}
 
 	@Override
 	public void removeAllStyleSheets() {
 		styleSheetList.removeAllStyleSheets();
 		this.styleDeclarationMap = null;
+		ruleIndex.clear();
+	}
+
+	/**
+	 * Return the index of the style rules of the style sheets of this
+	 * document.
+	 *
+	 * @return the rule index
+	 */
+	public CSSRuleIndex getRuleIndex() {
+		return ruleIndex;
 	}
 
 	@Override
@@ -38,6 +38,8 @@ public class ViewCSSImpl implements ViewCSS {
 
 	protected DocumentCSS documentCSS;
 
+	private final CSSComputedStyleCache computedStyleCache = new CSSComputedStyleCache();
+
 	/**
 	 * Creates a new ViewCSS.
 	 */
@@ -59,6 +61,13 @@ public class ViewCSSImpl implements ViewCSS {
 	 */
 	@Override
 	public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
+		if (documentCSS instanceof DocumentCSSImpl) {
+			// Only evaluate the rules which could match the element, or reuse
+			// the style computed for an element with the same signature
+			return computedStyleCache.getComputedStyle(this, ((DocumentCSSImpl) documentCSS).getRuleIndex(), elt,
+					pseudoElt);
+		}
+
 		// Loop over the CSS styleSheet list
 		StyleSheetList styleSheetList = documentCSS.getStyleSheets();
 		int l = styleSheetList.getLength();
@@ -78,6 +87,46 @@ public class ViewCSSImpl implements ViewCSS {
 		return styleDeclaration;
 	}
 
+	/**
+	 * Return the cache of the computed styles of this view.
+	 *
+	 * @return the computed style cache
+	 */
+	public CSSComputedStyleCache getComputedStyleCache() {
+		return computedStyleCache;
+	}
+
+	/**
+	 * Determines the relevant style declaration for an DOM element using the
+	 * candidate rules of the given index.
+	 */
+	public CSSStyleDeclaration getComputedStyle(CSSRuleIndex ruleIndex, Element elt, String pseudoElt) {
+		List<StyleWrapper> styleDeclarations = null;
+		StyleWrapper firstStyleDeclaration = null;
+		int position = 0;
+		for (CSSRuleIndex.Entry entry : ruleIndex.getCandidates(elt)) {
+			if (entry.selector.match(elt, pseudoElt)) {
+				StyleWrapper wrapper = new StyleWrapper(entry.rule.getStyle(), entry.specificity, position++);
+				if (firstStyleDeclaration == null) {
+					firstStyleDeclaration = wrapper;
+				} else {
+					if (styleDeclarations == null) {
+						styleDeclarations = new ArrayList<>();
+						styleDeclarations.add(firstStyleDeclaration);
+					}
+					styleDeclarations.add(wrapper);
+				}
+			}
+		}
+		if (styleDeclarations != null) {
+			return new CSSComputedStyleImpl(styleDeclarations);
+		}
+		if (firstStyleDeclaration != null) {
+			return firstStyleDeclaration.style;
+		}
+		return null;
+	}
+
 	public CSSStyleDeclaration getComputedStyle(List<CSSRule> ruleList, Element elt, String pseudoElt) {
 		List<StyleWrapper> styleDeclarations = null;
 		StyleWrapper firstStyleDeclaration = null;
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom.parsers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import org.eclipse.e4.ui.css.core.sac.ExtendedDocumentHandler;
+import org.w3c.css.sac.ConditionFactory;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.Parser;
+import org.w3c.css.sac.SelectorFactory;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Persistent cache of parsed style sheets.
+ * <p>
+ * The SAC events of a parsed style sheet are stored in a binary file of the
+ * cache directory, keyed by the URI of the style sheet and checked against a
+ * hash of its content and against the versions of the SAC parser and of this
+ * bundle. When the style sheet and the parser did not change, the events are
+ * replayed to build the {@link CSSStyleSheet} without scanning the source
+ * again. Style sheets without URI, and the ones using selectors or values
+ * which the binary form does not support, are always parsed.
+ * </p>
+ */
+public class CSSStyleSheetCache {
+
+	private static final int MAGIC = 0x45344353;
+
+	/**
+	 * Version of the binary form, to be increased each time the format of the
+	 * recorded events changes.
+	 */
+	private static final int FORMAT_VERSION = 2;
+
+	private static final String FILE_EXTENSION = ".bin"; //$NON-NLS-1$
+
+	private final File directory;
+
+	private int hitCount;
+
+	private int missCount;
+
+	/**
+	 * Creates a cache storing its files in <code>directory</code>. The
+	 * directory is created when the first style sheet is stored.
+	 *
+	 * @param directory
+	 *            the cache directory
+	 */
+	public CSSStyleSheetCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Return the style sheet parsed from <code>source</code>, replaying the
+	 * cached events if the source did not change since it was last parsed.
+	 *
+	 * @param parser
+	 *            the parser used on cache misses, which also provides the
+	 *            selector and condition factories
+	 * @param source
+	 *            the source of the style sheet
+	 * @return the parsed style sheet
+	 * @throws IOException
+	 */
+	public CSSStyleSheet parseStyleSheet(AbstractCSSParser parser, InputSource source) throws IOException {
+		SelectorFactory selectorFactory = parser.getSelectorFactory();
+		ConditionFactory conditionFactory = parser.getConditionFactory();
+		if (source.getURI() == null || selectorFactory == null || conditionFactory == null) {
+			return parser.parseStyleSheet(source);
+		}
+
+		Parser sacParser = parser.getParser();
+		String parserVersion = getParserVersion(sacParser);
+		byte[] content = readContent(source);
+		byte[] hash = digest(content);
+		File file = getFile(source.getURI());
+		CSSStyleSheet styleSheet = readStyleSheet(file, source, parserVersion, hash,
+				parser.getDocumentHandlerFactory().makeDocumentHandler(), selectorFactory, conditionFactory);
+		if (styleSheet != null) {
+			hitCount++;
+			return styleSheet;
+		}
+		missCount++;
+
+		InputSource contentSource = copy(source, content);
+		ExtendedDocumentHandler documentHandler = parser.getDocumentHandlerFactory().makeDocumentHandler();
+		SACEventRecorder recorder = new SACEventRecorder(documentHandler);
+		sacParser.setDocumentHandler(recorder);
+		sacParser.parseStyleSheet(contentSource);
+		byte[] events = recorder.getEvents();
+		if (events != null) {
+			writeStyleSheet(file, source.getURI(), parserVersion, hash, events);
+		}
+		return (CSSStyleSheet) documentHandler.getNodeRoot();
+	}
+
+	private CSSStyleSheet readStyleSheet(File file, InputSource source, String parserVersion, byte[] hash,
+			ExtendedDocumentHandler documentHandler, SelectorFactory selectorFactory,
+			ConditionFactory conditionFactory) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+					|| !parserVersion.equals(SACEventPlayer.readString(in))
+					|| !source.getURI().equals(SACEventPlayer.readString(in))) {
+				return null;
+			}
+			byte[] cachedHash = new byte[in.readInt()];
+			in.readFully(cachedHash);
+			if (!Arrays.equals(hash, cachedHash)) {
+				return null;
+			}
+			new SACEventPlayer(in, selectorFactory, conditionFactory).play(documentHandler, source);
+			return (CSSStyleSheet) documentHandler.getNodeRoot();
+		} catch (IOException | RuntimeException e) {
+			// corrupted entry, parse the source again
+			file.delete();
+			return null;
+		}
+	}
+
+	private void writeStyleSheet(File file, String uri, String parserVersion, byte[] hash, byte[] events) {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			return;
+		}
+		File tempFile = new File(directory, file.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			SACEventRecorder.writeString(out, parserVersion);
+			SACEventRecorder.writeString(out, uri);
+			out.writeInt(hash.length);
+			out.write(hash);
+			out.write(events);
+		} catch (IOException e) {
+			tempFile.delete();
+			return;
+		}
+		// replace the entry in one step so that readers never see a partial
+		// file
+		file.delete();
+		if (!tempFile.renameTo(file)) {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Return the versions of the code producing the recorded events: the SAC
+	 * parser, which may report the same source differently once updated, and
+	 * this bundle, which records and replays them.
+	 */
+	static String getParserVersion(Parser parser) {
+		return getVersion(parser.getClass()) + ',' + getVersion(CSSStyleSheetCache.class);
+	}
+
+	private static String getVersion(Class<?> type) {
+		Bundle bundle = FrameworkUtil.getBundle(type);
+		if (bundle != null) {
+			return bundle.getSymbolicName() + '_' + bundle.getVersion();
+		}
+		// not running in OSGi
+		Package typePackage = type.getPackage();
+		String version = typePackage == null ? null : typePackage.getImplementationVersion();
+		return type.getName() + '_' + version;
+	}
+
+	private File getFile(String uri) {
+		return new File(directory, toHex(digest(uri.getBytes(StandardCharsets.UTF_8))) + FILE_EXTENSION);
+	}
+
+	/**
+	 * Remove all the cached style sheets.
+	 */
+	public void clear() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.getName().endsWith(FILE_EXTENSION)) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Return the number of style sheets built from the cache.
+	 *
+	 * @return the number of cache hits
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Return the number of style sheets which had to be parsed.
+	 *
+	 * @return the number of cache misses
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+
+	private static byte[] readContent(InputSource source) throws IOException {
+		Reader reader = source.getCharacterStream();
+		if (reader != null) {
+			StringBuilder builder = new StringBuilder();
+			char[] buffer = new char[8192];
+			int count;
+			while ((count = reader.read(buffer)) != -1) {
+				builder.append(buffer, 0, count);
+			}
+			return builder.toString().getBytes(StandardCharsets.UTF_8);
+		}
+		InputStream stream = source.getByteStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int count;
+		while ((count = stream.read(buffer)) != -1) {
+			out.write(buffer, 0, count);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Return a copy of <code>source</code> reading <code>content</code>.
+	 */
+	private static InputSource copy(InputSource source, byte[] content) {
+		InputSource copy = new InputSource();
+		copy.setURI(source.getURI());
+		copy.setTitle(source.getTitle());
+		copy.setMedia(source.getMedia());
+		if (source.getCharacterStream() != null) {
+			copy.setCharacterStream(new StringReader(new String(content, StandardCharsets.UTF_8)));
+		} else {
+			copy.setEncoding(source.getEncoding());
+			copy.setByteStream(new ByteArrayInputStream(content));
+		}
+		return copy;
+	}
+
+	private static byte[] digest(byte[] content) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(content); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// SHA-256 is supported by all Java platforms
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom.parsers;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.batik.css.parser.CSSLexicalUnit;
+import org.apache.batik.css.parser.CSSSACMediaList;
+import org.apache.batik.css.parser.CSSSelectorList;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionFactory;
+import org.w3c.css.sac.DocumentHandler;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.SACMediaList;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorFactory;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SimpleSelector;
+
+/**
+ * Replays the SAC events recorded by {@link SACEventRecorder}. Selectors and
+ * conditions are created with the factories of the parser, so the handler
+ * receives the same objects as when the style sheet is scanned.
+ */
+class SACEventPlayer {
+
+	private final DataInputStream in;
+
+	private final SelectorFactory selectorFactory;
+
+	private final ConditionFactory conditionFactory;
+
+	SACEventPlayer(DataInputStream in, SelectorFactory selectorFactory, ConditionFactory conditionFactory) {
+		this.in = in;
+		this.selectorFactory = selectorFactory;
+		this.conditionFactory = conditionFactory;
+	}
+
+	/**
+	 * Send the recorded events to the handler.
+	 *
+	 * @param handler
+	 *            the handler receiving the events
+	 * @param source
+	 *            the source passed to the document events
+	 * @throws IOException
+	 *             if the recorded events are corrupted
+	 */
+	void play(DocumentHandler handler, InputSource source) throws IOException {
+		for (byte event = in.readByte(); event != SACEventRecorder.END; event = in.readByte()) {
+			switch (event) {
+			case SACEventRecorder.START_DOCUMENT:
+				handler.startDocument(source);
+				break;
+			case SACEventRecorder.END_DOCUMENT:
+				handler.endDocument(source);
+				break;
+			case SACEventRecorder.IGNORABLE_AT_RULE:
+				handler.ignorableAtRule(readString(in));
+				break;
+			case SACEventRecorder.NAMESPACE_DECLARATION:
+				handler.namespaceDeclaration(readString(in), readString(in));
+				break;
+			case SACEventRecorder.IMPORT_STYLE:
+				handler.importStyle(readString(in), readMediaList(), readString(in));
+				break;
+			case SACEventRecorder.START_MEDIA:
+				handler.startMedia(readMediaList());
+				break;
+			case SACEventRecorder.END_MEDIA:
+				handler.endMedia(readMediaList());
+				break;
+			case SACEventRecorder.START_PAGE:
+				handler.startPage(readString(in), readString(in));
+				break;
+			case SACEventRecorder.END_PAGE:
+				handler.endPage(readString(in), readString(in));
+				break;
+			case SACEventRecorder.START_FONT_FACE:
+				handler.startFontFace();
+				break;
+			case SACEventRecorder.END_FONT_FACE:
+				handler.endFontFace();
+				break;
+			case SACEventRecorder.START_SELECTOR:
+				handler.startSelector(readSelectorList());
+				break;
+			case SACEventRecorder.END_SELECTOR:
+				handler.endSelector(readSelectorList());
+				break;
+			case SACEventRecorder.PROPERTY:
+				handler.property(readString(in), readLexicalUnit(), in.readBoolean());
+				break;
+			default:
+				throw new IOException("Unknown event: " + event); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private SACMediaList readMediaList() throws IOException {
+		CSSSACMediaList media = new CSSSACMediaList();
+		int length = in.readInt();
+		for (int i = 0; i < length; i++) {
+			media.append(readString(in));
+		}
+		return media;
+	}
+
+	private SelectorList readSelectorList() throws IOException {
+		CSSSelectorList selectors = new CSSSelectorList();
+		int length = in.readInt();
+		for (int i = 0; i < length; i++) {
+			selectors.append(readSelector());
+		}
+		return selectors;
+	}
+
+	private Selector readSelector() throws IOException {
+		short type = in.readShort();
+		switch (type) {
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			SimpleSelector simpleSelector = (SimpleSelector) readSelector();
+			return selectorFactory.createConditionalSelector(simpleSelector, readCondition());
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+			return selectorFactory.createElementSelector(readString(in), readString(in));
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			return selectorFactory.createPseudoElementSelector(readString(in), readString(in));
+		case Selector.SAC_DESCENDANT_SELECTOR:
+			Selector ancestor = readSelector();
+			return selectorFactory.createDescendantSelector(ancestor, (SimpleSelector) readSelector());
+		case Selector.SAC_CHILD_SELECTOR:
+			Selector parent = readSelector();
+			return selectorFactory.createChildSelector(parent, (SimpleSelector) readSelector());
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			short nodeType = in.readShort();
+			Selector child = readSelector();
+			return selectorFactory.createDirectAdjacentSelector(nodeType, child, (SimpleSelector) readSelector());
+		default:
+			throw new IOException("Unknown selector type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private Condition readCondition() throws IOException {
+		short type = in.readShort();
+		switch (type) {
+		case Condition.SAC_AND_CONDITION:
+			Condition first = readCondition();
+			return conditionFactory.createAndCondition(first, readCondition());
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+			return conditionFactory.createAttributeCondition(readString(in), readString(in), in.readBoolean(),
+					readString(in));
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+			return conditionFactory.createOneOfAttributeCondition(readString(in), readString(in), in.readBoolean(),
+					readString(in));
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			return conditionFactory.createBeginHyphenAttributeCondition(readString(in), readString(in),
+					in.readBoolean(), readString(in));
+		case Condition.SAC_ID_CONDITION:
+			return conditionFactory.createIdCondition(readString(in));
+		case Condition.SAC_CLASS_CONDITION:
+			return conditionFactory.createClassCondition(readString(in), readString(in));
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+			return conditionFactory.createPseudoClassCondition(readString(in), readString(in));
+		case Condition.SAC_LANG_CONDITION:
+			return conditionFactory.createLangCondition(readString(in));
+		default:
+			throw new IOException("Unknown condition type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private LexicalUnit readLexicalUnit() throws IOException {
+		LexicalUnit first = null;
+		LexicalUnit previous = null;
+		for (short type = in.readShort(); type != -1; type = in.readShort()) {
+			LexicalUnit unit;
+			switch (type) {
+			case LexicalUnit.SAC_OPERATOR_COMMA:
+			case LexicalUnit.SAC_OPERATOR_PLUS:
+			case LexicalUnit.SAC_OPERATOR_MINUS:
+			case LexicalUnit.SAC_OPERATOR_MULTIPLY:
+			case LexicalUnit.SAC_OPERATOR_SLASH:
+			case LexicalUnit.SAC_OPERATOR_MOD:
+			case LexicalUnit.SAC_OPERATOR_EXP:
+			case LexicalUnit.SAC_OPERATOR_LT:
+			case LexicalUnit.SAC_OPERATOR_GT:
+			case LexicalUnit.SAC_OPERATOR_LE:
+			case LexicalUnit.SAC_OPERATOR_GE:
+			case LexicalUnit.SAC_OPERATOR_TILDE:
+			case LexicalUnit.SAC_INHERIT:
+				unit = CSSLexicalUnit.createSimple(type, previous);
+				break;
+			case LexicalUnit.SAC_INTEGER:
+				unit = CSSLexicalUnit.createInteger(in.readInt(), previous);
+				break;
+			case LexicalUnit.SAC_REAL:
+			case LexicalUnit.SAC_EM:
+			case LexicalUnit.SAC_EX:
+			case LexicalUnit.SAC_PIXEL:
+			case LexicalUnit.SAC_INCH:
+			case LexicalUnit.SAC_CENTIMETER:
+			case LexicalUnit.SAC_MILLIMETER:
+			case LexicalUnit.SAC_POINT:
+			case LexicalUnit.SAC_PICA:
+			case LexicalUnit.SAC_PERCENTAGE:
+			case LexicalUnit.SAC_DEGREE:
+			case LexicalUnit.SAC_GRADIAN:
+			case LexicalUnit.SAC_RADIAN:
+			case LexicalUnit.SAC_MILLISECOND:
+			case LexicalUnit.SAC_SECOND:
+			case LexicalUnit.SAC_HERTZ:
+			case LexicalUnit.SAC_KILOHERTZ:
+				unit = CSSLexicalUnit.createFloat(type, in.readFloat(), previous);
+				break;
+			case LexicalUnit.SAC_DIMENSION:
+				float dimension = in.readFloat();
+				unit = CSSLexicalUnit.createDimension(dimension, readString(in), previous);
+				break;
+			case LexicalUnit.SAC_URI:
+			case LexicalUnit.SAC_IDENT:
+			case LexicalUnit.SAC_STRING_VALUE:
+			case LexicalUnit.SAC_ATTR:
+				unit = CSSLexicalUnit.createString(type, readString(in), previous);
+				break;
+			case LexicalUnit.SAC_RGBCOLOR:
+			case LexicalUnit.SAC_RECT_FUNCTION:
+			case LexicalUnit.SAC_COUNTER_FUNCTION:
+			case LexicalUnit.SAC_COUNTERS_FUNCTION:
+				unit = CSSLexicalUnit.createPredefinedFunction(type, readLexicalUnit(), previous);
+				break;
+			case LexicalUnit.SAC_FUNCTION:
+				String name = readString(in);
+				unit = CSSLexicalUnit.createFunction(name, readLexicalUnit(), previous);
+				break;
+			default:
+				throw new IOException("Unknown lexical unit type: " + type); //$NON-NLS-1$
+			}
+			if (first == null) {
+				first = unit;
+			}
+			previous = unit;
+		}
+		return first;
+	}
+
+	static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] data = new byte[length];
+		in.readFully(data);
+		return new String(data, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.dom.parsers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CSSException;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.DocumentHandler;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.LangCondition;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.SACMediaList;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+
+/**
+ * {@link DocumentHandler} which forwards the SAC events to another handler
+ * and records them in a compact binary form. The recorded events are replayed
+ * by {@link SACEventPlayer} without scanning the style sheet again.
+ */
+class SACEventRecorder implements DocumentHandler {
+
+	static final byte END = 0;
+	static final byte START_DOCUMENT = 1;
+	static final byte END_DOCUMENT = 2;
+	static final byte IGNORABLE_AT_RULE = 3;
+	static final byte NAMESPACE_DECLARATION = 4;
+	static final byte IMPORT_STYLE = 5;
+	static final byte START_MEDIA = 6;
+	static final byte END_MEDIA = 7;
+	static final byte START_PAGE = 8;
+	static final byte END_PAGE = 9;
+	static final byte START_FONT_FACE = 10;
+	static final byte END_FONT_FACE = 11;
+	static final byte START_SELECTOR = 12;
+	static final byte END_SELECTOR = 13;
+	static final byte PROPERTY = 14;
+
+	private final DocumentHandler handler;
+
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+	private final DataOutputStream out = new DataOutputStream(bytes);
+
+	/**
+	 * True if an event could not be recorded.
+	 */
+	private boolean failed;
+
+	SACEventRecorder(DocumentHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Return the recorded events, or <code>null</code> if some of them are not
+	 * supported by the binary form.
+	 */
+	byte[] getEvents() {
+		if (failed) {
+			return null;
+		}
+		try {
+			out.writeByte(END);
+			out.flush();
+		} catch (IOException e) {
+			return null;
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public void startDocument(InputSource source) throws CSSException {
+		record(START_DOCUMENT);
+		handler.startDocument(source);
+	}
+
+	@Override
+	public void endDocument(InputSource source) throws CSSException {
+		record(END_DOCUMENT);
+		handler.endDocument(source);
+	}
+
+	@Override
+	public void comment(String text) throws CSSException {
+		handler.comment(text);
+	}
+
+	@Override
+	public void ignorableAtRule(String atRule) throws CSSException {
+		try {
+			out.writeByte(IGNORABLE_AT_RULE);
+			writeString(out, atRule);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.ignorableAtRule(atRule);
+	}
+
+	@Override
+	public void namespaceDeclaration(String prefix, String uri) throws CSSException {
+		try {
+			out.writeByte(NAMESPACE_DECLARATION);
+			writeString(out, prefix);
+			writeString(out, uri);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.namespaceDeclaration(prefix, uri);
+	}
+
+	@Override
+	public void importStyle(String uri, SACMediaList media, String defaultNamespaceURI) throws CSSException {
+		try {
+			out.writeByte(IMPORT_STYLE);
+			writeString(out, uri);
+			writeMediaList(media);
+			writeString(out, defaultNamespaceURI);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.importStyle(uri, media, defaultNamespaceURI);
+	}
+
+	@Override
+	public void startMedia(SACMediaList media) throws CSSException {
+		try {
+			out.writeByte(START_MEDIA);
+			writeMediaList(media);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.startMedia(media);
+	}
+
+	@Override
+	public void endMedia(SACMediaList media) throws CSSException {
+		try {
+			out.writeByte(END_MEDIA);
+			writeMediaList(media);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.endMedia(media);
+	}
+
+	@Override
+	public void startPage(String name, String pseudoPage) throws CSSException {
+		try {
+			out.writeByte(START_PAGE);
+			writeString(out, name);
+			writeString(out, pseudoPage);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.startPage(name, pseudoPage);
+	}
+
+	@Override
+	public void endPage(String name, String pseudoPage) throws CSSException {
+		try {
+			out.writeByte(END_PAGE);
+			writeString(out, name);
+			writeString(out, pseudoPage);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.endPage(name, pseudoPage);
+	}
+
+	@Override
+	public void startFontFace() throws CSSException {
+		record(START_FONT_FACE);
+		handler.startFontFace();
+	}
+
+	@Override
+	public void endFontFace() throws CSSException {
+		record(END_FONT_FACE);
+		handler.endFontFace();
+	}
+
+	@Override
+	public void startSelector(SelectorList selectors) throws CSSException {
+		try {
+			out.writeByte(START_SELECTOR);
+			writeSelectorList(selectors);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.startSelector(selectors);
+	}
+
+	@Override
+	public void endSelector(SelectorList selectors) throws CSSException {
+		try {
+			out.writeByte(END_SELECTOR);
+			writeSelectorList(selectors);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.endSelector(selectors);
+	}
+
+	@Override
+	public void property(String name, LexicalUnit value, boolean important) throws CSSException {
+		try {
+			out.writeByte(PROPERTY);
+			writeString(out, name);
+			writeLexicalUnit(value);
+			out.writeBoolean(important);
+		} catch (IOException e) {
+			failed = true;
+		}
+		handler.property(name, value, important);
+	}
+
+	private void record(byte event) {
+		try {
+			out.writeByte(event);
+		} catch (IOException e) {
+			failed = true;
+		}
+	}
+
+	private void writeMediaList(SACMediaList media) throws IOException {
+		int length = media == null ? 0 : media.getLength();
+		out.writeInt(length);
+		for (int i = 0; i < length; i++) {
+			writeString(out, media.item(i));
+		}
+	}
+
+	private void writeSelectorList(SelectorList selectors) throws IOException {
+		out.writeInt(selectors.getLength());
+		for (int i = 0; i < selectors.getLength(); i++) {
+			writeSelector(selectors.item(i));
+		}
+	}
+
+	private void writeSelector(Selector selector) throws IOException {
+		short type = selector.getSelectorType();
+		out.writeShort(type);
+		switch (type) {
+		case Selector.SAC_CONDITIONAL_SELECTOR:
+			ConditionalSelector conditionalSelector = (ConditionalSelector) selector;
+			writeSelector(conditionalSelector.getSimpleSelector());
+			writeCondition(conditionalSelector.getCondition());
+			break;
+		case Selector.SAC_ELEMENT_NODE_SELECTOR:
+		case Selector.SAC_PSEUDO_ELEMENT_SELECTOR:
+			ElementSelector elementSelector = (ElementSelector) selector;
+			writeString(out, elementSelector.getNamespaceURI());
+			writeString(out, elementSelector.getLocalName());
+			break;
+		case Selector.SAC_DESCENDANT_SELECTOR:
+		case Selector.SAC_CHILD_SELECTOR:
+			DescendantSelector descendantSelector = (DescendantSelector) selector;
+			writeSelector(descendantSelector.getAncestorSelector());
+			writeSelector(descendantSelector.getSimpleSelector());
+			break;
+		case Selector.SAC_DIRECT_ADJACENT_SELECTOR:
+			SiblingSelector siblingSelector = (SiblingSelector) selector;
+			out.writeShort(siblingSelector.getNodeType());
+			writeSelector(siblingSelector.getSelector());
+			writeSelector(siblingSelector.getSiblingSelector());
+			break;
+		default:
+			throw new IOException("Unsupported selector type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private void writeCondition(Condition condition) throws IOException {
+		short type = condition.getConditionType();
+		out.writeShort(type);
+		switch (type) {
+		case Condition.SAC_AND_CONDITION:
+			CombinatorCondition combinatorCondition = (CombinatorCondition) condition;
+			writeCondition(combinatorCondition.getFirstCondition());
+			writeCondition(combinatorCondition.getSecondCondition());
+			break;
+		case Condition.SAC_ATTRIBUTE_CONDITION:
+		case Condition.SAC_ONE_OF_ATTRIBUTE_CONDITION:
+		case Condition.SAC_BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			AttributeCondition attributeCondition = (AttributeCondition) condition;
+			writeString(out, attributeCondition.getLocalName());
+			writeString(out, attributeCondition.getNamespaceURI());
+			out.writeBoolean(attributeCondition.getSpecified());
+			writeString(out, attributeCondition.getValue());
+			break;
+		case Condition.SAC_ID_CONDITION:
+			writeString(out, ((AttributeCondition) condition).getValue());
+			break;
+		case Condition.SAC_CLASS_CONDITION:
+		case Condition.SAC_PSEUDO_CLASS_CONDITION:
+			AttributeCondition classCondition = (AttributeCondition) condition;
+			writeString(out, classCondition.getNamespaceURI());
+			writeString(out, classCondition.getValue());
+			break;
+		case Condition.SAC_LANG_CONDITION:
+			writeString(out, ((LangCondition) condition).getLang());
+			break;
+		default:
+			throw new IOException("Unsupported condition type: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private void writeLexicalUnit(LexicalUnit value) throws IOException {
+		for (LexicalUnit unit = value; unit != null; unit = unit.getNextLexicalUnit()) {
+			short type = unit.getLexicalUnitType();
+			out.writeShort(type);
+			switch (type) {
+			case LexicalUnit.SAC_OPERATOR_COMMA:
+			case LexicalUnit.SAC_OPERATOR_PLUS:
+			case LexicalUnit.SAC_OPERATOR_MINUS:
+			case LexicalUnit.SAC_OPERATOR_MULTIPLY:
+			case LexicalUnit.SAC_OPERATOR_SLASH:
+			case LexicalUnit.SAC_OPERATOR_MOD:
+			case LexicalUnit.SAC_OPERATOR_EXP:
+			case LexicalUnit.SAC_OPERATOR_LT:
+			case LexicalUnit.SAC_OPERATOR_GT:
+			case LexicalUnit.SAC_OPERATOR_LE:
+			case LexicalUnit.SAC_OPERATOR_GE:
+			case LexicalUnit.SAC_OPERATOR_TILDE:
+			case LexicalUnit.SAC_INHERIT:
+				break;
+			case LexicalUnit.SAC_INTEGER:
+				out.writeInt(unit.getIntegerValue());
+				break;
+			case LexicalUnit.SAC_REAL:
+			case LexicalUnit.SAC_EM:
+			case LexicalUnit.SAC_EX:
+			case LexicalUnit.SAC_PIXEL:
+			case LexicalUnit.SAC_INCH:
+			case LexicalUnit.SAC_CENTIMETER:
+			case LexicalUnit.SAC_MILLIMETER:
+			case LexicalUnit.SAC_POINT:
+			case LexicalUnit.SAC_PICA:
+			case LexicalUnit.SAC_PERCENTAGE:
+			case LexicalUnit.SAC_DEGREE:
+			case LexicalUnit.SAC_GRADIAN:
+			case LexicalUnit.SAC_RADIAN:
+			case LexicalUnit.SAC_MILLISECOND:
+			case LexicalUnit.SAC_SECOND:
+			case LexicalUnit.SAC_HERTZ:
+			case LexicalUnit.SAC_KILOHERTZ:
+				out.writeFloat(unit.getFloatValue());
+				break;
+			case LexicalUnit.SAC_DIMENSION:
+				out.writeFloat(unit.getFloatValue());
+				writeString(out, unit.getDimensionUnitText());
+				break;
+			case LexicalUnit.SAC_URI:
+			case LexicalUnit.SAC_IDENT:
+			case LexicalUnit.SAC_STRING_VALUE:
+			case LexicalUnit.SAC_ATTR:
+				writeString(out, unit.getStringValue());
+				break;
+			case LexicalUnit.SAC_RGBCOLOR:
+			case LexicalUnit.SAC_RECT_FUNCTION:
+			case LexicalUnit.SAC_COUNTER_FUNCTION:
+			case LexicalUnit.SAC_COUNTERS_FUNCTION:
+				writeLexicalUnit(unit.getParameters());
+				break;
+			case LexicalUnit.SAC_FUNCTION:
+				writeString(out, unit.getFunctionName());
+				writeLexicalUnit(unit.getParameters());
+				break;
+			default:
+				throw new IOException("Unsupported lexical unit type: " + type); //$NON-NLS-1$
+			}
+		}
+		// end of the lexical unit chain
+		out.writeShort(-1);
+	}
+
+	static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] data = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(data.length);
+		out.write(data);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 Angelo Zerr and others.
+ * Copyright (c) 2008, 2018 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -54,6 +55,8 @@ import org.eclipse.e4.ui.css.core.impl.dom.CSSRuleListImpl;
 import org.eclipse.e4.ui.css.core.impl.dom.CSSStyleSheetImpl;
 import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
 import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.parsers.AbstractCSSParser;
+import org.eclipse.e4.ui.css.core.impl.dom.parsers.CSSStyleSheetCache;
 import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
 import org.eclipse.e4.ui.css.core.resources.IResourcesRegistry;
 import org.eclipse.e4.ui.css.core.resources.ResourceRegistryKeyFactory;
@@ -100,6 +103,18 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	 */
 	private static final String ARCHIVE_IDENTIFIER = "!";
 
+	/**
+	 * System property which enables the incremental restyle mode, see
+	 * {@link #setIncrementalRestyle(boolean)}.
+	 */
+	public static final String INCREMENTAL_RESTYLE_PROPERTY = "org.eclipse.e4.ui.css.incrementalRestyle"; //$NON-NLS-1$
+
+	/**
+	 * Key of the element context data holding the CSS values applied to the
+	 * element, see {@link AppliedValue}.
+	 */
+	private static final String APPLIED_VALUES_KEY = "org.eclipse.e4.ui.css.core.appliedValues"; //$NON-NLS-1$
+
 	/**
 	 * Default {@link IResourcesLocatorManager} used to get InputStream, Reader
 	 * resource like Image.
@@ -150,6 +165,45 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 	private ResourceRegistryKeyFactory keyFactory;
 
+	private boolean incrementalRestyle = Boolean.getBoolean(INCREMENTAL_RESTYLE_PROPERTY);
+
+	/**
+	 * Native widgets waiting to be restyled, mapped to whether their child
+	 * nodes have to be restyled too.
+	 */
+	private Map<Object, Boolean> dirtyElements;
+
+	private boolean restyleScheduled;
+
+	/**
+	 * True while the dirty elements are restyled.
+	 */
+	private boolean incrementalPass;
+
+	/**
+	 * Style whose properties must not be applied by the current
+	 * {@link #applyStyleDeclaration(Object, CSSStyleDeclaration, String)}
+	 * call.
+	 */
+	private CSSStyleDeclaration overriddenStyle;
+
+	private CSSStyleSheetCache styleSheetCache;
+
+	/**
+	 * A CSS value applied to an element, with the value its widget reported
+	 * right after.
+	 */
+	private static final class AppliedValue {
+		final String cssText;
+
+		final String widgetValue;
+
+		AppliedValue(String cssText, String widgetValue) {
+			this.cssText = cssText;
+			this.widgetValue = widgetValue;
+		}
+	}
+
 	public AbstractCSSEngine() {
 		this(new DocumentCSSImpl());
 	}
@@ -181,7 +235,12 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		// Check that CharacterStream or ByteStream is not null
 		checkInputSource(source);
 		CSSParser parser = makeCSSParser();
-		CSSStyleSheet styleSheet = parser.parseStyleSheet(source);
+		CSSStyleSheet styleSheet;
+		if (styleSheetCache != null && parser instanceof AbstractCSSParser) {
+			styleSheet = styleSheetCache.parseStyleSheet((AbstractCSSParser) parser, source);
+		} else {
+			styleSheet = parser.parseStyleSheet(source);
+		}
 
 		CSSRuleList rules = styleSheet.getCssRules();
 		int length = rules.getLength();
@@ -251,6 +310,24 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		return s;
 	}
 
+	/**
+	 * Return the cache of parsed style sheets, or <code>null</code> if style
+	 * sheets are always parsed.
+	 */
+	public CSSStyleSheetCache getStyleSheetCache() {
+		return styleSheetCache;
+	}
+
+	/**
+	 * Set the cache used to avoid parsing again the style sheets which did not
+	 * change, or <code>null</code> to always parse them.
+	 *
+	 * @param styleSheetCache
+	 */
+	public void setStyleSheetCache(CSSStyleSheetCache styleSheetCache) {
+		this.styleSheetCache = styleSheetCache;
+	}
+
 	/**
 	 * Return true if <code>source</code> is valid and false otherwise.
 	 *
@@ -544,10 +621,28 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		if (avoidanceCacheInstalled) {
 			currentCSSPropertiesApplyed = new HashMap<>();
 		}
+		CSSStyleDeclaration skippedStyle = overriddenStyle;
+		overriddenStyle = null;
+		Map<String, AppliedValue> appliedValues = incrementalRestyle ? getAppliedValues(element) : null;
 		List<ICSSPropertyHandler2> handlers2 = null;
 		for (int i = 0; i < style.getLength(); i++) {
 			String property = style.item(i);
+			if (skippedStyle != null && skippedStyle.getPropertyCSSValue(property) != null) {
+				// the property is applied right after
+				continue;
+			}
 			CSSValue value = style.getPropertyCSSValue(property);
+			String appliedKey = null;
+			String cssText = null;
+			if (appliedValues != null) {
+				appliedKey = pseudo == null ? property : property + ':' + pseudo;
+				cssText = value.getCssText();
+				if (incrementalPass && !"inherit".equals(cssText)
+						&& isApplied(element, property, pseudo, cssText, appliedValues.get(appliedKey))) {
+					// the widget already has this value
+					continue;
+				}
+			}
 			try {
 				ICSSPropertyHandler handler = this.applyCSSProperty(element,
 						property, value, pseudo);
@@ -560,6 +655,18 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 								.getCSSPropertyHandler2();
 					}
 				}
+				if (appliedValues != null) {
+					// values of composite handlers are only applied once all
+					// properties are known, so never skip them
+					String widgetValue = handler != null && propertyHandler2 == null
+							? retrieveCSSProperty(element, property, pseudo)
+							: null;
+					if (widgetValue != null) {
+						appliedValues.put(appliedKey, new AppliedValue(cssText, widgetValue));
+					} else {
+						appliedValues.remove(appliedKey);
+					}
+				}
 				if (propertyHandler2 != null) {
 					if (handlers2 == null) {
 						handlers2 = new ArrayList<>();
@@ -700,10 +807,15 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 					// before apply the new style
 					try {
 						throwError = false;
+						if (incrementalPass) {
+							// don't reset the properties set by the new style
+							overriddenStyle = newStyle;
+						}
 						applyStyleDeclaration(element, defaultStyleDeclaration,
 								pseudoE);
 					} finally {
 						throwError = true;
+						overriddenStyle = null;
 					}
 				}
 			}
@@ -941,6 +1053,9 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		if (elementsContext != null) {
 			elementsContext.remove(widget);
 		}
+		if (dirtyElements != null) {
+			dirtyElements.remove(widget);
+		}
 	}
 
 	public Object getDocument() {
@@ -1042,6 +1157,7 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	@Override
 	public void dispose() {
 		reset();
+		cancelRestyle();
 		// Call dispose for each CSSStylableElement which was registered
 		Collection<CSSElementContext> contexts = elementsContext.values();
 		for (CSSElementContext context : contexts) {
@@ -1062,6 +1178,191 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 	public void reset() {
 		// Remove All Style Sheets
 		documentCSS.removeAllStyleSheets();
+		if (viewCSS instanceof ViewCSSImpl) {
+			((ViewCSSImpl) viewCSS).getComputedStyleCache().clear();
+		}
+		// widgets were reset, forget the values applied to them
+		if (elementsContext != null) {
+			for (CSSElementContext context : elementsContext.values()) {
+				context.setData(APPLIED_VALUES_KEY, null);
+			}
+		}
+	}
+
+	/*--------------- Incremental restyle -----------------*/
+
+	/**
+	 * Return true if the incremental restyle mode is enabled.
+	 *
+	 * @see #setIncrementalRestyle(boolean)
+	 */
+	public boolean isIncrementalRestyle() {
+		return incrementalRestyle;
+	}
+
+	/**
+	 * Enable or disable the incremental restyle mode. In this mode, elements
+	 * passed to {@link #markDirty(Object, boolean)} are restyled together by
+	 * {@link #applyDirtyStyles()} once {@link #scheduleRestyle()} fires, and
+	 * CSS properties whose value is the one already applied to the widget are
+	 * not applied again.
+	 * <p>
+	 * A property is only skipped if the widget still reports, through
+	 * {@link #retrieveCSSProperty(Object, String, String)}, the value it
+	 * reported when the property was applied, so that a value changed outside
+	 * the engine is applied again. The properties whose handlers cannot report
+	 * the value of the widget are always applied. A change which does not show
+	 * in the reported value, for instance a widget set back and forth to
+	 * different colors with the same CSS text, is not detected.
+	 * </p>
+	 * <p>
+	 * The mode is disabled by default, unless the
+	 * {@value #INCREMENTAL_RESTYLE_PROPERTY} system property is set to true.
+	 * </p>
+	 *
+	 * @param incrementalRestyle
+	 */
+	public void setIncrementalRestyle(boolean incrementalRestyle) {
+		this.incrementalRestyle = incrementalRestyle;
+		if (!incrementalRestyle) {
+			applyDirtyStyles();
+		}
+	}
+
+	/**
+	 * Request the styles of the element to be applied again, for instance
+	 * because its CSS class or its pseudo state changed. In incremental
+	 * restyle mode, the element is marked dirty and restyled with all the
+	 * other dirty elements by {@link #applyDirtyStyles()}; otherwise styles
+	 * are applied immediately.
+	 *
+	 * @param element
+	 *            the element or its native widget
+	 * @param applyStylesToChildNodes
+	 *            if true, the child nodes are restyled too
+	 */
+	public void markDirty(Object element, boolean applyStylesToChildNodes) {
+		if (!incrementalRestyle) {
+			restyle(element, applyStylesToChildNodes);
+			return;
+		}
+		Object widget = getNativeWidget(element);
+		if (dirtyElements == null) {
+			dirtyElements = new LinkedHashMap<>();
+		}
+		Boolean subtree = dirtyElements.get(widget);
+		if (subtree == null || (!subtree.booleanValue() && applyStylesToChildNodes)) {
+			dirtyElements.put(widget, Boolean.valueOf(applyStylesToChildNodes));
+		}
+		if (!restyleScheduled) {
+			restyleScheduled = true;
+			boolean scheduled = false;
+			try {
+				scheduleRestyle();
+				scheduled = true;
+			} finally {
+				if (!scheduled) {
+					cancelRestyle();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Called when the first element is marked dirty. Subclasses should
+	 * override to call {@link #applyDirtyStyles()} later, typically once per
+	 * turn of the event loop.
+	 * <p>
+	 * The default implementation restyles the dirty elements immediately.
+	 * Subclasses which cannot schedule the restyle, or whose scheduled restyle
+	 * will not run, must call {@link #cancelRestyle()}.
+	 * </p>
+	 */
+	protected void scheduleRestyle() {
+		applyDirtyStyles();
+	}
+
+	/**
+	 * Forget the elements marked dirty without restyling them, so that the
+	 * next element marked dirty schedules a restyle again.
+	 */
+	protected void cancelRestyle() {
+		restyleScheduled = false;
+		dirtyElements = null;
+	}
+
+	/**
+	 * Restyle all the elements marked dirty since the last call. Elements
+	 * whose ancestor is restyled with its child nodes are not restyled twice.
+	 */
+	public void applyDirtyStyles() {
+		restyleScheduled = false;
+		if (dirtyElements == null || dirtyElements.isEmpty()) {
+			return;
+		}
+		Map<Object, Boolean> dirty = dirtyElements;
+		dirtyElements = null;
+		boolean oldIncrementalPass = incrementalPass;
+		incrementalPass = true;
+		try {
+			for (Map.Entry<Object, Boolean> entry : dirty.entrySet()) {
+				if (!isRestyledWithAncestor(entry.getKey(), dirty)) {
+					restyle(entry.getKey(), entry.getValue().booleanValue());
+				}
+			}
+		} finally {
+			incrementalPass = oldIncrementalPass;
+		}
+	}
+
+	private void restyle(Object element, boolean applyStylesToChildNodes) {
+		try {
+			if (applyStylesToChildNodes) {
+				applyStyles(element, true);
+			} else {
+				// reset the properties which no longer apply
+				applyStyles(element, false, true);
+			}
+		} catch (Exception e) {
+			handleExceptions(e);
+		}
+	}
+
+	private boolean isRestyledWithAncestor(Object widget, Map<Object, Boolean> dirty) {
+		Element elt = getElement(widget);
+		if (elt == null) {
+			return false;
+		}
+		for (Node node = elt.getParentNode(); node != null; node = node.getParentNode()) {
+			if (Boolean.TRUE.equals(dirty.get(getNativeWidget(node)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Return true if <code>cssText</code> is the value last applied to the
+	 * property, and the widget still reports the value it reported then.
+	 */
+	private boolean isApplied(Object element, String property, String pseudo, String cssText,
+			AppliedValue applied) {
+		return applied != null && applied.cssText.equals(cssText)
+				&& applied.widgetValue.equals(retrieveCSSProperty(element, property, pseudo));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, AppliedValue> getAppliedValues(Object element) {
+		CSSElementContext context = getCSSElementContext(element);
+		if (context == null) {
+			return null;
+		}
+		Map<String, AppliedValue> appliedValues = (Map<String, AppliedValue>) context.getData(APPLIED_VALUES_KEY);
+		if (appliedValues == null) {
+			appliedValues = new HashMap<>();
+			context.setData(APPLIED_VALUES_KEY, appliedValues);
+		}
+		return appliedValues;
 	}
 
 	/*--------------- Resources Registry -----------------*/
@@ -40,6 +40,8 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.e4.ui.css.core.engine.CSSElementContext;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.dom.parsers.CSSStyleSheetCache;
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
 import org.eclipse.e4.ui.css.core.util.impl.resources.FileResourcesLocatorImpl;
 import org.eclipse.e4.ui.css.core.util.impl.resources.OSGiResourceLocator;
 import org.eclipse.e4.ui.css.core.util.resources.IResourceLocator;
@@ -77,6 +79,10 @@ public class ThemeEngine implements IThemeEngine {
 
 	private static final String THEMEID_KEY = "themeid";
 
+	private static final String STYLESHEET_CACHE_DIR = "stylesheetCache"; //$NON-NLS-1$
+
+	private CSSStyleSheetCache styleSheetCache;
+
 	public static final String THEME_PLUGIN_ID = "org.eclipse.e4.ui.css.swt.theme";
 
 	public ThemeEngine(Display display) {
@@ -606,10 +612,34 @@ public class ThemeEngine implements IThemeEngine {
 
 	@Override
 	public void addCSSEngine(CSSEngine cssEngine) {
+		if (cssEngine instanceof AbstractCSSEngine
+				&& ((AbstractCSSEngine) cssEngine).getStyleSheetCache() == null) {
+			((AbstractCSSEngine) cssEngine).setStyleSheetCache(getStyleSheetCache());
+		}
 		cssEngines.add(cssEngine);
 		resetCurrentTheme();
 	}
 
+	/**
+	 * Return the cache of parsed style sheets stored in the workspace metadata
+	 * area, or <code>null</code> if there is no workspace.
+	 */
+	private CSSStyleSheetCache getStyleSheetCache() {
+		if (styleSheetCache == null) {
+			Location instanceLocation = org.eclipse.core.runtime.Platform.getInstanceLocation();
+			if (instanceLocation == null || !instanceLocation.isSet() || instanceLocation.isReadOnly()) {
+				return null;
+			}
+			try {
+				URL locationURL = instanceLocation.getDataArea(THEME_PLUGIN_ID + '/' + STYLESHEET_CACHE_DIR);
+				styleSheetCache = new CSSStyleSheetCache(new File(locationURL.getFile()));
+			} catch (IOException e) {
+				ThemeEngineManager.logError(e.getMessage(), e);
+			}
+		}
+		return styleSheetCache;
+	}
+
 	public Collection<CSSEngine> getCSSEngines() {
 		return cssEngines;
 	}
@@ -17,6 +17,7 @@ import org.eclipse.e4.ui.css.core.dom.ArrayNodeList;
 import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
 import org.eclipse.e4.ui.css.core.dom.ChildVisibilityAwareElement;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
 import org.eclipse.e4.ui.css.swt.helpers.CSSSWTColorHelper;
 import org.eclipse.e4.ui.internal.css.swt.ICTabRendering;
 import org.eclipse.swt.custom.CTabFolder;
@@ -42,7 +43,11 @@ public class CTabFolderElement extends CompositeElement implements ChildVisibili
 	private SelectionListener selectionListener = new SelectionAdapter() {
 		@Override
 		public void widgetSelected(SelectionEvent e) {
-			applyStyles(getWidget(), true);
+			if (engine instanceof AbstractCSSEngine) {
+				((AbstractCSSEngine) engine).markDirty(getWidget(), true);
+			} else {
+				applyStyles(getWidget(), true);
+			}
 		}
 
 	};
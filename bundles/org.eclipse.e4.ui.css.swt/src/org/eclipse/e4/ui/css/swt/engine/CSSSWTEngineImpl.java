@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2014 Angelo Zerr and others.
+ * Copyright (c) 2008, 2018 Angelo Zerr and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import org.eclipse.e4.ui.css.core.impl.engine.RegistryCSSElementProvider;
 import org.eclipse.e4.ui.css.core.impl.engine.RegistryCSSPropertyHandlerProvider;
 import org.eclipse.e4.ui.internal.css.swt.CSSActivator;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.widgets.Display;
@@ -31,6 +32,8 @@ public class CSSSWTEngineImpl extends AbstractCSSSWTEngineImpl {
 
 	private DisposeListener disposeListener;
 
+	private boolean restyleCancelledOnDispose;
+
 	public CSSSWTEngineImpl(Display display) {
 		super(display);
 		init();
@@ -70,6 +73,40 @@ public class CSSSWTEngineImpl extends AbstractCSSSWTEngineImpl {
 				RegistryFactory.getRegistry()));
 	}
 
+	/**
+	 * Restyle the dirty elements once the pending events are processed, so
+	 * that focus, hover and selection changes of the same event loop turn
+	 * are coalesced into a single pass. The restyle is cancelled if the
+	 * display is disposed before.
+	 */
+	@Override
+	protected void scheduleRestyle() {
+		if (display.isDisposed()) {
+			cancelRestyle();
+			return;
+		}
+		try {
+			if (!restyleCancelledOnDispose) {
+				display.disposeExec(new Runnable() {
+					@Override
+					public void run() {
+						cancelRestyle();
+					}
+				});
+				restyleCancelledOnDispose = true;
+			}
+			display.asyncExec(new Runnable() {
+				@Override
+				public void run() {
+					applyDirtyStyles();
+				}
+			});
+		} catch (SWTException e) {
+			// the display was disposed in the meantime
+			cancelRestyle();
+		}
+	}
+
 	@Override
 	public void reapply() {
 		Shell[] shells = display.getShells();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
@@ -29,6 +30,8 @@ import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
 import org.eclipse.e4.ui.workbench.UIEvents;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImagePrefetcher;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
@@ -112,6 +115,11 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 		// we specifically do not render them
 		IPresentationEngine renderer = context.get(IPresentationEngine.class);
 
+		// the icons of the tabs are decoded while the tabs are created
+		List<ImageDescriptor> prefetched = ((MUIElement) me) instanceof MPartStack
+				? prefetchImages(me.getChildren())
+				: Collections.<ImageDescriptor> emptyList();
+
 		for (MUIElement element : me.getChildren()) {
 			if (!element.isToBeRendered() || !element.isVisible())
 				continue;
@@ -135,6 +143,10 @@ public abstract class LazyStackRenderer extends SWTPartRenderer {
 				renderer.createGui(element);
 			}
 		}
+
+		// the icons which were not used by the tabs are not kept
+		if (!prefetched.isEmpty())
+			ImagePrefetcher.discard(prefetched);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.workbench.renderers.swt;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,6 +26,7 @@ import org.eclipse.e4.ui.model.application.descriptor.basic.MPartDescriptor;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
 import org.eclipse.e4.ui.model.application.ui.MUILabel;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.services.IStylingEngine;
 import org.eclipse.e4.ui.workbench.IPresentationEngine;
@@ -32,6 +34,8 @@ import org.eclipse.e4.ui.workbench.IResourceUtilities;
 import org.eclipse.e4.ui.workbench.swt.util.ISWTResourceUtilities;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImagePrefetcher;
 import org.eclipse.swt.accessibility.AccessibleAdapter;
 import org.eclipse.swt.accessibility.AccessibleEvent;
 import org.eclipse.swt.graphics.Image;
@@ -223,6 +227,41 @@ public abstract class SWTPartRenderer extends AbstractPartRenderer {
 		return image;
 	}
 
+	/**
+	 * Starts decoding the icons of the given elements in the background, so
+	 * that they are ready when the elements are shown. The icons already
+	 * created, and those overridden by an image, are skipped.
+	 *
+	 * @param elements
+	 *            the elements about to be shown
+	 * @return the descriptors of the prefetched icons, to be discarded with
+	 *         {@link ImagePrefetcher#discard(java.util.Collection)} once the
+	 *         elements are shown
+	 */
+	List<ImageDescriptor> prefetchImages(List<MUIElement> elements) {
+		List<ImageDescriptor> descriptors = new ArrayList<>();
+		for (MUIElement element : elements) {
+			if (!element.isToBeRendered() || !element.isVisible())
+				continue;
+			if (element instanceof MPlaceholder)
+				element = ((MPlaceholder) element).getRef();
+			if (!(element instanceof MUILabel) || element.getTransientData()
+					.containsKey(IPresentationEngine.OVERRIDE_ICON_IMAGE_KEY))
+				continue;
+			String iconURI = getIconURI((MUILabel) element);
+			if (iconURI != null && iconURI.length() > 0
+					&& !imageMap.containsKey(iconURI)) {
+				ImageDescriptor descriptor = resUtils
+						.imageDescriptorFromURI(URI.createURI(iconURI));
+				if (descriptor != null)
+					descriptors.add(descriptor);
+			}
+		}
+		if (!descriptors.isEmpty())
+			ImagePrefetcher.prefetch(descriptors);
+		return descriptors;
+	}
+
 	@Override
 	public Image getImage(MUILabel element) {
 		Image image = (Image) ((MUIElement) element).getTransientData().get(
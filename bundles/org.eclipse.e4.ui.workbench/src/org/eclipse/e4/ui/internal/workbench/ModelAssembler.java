@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 BestSolution.at and others.
+ * Copyright (c) 2010, 2018 BestSolution.at and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,6 +35,7 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Execute;
+import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.contributions.IContributionFactory;
 import org.eclipse.e4.core.services.log.Logger;
 import org.eclipse.e4.ui.model.application.MApplication;
@@ -82,6 +83,13 @@ public class ModelAssembler {
 	@Inject
 	private IExtensionRegistry registry;
 
+	/**
+	 * The cache of the fragments read from their contributors, if any.
+	 */
+	@Inject
+	@Optional
+	private ModelFragmentCache fragmentCache;
+
 	final private static String extensionPointID = "org.eclipse.e4.workbench.model"; //$NON-NLS-1$
 
 	// private static final String ALWAYS = "always"; //$NON-NLS-1$
@@ -109,6 +117,14 @@ public class ModelAssembler {
 		runProcessors(extensions, initial, false);
 		// process fragments (and resolve imports)
 		processFragments(extensions, initial);
+		if (fragmentCache != null) {
+			Set<String> contributorNames = new LinkedHashSet<>();
+			for (IExtension extension : extensions) {
+				contributorNames.add(extension.getContributor().getName());
+			}
+			fragmentCache.retainContributors(contributorNames);
+			fragmentCache.save();
+		}
 		// run processors which are marked to run after fragments
 		runProcessors(extensions, initial, true);
 	}
@@ -300,7 +316,8 @@ public class ModelAssembler {
 
 		Resource resource;
 		try {
-			resource = resourceSet.getResource(uri, true);
+			resource = fragmentCache != null ? fragmentCache.getResource(resourceSet, uri, contributor)
+					: resourceSet.getResource(uri, true);
 		} catch (RuntimeException e) {
 			logger.warn(e, "Unable to read model extension from \"" + uri.toString() + "\" of \"" + bundleName + "\""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			return null;
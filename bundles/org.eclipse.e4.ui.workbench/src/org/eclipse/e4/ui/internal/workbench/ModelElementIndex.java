@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.advanced.impl.AdvancedPackageImpl;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EContentAdapter;
+
+/**
+ * Index of the elements of an {@link MApplication} by element id, tag and
+ * implementation class, kept up to date as the model changes.
+ * <p>
+ * The index does not answer the queries of {@link ModelServiceImpl} by itself,
+ * as the search flags depend on where the elements are in the model. It
+ * provides the elements which may match a query and the model elements a
+ * search has to go through to reach them, so that the search can skip the
+ * rest of the model.
+ * </p>
+ */
+class ModelElementIndex extends EContentAdapter {
+
+	private final MApplication application;
+
+	private final Map<String, Set<MApplicationElement>> elementsById = new HashMap<>();
+
+	private final Map<String, Set<MApplicationElement>> elementsByTag = new HashMap<>();
+
+	private final Map<Class<?>, Set<MApplicationElement>> elementsByClass = new HashMap<>();
+
+	private final Map<MUIElement, Set<MPlaceholder>> placeholdersByRef = new HashMap<>();
+
+	/**
+	 * Whether a placeholder references an element outside of the application,
+	 * or <code>null</code> if it has to be computed again.
+	 */
+	private Boolean hasForeignReferences;
+
+	ModelElementIndex(MApplication application) {
+		this.application = application;
+		index((EObject) application);
+		((EObject) application).eAdapters().add(this);
+	}
+
+	MApplication getApplication() {
+		return application;
+	}
+
+	/**
+	 * Stop tracking the changes of the application model.
+	 */
+	void dispose() {
+		((EObject) application).eAdapters().remove(this);
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		super.notifyChanged(notification);
+		if (notification.isTouch()) {
+			return;
+		}
+
+		Object feature = notification.getFeature();
+		Object notifier = notification.getNotifier();
+		if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__ELEMENT_ID) {
+			MApplicationElement element = (MApplicationElement) notifier;
+			remove(elementsById, notification.getOldStringValue(), element);
+			add(elementsById, notification.getNewStringValue(), element);
+		} else if (feature == ApplicationPackageImpl.Literals.APPLICATION_ELEMENT__TAGS) {
+			if (notification.getEventType() == Notification.MOVE) {
+				return;
+			}
+			MApplicationElement element = (MApplicationElement) notifier;
+			for (Object tag : getValues(notification.getOldValue(), notification)) {
+				// the element may still have another copy of the tag
+				if (!element.getTags().contains(tag)) {
+					remove(elementsByTag, (String) tag, element);
+				}
+			}
+			for (Object tag : getValues(notification.getNewValue(), notification)) {
+				add(elementsByTag, (String) tag, element);
+			}
+		} else if (feature == AdvancedPackageImpl.Literals.PLACEHOLDER__REF) {
+			MPlaceholder placeholder = (MPlaceholder) notifier;
+			remove(placeholdersByRef, (MUIElement) notification.getOldValue(), placeholder);
+			add(placeholdersByRef, (MUIElement) notification.getNewValue(), placeholder);
+			hasForeignReferences = null;
+		} else if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+			if (notification.getEventType() == Notification.MOVE) {
+				return;
+			}
+			for (Object oldValue : getValues(notification.getOldValue(), notification)) {
+				if (oldValue instanceof EObject) {
+					unindex((EObject) oldValue);
+				}
+			}
+			for (Object newValue : getValues(notification.getNewValue(), notification)) {
+				if (newValue instanceof EObject) {
+					index((EObject) newValue);
+				}
+			}
+			hasForeignReferences = null;
+		}
+	}
+
+	private static Collection<?> getValues(Object value, Notification notification) {
+		if (value == null) {
+			return Collections.emptyList();
+		}
+		int eventType = notification.getEventType();
+		if ((eventType == Notification.ADD_MANY || eventType == Notification.REMOVE_MANY)
+				&& value instanceof Collection<?>) {
+			return (Collection<?>) value;
+		}
+		if (eventType == Notification.REMOVE_MANY) {
+			// the new value is the removed positions
+			return Collections.emptyList();
+		}
+		return Collections.singletonList(value);
+	}
+
+	private void index(EObject object) {
+		indexElement(object);
+		for (Iterator<EObject> it = object.eAllContents(); it.hasNext();) {
+			indexElement(it.next());
+		}
+	}
+
+	private void indexElement(EObject object) {
+		if (!(object instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) object;
+		add(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			add(elementsByTag, tag, element);
+		}
+		add(elementsByClass, element.getClass(), element);
+		if (element instanceof MPlaceholder) {
+			add(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+		}
+	}
+
+	private void unindex(EObject object) {
+		unindexElement(object);
+		for (Iterator<EObject> it = object.eAllContents(); it.hasNext();) {
+			unindexElement(it.next());
+		}
+	}
+
+	private void unindexElement(EObject object) {
+		if (!(object instanceof MApplicationElement)) {
+			return;
+		}
+		MApplicationElement element = (MApplicationElement) object;
+		remove(elementsById, element.getElementId(), element);
+		for (String tag : element.getTags()) {
+			remove(elementsByTag, tag, element);
+		}
+		remove(elementsByClass, element.getClass(), element);
+		if (element instanceof MPlaceholder) {
+			remove(placeholdersByRef, ((MPlaceholder) element).getRef(), (MPlaceholder) element);
+		}
+	}
+
+	private static <K, V> void add(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values == null) {
+			values = new HashSet<>();
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	private static <K, V> void remove(Map<K, Set<V>> map, K key, V value) {
+		if (key == null) {
+			return;
+		}
+		Set<V> values = map.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Return the elements of the application which may match a query, or
+	 * <code>null</code> if the index cannot narrow down the query.
+	 *
+	 * @param id
+	 *            the element id, may be <code>null</code>
+	 * @param clazz
+	 *            the element class, may be <code>null</code>
+	 * @param tags
+	 *            the tags which must all be set on the element, may be
+	 *            <code>null</code>
+	 * @return the candidates, which the caller must still match
+	 */
+	Set<MApplicationElement> getCandidates(String id, Class<?> clazz, List<String> tags) {
+		if (hasForeignReferences()) {
+			// the elements outside of the application are not indexed
+			return null;
+		}
+		Set<MApplicationElement> candidates = null;
+		if (id != null) {
+			candidates = get(elementsById, id);
+		}
+		if (tags != null) {
+			for (String tag : tags) {
+				Set<MApplicationElement> tagged = get(elementsByTag, tag);
+				if (candidates == null || tagged.size() < candidates.size()) {
+					candidates = tagged;
+				}
+			}
+		}
+		// the types of all the UI elements would select most of the model
+		if (candidates == null && clazz != null && !clazz.isAssignableFrom(MUIElement.class)) {
+			candidates = new HashSet<>();
+			for (Map.Entry<Class<?>, Set<MApplicationElement>> entry : elementsByClass.entrySet()) {
+				if (clazz.isAssignableFrom(entry.getKey())) {
+					candidates.addAll(entry.getValue());
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private static <K, V> Set<V> get(Map<K, Set<V>> map, K key) {
+		Set<V> values = map.get(key);
+		return values == null ? Collections.<V> emptySet() : values;
+	}
+
+	/**
+	 * Return the elements a search has to go through to reach the candidates:
+	 * the candidates, their containers and the placeholders referencing any of
+	 * them.
+	 *
+	 * @param candidates
+	 *            the elements which may match the search
+	 * @return the elements to search
+	 */
+	Set<Object> getSearchPath(Collection<? extends MApplicationElement> candidates) {
+		Set<Object> path = new HashSet<>();
+		Deque<EObject> pending = new ArrayDeque<>();
+		for (MApplicationElement candidate : candidates) {
+			pending.add((EObject) candidate);
+		}
+		while (!pending.isEmpty()) {
+			EObject object = pending.poll();
+			if (!path.add(object)) {
+				continue;
+			}
+			if (object.eContainer() != null) {
+				pending.add(object.eContainer());
+			}
+			Set<MPlaceholder> placeholders = placeholdersByRef.get(object);
+			if (placeholders != null) {
+				for (MPlaceholder placeholder : placeholders) {
+					pending.add((EObject) placeholder);
+				}
+			}
+		}
+		return path;
+	}
+
+	private boolean hasForeignReferences() {
+		if (hasForeignReferences == null) {
+			hasForeignReferences = Boolean.FALSE;
+			for (MUIElement ref : placeholdersByRef.keySet()) {
+				if (!isContained((EObject) ref)) {
+					hasForeignReferences = Boolean.TRUE;
+					break;
+				}
+			}
+		}
+		return hasForeignReferences.booleanValue();
+	}
+
+	private boolean isContained(EObject object) {
+		for (EObject container = object; container != null; container = container.eContainer()) {
+			if (container == application) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.eclipse.core.runtime.ContributorFactoryOSGi;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * A cache of the model fragments contributed to the application model. Each
+ * fragment read from its contributor is kept in the EMF binary format, with
+ * the identifiers of its elements, and is read from the cache on the next
+ * start as long as neither its contributor, nor the fragment, nor the
+ * application model have changed. Only the fragments of the changed
+ * contributors are thus parsed again.
+ * <p>
+ * The fragments are still merged on each start, as the application model they
+ * are merged into is restored or created anew.
+ * </p>
+ */
+public class ModelFragmentCache {
+
+	private static final String INDEX_FILE = "fragments.properties"; //$NON-NLS-1$
+
+	/**
+	 * The key of the version of the application model in the index, which
+	 * invalidates all the fragments when it changes.
+	 */
+	private static final String MODEL_VERSION_KEY = "modelVersion"; //$NON-NLS-1$
+
+	private static final String SEPARATOR = ";"; //$NON-NLS-1$
+
+	private static final Map<String, Boolean> BINARY_OPTIONS = Collections.singletonMap(XMLResource.OPTION_BINARY,
+			Boolean.TRUE);
+
+	private final File location;
+
+	private final Logger logger;
+
+	/**
+	 * Maps the URI of each cached fragment to the stamp of the version it was
+	 * cached from.
+	 */
+	private Properties index;
+
+	private boolean dirty;
+
+	/**
+	 * Creates a cache kept in the given directory.
+	 *
+	 * @param location
+	 *            the directory, created when the cache is first saved
+	 * @param logger
+	 *            the logger for the errors reading or writing the cache, or
+	 *            <code>null</code>
+	 */
+	public ModelFragmentCache(File location, Logger logger) {
+		this.location = location;
+		this.logger = logger;
+	}
+
+	/**
+	 * Returns the resource of the model fragment at the given URI, reading it
+	 * from the cache if it is up to date, and otherwise from the URI, in which
+	 * case it is added to the cache.
+	 *
+	 * @param resourceSet
+	 *            the resource set to create the resource in
+	 * @param uri
+	 *            the URI of the model fragment
+	 * @param contributor
+	 *            the contributor of the model fragment
+	 * @return the loaded resource
+	 * @throws RuntimeException
+	 *             if the fragment cannot be read from the URI, as thrown by
+	 *             {@link ResourceSet#getResource(URI, boolean)}
+	 */
+	public Resource getResource(ResourceSet resourceSet, URI uri, IContributor contributor) {
+		Resource loaded = resourceSet.getResource(uri, false);
+		if (loaded != null && loaded.isLoaded()) {
+			return loaded;
+		}
+		String stamp = getStamp(resourceSet, uri, contributor);
+		if (stamp == null) {
+			return resourceSet.getResource(uri, true);
+		}
+		Properties index = getIndex();
+		File file = getCacheFile(uri);
+		if (stamp.equals(index.getProperty(uri.toString())) && file.isFile()) {
+			Resource resource = resourceSet.createResource(uri);
+			try (InputStream inputStream = new FileInputStream(file)) {
+				resource.load(inputStream, BINARY_OPTIONS);
+				return resource;
+			} catch (IOException | RuntimeException e) {
+				log(e, "Unable to read the cached model fragment " + file); //$NON-NLS-1$
+				resourceSet.getResources().remove(resource);
+			}
+		}
+
+		Resource resource = resourceSet.getResource(uri, true);
+		// saved before the fragment elements are merged into the application
+		try {
+			location.mkdirs();
+			try (OutputStream outputStream = new FileOutputStream(file)) {
+				resource.save(outputStream, BINARY_OPTIONS);
+			}
+			index.setProperty(uri.toString(), stamp);
+		} catch (IOException | RuntimeException e) {
+			log(e, "Unable to cache the model fragment " + uri); //$NON-NLS-1$
+			index.remove(uri.toString());
+			file.delete();
+		}
+		dirty = true;
+		return resource;
+	}
+
+	/**
+	 * Removes the fragments of the bundles which no longer contribute to the
+	 * application model.
+	 *
+	 * @param contributorNames
+	 *            the names of the contributing bundles
+	 */
+	public void retainContributors(Collection<String> contributorNames) {
+		Properties index = getIndex();
+		Set<String> names = new HashSet<>(contributorNames);
+		for (String uri : index.stringPropertyNames()) {
+			if (uri.equals(MODEL_VERSION_KEY)) {
+				continue;
+			}
+			String stamp = index.getProperty(uri);
+			int end = stamp.indexOf(SEPARATOR);
+			if (end < 0 || !names.contains(stamp.substring(0, end))) {
+				index.remove(uri);
+				getCacheFile(URI.createURI(uri)).delete();
+				dirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Saves the index of the cache, if it changed.
+	 */
+	public void save() {
+		if (!dirty) {
+			return;
+		}
+		location.mkdirs();
+		try (OutputStream outputStream = new FileOutputStream(new File(location, INDEX_FILE))) {
+			index.store(outputStream, null);
+			dirty = false;
+		} catch (IOException e) {
+			log(e, "Unable to save the model fragment cache"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Removes all the fragments from the cache.
+	 */
+	public void clear() {
+		File[] files = location.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		index = null;
+		dirty = false;
+	}
+
+	private Properties getIndex() {
+		if (index != null) {
+			return index;
+		}
+		index = new Properties();
+		File file = new File(location, INDEX_FILE);
+		if (file.isFile()) {
+			try (InputStream inputStream = new FileInputStream(file)) {
+				index.load(inputStream);
+			} catch (IOException | IllegalArgumentException e) {
+				log(e, "Unable to read the model fragment cache"); //$NON-NLS-1$
+				index.clear();
+			}
+		}
+		String modelVersion = getVersion(FrameworkUtil.getBundle(MApplication.class));
+		if (!modelVersion.equals(index.getProperty(MODEL_VERSION_KEY))) {
+			index.clear();
+			index.setProperty(MODEL_VERSION_KEY, modelVersion);
+			dirty = true;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the stamp identifying the version of the fragment at the given
+	 * URI, which starts with the name of its contributor.
+	 *
+	 * @return the stamp, or <code>null</code> if the contributor cannot be
+	 *         resolved, in which case the fragment is not cached
+	 */
+	private String getStamp(ResourceSet resourceSet, URI uri, IContributor contributor) {
+		Bundle bundle;
+		try {
+			bundle = ContributorFactoryOSGi.resolve(contributor);
+		} catch (RuntimeException e) {
+			// not contributed by a bundle
+			return null;
+		}
+		if (bundle == null) {
+			return null;
+		}
+		Map<String, ?> attributes = resourceSet.getURIConverter().getAttributes(uri,
+				Collections.singletonMap(URIConverter.OPTION_REQUESTED_ATTRIBUTES,
+						Collections.singleton(URIConverter.ATTRIBUTE_TIME_STAMP)));
+		Object timestamp = attributes.get(URIConverter.ATTRIBUTE_TIME_STAMP);
+		return contributor.getName() + SEPARATOR + getVersion(bundle) + SEPARATOR + bundle.getLastModified()
+				+ SEPARATOR + (timestamp == null ? "" : timestamp); //$NON-NLS-1$
+	}
+
+	private static String getVersion(Bundle bundle) {
+		return bundle == null ? "" : bundle.getVersion().toString(); //$NON-NLS-1$
+	}
+
+	private File getCacheFile(URI uri) {
+		try {
+			return new File(location, URLEncoder.encode(uri.toString(), "UTF-8") + ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (UnsupportedEncodingException e) {
+			// UTF-8 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void log(Throwable e, String message) {
+		if (logger != null) {
+			logger.warn(e, message);
+		}
+	}
+}
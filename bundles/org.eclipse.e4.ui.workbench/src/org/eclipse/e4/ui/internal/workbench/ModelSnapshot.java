@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * A copy of a model kept up to date with the changes of the model. The
+ * notifications of the {@link UIEventPublisher} of the model tell which
+ * objects change, and {@link #update()} copies the persisted features of those
+ * objects only, copying the new objects with their contents. Updating the copy
+ * therefore costs in proportion to the changes since the last update, instead
+ * of the size of the model.
+ * <p>
+ * The copy is made on the first update, and is only softly referenced between
+ * the updates: when memory runs low, it is released and made again on the next
+ * update.
+ * </p>
+ * <p>
+ * The model and the copy may only be accessed in the UI thread, except that
+ * the copy may be read, e.g. copied and saved, in another thread until the
+ * next update.
+ * </p>
+ */
+public class ModelSnapshot {
+
+	private final EObject model;
+
+	private final UIEventPublisher publisher;
+
+	/**
+	 * The copier mapping the objects of the model to their copies.
+	 */
+	private SoftReference<SnapshotCopier> copierReference = new SoftReference<>(null);
+
+	/**
+	 * The objects with a persisted feature changed since the last update.
+	 */
+	private final Set<EObject> changedObjects = new LinkedHashSet<>();
+
+	/**
+	 * The objects removed from a containment feature since the last update.
+	 */
+	private final Set<EObject> removedObjects = new LinkedHashSet<>();
+
+	private final Consumer<Notification> recorder = notification -> {
+		if (!(notification.getNotifier() instanceof EObject)
+				|| !(notification.getFeature() instanceof EStructuralFeature)
+				|| copierReference.get() == null) {
+			// the next update copies the whole model
+			return;
+		}
+		EStructuralFeature feature = (EStructuralFeature) notification.getFeature();
+		if (!isPersisted(feature)) {
+			return;
+		}
+		changedObjects.add((EObject) notification.getNotifier());
+		if (feature instanceof EReference && ((EReference) feature).isContainment()) {
+			recordRemoved(notification.getOldValue());
+		}
+	};
+
+	/**
+	 * Starts recording the changes of the given model. The model is copied on
+	 * the first update.
+	 *
+	 * @param model
+	 *            the model
+	 * @param publisher
+	 *            the publisher of the notifications of the model
+	 */
+	public ModelSnapshot(EObject model, UIEventPublisher publisher) {
+		this.model = model;
+		this.publisher = publisher;
+		publisher.addNotificationListener(recorder);
+	}
+
+	/**
+	 * Brings the copy up to date with the changes of the model since the last
+	 * update, or copies the whole model if there is no copy yet.
+	 *
+	 * @return the copy of the model
+	 */
+	public EObject update() {
+		SnapshotCopier copier = copierReference.get();
+		if (copier == null) {
+			changedObjects.clear();
+			removedObjects.clear();
+			copier = new SnapshotCopier();
+			EObject snapshot = copier.copy(model);
+			copier.copyReferences();
+			copierReference = new SoftReference<>(copier);
+			return snapshot;
+		}
+		EObject snapshot = copier.get(model);
+		if (changedObjects.isEmpty()) {
+			return snapshot;
+		}
+		Update update = new Update(copier);
+		update.objects.addAll(changedObjects);
+		// the list grows with the objects moved by the changes
+		for (int i = 0; i < update.objects.size(); i++) {
+			EObject object = update.objects.get(i);
+			EObject copy = copier.get(object);
+			// new objects are copied with their container
+			if (copy != null && update.updatedObjects.add(object) && EcoreUtil.isAncestor(model, object)) {
+				copyFeatures(object, copy, update);
+			}
+		}
+		for (EObject object : removedObjects) {
+			if (!EcoreUtil.isAncestor(model, object)) {
+				forget(object, copier);
+			}
+		}
+		for (EObject object : update.updatedObjects) {
+			EObject copy = copier.get(object);
+			if (copy != null) {
+				copier.copyReferences(object, copy);
+			}
+		}
+		for (EObject object : update.addedObjects) {
+			copier.copyReferences(object, copier.get(object));
+			for (Iterator<EObject> it = object.eAllContents(); it.hasNext();) {
+				EObject content = it.next();
+				copier.copyReferences(content, copier.get(content));
+			}
+		}
+		changedObjects.clear();
+		removedObjects.clear();
+		return snapshot;
+	}
+
+	/**
+	 * The objects visited by one update.
+	 */
+	private static class Update {
+		final SnapshotCopier copier;
+
+		/**
+		 * The objects whose features are to be copied.
+		 */
+		final List<EObject> objects = new ArrayList<>();
+
+		/**
+		 * The objects whose features were copied.
+		 */
+		final Set<EObject> updatedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		/**
+		 * The new objects copied with their contents.
+		 */
+		final List<EObject> addedObjects = new ArrayList<>();
+
+		Update(SnapshotCopier copier) {
+			this.copier = copier;
+		}
+	}
+
+	/**
+	 * Stops recording the changes of the model, and releases the copy.
+	 */
+	public void dispose() {
+		publisher.removeNotificationListener(recorder);
+		copierReference = new SoftReference<>(null);
+		changedObjects.clear();
+		removedObjects.clear();
+	}
+
+	private void recordRemoved(Object oldValue) {
+		if (oldValue instanceof EObject) {
+			removedObjects.add((EObject) oldValue);
+		} else if (oldValue instanceof Collection<?>) {
+			for (Object value : (Collection<?>) oldValue) {
+				recordRemoved(value);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void copyFeatures(EObject object, EObject copy, Update update) {
+		for (EStructuralFeature feature : object.eClass().getEAllStructuralFeatures()) {
+			if (!isPersisted(feature)) {
+				continue;
+			}
+			if (feature instanceof EReference) {
+				if (!((EReference) feature).isContainment()) {
+					// copied once the new objects are copied
+					continue;
+				}
+				if (feature.isMany()) {
+					List<EObject> children = (List<EObject>) object.eGet(feature);
+					List<EObject> childCopies = new ArrayList<>(children.size());
+					for (EObject child : children) {
+						childCopies.add(copyOf(child, copy, update));
+					}
+					ECollections.setEList((EList<EObject>) copy.eGet(feature), childCopies);
+				} else if (object.eIsSet(feature)) {
+					copy.eSet(feature, copyOf((EObject) object.eGet(feature), copy, update));
+				} else {
+					copy.eUnset(feature);
+				}
+			} else if (object.eIsSet(feature)) {
+				copy.eSet(feature, object.eGet(feature));
+			} else {
+				copy.eUnset(feature);
+			}
+		}
+	}
+
+	/**
+	 * Returns the copy of a child, copying it if it is new. The copy of a
+	 * child which was moved or removed and added back is kept, so that the
+	 * references to it stay valid, but its features and those of its contents
+	 * are copied again, as they may have changed while it was not in the
+	 * model.
+	 */
+	private EObject copyOf(EObject child, EObject parentCopy, Update update) {
+		if (child == null) {
+			return null;
+		}
+		EObject copy = update.copier.get(child);
+		if (copy == null) {
+			copy = update.copier.copy(child);
+			update.addedObjects.add(child);
+		} else if (copy.eContainer() != parentCopy || removedObjects.contains(child)) {
+			update.objects.add(child);
+			for (Iterator<EObject> it = child.eAllContents(); it.hasNext();) {
+				update.objects.add(it.next());
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Forgets the copies of an object removed from the model and of its
+	 * contents, so that they are copied again if the object is added back.
+	 */
+	private static void forget(EObject object, SnapshotCopier copier) {
+		copier.remove(object);
+		for (Iterator<EObject> it = object.eAllContents(); it.hasNext();) {
+			copier.remove(it.next());
+		}
+	}
+
+	private static boolean isPersisted(EStructuralFeature feature) {
+		return feature.isChangeable() && !feature.isDerived() && !feature.isTransient()
+				&& !(feature instanceof EReference && ((EReference) feature).isContainer());
+	}
+
+	/**
+	 * Copies the references of the changed objects one at a time.
+	 */
+	private static class SnapshotCopier extends EcoreUtil.Copier {
+
+		private static final long serialVersionUID = 1L;
+
+		void copyReferences(EObject object, EObject copy) {
+			for (EStructuralFeature feature : object.eClass().getEAllStructuralFeatures()) {
+				if (feature instanceof EReference && isPersisted(feature)
+						&& !((EReference) feature).isContainment()) {
+					EReference reference = (EReference) feature;
+					if (!reference.isMany() && !object.eIsSet(reference)) {
+						copy.eUnset(reference);
+					} else if (reference.isMany()) {
+						// replaced, as the copier only adds the values
+						((List<?>) copy.eGet(reference)).clear();
+						copyReference(reference, object, copy);
+					} else {
+						copyReference(reference, object, copy);
+					}
+				}
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -49,6 +49,7 @@ import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.xmi.XMLResource;
 import org.eclipse.osgi.service.datalocation.Location;
 import org.osgi.framework.Bundle;
 
@@ -57,6 +58,16 @@ import org.osgi.framework.Bundle;
  */
 public class ResourceHandler implements IModelResourceHandler {
 
+	/**
+	 * The name of the file of the model saved in the EMF binary format.
+	 */
+	static final String BINARY_MODEL_FILE = "workbench.bin"; //$NON-NLS-1$
+
+	/**
+	 * The name of the directory of the cache of the model fragments.
+	 */
+	static final String FRAGMENT_CACHE_DIRECTORY = "fragments"; //$NON-NLS-1$
+
 	private ResourceSetImpl resourceSetImpl;
 	private Resource resource;
 
@@ -75,6 +86,16 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Named(E4Workbench.INSTANCE_LOCATION)
 	private Location instanceLocation;
 
+	/**
+	 * Dictates whether the model is saved in the EMF binary format, which
+	 * loads faster than XMI. The most recent of the saved models is restored
+	 * whatever the format.
+	 */
+	@Inject
+	@Optional
+	@Named(E4Workbench.BINARY_MODEL)
+	private boolean binaryModel;
+
 	/**
 	 * Dictates whether the model should be stored using EMF or with the merging algorithm.
 	 * https://bugs.eclipse.org/bugs/show_bug.cgi?id=295524
@@ -143,30 +164,49 @@ public class ResourceHandler implements IModelResourceHandler {
 	@Override
 	public Resource loadMostRecentModel() {
 		File workbenchData = null;
+		File binaryWorkbenchData = null;
 		URI restoreLocation = null;
 
 		if (saveAndRestore) {
 			workbenchData = getWorkbenchSaveLocation();
+			binaryWorkbenchData = getBinaryWorkbenchSaveLocation();
 			restoreLocation = URI.createFileURI(workbenchData.getAbsolutePath());
 		}
 
-		if (clearPersistedState && workbenchData != null && workbenchData.exists()) {
-			workbenchData.delete();
+		if (clearPersistedState && workbenchData != null) {
+			if (workbenchData.exists()) {
+				workbenchData.delete();
+			}
+			if (binaryWorkbenchData.exists()) {
+				binaryWorkbenchData.delete();
+			}
 		}
 
-		// last stored time-stamp
+		// last stored time-stamps
 		long restoreLastModified = restoreLocation == null ? 0L : new File(
 				restoreLocation.toFileString()).lastModified();
+		long binaryLastModified = binaryWorkbenchData == null ? 0L : binaryWorkbenchData.lastModified();
 
 		// See bug 380663, bug 381219
 		// long lastApplicationModification = getLastApplicationModification();
 		// boolean restore = restoreLastModified > lastApplicationModification;
-		boolean restore = restoreLastModified > 0;
+		boolean restore = restoreLastModified > 0 || binaryLastModified > 0;
 		boolean initialModel;
 
 		resource = null;
 		if (restore && saveAndRestore) {
-			resource = loadResource(restoreLocation);
+			// the format being saved wins if both models were saved at once
+			if (binaryLastModified > restoreLastModified
+					|| (binaryModel && binaryLastModified == restoreLastModified)) {
+				resource = loadBinaryResource(URI.createFileURI(binaryWorkbenchData.getAbsolutePath()));
+			}
+			if (resource == null && restoreLastModified > 0) {
+				resource = loadResource(restoreLocation);
+			}
+			if (resource != null) {
+				// the model is saved again in the requested format
+				setSaveFormat(resource);
+			}
 			// If the saved model does not have any top-level windows, Eclipse will exit
 			// immediately, so throw out the persisted state and reinitialize with the defaults.
 			if (!hasTopLevelWindows(resource)) {
@@ -192,6 +232,14 @@ public class ResourceHandler implements IModelResourceHandler {
 		MApplication appElement = (MApplication) resource.getContents().get(0);
 
 		this.context.set(MApplication.class, appElement);
+		if (saveAndRestore) {
+			ModelFragmentCache fragmentCache = new ModelFragmentCache(
+					new File(getBaseLocation(), FRAGMENT_CACHE_DIRECTORY), logger);
+			if (clearPersistedState) {
+				fragmentCache.clear();
+			}
+			this.context.set(ModelFragmentCache.class, fragmentCache);
+		}
 		ModelAssembler contribProcessor = ContextInjectionFactory.make(ModelAssembler.class,
 				context);
 		contribProcessor.processModel(initialModel);
@@ -231,17 +279,44 @@ public class ResourceHandler implements IModelResourceHandler {
 
 	private Resource createResource() {
 		if (saveAndRestore) {
-			URI saveLocation = URI.createFileURI(getWorkbenchSaveLocation().getAbsolutePath());
-			return resourceSetImpl.createResource(saveLocation);
+			Resource resource = resourceSetImpl.createResource(getSaveLocation());
+			setSaveFormat(resource);
+			return resource;
 		}
 		return resourceSetImpl.createResource(URI.createURI("workbench.xmi")); //$NON-NLS-1$
 	}
 
+	/**
+	 * Makes the given resource save to the save location of the requested
+	 * format.
+	 */
+	private void setSaveFormat(Resource resource) {
+		resource.setURI(getSaveLocation());
+		if (resource instanceof XMLResource) {
+			Map<Object, Object> saveOptions = ((XMLResource) resource).getDefaultSaveOptions();
+			if (binaryModel) {
+				saveOptions.put(XMLResource.OPTION_BINARY, Boolean.TRUE);
+			} else {
+				saveOptions.remove(XMLResource.OPTION_BINARY);
+			}
+		}
+	}
+
+	private URI getSaveLocation() {
+		File workbenchData = binaryModel ? getBinaryWorkbenchSaveLocation() : getWorkbenchSaveLocation();
+		return URI.createFileURI(workbenchData.getAbsolutePath());
+	}
+
 	private File getWorkbenchSaveLocation() {
 		File workbenchData = new File(getBaseLocation(), "workbench.xmi"); //$NON-NLS-1$
 		return workbenchData;
 	}
 
+	private File getBinaryWorkbenchSaveLocation() {
+		File workbenchData = new File(getBaseLocation(), BINARY_MODEL_FILE);
+		return workbenchData;
+	}
+
 	private File getBaseLocation() {
 		File baseLocation;
 		try {
@@ -280,6 +355,28 @@ public class ResourceHandler implements IModelResourceHandler {
 		return resource;
 	}
 
+	/**
+	 * Loads a model saved in the EMF binary format. The identifiers of the
+	 * elements are saved with the model, as in XMI.
+	 *
+	 * @return the resource, or <code>null</code> if the model cannot be read,
+	 *         e.g. if it is corrupt or was saved with an incompatible version
+	 *         of the application model, in which case the XMI model should be
+	 *         restored instead
+	 */
+	private Resource loadBinaryResource(URI uri) {
+		Resource resource = resourceSetImpl.createResource(uri);
+		try {
+			resource.load(Collections.singletonMap(XMLResource.OPTION_BINARY, Boolean.TRUE));
+		} catch (Exception e) {
+			logger.warn(e, "Unable to load binary resource " + uri.toString() //$NON-NLS-1$
+					+ ", restoring the XMI model instead"); //$NON-NLS-1$
+			resourceSetImpl.getResources().remove(resource);
+			return null;
+		}
+		return resource;
+	}
+
 	private Resource getResource(URI uri) throws Exception {
 		Resource resource;
 		if (saveAndRestore) {
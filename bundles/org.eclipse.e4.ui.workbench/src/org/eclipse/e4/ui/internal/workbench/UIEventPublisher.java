@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,18 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.di.UISynchronize;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.application.impl.StringToObjectMapImpl;
 import org.eclipse.e4.ui.model.application.impl.StringToStringMapImpl;
@@ -30,11 +38,73 @@ import org.osgi.service.log.LogService;
 
 /**
  * Transforms E4 MPart events into 3.x legacy events.
+ * <p>
+ * The values set to an attribute of an element in the UI thread are coalesced
+ * within a turn of the event loop: the first change of the turn is sent right
+ * away, and the following ones are merged into a single event sent at the end
+ * of the turn, through the {@link UISynchronize} of the context. Changes made
+ * in other threads, and the other notifications, are sent right away.
+ * </p>
  */
 public class UIEventPublisher extends EContentAdapter {
 
+	private static final String[] EVENT_TYPES = new String[Notification.MOVE + 1];
+
+	static {
+		EVENT_TYPES[Notification.SET] = EventTypes.SET;
+		EVENT_TYPES[Notification.ADD] = EventTypes.ADD;
+		EVENT_TYPES[Notification.ADD_MANY] = EventTypes.ADD_MANY;
+		EVENT_TYPES[Notification.REMOVE] = EventTypes.REMOVE;
+		EVENT_TYPES[Notification.REMOVE_MANY] = EventTypes.REMOVE_MANY;
+		EVENT_TYPES[Notification.MOVE] = EventTypes.MOVE;
+	}
+
 	private IEclipseContext context;
 
+	private IEventBroker eventBroker;
+
+	/**
+	 * The topics of the model features and of the map attributes, indexed by
+	 * notification type.
+	 */
+	private final Map<Object, String[]> topics = new ConcurrentHashMap<>();
+
+	/**
+	 * The listeners told of the notifications of the model.
+	 */
+	private final List<Consumer<Notification>> notificationListeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The thread running the runnables posted to the {@link UISynchronize},
+	 * once a first runnable ran.
+	 */
+	private volatile Thread uiThread;
+
+	private volatile boolean uiThreadProbed;
+
+	// the state of the current turn, only used in the UI thread
+
+	private boolean turnEndPosted;
+
+	/**
+	 * The attributes set during the current turn, by element and topic, mapped
+	 * to the event of their next changes if they changed again.
+	 */
+	private final Map<MApplicationElement, Map<String, QueuedEvent>> turnSets = new IdentityHashMap<>();
+
+	private final List<QueuedEvent> queuedEvents = new ArrayList<>();
+
+	private static class QueuedEvent {
+		final String topic;
+		final Map<String, Object> argMap;
+		boolean merged;
+
+		QueuedEvent(String topic, Map<String, Object> argMap) {
+			this.topic = topic;
+			this.argMap = argMap;
+		}
+	}
+
 	/**
 	 * @param e4Context
 	 */
@@ -50,17 +120,132 @@ public class UIEventPublisher extends EContentAdapter {
 		if (notification.isTouch())
 			return;
 
-		// Format the EMF event as an E4 UIEvent
+		for (Consumer<Notification> listener : notificationListeners) {
+			listener.accept(notification);
+		}
+
+		// Format the EMF event as an E4 UIEvent. The map can't be reused, the
+		// broker passes it on to the handlers as the event data
 		Map<String, Object> argMap = new HashMap<>();
 
 		String topic = formatData(notification, argMap);
 
 		if (topic != null) {
-			IEventBroker eventManager = context.get(IEventBroker.class);
-			eventManager.send(topic, argMap);
+			if (notification.getEventType() == Notification.SET
+					&& notification.getNotifier() instanceof MApplicationElement && isUIThread()) {
+				coalesce((MApplicationElement) notification.getNotifier(), topic, argMap);
+			} else {
+				send(topic, argMap);
+			}
+		}
+	}
+
+	/**
+	 * Adds a listener told of each notification of the model which changes a
+	 * value, in the thread making the change, so that it does not need an
+	 * adapter on the whole model of its own.
+	 *
+	 * @param listener
+	 *            the listener
+	 */
+	public void addNotificationListener(Consumer<Notification> listener) {
+		notificationListeners.add(listener);
+	}
+
+	/**
+	 * @param listener
+	 *            the listener to remove
+	 */
+	public void removeNotificationListener(Consumer<Notification> listener) {
+		notificationListeners.remove(listener);
+	}
+
+	private boolean isUIThread() {
+		Thread thread = uiThread;
+		if (thread != null) {
+			return thread == Thread.currentThread();
+		}
+		if (!uiThreadProbed) {
+			UISynchronize uiSynchronize = context.get(UISynchronize.class);
+			if (uiSynchronize != null) {
+				uiThreadProbed = true;
+				uiSynchronize.asyncExec(() -> uiThread = Thread.currentThread());
+			}
+		}
+		return false;
+	}
+
+	private void coalesce(MApplicationElement element, String topic, Map<String, Object> argMap) {
+		Map<String, QueuedEvent> elementSets = turnSets.get(element);
+		if (elementSets == null) {
+			elementSets = new HashMap<>();
+			turnSets.put(element, elementSets);
+		}
+		if (!elementSets.containsKey(topic)) {
+			// the first change of the turn is not delayed
+			elementSets.put(topic, null);
+			postTurnEnd();
+			send(topic, argMap);
+			return;
+		}
+		QueuedEvent queued = elementSets.get(topic);
+		if (queued == null) {
+			queued = new QueuedEvent(topic, argMap);
+			elementSets.put(topic, queued);
+			queuedEvents.add(queued);
+			return;
+		}
+
+		// keep the value before the first queued change, take everything
+		// else from the last one
+		Object oldValue = queued.argMap.get(EventTags.OLD_VALUE);
+		queued.argMap.clear();
+		queued.argMap.putAll(argMap);
+		queued.argMap.remove(EventTags.OLD_VALUE);
+		if (oldValue != null) {
+			queued.argMap.put(EventTags.OLD_VALUE, oldValue);
+		}
+		queued.merged = true;
+	}
+
+	private void postTurnEnd() {
+		if (turnEndPosted) {
+			return;
+		}
+		UISynchronize uiSynchronize = context.get(UISynchronize.class);
+		if (uiSynchronize != null) {
+			turnEndPosted = true;
+			uiSynchronize.asyncExec(this::endTurn);
+		} else {
+			turnSets.clear();
 		}
 	}
 
+	/**
+	 * Send the queued events at the end of the turn.
+	 */
+	private void endTurn() {
+		turnEndPosted = false;
+		List<QueuedEvent> events = new ArrayList<>(queuedEvents);
+		queuedEvents.clear();
+		turnSets.clear();
+		for (QueuedEvent event : events) {
+			// values set back to what they were
+			if (event.merged && Objects.equals(event.argMap.get(EventTags.OLD_VALUE),
+					event.argMap.get(EventTags.NEW_VALUE))) {
+				continue;
+			}
+			send(event.topic, event.argMap);
+		}
+	}
+
+	private void send(String topic, Map<String, Object> argMap) {
+		if (eventBroker == null) {
+			eventBroker = context.get(IEventBroker.class);
+		}
+		eventBroker.send(topic, argMap);
+	}
+
 	/**
 	 * Large hack here. Open to better suggestions
 	 *
@@ -115,7 +300,7 @@ public class UIEventPublisher extends EContentAdapter {
 			appElement = (MApplicationElement) notifier;
 			feature = (EStructuralFeature) notification.getFeature();
 			attributeName = feature.getName();
-			topic = getTopic(feature, getEventType(notification));
+			topic = getCachedTopic(feature, notification.getEventType());
 			switch (notification.getEventType()) {
 			case Notification.MOVE:
 				// for MOVE, oldValue is actually the source position
@@ -165,7 +350,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.TRANSIENTDATA;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getCachedTopic(attributeName, notification.getEventType());
 
 			// We need to send MapEntries for the old and new values.
 			oldValue = createMapEntry(key, notification.getOldValue());
@@ -188,7 +373,7 @@ public class UIEventPublisher extends EContentAdapter {
 			}
 
 			attributeName = UIEvents.ApplicationElement.PERSISTEDSTATE;
-			topic = getTopic(attributeName, getEventType(notification));
+			topic = getCachedTopic(attributeName, notification.getEventType());
 			oldValue = createMapEntry(key, notification.getOldValue());
 			newValue = createMapEntry(key, notification.getNewValue());
 		} else {
@@ -226,27 +411,14 @@ public class UIEventPublisher extends EContentAdapter {
 	}
 
 	private String getEventType(Notification notification) {
-		switch (notification.getEventType()) {
-		case Notification.ADD:
-			return EventTypes.ADD;
-
-		case Notification.ADD_MANY:
-			return EventTypes.ADD_MANY;
-
-		case Notification.REMOVE:
-			return EventTypes.REMOVE;
-
-		case Notification.REMOVE_MANY:
-			return EventTypes.REMOVE_MANY;
-
-		case Notification.MOVE:
-			return EventTypes.MOVE;
+		return getEventType(notification.getEventType());
+	}
 
-			// case Notification.UNSET: doesn't appear to be generated
-		case Notification.SET:
-			return EventTypes.SET;
+	private String getEventType(int eventType) {
+		// case Notification.UNSET: doesn't appear to be generated
+		if (eventType >= 0 && eventType < EVENT_TYPES.length && EVENT_TYPES[eventType] != null) {
+			return EVENT_TYPES[eventType];
 		}
-
 		return "UNKNOWN"; //$NON-NLS-1$
 	}
 
@@ -269,6 +441,34 @@ public class UIEventPublisher extends EContentAdapter {
 		};
 	}
 
+	/**
+	 * Return the topic of an event, the key being either the model feature or
+	 * the name of the map attribute.
+	 */
+	private String getCachedTopic(Object key, int eventType) {
+		if (eventType < 0 || eventType >= EVENT_TYPES.length) {
+			return createTopic(key, getEventType(eventType));
+		}
+		String[] keyTopics = topics.get(key);
+		if (keyTopics == null) {
+			keyTopics = new String[EVENT_TYPES.length];
+			topics.put(key, keyTopics);
+		}
+		String topic = keyTopics[eventType];
+		if (topic == null) {
+			topic = createTopic(key, getEventType(eventType));
+			keyTopics[eventType] = topic;
+		}
+		return topic;
+	}
+
+	private String createTopic(Object key, String type) {
+		if (key instanceof EStructuralFeature) {
+			return getTopic((EStructuralFeature) key, type);
+		}
+		return getTopic((String) key, type);
+	}
+
 	private String getTopic(EStructuralFeature eFeature, String type) {
 		EClass eContainingClass = eFeature.getEContainingClass();
 		return UIEvents.UIModelTopicBase + UIEvents.TOPIC_SEP
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ package org.eclipse.jface.dialogs;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -24,23 +25,20 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Concrete implementation of a dialog settings (<code>IDialogSettings</code>)
@@ -48,6 +46,15 @@ import org.xml.sax.SAXException;
  * from and saved to a stream. All keys and values must be strings or array of
  * strings. Primitive types are converted to strings.
  * <p>
+ * The sections of loaded settings are only read when first accessed. Saving
+ * the settings to the file they were last loaded from or saved to does nothing
+ * unless they were changed since, through their <code>put</code>,
+ * <code>load</code> and section methods, or the file was modified since;
+ * arrays changed in place are not noticed. The file is written to a
+ * temporary file first, which then replaces it, so that a failed save leaves
+ * the previous file intact.
+ * </p>
+ * <p>
  * This class was not designed to be subclassed.
  *
  * Here is an example of using a DialogSettings:
@@ -84,6 +91,31 @@ public class DialogSettings implements IDialogSettings {
     // A Map with all the keys mapped to array of strings.
     private Map<String, String[]> arrayItems;
 
+    /* The loaded content of this section which was not read into the maps
+     yet, or null. It is shared with the other sections of the same file, and
+     set after its range, which it publishes to the threads reading it. */
+    private volatile LoadedSettings pending;
+
+    // The range of this section in the pending content.
+    private int pendingStart;
+
+    private int pendingEnd;
+
+    // The last change of the maps of this section, 0 if never changed.
+    private long lastChange;
+
+    /* The file this dialog settings was last loaded from or saved to, or
+     null, the last change of its sections at that time and the time the
+     file was last modified then. */
+    private String file;
+
+    private long fileChange;
+
+    private long fileModified;
+
+    // Counts the changes of all the dialog settings.
+    private static final AtomicLong CHANGES = new AtomicLong();
+
     private static final String TAG_SECTION = "section";//$NON-NLS-1$
 
     private static final String TAG_NAME = "name";//$NON-NLS-1$
@@ -111,6 +143,41 @@ public class DialogSettings implements IDialogSettings {
         sections = new HashMap<>();
     }
 
+    /*
+     * Reads the pending content of this section into its maps. Its sections
+     * are created, but are in turn only read when first accessed. The getters
+     * call it, so it is synchronized: threads which only read the settings
+     * may still share them.
+     */
+    private void materialize() {
+        if (pending != null) {
+            synchronized (this) {
+                LoadedSettings content = pending;
+                if (content != null) {
+                    content.read(this, pendingStart, pendingEnd);
+                    // publishes the maps to the threads which see it unset
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    private void changed() {
+        lastChange = CHANGES.incrementAndGet();
+    }
+
+    // Returns the last change of this section and of its read sections.
+    private long getLastChange() {
+        long change = lastChange;
+        for (IDialogSettings section : sections.values()) {
+            if (!(section instanceof DialogSettings)) {
+                return Long.MAX_VALUE;
+            }
+            change = Math.max(change, ((DialogSettings) section).getLastChange());
+        }
+        return change;
+    }
+
     @Override
 	public IDialogSettings addNewSection(String sectionName) {
         DialogSettings section = new DialogSettings(sectionName);
@@ -120,7 +187,9 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public void addSection(IDialogSettings section) {
+        materialize();
         sections.put(section.getName(), section);
+        changed();
     }
 
     /**
@@ -132,8 +201,10 @@ public class DialogSettings implements IDialogSettings {
 	 * @since 3.9
 	 */
 	public void removeSection(IDialogSettings section) {
+		materialize();
 		if (sections.get(section.getName()) == section) {
 			sections.remove(section.getName());
+			changed();
 		}
 	}
 
@@ -147,27 +218,34 @@ public class DialogSettings implements IDialogSettings {
 	 * @since 3.9
 	 */
 	public IDialogSettings removeSection(String sectionName) {
-		return sections.remove(sectionName);
+		materialize();
+		IDialogSettings section = sections.remove(sectionName);
+		if (section != null) {
+			changed();
+		}
+		return section;
 	}
 
     @Override
 	public String get(String key) {
+        materialize();
         return items.get(key);
     }
 
     @Override
 	public String[] getArray(String key) {
+        materialize();
         return arrayItems.get(key);
     }
 
     @Override
 	public boolean getBoolean(String key) {
-        return Boolean.valueOf(items.get(key)).booleanValue();
+        return Boolean.valueOf(get(key)).booleanValue();
     }
 
     @Override
 	public double getDouble(String key) throws NumberFormatException {
-        String setting = items.get(key);
+        String setting = get(key);
         if (setting == null) {
 			throw new NumberFormatException(
                     "There is no setting associated with the key \"" + key + "\"");//$NON-NLS-1$ //$NON-NLS-2$
@@ -178,7 +256,7 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public float getFloat(String key) throws NumberFormatException {
-        String setting = items.get(key);
+        String setting = get(key);
         if (setting == null) {
 			throw new NumberFormatException(
                     "There is no setting associated with the key \"" + key + "\"");//$NON-NLS-1$ //$NON-NLS-2$
@@ -189,7 +267,7 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public int getInt(String key) throws NumberFormatException {
-        String setting = items.get(key);
+        String setting = get(key);
         if (setting == null) {
 			// Integer.valueOf(null) will throw a NumberFormatException and
 			// meet our spec, but this message is clearer.
@@ -202,7 +280,7 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public long getLong(String key) throws NumberFormatException {
-        String setting = items.get(key);
+        String setting = get(key);
         if (setting == null) {
             //new Long(null) will throw a NumberFormatException and meet our spec, but this message
             //is clearer.
@@ -241,11 +319,13 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public IDialogSettings getSection(String sectionName) {
+        materialize();
         return sections.get(sectionName);
     }
 
     @Override
 	public IDialogSettings[] getSections() {
+        materialize();
         Collection<IDialogSettings> values = sections.values();
         DialogSettings[] result = new DialogSettings[values.size()];
         values.toArray(result);
@@ -254,82 +334,62 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public void load(Reader r) {
-        Document document = null;
+        read(r);
+    }
+
+    /*
+     * Loads the content of the reader, merged with the current content,
+     * and returns whether it could be parsed.
+     */
+    private boolean read(Reader r) {
+        LoadedSettings content;
         try {
-            DocumentBuilder parser = DocumentBuilderFactory.newInstance()
-                    .newDocumentBuilder();
-            //		parser.setProcessNamespace(true);
-            document = parser.parse(new InputSource(r));
-
-            //Strip out any comments first
-            Node root = document.getFirstChild();
-            while (root.getNodeType() == Node.COMMENT_NODE) {
-                document.removeChild(root);
-                root = document.getFirstChild();
-            }
-            load(document, (Element) root);
-        } catch (ParserConfigurationException e) {
-            // ignore
-        } catch (IOException e) {
-            // ignore
-        } catch (SAXException e) {
+            content = LoadedSettings.parse(r);
+        } catch (XMLStreamException e) {
             // ignore
+            return false;
+        }
+        materialize();
+        name = content.rootName;
+        if (items.isEmpty() && arrayItems.isEmpty() && sections.isEmpty()) {
+            pendingStart = 0;
+            pendingEnd = content.size;
+            pending = content;
+        } else {
+            // merged with the current entries, which are saved with it
+            content.read(this, 0, content.size);
         }
+        changed();
+        return true;
     }
 
     @Override
 	public void load(String fileName) throws IOException {
+        boolean empty = pending == null && items.isEmpty()
+                && arrayItems.isEmpty() && sections.isEmpty();
+        // taken first, so that a change while reading is noticed
+        long modified = new File(fileName).lastModified();
         FileInputStream stream = new FileInputStream(fileName);
         BufferedReader reader = new BufferedReader(new InputStreamReader(
 				stream, StandardCharsets.UTF_8));
-        load(reader);
+        boolean loaded = read(reader);
         reader.close();
-    }
-
-    private void load(Document document, Element root) {
-        name = root.getAttribute(TAG_NAME);
-        NodeList l = root.getElementsByTagName(TAG_ITEM);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                String key = ((Element) l.item(i)).getAttribute(TAG_KEY);
-                String value = ((Element) l.item(i)).getAttribute(TAG_VALUE);
-                items.put(key, value);
-            }
-        }
-        l = root.getElementsByTagName(TAG_LIST);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                Element child = (Element) l.item(i);
-                String key = child.getAttribute(TAG_KEY);
-                NodeList list = child.getElementsByTagName(TAG_ITEM);
-                List<String> valueList = new ArrayList<>();
-                for (int j = 0; j < list.getLength(); j++) {
-                    Element node = (Element) list.item(j);
-                    if (child == node.getParentNode()) {
-                        valueList.add(node.getAttribute(TAG_VALUE));
-                    }
-                }
-                String[] value = new String[valueList.size()];
-                valueList.toArray(value);
-                arrayItems.put(key, value);
-            }
-        }
-        l = root.getElementsByTagName(TAG_SECTION);
-        for (int i = 0; i < l.getLength(); i++) {
-            Node n = l.item(i);
-            if (root == n.getParentNode()) {
-                DialogSettings s = new DialogSettings("NoName");//$NON-NLS-1$
-                s.load(document, (Element) n);
-                addSection(s);
-            }
+        if (empty && loaded) {
+            // the same as the file until changed
+            file = fileName;
+            fileChange = getLastChange();
+            fileModified = modified;
         }
     }
 
     @Override
 	public void put(String key, String[] value) {
-        arrayItems.put(key, value);
+        materialize();
+        String[] previous = arrayItems.put(key, value);
+        // the same array may have been changed in place
+        if (previous == null || previous == value || !Arrays.equals(previous, value)) {
+            changed();
+        }
     }
 
     @Override
@@ -354,7 +414,11 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public void put(String key, String value) {
-        items.put(key, value);
+        materialize();
+        String previous = items.put(key, value);
+        if (previous == null || !previous.equals(value)) {
+            changed();
+        }
     }
 
     @Override
@@ -371,9 +435,31 @@ public class DialogSettings implements IDialogSettings {
 
     @Override
 	public void save(String fileName) throws IOException {
-		try (XMLWriter writer = new XMLWriter(new FileOutputStream(fileName))) {
-			save(writer);
-		}
+        File target = new File(fileName);
+        long change = getLastChange();
+        if (fileName.equals(file) && change == fileChange
+                && target.lastModified() == fileModified) {
+            // neither changed since it was loaded from or saved to the file
+            return;
+        }
+        File temp = new File(target.getAbsoluteFile().getParentFile(), target.getName() + ".tmp"); //$NON-NLS-1$
+        try {
+            try (XMLWriter writer = new XMLWriter(new FileOutputStream(temp))) {
+                save(writer);
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+        file = fileName;
+        fileChange = change;
+        fileModified = target.lastModified();
     }
 
     private void save(XMLWriter out) throws IOException {
@@ -382,6 +468,14 @@ public class DialogSettings implements IDialogSettings {
         out.startTag(TAG_SECTION, attributes);
         attributes.clear();
 
+        LoadedSettings content = pending;
+        if (content != null) {
+            // not read since it was loaded, written as it was read
+            content.write(out, pendingStart, pendingEnd);
+            out.endTag(TAG_SECTION);
+            return;
+        }
+
 		for (Entry<String, String> entry : items.entrySet()) {
 			String key = entry.getKey();
             attributes.put(TAG_KEY, key == null ? "" : key); //$NON-NLS-1$
@@ -412,6 +506,202 @@ public class DialogSettings implements IDialogSettings {
         out.endTag(TAG_SECTION);
     }
 
+    /**
+     * The content of a dialog settings file, read with a streaming parser
+     * into flat arrays. An item is stored with its key and value, a list with
+     * its key followed by the values of its items, and a section with its
+     * name followed by its content. Lists and sections store the index after
+     * their last entry, so that the content of a section can be read or
+     * skipped without reading its sections.
+     */
+    private static class LoadedSettings {
+
+        private static final byte ITEM = 0;
+
+        private static final byte LIST = 1;
+
+        private static final byte LIST_ITEM = 2;
+
+        private static final byte SECTION = 3;
+
+        String rootName;
+
+        int size;
+
+        byte[] kinds = new byte[64];
+
+        String[] keys = new String[64];
+
+        String[] values = new String[64];
+
+        int[] ends = new int[64];
+
+        /**
+         * Parses the content of the given reader.
+         * @param r the reader
+         * @return the content
+         * @throws XMLStreamException if the content cannot be parsed
+         */
+        static LoadedSettings parse(Reader r) throws XMLStreamException {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            XMLStreamReader reader = factory.createXMLStreamReader(r);
+            try {
+                // the root element, whatever its tag
+                while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    // skip the prolog
+                }
+                LoadedSettings content = new LoadedSettings();
+                content.rootName = getAttribute(reader, TAG_NAME);
+                content.readSection(reader);
+                return content;
+            } finally {
+                reader.close();
+            }
+        }
+
+        private static String getAttribute(XMLStreamReader reader, String name) {
+            String value = reader.getAttributeValue(null, name);
+            return value == null ? "" : value; //$NON-NLS-1$
+        }
+
+        private int add(byte kind, String key, String value) {
+            if (size == kinds.length) {
+                int capacity = size * 2;
+                kinds = Arrays.copyOf(kinds, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            kinds[size] = kind;
+            keys[size] = key;
+            values[size] = value;
+            return size++;
+        }
+
+        /*
+         * Reads the direct items, lists and sections of the current element,
+         * up to its end tag. Other elements are ignored.
+         */
+        private void readSection(XMLStreamReader reader) throws XMLStreamException {
+            while (true) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String tag = reader.getLocalName();
+                if (TAG_ITEM.equals(tag)) {
+                    add(ITEM, getAttribute(reader, TAG_KEY), getAttribute(reader, TAG_VALUE));
+                    skipElement(reader);
+                } else if (TAG_LIST.equals(tag)) {
+                    int list = add(LIST, getAttribute(reader, TAG_KEY), null);
+                    readList(reader);
+                    ends[list] = size;
+                } else if (TAG_SECTION.equals(tag)) {
+                    int section = add(SECTION, getAttribute(reader, TAG_NAME), null);
+                    readSection(reader);
+                    ends[section] = size;
+                } else {
+                    skipElement(reader);
+                }
+            }
+        }
+
+        private void readList(XMLStreamReader reader) throws XMLStreamException {
+            while (true) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    return;
+                }
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (TAG_ITEM.equals(reader.getLocalName())) {
+                        add(LIST_ITEM, null, getAttribute(reader, TAG_VALUE));
+                    }
+                    skipElement(reader);
+                }
+            }
+        }
+
+        // Skips the current element and its content.
+        private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        }
+
+        /**
+         * Reads the content in the given range into the maps of the given
+         * settings, creating its sections with their content pending.
+         */
+        void read(DialogSettings settings, int start, int end) {
+            int i = start;
+            while (i < end) {
+                switch (kinds[i]) {
+                case ITEM:
+                    settings.items.put(keys[i], values[i]);
+                    i++;
+                    break;
+                case LIST:
+                    settings.arrayItems.put(keys[i], Arrays.copyOfRange(values, i + 1, ends[i]));
+                    i = ends[i];
+                    break;
+                default:
+                    DialogSettings section = new DialogSettings(keys[i]);
+                    section.pendingStart = i + 1;
+                    section.pendingEnd = ends[i];
+                    section.pending = this;
+                    settings.sections.put(keys[i], section);
+                    i = ends[i];
+                }
+            }
+        }
+
+        /**
+         * Writes the content in the given range as it was read.
+         */
+        void write(XMLWriter out, int start, int end) throws IOException {
+            HashMap<String, String> attributes = new HashMap<>(2);
+            int i = start;
+            while (i < end) {
+                attributes.clear();
+                switch (kinds[i]) {
+                case ITEM:
+                    attributes.put(TAG_KEY, keys[i]);
+                    attributes.put(TAG_VALUE, values[i]);
+                    out.printTag(TAG_ITEM, attributes, true);
+                    i++;
+                    break;
+                case LIST:
+                    attributes.put(TAG_KEY, keys[i]);
+                    out.startTag(TAG_LIST, attributes);
+                    attributes.clear();
+                    for (int j = i + 1; j < ends[i]; j++) {
+                        attributes.put(TAG_VALUE, values[j]);
+                        out.printTag(TAG_ITEM, attributes, true);
+                    }
+                    out.endTag(TAG_LIST);
+                    i = ends[i];
+                    break;
+                default:
+                    attributes.put(TAG_NAME, keys[i]);
+                    out.startTag(TAG_SECTION, attributes);
+                    write(out, i + 1, ends[i]);
+                    out.endTag(TAG_SECTION);
+                    i = ends[i];
+                }
+            }
+        }
+    }
+
     /**
      * A simple XML writer.  Using this instead of the javax.xml.transform classes allows
      * compilation against JCL Foundation (bug 80059).
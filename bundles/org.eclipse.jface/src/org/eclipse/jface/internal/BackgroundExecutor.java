@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Internal class holding the executor shared by the JFace classes which work
+ * in background threads, such as the image prefetcher and the asynchronous
+ * content provider. Its daemon threads run below the normal priority, and
+ * stop when idle.
+ */
+public final class BackgroundExecutor {
+
+	private static Executor executor;
+
+	private BackgroundExecutor() {
+		// only static methods
+	}
+
+	/**
+	 * @return the shared executor, created on first use
+	 */
+	public static synchronized Executor getDefault() {
+		if (executor == null) {
+			int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, "JFace background work"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						thread.setPriority(Thread.NORM_PRIORITY - 1);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+		return executor;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -197,6 +197,11 @@ class FileImageDescriptor extends ImageDescriptor {
 
 	@Override
 	public Image createImage(boolean returnMissingImageOnError, Device device) {
+		Image prefetched = ImagePrefetcher.createImage(this, device);
+		if (prefetched != null) {
+			return prefetched;
+		}
+
 		if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
 			try {
 				return new Image(device, new ImageProvider());
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.jface.internal.BackgroundExecutor;
+import org.eclipse.jface.internal.InternalPolicy;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageDataProvider;
+
+/**
+ * Decodes the image data of image descriptors in background threads, ahead of
+ * the creation of their images. Clients which know which images are about to
+ * be needed, e.g. the icons of the tabs or items about to be shown, prefetch
+ * them, and the images are then created from the decoded data instead of
+ * reading and decoding the image files in the UI thread, whether they are
+ * created with {@link ImageDescriptor#createImage()} or through a
+ * {@link ResourceManager}.
+ * <p>
+ * Only the descriptors of image files, created with
+ * {@link ImageDescriptor#createFromURL(java.net.URL)} and
+ * {@link ImageDescriptor#createFromFile(Class, String)}, are prefetched, as
+ * the image data of the other descriptors may have to be created in the UI
+ * thread. The data is decoded for a zoom of 100%. An image created while its
+ * data is still waiting to be decoded is created as usual, and the data is
+ * discarded. The decoded data which is not used is kept until the client which
+ * prefetched it calls {@link #discard(Collection)}, or until {@link #clear()}
+ * is called, for a fixed number of descriptors: beyond it, prefetching a
+ * descriptor discards the data of the descriptor prefetched first.
+ * </p>
+ * <p>
+ * This class may be used from any thread.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class ImagePrefetcher {
+
+	/**
+	 * The maximum number of descriptors whose data is decoded or kept at once.
+	 */
+	private static final int MAX_PREFETCHED = 512;
+
+	private static final Map<ImageDescriptor, Decode> prefetched = new LinkedHashMap<ImageDescriptor, Decode>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ImageDescriptor, Decode> eldest) {
+			if (size() <= MAX_PREFETCHED) {
+				return false;
+			}
+			eldest.getValue().cancel(false);
+			return true;
+		}
+	};
+
+	private ImagePrefetcher() {
+		// only static methods
+	}
+
+	/**
+	 * Starts decoding the image data of the given descriptors in background
+	 * threads. The descriptors which cannot be prefetched, and those already
+	 * prefetched, are ignored.
+	 *
+	 * @param descriptors
+	 *            the descriptors of the images about to be created
+	 */
+	public static void prefetch(Collection<? extends ImageDescriptor> descriptors) {
+		synchronized (prefetched) {
+			for (ImageDescriptor descriptor : descriptors) {
+				if (isPrefetchable(descriptor) && !prefetched.containsKey(descriptor)) {
+					Decode decode = new Decode(descriptor);
+					prefetched.put(descriptor, decode);
+					BackgroundExecutor.getDefault().execute(decode);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Discards the prefetched image data of the given descriptors which was not
+	 * used, and cancels their decoding if it has not started yet. Clients call
+	 * this with the descriptors they prefetched once their images are created,
+	 * leaving the descriptors prefetched by other clients untouched.
+	 *
+	 * @param descriptors
+	 *            the descriptors given to {@link #prefetch(Collection)}
+	 */
+	public static void discard(Collection<? extends ImageDescriptor> descriptors) {
+		synchronized (prefetched) {
+			if (prefetched.isEmpty()) {
+				return;
+			}
+			for (ImageDescriptor descriptor : descriptors) {
+				Decode decode = prefetched.remove(descriptor);
+				if (decode != null) {
+					decode.cancel(false);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Discards all the prefetched image data which was not used, and cancels
+	 * the decoding which has not started yet, whichever client prefetched it.
+	 */
+	public static void clear() {
+		synchronized (prefetched) {
+			for (Decode decode : prefetched.values()) {
+				decode.cancel(false);
+			}
+			prefetched.clear();
+		}
+	}
+
+	private static boolean isPrefetchable(ImageDescriptor descriptor) {
+		return descriptor instanceof URLImageDescriptor || descriptor instanceof FileImageDescriptor;
+	}
+
+	/**
+	 * Creates the image of the given descriptor from its prefetched data.
+	 *
+	 * @param descriptor
+	 *            the descriptor
+	 * @param device
+	 *            the device on which to create the image
+	 * @return the image, or <code>null</code> if the data of the descriptor
+	 *         was not prefetched, or not decoded yet, or could not be decoded
+	 */
+	static Image createImage(ImageDescriptor descriptor, Device device) {
+		ImageData data = take(descriptor);
+		if (data == null) {
+			return null;
+		}
+		try {
+			return new Image(device, new PrefetchedImageDataProvider(descriptor, data));
+		} catch (IllegalArgumentException | SWTException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Removes the prefetched data of the given descriptor, waiting for it if it
+	 * is being decoded.
+	 */
+	private static ImageData take(ImageDescriptor descriptor) {
+		Decode decode;
+		synchronized (prefetched) {
+			if (prefetched.isEmpty()) {
+				return null;
+			}
+			decode = prefetched.remove(descriptor);
+		}
+		if (decode == null) {
+			return null;
+		}
+		if (!decode.isDone() && !decode.started) {
+			// decoded in the caller's thread instead
+			decode.cancel(false);
+			return null;
+		}
+		try {
+			return decode.get();
+		} catch (ExecutionException | RuntimeException e) {
+			// the usual decoding reports the error
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes the data of a descriptor for a zoom of 100%.
+	 */
+	private static class Decode extends FutureTask<ImageData> {
+
+		volatile boolean started;
+
+		Decode(ImageDescriptor descriptor) {
+			super(() -> descriptor.getImageData(100));
+		}
+
+		@Override
+		public void run() {
+			started = true;
+			super.run();
+		}
+	}
+
+	/**
+	 * Provides the prefetched data once, then the data of the descriptor. For
+	 * the other zooms, it provides the data the descriptor would create its
+	 * image with.
+	 */
+	private static class PrefetchedImageDataProvider implements ImageDataProvider {
+
+		private final ImageDescriptor descriptor;
+
+		private ImageData data;
+
+		PrefetchedImageDataProvider(ImageDescriptor descriptor, ImageData data) {
+			this.descriptor = descriptor;
+			this.data = data;
+		}
+
+		@Override
+		public ImageData getImageData(int zoom) {
+			if (zoom == 100 && data != null) {
+				ImageData result = data;
+				// not kept for the lifetime of the image
+				data = null;
+				return result;
+			}
+			if (zoom == 100 || InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
+				return descriptor.getImageData(zoom);
+			}
+			// scaled from the data for 100%, as SWT does for image files
+			return null;
+		}
+	}
+}
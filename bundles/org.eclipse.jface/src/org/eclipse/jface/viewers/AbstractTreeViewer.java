@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -2669,7 +2669,24 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 
 		Item[] items = getChildren(widget);
+		if (!updateChildrenByKeys(widget, items, elementChildren, updateLabels)) {
+			updateChildrenByPosition(widget, items, elementChildren, updateLabels);
+		}
+
+		// WORKAROUND
+		if (widget == tree && oldCnt == 0 && getItemCount(tree) != 0) {
+			// System.out.println("WORKAROUND setRedraw");
+			tree.setRedraw(false);
+			tree.setRedraw(true);
+		}
+	}
 
+	/**
+	 * Updates the items in place: the item at each position is given the
+	 * child element at the same position.
+	 */
+	private void updateChildrenByPosition(Widget widget, Item[] items,
+			Object[] elementChildren, boolean updateLabels) {
 		// save the expanded elements
 		CustomHashtable expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY); // assume
 																					// num
@@ -2807,13 +2824,152 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 				}
 			}
 		}
+	}
 
-		// WORKAROUND
-		if (widget == tree && oldCnt == 0 && getItemCount(tree) != 0) {
-			// System.out.println("WORKAROUND setRedraw");
-			tree.setRedraw(false);
-			tree.setRedraw(true);
+	/**
+	 * Updates the items by matching their elements with the child elements,
+	 * using the viewer's comparer. The items of the longest run of elements
+	 * which kept their relative order are kept, the items of the other old
+	 * elements are disposed, and items are created for the other children, so
+	 * that only the inserted, removed and moved elements are touched. The
+	 * items of moved elements are expanded again as they were, with the items
+	 * below them. This is only done when it touches fewer items than updating
+	 * the items in place.
+	 *
+	 * @return <code>false</code> if the items must be updated in place
+	 */
+	private boolean updateChildrenByKeys(Widget widget, Item[] items,
+			Object[] elementChildren, boolean updateLabels) {
+		if (items.length == 0 || elementChildren.length == 0) {
+			return false;
+		}
+		CustomHashtable newIndexes = newHashtable(elementChildren.length * 2);
+		for (int i = 0; i < elementChildren.length; i++) {
+			if (newIndexes.put(elementChildren[i], Integer.valueOf(i)) != null) {
+				// duplicate children are matched by position
+				return false;
+			}
+		}
+
+		// the position of the element of each item in the children, and the
+		// number of items updating in place would touch
+		int[] targets = new int[items.length];
+		boolean[] matched = new boolean[elementChildren.length];
+		int changes = Math.abs(items.length - elementChildren.length);
+		for (int i = 0; i < items.length; i++) {
+			Object data = items[i].getData();
+			if (data == null) {
+				// dummy or virtual items are updated in place
+				return false;
+			}
+			Integer index = (Integer) newIndexes.get(data);
+			if (index == null) {
+				targets[i] = -1;
+			} else {
+				int target = index.intValue();
+				if (matched[target]) {
+					return false;
+				}
+				matched[target] = true;
+				targets[i] = target;
+			}
+			if (i < elementChildren.length && targets[i] != i) {
+				changes++;
+			}
 		}
+
+		// find the longest increasing run of targets
+		int[] tails = new int[items.length];
+		int[] previous = new int[items.length];
+		int length = 0;
+		for (int i = 0; i < items.length; i++) {
+			int target = targets[i];
+			if (target < 0) {
+				continue;
+			}
+			int low = 0;
+			int high = length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (targets[tails[mid]] < target) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			previous[i] = low > 0 ? tails[low - 1] : -1;
+			tails[low] = i;
+			if (low == length) {
+				length++;
+			}
+		}
+		if (items.length + elementChildren.length - 2 * length >= changes) {
+			return false;
+		}
+		Item[] keptItems = new Item[elementChildren.length];
+		for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+			keptItems[targets[i]] = items[i];
+		}
+
+		// dispose of the items of the removed and moved elements first, so
+		// that disassociating them cannot remove the mappings made below
+		CustomHashtable expanded = null;
+		for (int i = 0; i < items.length; i++) {
+			Item item = items[i];
+			if (targets[i] >= 0 && keptItems[targets[i]] == item) {
+				continue;
+			}
+			if (getExpanded(item)) {
+				if (expanded == null) {
+					expanded = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+				}
+				expanded.put(item.getData(), item.getData());
+				// the expanded items below it are expanded again as well
+				List<Item> expandedItems = new ArrayList<>();
+				internalCollectExpandedItems(expandedItems, item);
+				for (Item expandedItem : expandedItems) {
+					expanded.put(expandedItem.getData(), expandedItem.getData());
+				}
+			}
+			disassociate(item);
+			item.dispose();
+		}
+
+		for (int i = 0; i < elementChildren.length; i++) {
+			Object newElement = elementChildren[i];
+			Item item = keptItems[i];
+			if (item == null) {
+				createTreeItem(widget, newElement, i);
+				// Restore the expanded state of moved elements after
+				// updatePlus (called in createTreeItem), since
+				// setExpanded(false) fails if item has no children.
+				if (expanded != null && expanded.remove(newElement) != null) {
+					Item newItem = getChildren(widget)[i];
+					createChildren(newItem);
+					setExpanded(newItem, true);
+					if (expanded.size() > 0) {
+						internalSetExpanded(expanded, newItem);
+					}
+				}
+				continue;
+			}
+			Object oldElement = item.getData();
+			if (newElement != oldElement) {
+				// update the data to be the new element, since although the
+				// elements may be equal, they may still have different labels
+				// or children
+				unmapElement(oldElement, item);
+				item.setData(newElement);
+				mapElement(newElement, item);
+			}
+			updatePlus(item, newElement);
+			if (updateLabels) {
+				updateItem(item, newElement);
+			} else {
+				associate(newElement, item);
+			}
+		}
+		return true;
 	}
 
 	/** Returns true if children were pruned */
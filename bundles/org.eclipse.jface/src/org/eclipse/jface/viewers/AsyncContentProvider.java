@@ -0,0 +1,438 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.BackgroundExecutor;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Content provider that fetches, filters and sorts the children of each
+ * element in the background. Requires a <code>TreeViewer</code> or an
+ * <code>AbstractTableViewer</code> created with the <code>SWT.VIRTUAL</code>
+ * flag.
+ * <p>
+ * The children are asked for from the given content provider in a background
+ * thread, so its <code>getElements</code> and <code>getChildren</code> methods
+ * must be thread safe. The other methods of the content provider are called in
+ * the UI thread. The sort order and the filter must be set directly on this
+ * content provider. The filters of the viewer are applied too: those which
+ * report that they are {@link ViewerFilter#isThreadSafe() thread safe} in the
+ * background, the others in the UI thread once the children are fetched.
+ * </p>
+ * <p>
+ * Once the children of an element are sorted, its item count is set and the
+ * virtual items ask for their elements as they become visible, so that the
+ * visible range is populated first and the other items are only populated
+ * when scrolled to. Fetching the children of an element cancels the pending
+ * fetch for the same element, and collapsing an element cancels the fetch of
+ * its children. The children are fetched once for each element: call
+ * {@link #refresh(Object)} to fetch them again.
+ * </p>
+ * <p>
+ * Unlike <code>DeferredContentProvider</code>, this content provider does not
+ * need an <code>IConcurrentModel</code> as input.
+ * </p>
+ * <p>
+ * The elements are compared with the {@link StructuredViewer#getComparer()
+ * comparer} of the viewer, which must be set before the input.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class AsyncContentProvider implements ILazyContentProvider, ILazyTreeContentProvider {
+
+	/**
+	 * The number of elements filtered between two checks for cancellation.
+	 */
+	private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+	private final IStructuredContentProvider contentProvider;
+
+	private final Executor executor;
+
+	private volatile Comparator<Object> sortOrder;
+
+	private volatile IFilter filter = AcceptAllFilter.getInstance();
+
+	private StructuredViewer viewer;
+
+	private Object input;
+
+	/**
+	 * The pending fetch (<code>Fetch</code>) of each element. May only be
+	 * accessed in the UI thread.
+	 */
+	private CustomHashtable fetches = new CustomHashtable();
+
+	/**
+	 * The sorted children (<code>Object[]</code>) of each element. May only be
+	 * accessed in the UI thread.
+	 */
+	private CustomHashtable children = new CustomHashtable();
+
+	/**
+	 * The parent of each fetched child. May only be accessed in the UI thread.
+	 */
+	private CustomHashtable parents = new CustomHashtable();
+
+	private final ITreeViewerListener treeListener = new ITreeViewerListener() {
+		@Override
+		public void treeCollapsed(TreeExpansionEvent event) {
+			cancel(event.getElement());
+		}
+
+		@Override
+		public void treeExpanded(TreeExpansionEvent event) {
+		}
+	};
+
+	/**
+	 * The fetch of the children of one element.
+	 */
+	private final class Fetch implements Runnable {
+		final Object parent;
+
+		final boolean isInput;
+
+		final StructuredViewer viewer;
+
+		final Display display;
+
+		/**
+		 * The filters of the viewer when the fetch was scheduled.
+		 */
+		final ViewerFilter[] viewerFilters;
+
+		volatile boolean canceled;
+
+		Fetch(Object parent) {
+			this.parent = parent;
+			this.isInput = parent == input;
+			this.viewer = AsyncContentProvider.this.viewer;
+			this.display = viewer.getControl().getDisplay();
+			this.viewerFilters = viewer.getFilters();
+		}
+
+		@Override
+		public void run() {
+			if (canceled) {
+				return;
+			}
+			Object[] result;
+			try {
+				result = fetch(this);
+			} catch (RuntimeException e) {
+				Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE,
+						"Fetching the children of " + parent + " failed", e)); //$NON-NLS-1$ //$NON-NLS-2$
+				result = null;
+			}
+			if (result == null || canceled || display.isDisposed()) {
+				return;
+			}
+			Object[] sorted = result;
+			display.asyncExec(() -> apply(this, sorted));
+		}
+	}
+
+	/**
+	 * Creates a content provider fetching the children with the given content
+	 * provider in shared background threads.
+	 *
+	 * @param contentProvider
+	 *            the content provider of the children. It must be an
+	 *            <code>ITreeContentProvider</code> for trees.
+	 */
+	public AsyncContentProvider(IStructuredContentProvider contentProvider) {
+		this(contentProvider, BackgroundExecutor.getDefault());
+	}
+
+	/**
+	 * Creates a content provider fetching the children with the given content
+	 * provider in the threads of the given executor.
+	 *
+	 * @param contentProvider
+	 *            the content provider of the children. It must be an
+	 *            <code>ITreeContentProvider</code> for trees.
+	 * @param executor
+	 *            the executor running the fetches in background threads
+	 */
+	public AsyncContentProvider(IStructuredContentProvider contentProvider, Executor executor) {
+		Assert.isNotNull(contentProvider);
+		Assert.isNotNull(executor);
+		this.contentProvider = contentProvider;
+		this.executor = executor;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		clear();
+		if (this.viewer instanceof TreeViewer) {
+			((TreeViewer) this.viewer).removeTreeListener(treeListener);
+		}
+		contentProvider.inputChanged(viewer, oldInput, newInput);
+		if (newInput == null) {
+			this.viewer = null;
+			this.input = null;
+			return;
+		}
+		Assert.isTrue(viewer instanceof TreeViewer && contentProvider instanceof ITreeContentProvider
+				|| viewer instanceof AbstractTableViewer);
+		this.viewer = (StructuredViewer) viewer;
+		this.input = newInput;
+		fetches = this.viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		children = this.viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		parents = this.viewer.newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+		if (viewer instanceof TreeViewer) {
+			((TreeViewer) viewer).addTreeListener(treeListener);
+		} else {
+			schedule(newInput);
+		}
+	}
+
+	@Override
+	public void dispose() {
+		clear();
+		if (viewer instanceof TreeViewer) {
+			((TreeViewer) viewer).removeTreeListener(treeListener);
+		}
+		viewer = null;
+		input = null;
+		contentProvider.dispose();
+	}
+
+	/**
+	 * Sets the sort order of the children, and sorts them again.
+	 *
+	 * @param sortOrder
+	 *            the sort order, or <code>null</code> to keep the order of the
+	 *            content provider
+	 */
+	@SuppressWarnings("unchecked")
+	public void setSortOrder(Comparator<?> sortOrder) {
+		this.sortOrder = (Comparator<Object>) sortOrder;
+		refreshAll();
+	}
+
+	/**
+	 * Sets the filter of the children, and filters them again. The filter is
+	 * applied in background threads.
+	 *
+	 * @param filter
+	 *            the filter, which must be thread safe
+	 */
+	public void setFilter(IFilter filter) {
+		Assert.isNotNull(filter);
+		this.filter = filter;
+		refreshAll();
+	}
+
+	/**
+	 * Fetches the children of the given element again. The viewer is refreshed
+	 * once they are fetched. Must be called in the UI thread.
+	 *
+	 * @param parent
+	 *            the element, or the input of the viewer
+	 */
+	public void refresh(Object parent) {
+		if (viewer != null) {
+			schedule(parent);
+		}
+	}
+
+	private void refreshAll() {
+		if (viewer == null) {
+			return;
+		}
+		List<Object> fetched = new ArrayList<>(children.size());
+		for (Enumeration<?> keys = children.keys(); keys.hasMoreElements();) {
+			fetched.add(keys.nextElement());
+		}
+		for (Object parent : fetched) {
+			schedule(parent);
+		}
+	}
+
+	@Override
+	public void updateElement(int index) {
+		updateElement(input, index);
+	}
+
+	@Override
+	public void updateElement(Object parent, int index) {
+		Object[] elements = (Object[]) children.get(parent);
+		if (elements == null) {
+			if (!fetches.containsKey(parent)) {
+				schedule(parent);
+			}
+			return;
+		}
+		if (index >= elements.length) {
+			return;
+		}
+		Object element = elements[index];
+		if (viewer instanceof TreeViewer) {
+			((TreeViewer) viewer).replace(parent, index, element);
+			updateChildCount(element, -1);
+		} else {
+			((AbstractTableViewer) viewer).replace(element, index);
+		}
+	}
+
+	@Override
+	public void updateChildCount(Object element, int currentChildCount) {
+		Object[] elements = (Object[]) children.get(element);
+		if (elements == null) {
+			if (!fetches.containsKey(element)) {
+				schedule(element);
+			}
+		} else if (elements.length != currentChildCount) {
+			((TreeViewer) viewer).setChildCount(element, elements.length);
+		}
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		Object parent = parents.get(element);
+		if (parent == null && contentProvider instanceof ITreeContentProvider) {
+			parent = ((ITreeContentProvider) contentProvider).getParent(element);
+		}
+		return parent;
+	}
+
+	/**
+	 * Schedules the fetch of the children of the given element, canceling the
+	 * pending one.
+	 */
+	private void schedule(Object parent) {
+		cancel(parent);
+		Fetch fetch = new Fetch(parent);
+		fetches.put(parent, fetch);
+		executor.execute(fetch);
+	}
+
+	private void cancel(Object parent) {
+		Fetch fetch = (Fetch) fetches.remove(parent);
+		if (fetch != null) {
+			fetch.canceled = true;
+		}
+	}
+
+	/**
+	 * Cancels the pending fetches and forgets the fetched children.
+	 */
+	private void clear() {
+		for (Enumeration<?> pending = fetches.elements(); pending.hasMoreElements();) {
+			((Fetch) pending.nextElement()).canceled = true;
+		}
+		fetches = new CustomHashtable();
+		children = new CustomHashtable();
+		parents = new CustomHashtable();
+	}
+
+	/**
+	 * Fetches, filters and sorts the children in a background thread.
+	 *
+	 * @return the sorted children, or <code>null</code> if the fetch was
+	 *         canceled
+	 */
+	private Object[] fetch(Fetch fetch) {
+		Object parent = fetch.parent;
+		Object[] elements = fetch.isInput ? contentProvider.getElements(parent)
+				: ((ITreeContentProvider) contentProvider).getChildren(parent);
+		if (elements == null || fetch.canceled) {
+			return fetch.canceled ? null : new Object[0];
+		}
+		IFilter currentFilter = filter;
+		if (currentFilter != AcceptAllFilter.getInstance()) {
+			List<Object> selected = new ArrayList<>(elements.length);
+			for (int i = 0; i < elements.length; i++) {
+				if (i % CANCEL_CHECK_INTERVAL == 0 && fetch.canceled) {
+					return null;
+				}
+				if (currentFilter.select(elements[i])) {
+					selected.add(elements[i]);
+				}
+			}
+			elements = selected.toArray();
+		} else {
+			// the content provider may return an array it keeps
+			elements = elements.clone();
+		}
+		for (ViewerFilter viewerFilter : fetch.viewerFilters) {
+			if (fetch.canceled) {
+				return null;
+			}
+			if (viewerFilter.isThreadSafe()) {
+				elements = viewerFilter.filter(fetch.viewer, parent, elements);
+			}
+		}
+		Comparator<Object> currentSortOrder = sortOrder;
+		if (currentSortOrder != null && !fetch.canceled) {
+			Arrays.sort(elements, currentSortOrder);
+		}
+		return fetch.canceled ? null : elements;
+	}
+
+	/**
+	 * Hands the fetched children over to the viewer in the UI thread.
+	 */
+	private void apply(Fetch fetch, Object[] elements) {
+		if (fetch.canceled || fetches.get(fetch.parent) != fetch) {
+			return;
+		}
+		Control control = viewer.getControl();
+		if (control == null || control.isDisposed()) {
+			return;
+		}
+		fetches.remove(fetch.parent);
+		for (ViewerFilter viewerFilter : fetch.viewerFilters) {
+			if (!viewerFilter.isThreadSafe()) {
+				elements = viewerFilter.filter(viewer, fetch.parent, elements);
+			}
+		}
+		Object[] oldElements = (Object[]) children.put(fetch.parent, elements);
+		if (oldElements != null) {
+			for (Object element : oldElements) {
+				parents.remove(element);
+			}
+		}
+		if (!fetch.isInput) {
+			for (Object element : elements) {
+				parents.put(element, fetch.parent);
+			}
+		}
+		if (viewer instanceof TreeViewer) {
+			TreeViewer treeViewer = (TreeViewer) viewer;
+			treeViewer.setChildCount(fetch.parent, elements.length);
+			if (oldElements != null) {
+				treeViewer.refresh(fetch.parent);
+			}
+		} else {
+			AbstractTableViewer tableViewer = (AbstractTableViewer) viewer;
+			tableViewer.setItemCount(elements.length);
+			if (oldElements != null) {
+				tableViewer.refresh();
+			}
+		}
+	}
+}
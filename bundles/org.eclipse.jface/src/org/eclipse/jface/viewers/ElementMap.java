@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+import java.util.Arrays;
+
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * Maps the elements of a viewer to their items. An element mapped to several
+ * items, such as an element appearing under several parents of a tree, has
+ * one entry for each of its items.
+ * <p>
+ * The entries are kept in an open-addressing table with linear probing: the
+ * hash codes of the elements, the elements and the items are held in three
+ * parallel arrays, so that adding an entry allocates nothing but the arrays
+ * when the table grows. The elements are compared with the element comparer
+ * of the viewer, if any.
+ * </p>
+ */
+/* package */final class ElementMap {
+
+	/**
+	 * The default capacity used when not specified in the constructor.
+	 */
+	static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The capacity above which the table is shrunk when the map is cleared.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 1024;
+
+	private final IElementComparer comparer;
+
+	/**
+	 * The hash codes of the elements, so that the elements need not be asked
+	 * for them again when the table grows.
+	 */
+	private int[] hashes;
+
+	/**
+	 * The elements, or <code>null</code> for empty slots.
+	 */
+	private Object[] elements;
+
+	private Widget[] items;
+
+	private int size;
+
+	private int threshold;
+
+	/**
+	 * Creates an empty map.
+	 *
+	 * @param capacity
+	 *            the number of entries that can be added without growing the
+	 *            table
+	 * @param comparer
+	 *            the element comparer, or <code>null</code> to use the
+	 *            <code>equals</code> and <code>hashCode</code> methods of the
+	 *            elements
+	 */
+	ElementMap(int capacity, IElementComparer comparer) {
+		this.comparer = comparer;
+		allocate(tableSize(capacity));
+	}
+
+	/**
+	 * Creates a map with the entries of the given map, comparing the elements
+	 * with the given comparer.
+	 *
+	 * @param map
+	 *            the map to copy
+	 * @param comparer
+	 *            the element comparer, or <code>null</code> to use the
+	 *            <code>equals</code> and <code>hashCode</code> methods of the
+	 *            elements
+	 */
+	ElementMap(ElementMap map, IElementComparer comparer) {
+		this(map.size, comparer);
+		int length = map.elements.length;
+		int start = firstEmptySlot(map.elements);
+		for (int i = 1; i <= length; i++) {
+			int slot = (start + i) & (length - 1);
+			if (map.elements[slot] != null) {
+				put(map.elements[slot], map.items[slot]);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of slots of the table
+	 */
+	int capacity() {
+		return elements.length;
+	}
+
+	/**
+	 * Returns the items of the given element, in the order they were mapped.
+	 *
+	 * @param element
+	 *            the element
+	 * @return the items, or <code>null</code> if the element is not mapped
+	 */
+	Widget[] get(Object element) {
+		int hash = hashCode(element);
+		int mask = elements.length - 1;
+		Widget[] result = null;
+		int count = 0;
+		for (int slot = spread(hash) & mask; elements[slot] != null; slot = (slot + 1) & mask) {
+			if (hashes[slot] == hash && keyEquals(element, elements[slot])) {
+				if (result == null) {
+					result = new Widget[1];
+				} else if (count == result.length) {
+					result = Arrays.copyOf(result, count * 2);
+				}
+				result[count++] = items[slot];
+			}
+		}
+		return result == null || count == result.length ? result : Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Maps the given element to the given item, unless it is mapped to it
+	 * already.
+	 *
+	 * @param element
+	 *            the element
+	 * @param item
+	 *            the item
+	 */
+	void put(Object element, Widget item) {
+		int hash = hashCode(element);
+		int mask = elements.length - 1;
+		int slot = spread(hash) & mask;
+		for (; elements[slot] != null; slot = (slot + 1) & mask) {
+			if (items[slot] == item && hashes[slot] == hash && keyEquals(element, elements[slot])) {
+				return;
+			}
+		}
+		if (size >= threshold) {
+			rehash(elements.length * 2);
+			mask = elements.length - 1;
+			slot = spread(hash) & mask;
+			while (elements[slot] != null) {
+				slot = (slot + 1) & mask;
+			}
+		}
+		hashes[slot] = hash;
+		elements[slot] = element;
+		items[slot] = item;
+		size++;
+	}
+
+	/**
+	 * Removes all the entries of the given element.
+	 *
+	 * @param element
+	 *            the element
+	 */
+	void remove(Object element) {
+		int hash = hashCode(element);
+		int mask = elements.length - 1;
+		int slot = spread(hash) & mask;
+		while (elements[slot] != null) {
+			if (hashes[slot] == hash && keyEquals(element, elements[slot])) {
+				// the slot is filled again by the following entries, if any
+				removeSlot(slot);
+			} else {
+				slot = (slot + 1) & mask;
+			}
+		}
+	}
+
+	/**
+	 * Removes the entry of the given element and item, if any.
+	 *
+	 * @param element
+	 *            the element
+	 * @param item
+	 *            the item
+	 */
+	void remove(Object element, Widget item) {
+		int hash = hashCode(element);
+		int mask = elements.length - 1;
+		for (int slot = spread(hash) & mask; elements[slot] != null; slot = (slot + 1) & mask) {
+			if (items[slot] == item && hashes[slot] == hash && keyEquals(element, elements[slot])) {
+				removeSlot(slot);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes all the entries, keeping the table for reuse unless it grew
+	 * large.
+	 */
+	void clear() {
+		if (elements.length > MAX_RETAINED_CAPACITY) {
+			allocate(tableSize(DEFAULT_CAPACITY));
+		} else {
+			Arrays.fill(elements, null);
+			Arrays.fill(items, null);
+		}
+		size = 0;
+	}
+
+	/**
+	 * Empties the given slot, moving back the following entries of the same
+	 * probe sequences, so that no entry is separated from its home slot by an
+	 * empty slot.
+	 */
+	private void removeSlot(int slot) {
+		int mask = elements.length - 1;
+		int hole = slot;
+		for (int next = (hole + 1) & mask; elements[next] != null; next = (next + 1) & mask) {
+			int home = spread(hashes[next]) & mask;
+			// moved if the hole lies between its home slot and its slot
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				hashes[hole] = hashes[next];
+				elements[hole] = elements[next];
+				items[hole] = items[next];
+				hole = next;
+			}
+		}
+		elements[hole] = null;
+		items[hole] = null;
+		size--;
+	}
+
+	/**
+	 * Moves the entries to a table of the given size. The entries are visited
+	 * starting after an empty slot, so that the entries of an element stay in
+	 * the order they were mapped even if its probe sequence wraps around the
+	 * end of the table.
+	 */
+	private void rehash(int capacity) {
+		int[] oldHashes = hashes;
+		Object[] oldElements = elements;
+		Widget[] oldItems = items;
+		int length = oldElements.length;
+		int start = firstEmptySlot(oldElements);
+		allocate(capacity);
+		int mask = capacity - 1;
+		for (int i = 1; i <= length; i++) {
+			int oldSlot = (start + i) & (length - 1);
+			if (oldElements[oldSlot] != null) {
+				int slot = spread(oldHashes[oldSlot]) & mask;
+				while (elements[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				hashes[slot] = oldHashes[oldSlot];
+				elements[slot] = oldElements[oldSlot];
+				items[slot] = oldItems[oldSlot];
+			}
+		}
+	}
+
+	/**
+	 * @return the first empty slot, which the load factor guarantees
+	 */
+	private static int firstEmptySlot(Object[] elements) {
+		int slot = 0;
+		while (elements[slot] != null) {
+			slot++;
+		}
+		return slot;
+	}
+
+	private void allocate(int capacity) {
+		hashes = new int[capacity];
+		elements = new Object[capacity];
+		items = new Widget[capacity];
+		threshold = capacity / 4 * 3;
+	}
+
+	/**
+	 * @return the power of two table size holding <code>capacity</code>
+	 *         entries below the load factor
+	 */
+	private static int tableSize(int capacity) {
+		int size = 4;
+		while (size / 4 * 3 < capacity) {
+			size *= 2;
+		}
+		return size;
+	}
+
+	private static int spread(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private int hashCode(Object element) {
+		return comparer == null ? element.hashCode() : comparer.hashCode(element);
+	}
+
+	private boolean keyEquals(Object a, Object b) {
+		return comparer == null ? a.equals(b) : comparer.equals(a, b);
+	}
+
+	/**
+	 * Returns the number of entries, the occupancy of the table and its
+	 * longest run of filled slots, for tuning and debugging.
+	 */
+	@Override
+	public String toString() {
+		int length = elements.length;
+		int start = firstEmptySlot(elements);
+		int longestRun = 0;
+		int run = 0;
+		for (int i = 1; i <= length; i++) {
+			if (elements[(start + i) & (length - 1)] != null) {
+				longestRun = Math.max(longestRun, ++run);
+			} else {
+				run = 0;
+			}
+		}
+		return "ElementMap[entries=" + size + ", slots=" + length //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", occupancy=" + (size * 100 / length) + "%, longest run=" + longestRun + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,9 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.RuleBasedCollator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -38,6 +41,11 @@ import org.eclipse.jface.util.Policy;
  * categorization; and they may override the <code>compare</code> methods
  * to provide a totally different way of sorting elements.
  * </p>
+ * <p>
+ * As long as the <code>compare(Viewer, Object, Object)</code> method is not
+ * overridden, <code>sort</code> computes the category and the label of each
+ * element once, instead of once for each comparison.
+ * </p>
  * @see IStructuredContentProvider
  * @see StructuredViewer
  *
@@ -45,6 +53,23 @@ import org.eclipse.jface.util.Policy;
  */
 public class ViewerComparator {
 
+	/**
+	 * Whether the classes use the default
+	 * {@link #compare(Viewer, Object, Object)} method, so that the elements can
+	 * be sorted by their keys.
+	 */
+	private static final ClassValue<Boolean> sortsByKeys = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return Boolean.valueOf(type.getMethod("compare", Viewer.class, Object.class, Object.class) //$NON-NLS-1$
+						.getDeclaringClass() == ViewerComparator.class);
+			} catch (NoSuchMethodException | SecurityException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
 	/**
 	 * The comparator to use to sort a viewer's contents.
 	 */
@@ -189,7 +214,10 @@ public class ViewerComparator {
 	 * The default implementation of this method uses the
 	 * {@link java.util.Arrays#sort(Object[], Comparator)} algorithm on the
 	 * given array, calling {@link #compare(Viewer, Object, Object)} to compare
-	 * elements.
+	 * elements. If that method is not overridden, the elements are sorted by
+	 * their category and label, computed once for each element, and the labels
+	 * are compared through their collation keys when the comparator is a
+	 * {@link RuleBasedCollator}. The order is the same.
      * </p>
      * <p>
      * Subclasses may reimplement this method to provide a more optimized implementation.
@@ -200,7 +228,11 @@ public class ViewerComparator {
      */
 	public void sort(final Viewer viewer, Object[] elements) {
 		try {
-			Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			if (elements.length > 1 && sortsByKeys.get(getClass()).booleanValue()) {
+				sortByKeys(viewer, elements);
+			} else {
+				Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			}
 		} catch (IllegalArgumentException e) {
 			String msg = e.toString()
 					+ "\nWorkaround for comparator violation:\n\tSet system property -Djava.util.Arrays.useLegacyMergeSort=true" //$NON-NLS-1$
@@ -225,4 +257,50 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	private void sortByKeys(Viewer viewer, Object[] elements) {
+		Comparator<? super String> labelComparator = getComparator();
+		// the collation keys of other collators may not match their compare
+		Collator collator = labelComparator != null && labelComparator.getClass() == RuleBasedCollator.class
+				? (Collator) labelComparator : null;
+		SortKey[] keys = new SortKey[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			String label = getLabel(viewer, element);
+			keys[i] = new SortKey(element, category(element), label,
+					collator == null ? null : collator.getCollationKey(label));
+		}
+		Comparator<SortKey> keyComparator;
+		if (collator == null) {
+			keyComparator = (a, b) -> a.category != b.category ? a.category - b.category
+					: labelComparator.compare(a.label, b.label);
+		} else {
+			keyComparator = (a, b) -> a.category != b.category ? a.category - b.category
+					: a.collationKey.compareTo(b.collationKey);
+		}
+		Arrays.sort(keys, keyComparator);
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = keys[i].element;
+		}
+	}
+
+	/**
+	 * The category and label of an element, computed once for each sort.
+	 */
+	private static final class SortKey {
+		final Object element;
+
+		final int category;
+
+		final String label;
+
+		final CollationKey collationKey;
+
+		SortKey(Object element, int category, String label, CollationKey collationKey) {
+			this.element = element;
+			this.category = category;
+			this.label = label;
+			this.collationKey = collationKey;
+		}
+	}
 }
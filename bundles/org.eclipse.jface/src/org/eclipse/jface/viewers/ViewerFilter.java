@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,19 +12,36 @@
 package org.eclipse.jface.viewers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * A viewer filter is used by a structured viewer to extract a subset of
  * elements provided by its content provider.
  * <p>
  * Subclasses must implement the <code>select</code> method and may implement
- * the <code>isFilterProperty</code> method.
+ * the <code>isFilterProperty</code> method. Filters whose <code>select</code>
+ * method can be called from any thread may implement the
+ * <code>isThreadSafe</code> method, so that large arrays of elements are
+ * filtered in parallel.
  * </p>
  *
  * @see IStructuredContentProvider
  * @see StructuredViewer
  */
 public abstract class ViewerFilter {
+	/**
+	 * The number of elements from which thread safe filters select the
+	 * elements in parallel.
+	 */
+	static final int PARALLEL_THRESHOLD = 10000;
+
+	/**
+	 * The number of elements selected by each parallel task.
+	 */
+	private static final int CHUNK_SIZE = 2048;
+
 	/**
 	 * Creates a new viewer filter.
 	 */
@@ -50,6 +67,17 @@ public abstract class ViewerFilter {
 	 */
 	public Object[] filter(Viewer viewer, Object parent, Object[] elements) {
 		int size = elements.length;
+		if (size >= PARALLEL_THRESHOLD && isThreadSafe()) {
+			boolean[] selected = select(Arrays.asList(this), viewer, parent, elements);
+			Object[] out = new Object[size];
+			int count = 0;
+			for (int i = 0; i < size; ++i) {
+				if (selected[i]) {
+					out[count++] = elements[i];
+				}
+			}
+			return Arrays.copyOf(out, count);
+		}
 		ArrayList<Object> out = new ArrayList<>(size);
 		for (int i = 0; i < size; ++i) {
 			Object element = elements[i];
@@ -114,4 +142,57 @@ public abstract class ViewerFilter {
 	 *         <code>false</code> if excluded
 	 */
 	public abstract boolean select(Viewer viewer, Object parentElement, Object element);
+
+	/**
+	 * Returns whether {@link #select(Viewer, Object, Object)} can be called
+	 * from several threads at the same time. The viewers then select the
+	 * elements of large arrays in parallel, in the common fork-join pool, and
+	 * the filter must not access the widgets or any other state confined to
+	 * the UI thread. The order of the elements is preserved.
+	 * <p>
+	 * The default implementation of this method returns <code>false</code>.
+	 * Subclasses may reimplement.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the filter can select elements from any
+	 *         thread, and <code>false</code> if it must be called from the UI
+	 *         thread
+	 * @since 3.14
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	/**
+	 * @return whether all the filters are thread safe
+	 */
+	static boolean isThreadSafe(List<ViewerFilter> filters) {
+		for (ViewerFilter filter : filters) {
+			if (!filter.isThreadSafe()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Selects the elements in parallel chunks.
+	 *
+	 * @return whether each element makes it through all the filters
+	 */
+	static boolean[] select(List<ViewerFilter> filters, Viewer viewer, Object parent, Object[] elements) {
+		boolean[] selected = new boolean[elements.length];
+		int chunks = (elements.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			int end = Math.min(elements.length, (chunk + 1) * CHUNK_SIZE);
+			for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+				boolean select = true;
+				for (int j = 0; select && j < filters.size(); j++) {
+					select = filters.get(j).select(viewer, parent, elements[i]);
+				}
+				selected[i] = select;
+			}
+		});
+		return selected;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.viewers.ColumnViewer;
 import org.eclipse.jface.viewers.DecoratingStyledCellLabelProvider;
+import org.eclipse.jface.viewers.DecorationContext;
 import org.eclipse.jface.viewers.IColorProvider;
 import org.eclipse.jface.viewers.IFontProvider;
 import org.eclipse.jface.viewers.ILabelProvider;
@@ -30,6 +31,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IWorkbenchPreferenceConstants;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.decorators.VisibleElementsTracker;
 
 /**
  * Decorating label provider with styled label support for the navigator.
@@ -145,6 +147,13 @@ public class NavigatorDecoratingLabelProvider extends DecoratingStyledCellLabelP
 
 		setOwnerDrawEnabled(showColoredLabels());
 
+		// decorate the elements shown in the viewer first
+		if (getDecorationContext() == DecorationContext.DEFAULT_CONTEXT) {
+			DecorationContext context = new DecorationContext();
+			context.putProperty(VisibleElementsTracker.VISIBILITY_TESTER, new VisibleElementsTracker(viewer));
+			setDecorationContext(context);
+		}
+
 		super.initialize(viewer, column);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,6 +77,8 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.InjectionException;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.E4Workbench;
+import org.eclipse.e4.ui.internal.workbench.ModelSnapshot;
+import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.internal.workbench.renderers.swt.IUpdateService;
 import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
 import org.eclipse.e4.ui.internal.workbench.swt.IEventLoopAdvisor;
@@ -471,6 +473,12 @@ public final class Workbench extends EventManager implements IWorkbench,
 
 	private Job autoSaveJob;
 
+	/**
+	 * The copy of the application model saved by the auto-save job, updated
+	 * with the changes of the model since the previous auto-save.
+	 */
+	private ModelSnapshot autoSaveSnapshot;
+
 	private String id;
 	private ServiceRegistration<?> e4WorkbenchService;
 
@@ -1111,6 +1119,10 @@ public final class Workbench extends EventManager implements IWorkbench,
 			autoSaveJob.cancel();
 			autoSaveJob = null;
 		}
+		if (autoSaveSnapshot != null) {
+			autoSaveSnapshot.dispose();
+			autoSaveSnapshot = null;
+		}
 
 		boolean closeEditors = !force
 				&& PrefUtil.getAPIPreferenceStore().getBoolean(
@@ -1283,14 +1295,20 @@ public final class Workbench extends EventManager implements IWorkbench,
 
 	/**
 	 * Copy the model, clean it up and write it out to workbench.xmi. Called as
-	 * part of persist(false) during auto-save.
+	 * part of persist(false) during auto-save. Only the changes of the model
+	 * since the previous auto-save are copied in the UI thread, to the
+	 * snapshot of the model, which the job copies again to clean it up.
 	 */
 	private void persistWorkbenchModel() {
 		if (Job.getJobManager().find(WORKBENCH_AUTO_SAVE_JOB).length > 0) {
 			return;
 		}
-		final MApplication appCopy = (MApplication) EcoreUtil.copy((EObject) application);
-		if (detectWorkbenchCorruption(appCopy)) {
+		if (autoSaveSnapshot == null) {
+			autoSaveSnapshot = new ModelSnapshot((EObject) application, e4Context.get(UIEventPublisher.class));
+		}
+		// not updated again until the job is done
+		final EObject snapshot = autoSaveSnapshot.update();
+		if (detectWorkbenchCorruption((MApplication) snapshot)) {
 			return;
 		}
 		final IModelResourceHandler handler = e4Context.get(IModelResourceHandler.class);
@@ -1298,6 +1316,7 @@ public final class Workbench extends EventManager implements IWorkbench,
 		Job cleanAndSaveJob = new Job(WORKBENCH_AUTO_SAVE_BACKGROUND_JOB) {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
+				final MApplication appCopy = (MApplication) EcoreUtil.copy(snapshot);
 				final Resource res = handler.createResourceWithApp(appCopy);
 				cleanUpCopy(appCopy, e4Context);
 				try {
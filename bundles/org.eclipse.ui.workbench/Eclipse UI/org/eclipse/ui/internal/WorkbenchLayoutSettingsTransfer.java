@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,12 @@ import org.eclipse.ui.internal.preferences.WorkbenchSettingsTransfer;
  */
 public class WorkbenchLayoutSettingsTransfer extends WorkbenchSettingsTransfer {
 
+	/**
+	 * The files holding the workbench layout. The model may be saved in XMI or
+	 * in the EMF binary format, the most recent of which is restored.
+	 */
+	private static final String[] LAYOUT_FILES = { "deltas.xml", "workbench.xmi", "workbench.bin" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
 	/**
 	 * Create a new instance of the receiver.
 	 */
@@ -50,34 +56,11 @@ public class WorkbenchLayoutSettingsTransfer extends WorkbenchSettingsTransfer {
 						WorkbenchPlugin.PI_WORKBENCH,
 						WorkbenchMessages.WorkbenchSettings_CouldNotCreateDirectories);
 
-			File deltas = new File(currentLocation.toOSString(), "deltas.xml"); //$NON-NLS-1$
-			if (deltas.exists()) {
-				byte[] bytes = new byte[8192];
-				FileInputStream inputStream = new FileInputStream(deltas);
-				FileOutputStream outputStream = new FileOutputStream(new File(workspaceFile,
-						"deltas.xml")); //$NON-NLS-1$
-				int read = inputStream.read(bytes, 0, 8192);
-				while (read != -1) {
-					outputStream.write(bytes, 0, read);
-					read = inputStream.read(bytes, 0, 8192);
+			for (String fileName : LAYOUT_FILES) {
+				File file = new File(currentLocation.toOSString(), fileName);
+				if (file.exists()) {
+					copyFile(file, new File(workspaceFile, fileName));
 				}
-				inputStream.close();
-				outputStream.close();
-			}
-
-			File workbenchModel = new File(currentLocation.toOSString(), "workbench.xmi"); //$NON-NLS-1$
-			if (workbenchModel.exists()) {
-				byte[] bytes = new byte[8192];
-				FileInputStream inputStream = new FileInputStream(workbenchModel);
-				FileOutputStream outputStream = new FileOutputStream(new File(workspaceFile,
-						"workbench.xmi")); //$NON-NLS-1$
-				int read = inputStream.read(bytes, 0, 8192);
-				while (read != -1) {
-					outputStream.write(bytes, 0, read);
-					read = inputStream.read(bytes, 0, 8192);
-				}
-				inputStream.close();
-				outputStream.close();
 			}
 		} catch (IOException e) {
 			return new Status(IStatus.ERROR, WorkbenchPlugin.PI_WORKBENCH,
@@ -88,6 +71,27 @@ public class WorkbenchLayoutSettingsTransfer extends WorkbenchSettingsTransfer {
 		return Status.OK_STATUS;
 	}
 
+	/**
+	 * Copy the given file, keeping its time-stamp so that the most recent of
+	 * the saved models remains so.
+	 *
+	 * @param source
+	 * @param destination
+	 * @throws IOException
+	 */
+	private void copyFile(File source, File destination) throws IOException {
+		byte[] bytes = new byte[8192];
+		try (FileInputStream inputStream = new FileInputStream(source);
+				FileOutputStream outputStream = new FileOutputStream(destination)) {
+			int read = inputStream.read(bytes, 0, 8192);
+			while (read != -1) {
+				outputStream.write(bytes, 0, read);
+				read = inputStream.read(bytes, 0, 8192);
+			}
+		}
+		destination.setLastModified(source.lastModified());
+	}
+
 	/**
 	 * Create the parent directories for the workbench layout file and then
 	 * return the File.
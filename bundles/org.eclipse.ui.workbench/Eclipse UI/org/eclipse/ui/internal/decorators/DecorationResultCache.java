@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.jface.viewers.IDecorationContext;
+
+/**
+ * The decoration results of the elements in each decoration context. The cache
+ * holds a bounded number of results and evicts the least recently used ones
+ * first, so that decorating a large tree does not keep the results of all its
+ * elements.
+ * <p>
+ * The cache is safe to use from several threads.
+ * </p>
+ */
+public class DecorationResultCache {
+
+	private final int maximumSize;
+
+	private final Map<Key, DecorationResult> results;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/**
+	 * Create a cache holding at most <code>maximumSize</code> results.
+	 *
+	 * @param maximumSize
+	 *            the maximum number of results
+	 */
+	public DecorationResultCache(int maximumSize) {
+		this.maximumSize = Math.max(1, maximumSize);
+		this.results = new LinkedHashMap<Key, DecorationResult>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, DecorationResult> eldest) {
+				if (size() > DecorationResultCache.this.maximumSize) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Return the result of <code>element</code> in <code>context</code>, and
+	 * mark it as the most recently used.
+	 *
+	 * @param element
+	 * @param context
+	 * @return the result or <code>null</code> if it is not cached
+	 */
+	public synchronized DecorationResult get(Object element, IDecorationContext context) {
+		DecorationResult result = results.get(new Key(element, context));
+		if (result == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return result;
+	}
+
+	/**
+	 * Return whether a result of <code>element</code> in <code>context</code>
+	 * is cached. Neither the statistics nor the order of the results change.
+	 *
+	 * @param element
+	 * @param context
+	 * @return <code>true</code> if the result is cached
+	 */
+	public synchronized boolean contains(Object element, IDecorationContext context) {
+		return results.containsKey(new Key(element, context));
+	}
+
+	/**
+	 * Cache the result of <code>element</code> in <code>context</code>,
+	 * evicting the least recently used result if the cache is full.
+	 *
+	 * @param element
+	 * @param context
+	 * @param result
+	 */
+	public synchronized void put(Object element, IDecorationContext context, DecorationResult result) {
+		results.put(new Key(element, context), result);
+	}
+
+	/**
+	 * Remove all the results. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		results.clear();
+	}
+
+	/**
+	 * @return the number of cached results
+	 */
+	public synchronized int size() {
+		return results.size();
+	}
+
+	/**
+	 * @return the maximum number of cached results
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the number of lookups which found a result
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of lookups which did not find a result
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of results evicted to keep the cache under its
+	 *         maximum size
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DecorationResultCache [size=" + results.size() + ", maximumSize=" + maximumSize //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	private static final class Key {
+
+		private final Object element;
+
+		private final IDecorationContext context;
+
+		Key(Object element, IDecorationContext context) {
+			this.element = element;
+			this.context = context;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * element.hashCode() + context.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return element.equals(other.element) && context.equals(other.context);
+		}
+	}
+}
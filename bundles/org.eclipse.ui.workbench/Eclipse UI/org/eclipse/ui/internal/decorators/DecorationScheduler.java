@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,11 +15,15 @@ package org.eclipse.ui.internal.decorators;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -36,6 +40,7 @@ import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.WorkbenchMessages;
+import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.progress.UIJob;
 import org.eclipse.ui.progress.WorkbenchJob;
 
@@ -49,24 +54,25 @@ public class DecorationScheduler {
 
 	// When decorations are computed they are added to this cache via
 	// decorated() method
-	Map resultCache = new HashMap();
+	final DecorationResultCache resultCache = new DecorationResultCache(CACHE_SIZE);
 
 	// Objects that need an icon and text computed for display to the user
-	List awaitingDecoration = new ArrayList();
+	Queue awaitingDecoration = new ConcurrentLinkedQueue();
 
-	// Objects that are awaiting a label update.
-	Set pendingUpdate = new HashSet();
+	// Objects of the above which were shown in a viewer when queued, they are
+	// decorated first
+	Queue awaitingVisibleDecoration = new ConcurrentLinkedQueue();
 
-	// Key to lock write access to the pending update set
-	Object pendingKey = new Object();
+	// Objects that are awaiting a label update.
+	Set pendingUpdate = ConcurrentHashMap.newKeySet();
 
-	Map awaitingDecorationValues = new HashMap();
+	Map awaitingDecorationValues = new ConcurrentHashMap();
 
 	DecoratorManager decoratorManager;
 
-	boolean shutdown = false;
+	volatile boolean shutdown = false;
 
-	Job decorationJob;
+	Job[] decorationJobs;
 
 	UIJob updateJob;
 
@@ -77,9 +83,35 @@ public class DecorationScheduler {
 	// Static used for the updates to indicate an update is required
 	static final int NEEDS_INIT = -1;
 
+	// The visibility of an element in the viewers requesting its decoration
+	static final int VISIBLE = 0;
+
+	static final int UNKNOWN_VISIBILITY = 1;
+
+	static final int HIDDEN = 2;
+
 	/** Amount of time to delay the update notification when max reached. */
 	static final int UPDATE_DELAY = 100;
 
+	/**
+	 * Number of jobs computing the decorations. Lightweight decorators which
+	 * are not declared thread safe are still called one at a time, for one
+	 * element at a time.
+	 */
+	static final int WORKER_COUNT = getWorkerCount();
+
+	/**
+	 * Maximum number of decoration results kept for the label updates. The
+	 * least recently used results are evicted first.
+	 */
+	static final int CACHE_SIZE = Math.max(1,
+			Integer.getInteger("org.eclipse.ui.decorators.cacheSize", 10000).intValue()); //$NON-NLS-1$
+
+	private static int getWorkerCount() {
+		int defaultCount = Math.min(4, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+		return Math.max(1, Integer.getInteger("org.eclipse.ui.decorators.workerCount", defaultCount).intValue()); //$NON-NLS-1$
+	}
+
 	/**
 	 * Return a new instance of the receiver configured for the supplied
 	 * DecoratorManager.
@@ -88,7 +120,7 @@ public class DecorationScheduler {
 	 */
 	DecorationScheduler(DecoratorManager manager) {
 		decoratorManager = manager;
-		createDecorationJob();
+		createDecorationJobs();
 	}
 
 	/**
@@ -131,28 +163,60 @@ public class DecorationScheduler {
 	 *            The decoration context
 	 */
 
-	synchronized void queueForDecoration(Object element, Object adaptedElement, boolean forceUpdate,
-			String undecoratedText, IDecorationContext context) {
+	void queueForDecoration(final Object element, final Object adaptedElement, final boolean forceUpdate,
+			final String undecoratedText, final IDecorationContext context) {
 
 		Assert.isNotNull(context);
-		DecorationReference reference = (DecorationReference) awaitingDecorationValues.get(element);
-		if (reference != null) {
-			if (forceUpdate) {// Make sure we don't loose a force
-				reference.setForceUpdate(forceUpdate);
+		final Queue queue = getVisibility(element, new IDecorationContext[] { context }) == VISIBLE
+				? awaitingVisibleDecoration : awaitingDecoration;
+		final boolean[] queued = new boolean[1];
+		// Atomic with the removal of the reference by nextElement()
+		awaitingDecorationValues.compute(element, (key, value) -> {
+			DecorationReference reference = (DecorationReference) value;
+			if (reference != null) {
+				if (forceUpdate) {// Make sure we don't loose a force
+					reference.setForceUpdate(forceUpdate);
+				}
+				reference.addContext(context);
+				return reference;
 			}
-			reference.addContext(context);
-		} else {
 			reference = new DecorationReference(element, adaptedElement, context);
 			reference.setForceUpdate(forceUpdate);
 			reference.setUndecoratedText(undecoratedText);
-			awaitingDecorationValues.put(element, reference);
-			awaitingDecoration.add(element);
-			if (shutdown) {
+			queue.add(element);
+			queued[0] = true;
+			return reference;
+		});
+		if (queued[0] && !shutdown) {
+			scheduleDecorationJob();
+		}
+
+	}
+
+	/**
+	 * Schedule at most one decoration job for a newly queued element. An idle
+	 * job is started if there is one. Otherwise the element is left to the
+	 * jobs waiting to run, or, when all the jobs are running, one of them is
+	 * scheduled again in case it has just found the queue empty.
+	 */
+	private void scheduleDecorationJob() {
+		Job runningJob = null;
+		boolean waiting = false;
+		for (Job decorationJob : decorationJobs) {
+			int state = decorationJob.getState();
+			if (state == Job.NONE) {
+				decorationJob.schedule();
 				return;
 			}
-			decorationJob.schedule();
+			if (state == Job.RUNNING) {
+				runningJob = decorationJob;
+			} else {
+				waiting = true;
+			}
+		}
+		if (!waiting && runningJob != null) {
+			runningJob.schedule();
 		}
-
 	}
 
 	/**
@@ -211,21 +275,22 @@ public class DecorationScheduler {
 
 	private DecorationResult internalGetResult(Object element,
 			IDecorationContext context) {
-		Map results = (Map) resultCache.get(context);
-		if (results != null) {
-			return (DecorationResult) results.get(element);
-		}
-		return null;
+		return resultCache.get(element, context);
 	}
 
 	protected void internalPutResult(Object element,
 			IDecorationContext context, DecorationResult result) {
-		Map results = (Map) resultCache.get(context);
-		if (results == null) {
-			results = new HashMap();
-			resultCache.put(context, results);
-		}
-		results.put(element, result);
+		resultCache.put(element, context, result);
+	}
+
+	/**
+	 * Return the cache of the decoration results, which also keeps the
+	 * statistics of its use.
+	 *
+	 * @return the result cache
+	 */
+	public DecorationResultCache getResultCache() {
+		return resultCache;
 	}
 
 	/**
@@ -255,32 +320,94 @@ public class DecorationScheduler {
 	}
 
 	/**
-	 * Get the next resource to be decorated.
+	 * Get the next resource to be decorated. The elements which were visible
+	 * in a viewer when queued are decorated first. The requests for elements
+	 * which are no longer visible in the viewers requesting them are dropped.
 	 *
 	 * @return IResource
 	 */
-	synchronized DecorationReference nextElement() {
+	DecorationReference nextElement() {
 
-		if (shutdown || awaitingDecoration.isEmpty()) {
-			return null;
+		while (!shutdown) {
+			Object element = awaitingVisibleDecoration.poll();
+			if (element == null) {
+				element = awaitingDecoration.poll();
+			}
+			if (element == null) {
+				return null;
+			}
+			DecorationReference reference = (DecorationReference) awaitingDecorationValues.remove(element);
+			if (reference != null && getVisibility(reference.getElement(), reference.getContexts()) != HIDDEN) {
+				return reference;
+			}
 		}
-		Object element = awaitingDecoration.remove(0);
+		return null;
+	}
 
-		return (DecorationReference) awaitingDecorationValues.remove(element);
+	/**
+	 * Return whether there are no elements waiting for their decoration.
+	 *
+	 * @return <code>true</code> if nothing is queued
+	 */
+	boolean isDecorationQueueEmpty() {
+		return awaitingVisibleDecoration.isEmpty() && awaitingDecoration.isEmpty();
 	}
 
 	/**
-	 * Create the Thread used for running decoration.
+	 * Return the visibility of the element in the viewers requesting its
+	 * decoration. The element is {@link #VISIBLE} if one of the contexts'
+	 * {@link VisibleElementsTracker#VISIBILITY_TESTER} accepts it, and
+	 * {@link #HIDDEN} if all of them reject it. The viewers update the hidden
+	 * elements when they become visible, which requests their decoration again.
+	 *
+	 * @param element
+	 * @param contexts
+	 * @return {@link #VISIBLE}, {@link #HIDDEN} or
+	 *         {@link #UNKNOWN_VISIBILITY}
 	 */
-	private void createDecorationJob() {
-		decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
+	static int getVisibility(Object element, IDecorationContext[] contexts) {
+		int visibility = HIDDEN;
+		for (IDecorationContext context : contexts) {
+			Object tester = context.getProperty(VisibleElementsTracker.VISIBILITY_TESTER);
+			if (!(tester instanceof Predicate)) {
+				visibility = UNKNOWN_VISIBILITY;
+				continue;
+			}
+			try {
+				if (((Predicate) tester).test(element)) {
+					return VISIBLE;
+				}
+			} catch (RuntimeException e) {
+				// decorate rather than lose the update
+				WorkbenchPlugin.log(e);
+				visibility = UNKNOWN_VISIBILITY;
+			}
+		}
+		return visibility;
+	}
+
+	/**
+	 * Create the jobs used for running decoration.
+	 */
+	private void createDecorationJobs() {
+		decorationJobs = new Job[WORKER_COUNT];
+		for (int i = 0; i < decorationJobs.length; i++) {
+			decorationJobs[i] = createDecorationJob();
+		}
+	}
+
+	/**
+	 * Create a job decorating the queued elements. The jobs take the elements
+	 * from the same queue, so several of them decorate different elements
+	 * concurrently.
+	 */
+	private Job createDecorationJob() {
+		Job decorationJob = new Job(WorkbenchMessages.DecorationScheduler_CalculationJobName) {
 			@Override
 			public IStatus run(IProgressMonitor monitor) {
 
-				synchronized (DecorationScheduler.this) {
-					if (shutdown) {
-						return Status.CANCEL_STATUS;
-					}
+				if (shutdown) {
+					return Status.CANCEL_STATUS;
 				}
 
 				while (updatesPending()) {
@@ -295,7 +422,7 @@ public class DecorationScheduler {
 				}
 
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
-						WorkbenchMessages.DecorationScheduler_CalculatingTask, awaitingDecoration.size());
+						WorkbenchMessages.DecorationScheduler_CalculatingTask, awaitingDecorationValues.size());
 				// will block if there are no resources to be decorated
 				DecorationReference reference;
 
@@ -312,10 +439,8 @@ public class DecorationScheduler {
 					}
 					// Only notify listeners when we have exhausted the
 					// queue of decoration requests.
-					synchronized (DecorationScheduler.this) {
-						if (awaitingDecoration.isEmpty()) {
-							decorated();
-						}
+					if (isDecorationQueueEmpty()) {
+						decorated();
 					}
 				}
 				return Status.OK_STATUS;
@@ -333,12 +458,9 @@ public class DecorationScheduler {
 			 */
 			private void ensureResultCached(Object element, boolean force,
 					IDecorationContext context) {
-				boolean elementIsCached = internalGetResult(element, context) != null;
+				boolean elementIsCached = resultCache.contains(element, context);
 				if (elementIsCached) {
-					synchronized (pendingKey) {
-						pendingUpdate.add(element);
-					}
-
+					pendingUpdate.add(element);
 				}
 
 				if (!elementIsCached) {
@@ -364,10 +486,7 @@ public class DecorationScheduler {
 						// Add an update for only the original element
 						// to
 						// prevent multiple updates and clear the cache.
-						synchronized (pendingKey) {
-							pendingUpdate.add(element);
-						}
-
+						pendingUpdate.add(element);
 
 					}
 				}
@@ -387,6 +506,7 @@ public class DecorationScheduler {
 		decorationJob.setSystem(true);
 		decorationJob.setPriority(Job.DECORATE);
 		decorationJob.schedule();
+		return decorationJob;
 	}
 
 	/**
@@ -517,7 +637,7 @@ public class DecorationScheduler {
                 // Other decoration requests may have occurred due to
                 // updates or we may have timed out updating listeners.
                 // Only clear the results if there are none pending.
-                if (awaitingDecoration.isEmpty()) {
+                if (isDecorationQueueEmpty()) {
                     resultCache.clear();
                 }
             }
@@ -527,11 +647,13 @@ public class DecorationScheduler {
 				// clear the list
 				removedListeners.clear();
 				currentIndex = 0;
-				synchronized (pendingKey) {
-					Object[] elements = pendingUpdate.toArray(new Object[pendingUpdate.size()]);
-					pendingUpdate.clear();
-					labelProviderChangedEvent = new LabelProviderChangedEvent(decoratorManager, elements);
+				// Elements added meanwhile are left for the next update
+				List elements = new ArrayList();
+				for (Iterator iterator = pendingUpdate.iterator(); iterator.hasNext();) {
+					elements.add(iterator.next());
+					iterator.remove();
 				}
+				labelProviderChangedEvent = new LabelProviderChangedEvent(decoratorManager, elements.toArray());
 				listeners = decoratorManager.getListeners();
 			}
 
@@ -559,7 +681,7 @@ public class DecorationScheduler {
 	 * @return boolean true if the element is ready.
 	 */
 	public boolean isDecorationReady(Object element, IDecorationContext context) {
-		return internalGetResult(element, context) != null;
+		return resultCache.contains(element, context);
 	}
 
 	/**
@@ -625,7 +747,7 @@ public class DecorationScheduler {
 	 * @return boolean
 	 */
 	public boolean processingUpdates() {
-		return !hasPendingUpdates() && !awaitingDecoration.isEmpty();
+		return !hasPendingUpdates() && !isDecorationQueueEmpty();
 	}
 
 	/**
@@ -650,9 +772,6 @@ public class DecorationScheduler {
 	 * @return boolean <code>true</code> if the updates are empty
 	 */
 	boolean hasPendingUpdates() {
-		synchronized (pendingKey) {
-			return pendingUpdate.isEmpty();
-		}
-
+		return pendingUpdate.isEmpty();
 	}
 }
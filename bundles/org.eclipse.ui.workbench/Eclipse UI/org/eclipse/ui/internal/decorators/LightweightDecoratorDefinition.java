@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,6 +34,8 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 
 	static final String ATT_ICON = "icon"; //$NON-NLS-1$
 
+	private static final String ATT_THREAD_SAFE = "threadSafe"; //$NON-NLS-1$
+
 	// Constants for quadrants
 	/**
 	 * Position <code>TOP_LEFT</code>. Value <code>0</code>
@@ -82,7 +84,7 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 	 * The DeclarativeDecorator is the internal decorator supplied by the
 	 * decorator definition.
 	 */
-	private ILightweightLabelDecorator decorator;
+	private volatile ILightweightLabelDecorator decorator;
 
 	private int quadrant;
 
@@ -107,6 +109,20 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 		if (labelProviderCreationFailed) {
 			return null;
 		}
+		ILightweightLabelDecorator currentDecorator = decorator;
+		if (currentDecorator != null) {
+			return currentDecorator;
+		}
+		// thread safe decorators may be asked for several elements at once
+		synchronized (this) {
+			return createDecorator();
+		}
+	}
+
+	private ILightweightLabelDecorator createDecorator() throws CoreException {
+		if (labelProviderCreationFailed) {
+			return null;
+		}
 
 		final CoreException[] exceptions = new CoreException[1];
 
@@ -162,6 +178,16 @@ class LightweightDecoratorDefinition extends DecoratorDefinition implements
 		return definingElement.getAttribute(DecoratorDefinition.ATT_CLASS) == null;
 	}
 
+	/**
+	 * Return whether the decorator may decorate several elements concurrently.
+	 * Declarative decorators are always thread safe.
+	 *
+	 * @return boolean <code>true</code> if the decorator is thread safe
+	 */
+	public boolean isThreadSafe() {
+		return isDeclarative() || Boolean.valueOf(definingElement.getAttribute(ATT_THREAD_SAFE)).booleanValue();
+	}
+
 	/**
 	 * Return the icon location.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -116,13 +116,17 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		}
 	}
 
-	private LightweightRunnable runnable = new LightweightRunnable();
-
 	// The lightweight definitions read from the registry
 	private LightweightDecoratorDefinition[] lightweightDefinitions;
 
 	private static final LightweightDecoratorDefinition[] EMPTY_LIGHTWEIGHT_DEF = new LightweightDecoratorDefinition[0];
 
+	/**
+	 * Lock shared by the decorators which are not thread safe, so that only one
+	 * of them is called at a time, as when decorating in a single job.
+	 */
+	private static final Object NON_THREAD_SAFE_LOCK = new Object();
+
 	LightweightDecoratorManager(LightweightDecoratorDefinition[] definitions) {
 		super();
 		lightweightDefinitions = definitions;
@@ -278,13 +282,6 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		return false;
 	}
 
-	/**
-	 * Reset any cached values.
-	 */
-	void reset() {
-		runnable.clearReferences();
-	}
-
 	/**
 	 * Shutdown the decorator manager by disabling all of the decorators so that
 	 * dispose() will be called on them.
@@ -328,7 +325,11 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 		List elements = new ArrayList(1);
 		elements.add(element);
 		LightweightDecoratorDefinition[] decoratorArray = EMPTY_LIGHTWEIGHT_DEF;
-		List contributors = getContributors(elements);
+		List contributors;
+		// The lookup caches are not thread safe
+		synchronized (this) {
+			contributors = getContributors(elements);
+		}
 		if (!contributors.isEmpty()) {
 			Collection decorators = DecoratorManager.getDecoratorsFor(element,
 					(DecoratorDefinition[]) contributors
@@ -373,8 +374,16 @@ public class LightweightDecoratorManager extends ObjectContributorManager {
 	private void decorate(Object element, DecorationBuilder decoration,
 			LightweightDecoratorDefinition decorator) {
 
+		// Elements may be decorated by several threads at once
+		LightweightRunnable runnable = new LightweightRunnable();
 		runnable.setValues(element, decoration, decorator);
-		SafeRunner.run(runnable);
+		if (decorator.isThreadSafe()) {
+			SafeRunner.run(runnable);
+		} else {
+			synchronized (NON_THREAD_SAFE_LOCK) {
+				SafeRunner.run(runnable);
+			}
+		}
 	}
 
 
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.decorators;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Item;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tracks the elements of the items shown in the client area of a tree or
+ * table viewer. The tracker is meant to be set as the
+ * {@link #VISIBILITY_TESTER} property of the decoration context of the
+ * viewer's label provider, so that the {@link DecorationScheduler} decorates
+ * the visible elements first:
+ *
+ * <pre>
+ * DecorationContext context = new DecorationContext();
+ * context.putProperty(VisibleElementsTracker.VISIBILITY_TESTER, new VisibleElementsTracker(viewer));
+ * labelProvider.setDecorationContext(context);
+ * </pre>
+ * <p>
+ * The visible elements are computed again shortly after the control is
+ * painted, once for all the paint events received meanwhile, and may be
+ * tested from any thread. The label of an element which was tested
+ * while hidden is updated when the element is scrolled into view, so that the
+ * decorators may drop the decoration requests of hidden elements.
+ * </p>
+ * <p>
+ * Elements which have not been painted yet are considered visible, as well as
+ * all the elements of a viewer which is neither a tree nor a table.
+ * </p>
+ */
+public class VisibleElementsTracker implements Predicate<Object> {
+
+	/**
+	 * The property key of the decoration context holding a
+	 * <code>Predicate&lt;Object&gt;</code> which tells whether an element is
+	 * shown in the viewer requesting its decoration. The predicate may be
+	 * called from any thread.
+	 */
+	public static final String VISIBILITY_TESTER = "org.eclipse.ui.internal.decorators.visibilityTester"; //$NON-NLS-1$
+
+	/**
+	 * The delay in milliseconds between a paint event and the computation of
+	 * the visible elements.
+	 */
+	private static final int UPDATE_DELAY = 50;
+
+	private final StructuredViewer viewer;
+
+	/**
+	 * Whether the visible elements are about to be computed, only accessed in
+	 * the UI thread.
+	 */
+	private boolean updateScheduled;
+
+	/**
+	 * The elements shown in the client area, or <code>null</code> until the
+	 * control is painted.
+	 */
+	private volatile Set<Object> visibleElements;
+
+	/**
+	 * The elements tested while hidden, weakly referenced so that the elements
+	 * removed from the viewer are not retained.
+	 */
+	private final Set<Object> hiddenElements = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+	/**
+	 * Create a tracker for the visible elements of <code>viewer</code>.
+	 *
+	 * @param viewer
+	 *            the viewer, which control must have been created
+	 */
+	public VisibleElementsTracker(StructuredViewer viewer) {
+		this.viewer = viewer;
+		Control control = viewer.getControl();
+		if (control instanceof Tree || control instanceof Table) {
+			Listener listener = this::handleEvent;
+			control.addListener(SWT.Paint, listener);
+			control.addListener(SWT.Dispose, listener);
+		}
+	}
+
+	private void handleEvent(Event event) {
+		if (event.type == SWT.Dispose) {
+			visibleElements = null;
+			hiddenElements.clear();
+			return;
+		}
+		// scrolling sends many paint events, and the items must not be
+		// changed while they are painted
+		if (!updateScheduled) {
+			updateScheduled = true;
+			event.display.timerExec(UPDATE_DELAY, this::update);
+		}
+	}
+
+	private void update() {
+		updateScheduled = false;
+		if (viewer.getControl().isDisposed()) {
+			return;
+		}
+		Set<Object> elements = computeVisibleElements();
+		visibleElements = elements;
+		if (hiddenElements.isEmpty()) {
+			return;
+		}
+		List<Object> shown = new ArrayList<>();
+		for (Object element : elements) {
+			if (hiddenElements.remove(element)) {
+				shown.add(element);
+			}
+		}
+		if (!shown.isEmpty()) {
+			viewer.update(shown.toArray(), null);
+		}
+	}
+
+	/**
+	 * Return whether <code>element</code> is shown in the viewer. A hidden
+	 * element is updated when it becomes visible.
+	 *
+	 * @param element
+	 *            the element
+	 * @return <code>true</code> if the element is visible or if the viewer was
+	 *         not painted yet
+	 */
+	@Override
+	public boolean test(Object element) {
+		Set<Object> elements = visibleElements;
+		if (elements == null || elements.contains(element)) {
+			return true;
+		}
+		hiddenElements.add(element);
+		return false;
+	}
+
+	private Set<Object> computeVisibleElements() {
+		Set<Object> elements = new HashSet<>();
+		Control control = viewer.getControl();
+		if (control instanceof Tree) {
+			collectVisibleElements((Tree) control, elements);
+		} else if (control instanceof Table) {
+			collectVisibleElements((Table) control, elements);
+		}
+		return elements;
+	}
+
+	private static void collectVisibleElements(Table table, Set<Object> elements) {
+		int rows = table.getClientArea().height / Math.max(1, table.getItemHeight()) + 1;
+		int top = table.getTopIndex();
+		int end = Math.min(table.getItemCount(), top + rows);
+		for (int i = top; i < end; i++) {
+			addData(table.getItem(i), elements);
+		}
+	}
+
+	private static void collectVisibleElements(Tree tree, Set<Object> elements) {
+		TreeItem item = tree.getTopItem();
+		if (item == null) {
+			return;
+		}
+		// the position of the current item and of its ancestors among their
+		// siblings, the deepest first
+		Deque<Level> levels = new ArrayDeque<>();
+		for (TreeItem child = item; child != null; child = child.getParentItem()) {
+			levels.addLast(new Level(tree, child.getParentItem(), child));
+		}
+		int bottom = tree.getClientArea().height;
+		while (item != null && item.getBounds().y < bottom) {
+			addData(item, elements);
+			if (item.getExpanded() && item.getItemCount() > 0) {
+				levels.addFirst(new Level(tree, item, null));
+				item = item.getItem(0);
+				continue;
+			}
+			item = null;
+			while (item == null && !levels.isEmpty()) {
+				item = levels.peekFirst().next();
+				if (item == null) {
+					levels.removeFirst();
+				}
+			}
+		}
+	}
+
+	private static void addData(Item item, Set<Object> elements) {
+		Object data = item.getData();
+		// the items of virtual viewers have no data until they are shown
+		if (data != null) {
+			elements.add(data);
+		}
+	}
+
+	/**
+	 * The siblings of a tree item, iterated by index so that walking down
+	 * items with many children does not look up their position.
+	 */
+	private static class Level {
+
+		private final Tree tree;
+
+		private final TreeItem parent;
+
+		private final int count;
+
+		private int index;
+
+		Level(Tree tree, TreeItem parent, TreeItem child) {
+			this.tree = tree;
+			this.parent = parent;
+			if (parent == null) {
+				count = tree.getItemCount();
+				index = tree.indexOf(child);
+			} else {
+				count = parent.getItemCount();
+				index = child == null ? 0 : parent.indexOf(child);
+			}
+		}
+
+		TreeItem next() {
+			if (++index >= count) {
+				return null;
+			}
+			return parent == null ? tree.getItem(index) : parent.getItem(index);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@
 package org.eclipse.ui.internal.quickaccess;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -23,6 +24,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.bindings.TriggerSequence;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.layout.GridDataFactory;
@@ -105,6 +108,11 @@ public abstract class QuickAccessContents {
 	protected boolean resized = false;
 	private TriggerSequence keySequence;
 
+	/**
+	 * The monitor of the search in progress, cancelled by the next search.
+	 */
+	private IProgressMonitor currentSearch;
+
 	public QuickAccessContents(QuickAccessProvider[] providers) {
 		this.providers = providers;
 	}
@@ -407,17 +415,33 @@ public abstract class QuickAccessContents {
 		}
 		boolean done;
 		String category = null;
+		// check for a category filter, like "Views: "
+		Matcher categoryMatcher = getCategoryPattern().matcher(filter);
+		if (categoryMatcher.matches()) {
+			category = categoryMatcher.group(1);
+			filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
+		}
 		Set<String> prevPickIds = new HashSet<>();
+		for (QuickAccessProvider provider : providers) {
+			if (provider instanceof PreviousPicksProvider) {
+				Stream.of(provider.getElementsSorted()).forEach(e -> prevPickIds.add(e.getId()));
+			}
+		}
+		List<QuickAccessEntry>[] matches = null;
+		if (filter.length() > 0) {
+			// a provider never shows more entries than the total
+			int limit = showAllMatches ? Integer.MAX_VALUE : Math.max(maxCount, MAX_COUNT_TOTAL);
+			matches = computeMatches(filter, category, prevPickIds, limit);
+			if (matches == null) {
+				// cancelled by a newer search
+				numberOfFilteredResults = 0;
+				return entries;
+			}
+		}
 		do {
 			// will be set to false if we find a provider with remaining
 			// elements
 			done = true;
-			// check for a category filter, like "Views: "
-			Matcher categoryMatcher = getCategoryPattern().matcher(filter);
-			if (categoryMatcher.matches()) {
-				category = categoryMatcher.group(1);
-				filter = category + " " + categoryMatcher.group(2); //$NON-NLS-1$
-			}
 			for (int i = 0; i < providers.length
 					&& (showAllMatches || countTotal < maxCount); i++) {
 				if (entries[i] == null) {
@@ -435,40 +459,36 @@ public abstract class QuickAccessContents {
 				if (filter.length() > 0 || provider.isAlwaysPresent() || showAllMatches) {
 					QuickAccessElement[] sortedElements = provider.getElementsSorted();
 
-					// count previous picks and store ids
+					// count previous picks
 					if (isPreviousPickProvider) {
 						prevPick = sortedElements.length;
-						Stream.of(sortedElements).forEach(e -> prevPickIds.add(e.getId()));
 					}
 
+					// the matches exclude the previous picks already
+					int size = matches == null ? sortedElements.length : matches[i].size();
 					int j = indexPerProvider[i];
 					// loops on all the elements of a provider
-					while (j < sortedElements.length
+					while (j < size
 							&& (showAllMatches || (count < countPerProvider && countTotal < maxCount))) {
-						QuickAccessElement element = sortedElements[j];
+						QuickAccessEntry entry = null;
+						if (matches == null) {
+							QuickAccessElement element = sortedElements[j];
 
-						// Skip element if already in contained amid previous picks
-						if (!isPreviousPickProvider && prevPickIds.contains(element.getId())) {
-							j++;
-							continue;
-						}
+							// Skip element if already in contained amid previous picks
+							if (!isPreviousPickProvider && prevPickIds.contains(element.getId())) {
+								j++;
+								continue;
+							}
 
-						QuickAccessEntry entry = null;
-						if (filter.length() == 0) {
 							if (i == 0 || showAllMatches) {
 								entry = new QuickAccessEntry(element, provider, new int[0][0],
 										new int[0][0], QuickAccessEntry.MATCH_PERFECT);
-							} else {
-								entry = null;
 							}
 						} else {
-							QuickAccessEntry possibleMatch = element.match(filter, provider);
-							if (possibleMatch != null) {
-								entry = possibleMatch;
-							}
-
+							entry = matches[i].get(j);
 						}
-						if (entryEnabled(provider, entry)) {
+						// the matches are enabled already
+						if (matches != null || entryEnabled(provider, entry)) {
 							entries[i].add(entry);
 							count++;
 							countTotal++;
@@ -483,7 +503,7 @@ public abstract class QuickAccessContents {
 
 					indexPerProvider[i] = j;
 
-					if (j < sortedElements.length) {
+					if (j < size) {
 						done = false;
 					}
 				}
@@ -510,6 +530,57 @@ public abstract class QuickAccessContents {
 		return entries;
 	}
 
+	/**
+	 * Match the filter against the elements of the providers, with their
+	 * {@link QuickAccessIndex}. The providers and their elements are only
+	 * called from the current thread. Starting a search cancels the previous
+	 * one.
+	 *
+	 * @param filter
+	 *            the filter, not empty
+	 * @param category
+	 *            the name of the only provider to search with the previous
+	 *            picks, or <code>null</code>
+	 * @param prevPickIds
+	 *            the ids of the previous picks, excluded from the other
+	 *            providers
+	 * @param limit
+	 *            the maximum number of enabled entries of a provider
+	 * @return the matching enabled entries of each provider, or
+	 *         <code>null</code> if the search was cancelled
+	 */
+	private List<QuickAccessEntry>[] computeMatches(String filter, String category, Set<String> prevPickIds,
+			int limit) {
+		if (currentSearch != null) {
+			currentSearch.setCanceled(true);
+		}
+		IProgressMonitor monitor = new NullProgressMonitor();
+		currentSearch = monitor;
+
+		@SuppressWarnings("unchecked")
+		List<QuickAccessEntry>[] matches = new List[providers.length];
+		for (int i = 0; i < providers.length; i++) {
+			QuickAccessProvider provider = providers[i];
+			if (provider instanceof PreviousPicksProvider) {
+				matches[i] = provider.getIndex().match(filter, Collections.emptySet(),
+						element -> elementEnabled(provider, element), Integer.MAX_VALUE, monitor);
+			} else if (category != null && !category.equalsIgnoreCase(provider.getName())) {
+				matches[i] = Collections.emptyList();
+			} else {
+				matches[i] = provider.getIndex().match(filter, prevPickIds,
+						element -> elementEnabled(provider, element), limit, monitor);
+			}
+			if (matches[i] == null) {
+				return null;
+			}
+		}
+
+		if (currentSearch == monitor) {
+			currentSearch = null;
+		}
+		return matches;
+	}
+
 	Pattern categoryPattern;
 
 	/**
@@ -544,11 +615,18 @@ public abstract class QuickAccessContents {
 		if (entry == null) {
 			return false;
 		}
+		return elementEnabled(provider, entry.element);
+	}
 
+	/**
+	 * @param provider
+	 * @param element
+	 * @return <code>true</code> if the entries of the element are enabled
+	 */
+	private boolean elementEnabled(QuickAccessProvider provider, QuickAccessElement element) {
 		// For a previous pick provider, check that the original provider does
 		// also provide the element
 		if (provider instanceof PreviousPicksProvider) {
-			QuickAccessElement element = entry.element;
 			final QuickAccessProvider originalProvider = element.getProvider();
 			QuickAccessElement match = originalProvider.getElementForId(element.getId());
 			return match != null;
@@ -558,6 +636,10 @@ public abstract class QuickAccessContents {
 	}
 
 	private void doDispose() {
+		if (currentSearch != null) {
+			currentSearch.setCanceled(true);
+			currentSearch = null;
+		}
 		if (textLayout != null && !textLayout.isDisposed()) {
 			textLayout.dispose();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -88,9 +88,22 @@ public abstract class QuickAccessElement {
 	private static final String PAR_END = "\\)"; //$NON-NLS-1$
 	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
 
+	/**
+	 * A pattern and the filter it was created for. The patterns are shared by
+	 * all the elements, which may be matched from several threads.
+	 */
+	private static final class FilterPattern {
+		final String filter;
+		final Pattern pattern;
+
+		FilterPattern(String filter, Pattern pattern) {
+			this.filter = filter;
+			this.pattern = pattern;
+		}
+	}
+
 	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
+	private static volatile FilterPattern wsPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -99,20 +112,20 @@ public abstract class QuickAccessElement {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
+	private static Pattern getWhitespacesPattern(String filter) {
+		FilterPattern cached = wsPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = safeCompile(sFilter);
+			cached = new FilterPattern(filter, safeCompile(sFilter));
+			wsPattern = cached;
 		}
-		return wsPattern;
+		return cached.pattern;
 	}
 
 	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
+	private static volatile FilterPattern wcPattern;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new
@@ -121,9 +134,9 @@ public abstract class QuickAccessElement {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWildcardsPattern(String filter) {
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
+	private static Pattern getWildcardsPattern(String filter) {
+		FilterPattern cached = wcPattern;
+		if (cached == null || !filter.equals(cached.filter)) {
 			String sFilter = filter.replaceFirst(WS_START, EMPTY_STR).replaceFirst(WS_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			// replace '*' and '?' with their matchers ").*(" and ").?("
@@ -138,9 +151,10 @@ public abstract class QuickAccessElement {
 			}
 			sFilter = String.format(".*(%s).*", sb.toString()); //$NON-NLS-1$
 			//
-			wcPattern = safeCompile(sFilter);
+			cached = new FilterPattern(filter, safeCompile(sFilter));
+			wcPattern = cached;
 		}
-		return wcPattern;
+		return cached.pattern;
 	}
 
 	/**
@@ -153,7 +167,7 @@ public abstract class QuickAccessElement {
 	 * @return a {@link Pattern} object compiled from given input or a dummy
 	 *         pattern which do not match anything
 	 */
-	private Pattern safeCompile(String pattern) {
+	private static Pattern safeCompile(String pattern) {
 		try {
 			return Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
 		} catch (Exception e) {
@@ -176,7 +190,23 @@ public abstract class QuickAccessElement {
 	 */
 	public QuickAccessEntry match(String filter,
 			QuickAccessProvider providerForMatching) {
-		String sortLabel = getLabel();
+		return match(filter, providerForMatching, getLabel());
+	}
+
+	/**
+	 * Match the element as {@link #match(String, QuickAccessProvider)} does,
+	 * using a label read beforehand.
+	 *
+	 * @param filter
+	 *            filter for matching
+	 * @param providerForMatching
+	 *            the provider that will own the entry
+	 * @param label
+	 *            the label of the element
+	 * @return a quick access entry or <code>null</code>
+	 */
+	QuickAccessEntry match(String filter, QuickAccessProvider providerForMatching, String label) {
+		String sortLabel = label;
 		// first occurrence of filter
 		int index = sortLabel.toLowerCase().indexOf(filter);
 		if (index != -1) {
@@ -212,7 +242,7 @@ public abstract class QuickAccessElement {
 					EMPTY_INDICES, quality );
 		}
 		//
-		String combinedLabel = (providerForMatching.getName() + " " + getLabel()); //$NON-NLS-1$
+		String combinedLabel = (providerForMatching.getName() + " " + label); //$NON-NLS-1$
 		index = combinedLabel.toLowerCase().indexOf(filter);
 		if (index != -1) {
 			int lengthOfElementMatch = index + filter.length()
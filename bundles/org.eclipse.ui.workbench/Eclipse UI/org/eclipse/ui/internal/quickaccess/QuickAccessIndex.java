@@ -0,0 +1,510 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Search index of the elements of a {@link QuickAccessProvider}.
+ * <p>
+ * The words of the element labels and their camel case initials are kept in
+ * tries of their suffixes, which give the elements containing a filter without
+ * looking at all of them. The index only narrows down the elements: the ones
+ * it selects are still matched with
+ * {@link QuickAccessElement#match(String, QuickAccessProvider)}, so that the
+ * results and their highlighting do not depend on the index. Filters using
+ * other characters than letters, digits and whitespace, like wildcards, are
+ * matched against all the elements.
+ * </p>
+ * <p>
+ * The index is updated with the elements of the provider and searched from the
+ * UI thread, as matching calls the elements and their provider. A search
+ * refines the matches of the previous one when the filter was extended.
+ * </p>
+ */
+public class QuickAccessIndex {
+
+	/**
+	 * The elements checked between two checks of the progress monitor.
+	 */
+	private static final int CANCEL_CHECK_INTERVAL = 256;
+
+	private final QuickAccessProvider provider;
+
+	private QuickAccessElement[] elements = new QuickAccessElement[0];
+
+	private ElementInfo[] infos = new ElementInfo[0];
+
+	private Map<QuickAccessElement, ElementInfo> infoByElement = new IdentityHashMap<>();
+
+	private final Trie wordTrie = new Trie();
+
+	private final Map<String, Set<ElementInfo>> elementsByWord = new HashMap<>();
+
+	private final Trie camelCaseTrie = new Trie();
+
+	private final Map<String, Set<ElementInfo>> elementsByCamelCase = new HashMap<>();
+
+	/**
+	 * The elements whose camel case is not a suffix of the camel case of their
+	 * label prefixed by the provider name, which the index cannot select.
+	 */
+	private final Set<ElementInfo> unindexedElements = new HashSet<>();
+
+	private String providerName;
+
+	private String providerCamelCase;
+
+	private String lastFilter;
+
+	private BitSet lastMatches;
+
+	private int lastMatchedCount;
+
+	/**
+	 * Create an empty index for the elements of <code>provider</code>.
+	 *
+	 * @param provider
+	 *            the provider
+	 */
+	public QuickAccessIndex(QuickAccessProvider provider) {
+		this.provider = provider;
+	}
+
+	/**
+	 * Update the index with the current elements of the provider. The elements
+	 * which were already indexed are not indexed again. Must be called from
+	 * the UI thread, as the labels of the elements may come from the
+	 * workbench.
+	 *
+	 * @param sortedElements
+	 *            the elements of the provider, in the order of the results
+	 */
+	public synchronized void update(QuickAccessElement[] sortedElements) {
+		String name = provider.getName();
+		if (sortedElements == elements && name.equals(providerName)) {
+			return;
+		}
+		if (!name.equals(providerName)) {
+			providerName = name;
+			providerCamelCase = CamelUtil.getCamelCase(name);
+		}
+
+		boolean keepsElements = false;
+		for (QuickAccessElement element : sortedElements) {
+			if (infoByElement.containsKey(element)) {
+				keepsElements = true;
+				break;
+			}
+		}
+		if (!keepsElements) {
+			// drop the words of the previous elements
+			clear();
+		}
+
+		Map<QuickAccessElement, ElementInfo> newInfoByElement = new IdentityHashMap<>();
+		ElementInfo[] newInfos = new ElementInfo[sortedElements.length];
+		for (int i = 0; i < sortedElements.length; i++) {
+			QuickAccessElement element = sortedElements[i];
+			ElementInfo info = newInfoByElement.get(element);
+			if (info == null) {
+				info = infoByElement.remove(element);
+			}
+			if (info == null) {
+				info = new ElementInfo(element);
+				add(info);
+			}
+			info.position = i;
+			newInfos[i] = info;
+			newInfoByElement.put(element, info);
+		}
+		if (keepsElements) {
+			for (ElementInfo info : infoByElement.values()) {
+				remove(info);
+			}
+		}
+		elements = sortedElements;
+		infos = newInfos;
+		infoByElement = newInfoByElement;
+		lastFilter = null;
+		lastMatches = null;
+	}
+
+	private void clear() {
+		wordTrie.clear();
+		elementsByWord.clear();
+		camelCaseTrie.clear();
+		elementsByCamelCase.clear();
+		unindexedElements.clear();
+	}
+
+	private void add(ElementInfo info) {
+		for (String word : info.words) {
+			Set<ElementInfo> words = elementsByWord.get(word);
+			if (words == null) {
+				words = new HashSet<>();
+				elementsByWord.put(word, words);
+				wordTrie.addSuffixes(word);
+			}
+			words.add(info);
+		}
+		Set<ElementInfo> camelCases = elementsByCamelCase.get(info.camelCase);
+		if (camelCases == null) {
+			camelCases = new HashSet<>();
+			elementsByCamelCase.put(info.camelCase, camelCases);
+			camelCaseTrie.addSuffixes(info.camelCase);
+		}
+		camelCases.add(info);
+		if (info.label.length() == 0 || CamelUtil.isSeparatorForCamelCase(info.label.charAt(0))) {
+			unindexedElements.add(info);
+		}
+	}
+
+	private void remove(ElementInfo info) {
+		for (String word : info.words) {
+			Set<ElementInfo> words = elementsByWord.get(word);
+			if (words != null) {
+				// the word stays in the trie and selects no element
+				words.remove(info);
+			}
+		}
+		Set<ElementInfo> camelCases = elementsByCamelCase.get(info.camelCase);
+		if (camelCases != null) {
+			camelCases.remove(info);
+		}
+		unindexedElements.remove(info);
+	}
+
+	/**
+	 * Match the elements against the filter.
+	 *
+	 * @param filter
+	 *            the lower case filter, not empty
+	 * @param excludedIds
+	 *            the ids of the elements which are not returned, as they are
+	 *            already shown
+	 * @param enabled
+	 *            the test of the matching elements which may be returned
+	 * @param limit
+	 *            the maximum number of entries to return
+	 * @param monitor
+	 *            the monitor checked for cancellation
+	 * @return the entries of the matching elements in the order of the
+	 *         elements, or <code>null</code> if the search was cancelled
+	 */
+	public synchronized List<QuickAccessEntry> match(String filter, Set<String> excludedIds,
+			Predicate<QuickAccessElement> enabled, int limit, IProgressMonitor monitor) {
+		boolean indexed = isIndexed(filter);
+		BitSet candidates = indexed ? getCandidates(filter) : null;
+		// the elements matching an extended filter also match the previous one
+		BitSet previousMatches = null;
+		int previousCount = 0;
+		if (indexed && lastFilter != null && filter.startsWith(lastFilter)) {
+			previousMatches = lastMatches;
+			previousCount = lastMatchedCount;
+		}
+
+		List<QuickAccessEntry> entries = new ArrayList<>();
+		BitSet matches = new BitSet(infos.length);
+		int checked = 0;
+		int i = nextCandidate(0, candidates, previousMatches, previousCount);
+		while (i != -1 && entries.size() < limit) {
+			if (++checked % CANCEL_CHECK_INTERVAL == 0 && monitor.isCanceled()) {
+				return null;
+			}
+			ElementInfo info = infos[i];
+			QuickAccessEntry entry = info.element.match(filter, provider, info.label);
+			if (entry != null) {
+				matches.set(i);
+				// the limit only counts the entries which are shown
+				if (!excludedIds.contains(info.id) && enabled.test(info.element)) {
+					entries.add(entry);
+				}
+			}
+			i = nextCandidate(i + 1, candidates, previousMatches, previousCount);
+		}
+
+		lastFilter = indexed ? filter : null;
+		lastMatches = matches;
+		lastMatchedCount = i == -1 ? infos.length : i;
+		return entries;
+	}
+
+	/**
+	 * Return the position of the next element to match, starting at
+	 * <code>from</code>.
+	 */
+	private int nextCandidate(int from, BitSet candidates, BitSet previousMatches, int previousCount) {
+		if (from < previousCount) {
+			int next = previousMatches.nextSetBit(from);
+			if (next != -1 && next < previousCount) {
+				return next;
+			}
+			from = previousCount;
+		}
+		if (from >= infos.length) {
+			return -1;
+		}
+		if (candidates == null) {
+			return from;
+		}
+		int next = candidates.nextSetBit(from);
+		return next < infos.length ? next : -1;
+	}
+
+	/**
+	 * Return whether the index can select the elements matching the filter,
+	 * which is the case of the filters made of words separated by whitespace.
+	 */
+	static boolean isIndexed(String filter) {
+		boolean hasWord = false;
+		for (int i = 0; i < filter.length(); i++) {
+			char c = filter.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				hasWord = true;
+			} else if (!Character.isWhitespace(c)) {
+				return false;
+			}
+		}
+		return hasWord;
+	}
+
+	/**
+	 * Return the positions of the elements which may match the filter, a
+	 * superset of the ones
+	 * {@link QuickAccessElement#match(String, QuickAccessProvider)} accepts,
+	 * or <code>null</code> if all the elements may match.
+	 */
+	private BitSet getCandidates(String filter) {
+		if (providerName.length() == 0 || CamelUtil.isSeparatorForCamelCase(providerName.charAt(0))) {
+			// the camel case of the provider and the label is not the
+			// concatenation of their camel cases
+			return null;
+		}
+
+		// a match of the label, the pattern or the provider name and the label
+		// contains each word of the filter in the label or the provider name
+		String lowerProviderName = providerName.toLowerCase();
+		Set<ElementInfo> selected = null;
+		for (String word : filter.trim().split("\\s+")) { //$NON-NLS-1$
+			if (lowerProviderName.contains(word)) {
+				continue;
+			}
+			Set<ElementInfo> withWord = lookup(wordTrie, elementsByWord, word);
+			if (selected == null) {
+				selected = withWord;
+			} else {
+				selected.retainAll(withWord);
+			}
+		}
+		if (selected == null) {
+			return null;
+		}
+
+		// a camel case match contains the whole filter, which has no
+		// whitespace unless the label starts with a separator
+		if (!containsWhitespace(filter)) {
+			if (providerCamelCase.contains(filter)) {
+				return null;
+			}
+			selected.addAll(lookup(camelCaseTrie, elementsByCamelCase, filter));
+			// the filter may start in the camel case of the provider name
+			for (int i = 1; i < filter.length(); i++) {
+				if (providerCamelCase.endsWith(filter.substring(0, i))) {
+					selected.addAll(lookup(camelCaseTrie, elementsByCamelCase, filter.substring(i)));
+				}
+			}
+		}
+		selected.addAll(unindexedElements);
+
+		BitSet candidates = new BitSet(infos.length);
+		for (ElementInfo info : selected) {
+			candidates.set(info.position);
+		}
+		return candidates;
+	}
+
+	private static Set<ElementInfo> lookup(Trie trie, Map<String, Set<ElementInfo>> elementsByKey, String part) {
+		Set<ElementInfo> result = new HashSet<>();
+		for (String key : trie.getKeysContaining(part)) {
+			Set<ElementInfo> keyElements = elementsByKey.get(key);
+			if (keyElements != null) {
+				result.addAll(keyElements);
+			}
+		}
+		return result;
+	}
+
+	private static boolean containsWhitespace(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.isWhitespace(s.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The indexed values of an element, read once in the UI thread.
+	 */
+	private static class ElementInfo {
+
+		final QuickAccessElement element;
+
+		final String label;
+
+		final String id;
+
+		final String[] words;
+
+		final String camelCase;
+
+		int position;
+
+		ElementInfo(QuickAccessElement element) {
+			this.element = element;
+			String elementLabel = element.getLabel();
+			label = elementLabel == null ? "" : elementLabel; //$NON-NLS-1$
+			id = element.getId();
+			words = getWords(label);
+			camelCase = CamelUtil.getCamelCase(label);
+		}
+
+		/**
+		 * Return the words of the label in lower case. The filter is compared
+		 * to the label in lower case, and to the label itself ignoring the
+		 * case of ASCII characters by the patterns, which lower case does not
+		 * depend on the locale.
+		 */
+		private static String[] getWords(String label) {
+			Set<String> words = new LinkedHashSet<>();
+			addWords(label.toLowerCase(), words);
+			addWords(label.toLowerCase(Locale.ROOT), words);
+			return words.toArray(new String[words.size()]);
+		}
+
+		private static void addWords(String s, Set<String> words) {
+			int start = -1;
+			for (int i = 0; i <= s.length(); i++) {
+				boolean inWord = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+				if (inWord && start == -1) {
+					start = i;
+				} else if (!inWord && start != -1) {
+					words.add(s.substring(start, i));
+					start = -1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Trie of the suffixes of a set of keys. The keys containing a string are
+	 * the keys of the suffixes below the node of the string.
+	 */
+	private static class Trie {
+
+		private static final char[] NO_CHARS = new char[0];
+
+		private static final Node[] NO_NODES = new Node[0];
+
+		private static class Node {
+
+			char[] chars = NO_CHARS;
+
+			Node[] children = NO_NODES;
+
+			/**
+			 * The keys which have a suffix ending at this node, or
+			 * <code>null</code>.
+			 */
+			List<String> keys;
+
+			Node getChild(char c) {
+				for (int i = 0; i < chars.length; i++) {
+					if (chars[i] == c) {
+						return children[i];
+					}
+				}
+				return null;
+			}
+
+			Node addChild(char c) {
+				Node child = getChild(c);
+				if (child == null) {
+					int length = chars.length;
+					char[] newChars = new char[length + 1];
+					Node[] newChildren = new Node[length + 1];
+					System.arraycopy(chars, 0, newChars, 0, length);
+					System.arraycopy(children, 0, newChildren, 0, length);
+					child = new Node();
+					newChars[length] = c;
+					newChildren[length] = child;
+					chars = newChars;
+					children = newChildren;
+				}
+				return child;
+			}
+		}
+
+		private Node root = new Node();
+
+		void clear() {
+			root = new Node();
+		}
+
+		void addSuffixes(String key) {
+			for (int start = 0; start < key.length(); start++) {
+				Node node = root;
+				for (int i = start; i < key.length(); i++) {
+					node = node.addChild(key.charAt(i));
+				}
+				if (node.keys == null) {
+					node.keys = new ArrayList<>(1);
+				}
+				node.keys.add(key);
+			}
+		}
+
+		Set<String> getKeysContaining(String part) {
+			Node node = root;
+			for (int i = 0; i < part.length() && node != null; i++) {
+				node = node.getChild(part.charAt(i));
+			}
+			if (node == null) {
+				return Collections.emptySet();
+			}
+			Set<String> keys = new HashSet<>();
+			List<Node> pending = new ArrayList<>();
+			pending.add(node);
+			while (!pending.isEmpty()) {
+				Node current = pending.remove(pending.size() - 1);
+				if (current.keys != null) {
+					keys.addAll(current.keys);
+				}
+				Collections.addAll(pending, current.children);
+			}
+			return keys;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,8 @@ public abstract class QuickAccessProvider {
 
 	private QuickAccessElement[] sortedElements;
 
+	private QuickAccessIndex index;
+
 	/**
 	 * Returns the unique ID of this provider.
 	 *
@@ -58,6 +60,20 @@ public abstract class QuickAccessProvider {
 		return sortedElements;
 	}
 
+	/**
+	 * Returns the search index of this provider's elements, updated with the
+	 * current elements. Must be called from the UI thread.
+	 *
+	 * @return the search index
+	 */
+	QuickAccessIndex getIndex() {
+		if (index == null) {
+			index = new QuickAccessIndex(this);
+		}
+		index.update(getElementsSorted());
+		return index;
+	}
+
 	/**
 	 * Returns the element for the given ID if available, or null if no matching
 	 * element is available.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 IBM Corporation and others.
+ * Copyright (c) 2013, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@
 package org.eclipse.e4.ui.bindings.tests;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
@@ -32,10 +33,12 @@ import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.bindings.internal.BindingTable;
 import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.BindingTrie;
 import org.eclipse.e4.ui.bindings.internal.ContextSet;
 import org.eclipse.jface.bindings.Binding;
 import org.eclipse.jface.bindings.keys.KeyBinding;
 import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.jface.bindings.keys.KeyStroke;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -383,6 +386,72 @@ public class BindingTableTests {
 		assertEquals(about, it.next());
 	}
 
+	@Test
+	public void testCompiledTrie() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		BindingTrie trie = manager.compile(javaSet);
+		assertSame(javaSet, trie.getContextSet());
+
+		String[] sequences = { "CTRL+5", "CTRL+5 V", "CTRL+5 A", "CTRL+5 X", "CTRL+8", "CTRL+I", "F2", "M1+V",
+				"SHIFT+INSERT", "ALT+/" };
+		for (String sequence : sequences) {
+			KeySequence keySequence = KeySequence.getInstance(sequence);
+			BindingTrie.Node node = trie.getNode(keySequence);
+			assertEquals(sequence, manager.getPerfectMatch(javaSet, keySequence), node.getPerfectMatch());
+			assertEquals(sequence, manager.isPartialMatch(javaSet, keySequence), node.isPartialMatch());
+			assertEquals(sequence, manager.getPartialMatches(javaSet, keySequence),
+					new ArrayList<>(node.getPartialMatches()));
+			assertEquals(sequence, manager.getConflictsFor(javaSet, keySequence), node.getConflicts() == null ? null
+					: new ArrayList<>(node.getConflicts()));
+
+			BindingTrie.Node walked = trie.getRoot();
+			for (KeyStroke keyStroke : keySequence.getKeyStrokes()) {
+				walked = walked.getChild(keyStroke);
+			}
+			assertSame(sequence, node, walked);
+		}
+	}
+
+	@Test
+	public void testCompiledTrieInvalidated() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		BindingTrie trie = manager.compile(javaSet);
+		assertTrue(manager.isCurrent(trie));
+
+		BindingTable table = manager.getTable(ID_JAVA);
+		Binding correctIndent = getTestBinding(CORR_INDENT_ID);
+		table.removeBinding(correctIndent);
+		assertFalse(manager.isCurrent(trie));
+		assertEquals(correctIndent, trie.getNode(correctIndent.getTriggerSequence()).getPerfectMatch());
+
+		trie = manager.compile(javaSet);
+		assertEquals(null, trie.getNode(correctIndent.getTriggerSequence()).getPerfectMatch());
+		table.addBinding(correctIndent);
+		assertFalse(manager.isCurrent(trie));
+		trie = manager.compile(javaSet);
+		assertEquals(correctIndent, trie.getNode(correctIndent.getTriggerSequence()).getPerfectMatch());
+	}
+
+	@Test
+	public void testCompiledTrieInvalidatedByOwnTables() throws Exception {
+		BindingTableManager manager = createManager();
+		ContextSet javaSet = createJavaSet(manager);
+		BindingTrie trie = manager.compile(javaSet);
+
+		IEclipseContext otherContext = workbenchContext.getParent().createChild();
+		BindingTableManager otherManager = ContextInjectionFactory.make(BindingTableManager.class, otherContext);
+		BindingTable otherTable = loadTable(ID_JAVA);
+		otherManager.addTable(otherTable);
+		otherTable.removeBinding(getTestBinding(CORR_INDENT_ID));
+		assertTrue(manager.isCurrent(trie));
+		otherContext.dispose();
+
+		manager.removeTable(manager.getTable(ID_JAVA));
+		assertFalse(manager.isCurrent(trie));
+	}
+
 	private BindingTable loadTable(String contextId) {
 		Context context = contextManager.getContext(contextId);
 		BindingTable table = new BindingTable(context);
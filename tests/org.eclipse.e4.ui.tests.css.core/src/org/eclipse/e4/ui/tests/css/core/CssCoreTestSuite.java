@@ -13,6 +13,9 @@
 package org.eclipse.e4.ui.tests.css.core;
 
 import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngineTest;
+import org.eclipse.e4.ui.tests.css.core.parser.CSSComputedStyleCacheTest;
+import org.eclipse.e4.ui.tests.css.core.parser.CSSRuleIndexTest;
+import org.eclipse.e4.ui.tests.css.core.parser.CSSStyleSheetCacheTest;
 import org.eclipse.e4.ui.tests.css.core.parser.CascadeTest;
 import org.eclipse.e4.ui.tests.css.core.parser.FontFaceRulesTest;
 import org.eclipse.e4.ui.tests.css.core.parser.ImportTest;
@@ -40,7 +43,11 @@ import org.junit.runners.Suite.SuiteClasses;
 	CSSEngineTest.class,
 	ImportTest.class,
 	InheritTest.class,
-	AbstractCSSEngineTest.class
+	AbstractCSSEngineTest.class,
+	CSSRuleIndexTest.class,
+	CSSComputedStyleCacheTest.class,
+	IncrementalRestyleTest.class,
+	CSSStyleSheetCacheTest.class
 })
 public class CssCoreTestSuite {
 }
@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.e4.ui.css.core.dom.properties.ICSSPropertyHandler;
+import org.eclipse.e4.ui.css.core.dom.properties.ICSSPropertyHandlerProvider;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSValue;
+
+public class IncrementalRestyleTest {
+
+	private static class TestCSSEngine extends CSSEngineImpl {
+		int scheduled;
+
+		boolean failing;
+
+		@Override
+		public void reapply() {
+		}
+
+		@Override
+		protected void scheduleRestyle() {
+			scheduled++;
+			if (failing) {
+				throw new IllegalStateException();
+			}
+		}
+
+		void cancel() {
+			cancelRestyle();
+		}
+	}
+
+	/**
+	 * Element which is its own native widget.
+	 */
+	private static class Widget extends TestElement {
+		Widget(String type, CSSEngine engine) {
+			super(type, engine);
+		}
+
+		Widget(String type, Widget parent, CSSEngine engine) {
+			super(type, parent, engine);
+		}
+
+		@Override
+		public Object getNativeWidget() {
+			return this;
+		}
+	}
+
+	private TestCSSEngine engine;
+
+	private List<String> applied;
+
+	/**
+	 * The values of the widgets, by widget name and property.
+	 */
+	private Map<String, String> widgetValues;
+
+	private Widget shell;
+
+	private Widget button;
+
+	private Widget label;
+
+	@Before
+	public void setUp() throws Exception {
+		engine = new TestCSSEngine();
+		applied = new ArrayList<>();
+		widgetValues = new HashMap<>();
+		final ICSSPropertyHandler handler = new ICSSPropertyHandler() {
+			@Override
+			public boolean applyCSSProperty(Object element, String property, CSSValue value, String pseudo,
+					CSSEngine aEngine) {
+				String key = ((TestElement) element).getLocalName() + " " + property;
+				applied.add(key + ":" + value.getCssText());
+				widgetValues.put(key, value.getCssText());
+				return true;
+			}
+
+			@Override
+			public String retrieveCSSProperty(Object element, String property, String pseudo, CSSEngine aEngine) {
+				return widgetValues.get(((TestElement) element).getLocalName() + " " + property);
+			}
+		};
+		engine.registerCSSPropertyHandlerProvider(new ICSSPropertyHandlerProvider() {
+			@Override
+			public Collection<ICSSPropertyHandler> getCSSPropertyHandlers(String property) {
+				return Collections.singletonList(handler);
+			}
+
+			@Override
+			public Collection<ICSSPropertyHandler> getCSSPropertyHandlers(Object element, String property) {
+				return Collections.singletonList(handler);
+			}
+
+			@Override
+			public CSSStyleDeclaration getDefaultCSSStyleDeclaration(CSSEngine aEngine, Object element,
+					CSSStyleDeclaration newStyle, String pseudoE) {
+				return null;
+			}
+
+			@Override
+			public Collection<String> getCSSProperties(Object element) {
+				return Collections.emptyList();
+			}
+		});
+		engine.parseStyleSheet(new StringReader("Shell { color: black; }\n"
+				+ "Button { color: blue; font-weight: bold; }\n"
+				+ "Button.primary { color: red; }\n"
+				+ "Label { color: gray; }\n"));
+		engine.setIncrementalRestyle(true);
+
+		shell = new Widget("Shell", engine);
+		button = new Widget("Button", shell, engine);
+		label = new Widget("Label", shell, engine);
+	}
+
+	@Test
+	public void testMarkDirtyIsCoalesced() {
+		engine.markDirty(button, false);
+		engine.markDirty(button, false);
+		engine.markDirty(label, false);
+		engine.markDirty(shell, true);
+		assertEquals(1, engine.scheduled);
+		assertEquals(0, applied.size());
+
+		engine.applyDirtyStyles();
+		// the button and the label are restyled with the shell only
+		assertEquals(4, applied.size());
+		assertEquals(1, count("Button color:blue"));
+		assertEquals(1, count("Label color:gray"));
+
+		engine.markDirty(button, false);
+		assertEquals(2, engine.scheduled);
+	}
+
+	@Test
+	public void testUnchangedValuesAreNotApplied() {
+		engine.applyStyles(shell, true);
+		assertEquals(4, applied.size());
+		applied.clear();
+
+		button.setClass("primary");
+		engine.markDirty(button, false);
+		engine.applyDirtyStyles();
+		assertEquals(Collections.singletonList("Button color:red"), applied);
+		applied.clear();
+
+		engine.markDirty(shell, true);
+		engine.applyDirtyStyles();
+		assertEquals(0, applied.size());
+	}
+
+	@Test
+	public void testValueChangedOutsideEngineIsApplied() {
+		engine.applyStyles(shell, true);
+		applied.clear();
+
+		widgetValues.put("Button color", "green");
+		engine.markDirty(shell, true);
+		engine.applyDirtyStyles();
+		assertEquals(Collections.singletonList("Button color:blue"), applied);
+	}
+
+	@Test
+	public void testFullApplyStylesIsNotIncremental() {
+		engine.applyStyles(shell, true);
+		applied.clear();
+		engine.applyStyles(shell, true);
+		assertEquals(4, applied.size());
+	}
+
+	@Test
+	public void testResetForgetsAppliedValues() throws Exception {
+		engine.applyStyles(shell, true);
+		applied.clear();
+		engine.reset();
+		engine.parseStyleSheet(new StringReader("Button { color: blue; }"));
+		engine.markDirty(button, false);
+		engine.applyDirtyStyles();
+		assertEquals(Collections.singletonList("Button color:blue"), applied);
+	}
+
+	@Test
+	public void testMarkDirtyAppliesImmediatelyIfNotIncremental() {
+		engine.setIncrementalRestyle(false);
+		engine.markDirty(button, false);
+		assertEquals(0, engine.scheduled);
+		assertEquals(2, applied.size());
+	}
+
+	@Test
+	public void testFailedScheduleIsRetried() {
+		engine.failing = true;
+		try {
+			engine.markDirty(button, false);
+			fail();
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		engine.failing = false;
+		engine.markDirty(label, false);
+		assertEquals(2, engine.scheduled);
+		engine.applyDirtyStyles();
+		assertEquals(Collections.singletonList("Label color:gray"), applied);
+	}
+
+	@Test
+	public void testCancelledRestyleIsScheduledAgain() {
+		engine.markDirty(button, false);
+		engine.cancel();
+		engine.applyDirtyStyles();
+		assertEquals(0, applied.size());
+
+		engine.markDirty(label, false);
+		assertEquals(2, engine.scheduled);
+		engine.applyDirtyStyles();
+		assertEquals(Collections.singletonList("Label color:gray"), applied);
+	}
+
+	private int count(String value) {
+		return Collections.frequency(applied, value);
+	}
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.e4.ui.css.core.impl.dom.CSSComputedStyleCache;
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+public class CSSComputedStyleCacheTest {
+
+	private CSSSWTEngineImpl engine;
+
+	private DocumentCSSImpl docCss;
+
+	private ViewCSSImpl viewCSS;
+
+	private CSSComputedStyleCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		engine = new CSSSWTEngineImpl(Display.getDefault());
+		docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: blue; }\n"
+				+ "Button.primary { font-weight: bold; }\n"
+				+ "Composite > Button { font-style: italic; }\n"
+				+ "Button:selected { color: red; }\n"));
+		viewCSS = new ViewCSSImpl(docCss);
+		cache = viewCSS.getComputedStyleCache();
+	}
+
+	@Test
+	public void testSameSignatureHitsCache() {
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement button1 = new TestElement("Button", shell, engine);
+		button1.setClass("primary");
+		TestElement button2 = new TestElement("Button", shell, engine);
+		button2.setClass("primary");
+
+		CSSStyleDeclaration style1 = viewCSS.getComputedStyle(button1, null);
+		CSSStyleDeclaration style2 = viewCSS.getComputedStyle(button2, null);
+		assertSame(style1, style2);
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		assertEquals("blue", style2.getPropertyCSSValue("color").getCssText());
+		assertEquals("bold", style2.getPropertyCSSValue("font-weight").getCssText());
+	}
+
+	@Test
+	public void testDifferentSignatureMissesCache() {
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement composite = new TestElement("Composite", shell, engine);
+		TestElement button1 = new TestElement("Button", shell, engine);
+		TestElement button2 = new TestElement("Button", composite, engine);
+		TestElement button3 = new TestElement("Button", shell, engine);
+		button3.setClass("primary");
+		TestElement button4 = new TestElement("Button", shell, engine);
+		button4.addStaticPseudoInstance("selected");
+
+		assertNull(viewCSS.getComputedStyle(button1, null).getPropertyCSSValue("font-style"));
+		assertEquals("italic", viewCSS.getComputedStyle(button2, null).getPropertyCSSValue("font-style")
+				.getCssText());
+		assertEquals("bold", viewCSS.getComputedStyle(button3, null).getPropertyCSSValue("font-weight")
+				.getCssText());
+		assertEquals("red", viewCSS.getComputedStyle(button4, "selected").getPropertyCSSValue("color")
+				.getCssText());
+		assertEquals(4, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testUnmatchedElementIsCached() {
+		TestElement label1 = new TestElement("Label", engine);
+		TestElement label2 = new TestElement("Label", engine);
+		assertNull(viewCSS.getComputedStyle(label1, null));
+		assertNull(viewCSS.getComputedStyle(label2, null));
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testAddStyleSheetInvalidatesCache() throws Exception {
+		TestElement button = new TestElement("Button", engine);
+		viewCSS.getComputedStyle(button, null);
+		assertEquals(1, cache.size());
+
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: green; }"));
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("green", style.getPropertyCSSValue("color").getCssText());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(1, cache.size());
+
+		docCss.removeAllStyleSheets();
+		assertNull(viewCSS.getComputedStyle(button, null));
+	}
+
+	@Test
+	public void testSiblingSelectorsBypassCache() throws Exception {
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Label + Button { color: green; }"));
+		TestElement shell = new TestElement("Shell", engine);
+		TestElement button = new TestElement("Button", shell, engine);
+		viewCSS.getComputedStyle(button, null);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+}
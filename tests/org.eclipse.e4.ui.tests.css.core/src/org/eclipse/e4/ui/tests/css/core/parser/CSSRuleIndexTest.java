@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.e4.ui.tests.css.core.util.TestElement;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.CSSStyleSheet;
+
+public class CSSRuleIndexTest {
+
+	private static final String CSS = "* { margin: 1px; }\n"
+			+ "Shell { color: black; }\n"
+			+ "Button { color: blue; font-weight: bold; }\n"
+			+ "Shell > Composite Button { color: green; }\n"
+			+ "Composite > * { padding: 2px; }\n"
+			+ ".primary { background-color: red; }\n"
+			+ "Button.primary { color: yellow; }\n"
+			+ ".primary.large { font-size: 20px; }\n"
+			+ "#ok { color: white; }\n"
+			+ "Button#ok.primary { font-weight: normal; }\n"
+			+ "Label, Text { color: gray; }\n"
+			+ "Button:selected { color: orange; }\n"
+			+ "Composite.primary Label { font-style: italic; }\n";
+
+	private CSSSWTEngineImpl engine;
+
+	private ViewCSSImpl viewCSS;
+
+	private List<CSSRule> allRules;
+
+	@Before
+	public void setUp() throws Exception {
+		engine = new CSSSWTEngineImpl(Display.getDefault());
+		CSSStyleSheet styleSheet = ParserTestUtil.parseCss(CSS);
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(styleSheet);
+		viewCSS = new ViewCSSImpl(docCss);
+
+		allRules = new ArrayList<>();
+		CSSRuleList rules = styleSheet.getCssRules();
+		for (int i = 0; i < rules.getLength(); i++) {
+			allRules.add(rules.item(i));
+		}
+	}
+
+	@Test
+	public void testIndexedStyleMatchesFullScan() {
+		String[] types = { "Composite", "Button", "Label", "Text", "Canvas" };
+		String[] classes = { null, "primary", "large", "primary large", "large  primary primary" };
+		String[] ids = { null, "ok", "cancel" };
+
+		TestElement shell = new TestElement("Shell", engine);
+		List<TestElement> elements = new ArrayList<>();
+		elements.add(shell);
+		int n = 0;
+		for (int depth = 0; depth < 3; depth++) {
+			List<TestElement> parents = new ArrayList<>(elements);
+			for (TestElement parent : parents) {
+				for (String type : types) {
+					TestElement child = new TestElement(type, parent, engine);
+					child.setClass(classes[n % classes.length]);
+					child.setId(ids[n % ids.length]);
+					elements.add(child);
+					n++;
+				}
+			}
+		}
+
+		for (TestElement element : elements) {
+			for (String pseudo : new String[] { null, "selected" }) {
+				assertSameStyle(viewCSS.getComputedStyle(allRules, element, pseudo),
+						viewCSS.getComputedStyle(element, pseudo));
+			}
+		}
+	}
+
+	@Test
+	public void testIdRuleOverridesClassRules() {
+		TestElement button = new TestElement("Button", engine);
+		button.setClass("primary");
+		button.setId("ok");
+		CSSStyleDeclaration style = viewCSS.getComputedStyle(button, null);
+		assertEquals("white", style.getPropertyCSSValue("color").getCssText());
+		assertEquals("normal", style.getPropertyCSSValue("font-weight").getCssText());
+		assertEquals("red", style.getPropertyCSSValue("background-color").getCssText());
+	}
+
+	@Test
+	public void testRemoveAllStyleSheets() throws Exception {
+		DocumentCSSImpl docCss = new DocumentCSSImpl();
+		docCss.addStyleSheet(ParserTestUtil.parseCss("Button { color: blue; }"));
+		ViewCSSImpl view = new ViewCSSImpl(docCss);
+		TestElement button = new TestElement("Button", engine);
+		assertEquals(1, docCss.getRuleIndex().getSize());
+		assertEquals("blue", view.getComputedStyle(button, null).getPropertyCSSValue("color").getCssText());
+
+		docCss.removeAllStyleSheets();
+		assertEquals(0, docCss.getRuleIndex().getSize());
+		assertNull(view.getComputedStyle(button, null));
+	}
+
+	private static void assertSameStyle(CSSStyleDeclaration expected, CSSStyleDeclaration actual) {
+		if (expected == null) {
+			assertNull(actual);
+			return;
+		}
+		assertEquals(expected.getCssText(), actual.getCssText());
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.e4.ui.css.core.impl.dom.parsers.CSSStyleSheetCache;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.css.sac.InputSource;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleSheet;
+
+public class CSSStyleSheetCacheTest {
+
+	private static final String CSS = "Shell, Composite > Label { color: #ff0000; font: 12px Arial, sans-serif; }\n"
+			+ "Button.primary#ok:selected { background-color: rgb(10, 20, 30) !important; }\n"
+			+ "CTabFolder Label + Button { margin: 1px 2px 3.5em 0; }\n"
+			+ "*[swt-lines-visible='true'] { background-image: url(./image.png); }\n"
+			+ "Label[style~='BORDER'] { border-width: 50%; }\n"
+			+ ".MPartStack { swt-tab-renderer: url('bundleclass://org.eclipse.e4/Renderer'); "
+			+ "swt-corner-radius: 16; tab-height: 10pt; }\n"
+			+ "Button::before { font-weight: inherit; }\n"
+			+ "@media screen { Label { color: red; } }\n"
+			+ "@font-face { font-family: test; }\n";
+
+	private static final String URI = "platform:/plugin/org.eclipse.e4.ui.tests.css.core/test.css";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private CSSSWTEngineImpl engine;
+
+	private CSSStyleSheetCache cache;
+
+	private File cacheFolder;
+
+	@Before
+	public void setUp() throws Exception {
+		engine = new CSSSWTEngineImpl(Display.getDefault());
+		cacheFolder = folder.newFolder("cache");
+		cache = new CSSStyleSheetCache(cacheFolder);
+		engine.setStyleSheetCache(cache);
+	}
+
+	@Test
+	public void testCachedStyleSheetEqualsParsedStyleSheet() throws Exception {
+		CSSStyleSheet parsed = ParserTestUtil.parseCss(CSS);
+		CSSStyleSheet first = parse(URI, CSS);
+		CSSStyleSheet second = parse(URI, CSS);
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		assertSameRules(parsed, first);
+		assertSameRules(parsed, second);
+	}
+
+	@Test
+	public void testModifiedContentIsParsed() throws Exception {
+		parse(URI, CSS);
+		CSSStyleSheet styleSheet = parse(URI, "Button { color: blue; }");
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+		assertEquals(1, styleSheet.getCssRules().getLength());
+
+		parse(URI, "Button { color: blue; }");
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void testSourceWithoutURIIsNotCached() throws Exception {
+		engine.parseStyleSheet(new StringReader(CSS));
+		engine.parseStyleSheet(new StringReader(CSS));
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+
+	@Test
+	public void testClear() throws Exception {
+		parse(URI, CSS);
+		cache.clear();
+		parse(URI, CSS);
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void testOtherParserVersionIsParsed() throws Exception {
+		parse(URI, CSS);
+		File[] files = cacheFolder.listFiles();
+		assertEquals(1, files.length);
+		replaceParserVersion(files[0], "org.apache.batik.css_0.0.0,org.eclipse.e4.ui.css.core_0.0.0");
+		CSSStyleSheet styleSheet = parse(URI, CSS);
+		assertEquals(2, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+		assertSameRules(ParserTestUtil.parseCss(CSS), styleSheet);
+
+		parse(URI, CSS);
+		assertEquals(1, cache.getHitCount());
+	}
+
+	/**
+	 * Rewrites the cache file as if it was written by another version of the
+	 * parser.
+	 */
+	private static void replaceParserVersion(File file, String version) throws IOException {
+		byte[] content = Files.readAllBytes(file.toPath());
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+		int magic = in.readInt();
+		int formatVersion = in.readInt();
+		int length = in.readInt();
+		in.skipBytes(length);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(magic);
+		out.writeInt(formatVersion);
+		byte[] data = version.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(data.length);
+		out.write(data);
+		out.write(content, 12 + length, content.length - 12 - length);
+		out.close();
+		Files.write(file.toPath(), bytes.toByteArray());
+	}
+
+	private CSSStyleSheet parse(String uri, String css) throws Exception {
+		InputSource source = new InputSource();
+		source.setURI(uri);
+		source.setCharacterStream(new StringReader(css));
+		return (CSSStyleSheet) engine.parseStyleSheet(source);
+	}
+
+	private static void assertSameRules(CSSStyleSheet expected, CSSStyleSheet actual) {
+		CSSRuleList expectedRules = expected.getCssRules();
+		CSSRuleList actualRules = actual.getCssRules();
+		assertEquals(expectedRules.getLength(), actualRules.getLength());
+		for (int i = 0; i < expectedRules.getLength(); i++) {
+			assertEquals(expectedRules.item(i).getCssText(), actualRules.item(i).getCssText());
+		}
+	}
+}
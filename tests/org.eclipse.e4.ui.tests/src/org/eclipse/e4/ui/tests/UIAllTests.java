@@ -37,6 +37,8 @@ import org.eclipse.e4.ui.tests.workbench.MToolItemTest;
 import org.eclipse.e4.ui.tests.workbench.MWindowTest;
 import org.eclipse.e4.ui.tests.workbench.ModelAssemblerFragmentOrderingTests;
 import org.eclipse.e4.ui.tests.workbench.ModelAssemblerTests;
+import org.eclipse.e4.ui.tests.workbench.ModelFragmentCacheTest;
+import org.eclipse.e4.ui.tests.workbench.ModelSnapshotTest;
 import org.eclipse.e4.ui.tests.workbench.PartOnTopManagerTest;
 import org.eclipse.e4.ui.tests.workbench.PartRenderingEngineTests;
 import org.eclipse.e4.ui.tests.workbench.SashRendererTest;
@@ -86,7 +88,9 @@ import org.junit.runners.Suite;
 		ExtensionsSortTests.class,
 		HandlerActivationTest.class,
 		ModelAssemblerTests.class,
-		ModelAssemblerFragmentOrderingTests.class, E4ResourceTest.class
+		ModelAssemblerFragmentOrderingTests.class, E4ResourceTest.class,
+		ModelSnapshotTest.class,
+		ModelFragmentCacheTest.class
 		// SWTPartRendererTest.class,
 })
 public class UIAllTests {
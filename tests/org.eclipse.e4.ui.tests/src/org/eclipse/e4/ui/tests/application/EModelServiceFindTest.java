@@ -29,7 +29,9 @@ import org.eclipse.e4.ui.model.application.commands.MBindingTable;
 import org.eclipse.e4.ui.model.application.commands.MHandler;
 import org.eclipse.e4.ui.model.application.commands.MKeyBinding;
 import org.eclipse.e4.ui.model.application.ui.MDirtyable;
+import org.eclipse.e4.ui.model.application.ui.MElementContainer;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
@@ -44,6 +46,8 @@ import org.eclipse.e4.ui.model.application.ui.menu.MToolBarElement;
 import org.eclipse.e4.ui.model.application.ui.menu.MToolControl;
 import org.eclipse.e4.ui.workbench.Selector;
 import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.util.InternalEList;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -442,4 +446,109 @@ public class EModelServiceFindTest {
 		assertEquals(1, elements.size());
 		assertEquals(part, elements.get(0));
 	}
+
+	@Test
+	public void testFindElementsAfterModelChanges() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MPart part = modelService.findElements(application, "twoValidIds", MPart.class, null).get(0);
+		part.setElementId("changedId");
+		assertEquals(0, modelService.findElements(application, "twoValidIds", MPart.class, null).size());
+		assertSame(part, modelService.find("changedId", application));
+
+		part.getTags().add("newTag");
+		List<String> tags = new ArrayList<>();
+		tags.add("newTag");
+		assertEquals(1, modelService.findElements(application, null, null, tags).size());
+		part.getTags().remove("newTag");
+		assertEquals(0, modelService.findElements(application, null, null, tags).size());
+
+		MElementContainer<MUIElement> stack = part.getParent();
+		stack.getChildren().remove(part);
+		assertNull(modelService.find("changedId", application));
+		stack.getChildren().add(part);
+		assertSame(part, modelService.find("changedId", application));
+
+		MPart newPart = modelService.createModelElement(MPart.class);
+		newPart.setElementId("newPartId");
+		MPartStack newStack = modelService.createModelElement(MPartStack.class);
+		newStack.getChildren().add(newPart);
+		stack.getParent().getChildren().add(newStack);
+		assertSame(newPart, modelService.find("newPartId", application));
+		assertEquals(4, modelService.findElements(application, null, MPart.class, null).size());
+	}
+
+	@Test
+	public void testFindElementsAfterTagsMoved() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		List<String> tags = new ArrayList<>();
+		tags.add("secondTag");
+		MPart part = modelService.findElements(application, null, MPart.class, tags).get(0);
+		((EList<String>) part.getTags()).move(0, 1);
+		assertEquals(1, modelService.findElements(application, null, null, tags).size());
+		tags.set(0, "twoValidTags");
+		assertEquals(2, modelService.findElements(application, null, null, tags).size());
+	}
+
+	@Test
+	public void testFindElementsWithDuplicatedTag() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		List<String> tags = new ArrayList<>();
+		tags.add("secondTag");
+		MPart part = modelService.findElements(application, null, MPart.class, tags).get(0);
+		// the list of tags rejects duplicates unless bypassed
+		((InternalEList<String>) part.getTags()).addUnique("secondTag");
+		part.getTags().remove("secondTag");
+		List<MUIElement> elements = modelService.findElements(application, null, null, tags);
+		assertEquals(1, elements.size());
+		assertSame(part, elements.get(0));
+
+		part.getTags().remove("secondTag");
+		assertEquals(0, modelService.findElements(application, null, null, tags).size());
+	}
+
+	@Test
+	public void testFindElementsThroughPlaceholders() {
+		MApplication application = createApplication();
+		EModelService modelService = application.getContext().get(EModelService.class);
+
+		MWindow window = modelService.createModelElement(MWindow.class);
+		application.getChildren().add(window);
+
+		MPerspectiveStack perspectiveStack = modelService.createModelElement(MPerspectiveStack.class);
+		window.getChildren().add(perspectiveStack);
+
+		MPerspective perspective = modelService.createModelElement(MPerspective.class);
+		perspectiveStack.getChildren().add(perspective);
+		perspectiveStack.setSelectedElement(perspective);
+
+		MArea area = modelService.createModelElement(MArea.class);
+		window.getSharedElements().add(area);
+
+		MPart part = modelService.createModelElement(MPart.class);
+		part.setElementId("sharedPartId");
+		area.getChildren().add(part);
+
+		assertEquals(0, modelService.findElements(window, "sharedPartId", null, null).size());
+
+		MPlaceholder placeholder = modelService.createModelElement(MPlaceholder.class);
+		placeholder.setRef(area);
+		perspective.getChildren().add(placeholder);
+
+		assertEquals(0, modelService.findElements(window, "sharedPartId", null, null,
+				EModelService.IN_ACTIVE_PERSPECTIVE).size());
+		List<MPart> elements = modelService.findElements(window, "sharedPartId", MPart.class, null,
+				EModelService.IN_ACTIVE_PERSPECTIVE | EModelService.IN_SHARED_AREA);
+		assertEquals(1, elements.size());
+		assertSame(part, elements.get(0));
+
+		placeholder.setRef(null);
+		assertEquals(0, modelService.findElements(window, "sharedPartId", MPart.class, null,
+				EModelService.IN_ACTIVE_PERSPECTIVE | EModelService.IN_SHARED_AREA).size());
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 IBM Corporation and others.
+ * Copyright (c) 2010, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 import org.eclipse.e4.core.contexts.ContextInjectionFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
@@ -58,10 +62,15 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 	}
 
 	private ResourceHandler createHandler(URI uri) {
+		return createHandler(uri, true, false);
+	}
+
+	private ResourceHandler createHandler(URI uri, boolean clearPersistedState, boolean binaryModel) {
 		IEclipseContext localContext = applicationContext.createChild();
 		localContext.set(E4Workbench.INSTANCE_LOCATION, getInstanceLocation());
 		localContext.set(E4Workbench.PERSIST_STATE, Boolean.TRUE);
-		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE, Boolean.TRUE);
+		localContext.set(E4Workbench.CLEAR_PERSISTED_STATE, Boolean.valueOf(clearPersistedState));
+		localContext.set(E4Workbench.BINARY_MODEL, Boolean.valueOf(binaryModel));
 
 		localContext.set(E4Workbench.INITIAL_WORKBENCH_MODEL_URI, uri);
 
@@ -159,6 +168,60 @@ public class ResourceHandlerTest extends HeadlessStartupTest {
 		assertNotNull(findByElementId(menu2.getChildren(), "fragment.contributedMenuItem.xpath"));
 	}
 
+	@Test
+	public void testBinaryModel() throws IOException {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		ResourceHandler handler = createHandler(uri, true, true);
+		Resource resource = handler.loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+		application.getChildren().get(0).getPersistedState().put("saved", "binary");
+		String windowId = ((E4XMIResource) resource).getID((EObject) application.getChildren().get(1));
+		handler.save();
+
+		File binaryFile = new File(resource.getURI().toFileString());
+		try {
+			assertEquals("workbench.bin", binaryFile.getName());
+			assertTrue(binaryFile.exists());
+
+			Resource restored = createHandler(uri, false, true).loadMostRecentModel();
+			MApplication restoredApplication = (MApplication) restored.getContents().get(0);
+			assertEquals("binary", restoredApplication.getChildren().get(0).getPersistedState().get("saved"));
+			// the contributed window is recognized by its id, and not added again
+			assertEquals(2, restoredApplication.getChildren().size());
+			assertEquals(windowId,
+					((E4XMIResource) restored).getID((EObject) restoredApplication.getChildren().get(1)));
+		} finally {
+			binaryFile.delete();
+		}
+	}
+
+	@Test
+	public void testCorruptBinaryModelFallsBackToXMI() throws IOException {
+		URI uri = URI.createPlatformPluginURI("org.eclipse.e4.ui.tests/xmi/modelprocessor/base.e4xmi", true);
+		ResourceHandler handler = createHandler(uri, true, false);
+		Resource resource = handler.loadMostRecentModel();
+		MApplication application = (MApplication) resource.getContents().get(0);
+		application.getChildren().get(0).getPersistedState().put("saved", "xmi");
+		handler.save();
+
+		File xmiFile = new File(resource.getURI().toFileString());
+		File binaryFile = new File(xmiFile.getParentFile(), "workbench.bin");
+		try {
+			assertEquals("workbench.xmi", xmiFile.getName());
+			Files.write(binaryFile.toPath(), "not a model".getBytes(StandardCharsets.UTF_8));
+			binaryFile.setLastModified(xmiFile.lastModified() + 1000);
+
+			Resource restored = createHandler(uri, false, true).loadMostRecentModel();
+			MApplication restoredApplication = (MApplication) restored.getContents().get(0);
+			assertEquals("xmi", restoredApplication.getChildren().get(0).getPersistedState().get("saved"));
+			// converted to the binary format when saved
+			assertEquals(binaryFile, new File(restored.getURI().toFileString()));
+		} finally {
+			xmiFile.delete();
+			binaryFile.delete();
+		}
+	}
+
 	/**
 	 * @param children
 	 * @param id
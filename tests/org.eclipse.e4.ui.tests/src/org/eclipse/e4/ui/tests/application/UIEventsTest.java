@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 
 package org.eclipse.e4.ui.tests.application;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -20,6 +21,7 @@ import java.util.List;
 import org.eclipse.e4.core.contexts.EclipseContextFactory;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.di.UISynchronize;
 import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
@@ -364,6 +366,72 @@ public class UIEventsTest extends HeadlessApplicationElementTest {
 		assertFalse(seen[0]);
 	}
 
+	@Test
+	public void testCoalescedEvents() {
+		IEventBroker eventBroker = applicationContext.get(IEventBroker.class);
+		MWindow window = ((MApplication) applicationElement).getChildren().get(0);
+		final List<Runnable> turn = new ArrayList<Runnable>();
+		applicationContext.set(UISynchronize.class, new UISynchronize() {
+			@Override
+			public void syncExec(Runnable runnable) {
+				runnable.run();
+			}
+
+			@Override
+			public void asyncExec(Runnable runnable) {
+				turn.add(runnable);
+			}
+		});
+		final List<Event> events = new ArrayList<Event>();
+		EventHandler handler = new EventHandler() {
+			@Override
+			public void handleEvent(Event event) {
+				events.add(event);
+			}
+		};
+		eventBroker.subscribe(Window.TOPIC_ALL, handler);
+		try {
+			int x = window.getX();
+			int y = window.getY();
+			// the publisher learns which thread is the UI thread
+			window.setX(x + 1);
+			endTurn(turn);
+			events.clear();
+
+			window.setX(x + 2);
+			window.setX(x + 3);
+			window.setX(x + 4);
+			window.setY(y + 1);
+			window.setY(y + 2);
+			window.setY(y + 1);
+			// the first changes of the turn are sent right away
+			assertEquals(2, events.size());
+			assertEquals(x + 2, events.get(0).getProperty(EventTags.NEW_VALUE));
+			assertEquals(y + 1, events.get(1).getProperty(EventTags.NEW_VALUE));
+
+			endTurn(turn);
+			// the changes of y cancel each other
+			assertEquals(3, events.size());
+			assertEquals(Window.X, events.get(2).getProperty(EventTags.ATTNAME));
+			assertEquals(x + 2, events.get(2).getProperty(EventTags.OLD_VALUE));
+			assertEquals(x + 4, events.get(2).getProperty(EventTags.NEW_VALUE));
+
+			window.setX(x);
+			assertEquals(4, events.size());
+			endTurn(turn);
+			assertEquals(4, events.size());
+		} finally {
+			eventBroker.unsubscribe(handler);
+			applicationContext.remove(UISynchronize.class);
+		}
+	}
+
+	private static void endTurn(List<Runnable> turn) {
+		while (!turn.isEmpty()) {
+			turn.remove(0).run();
+		}
+	}
+
 	/**
 	 * @param allTesters
 	 * @param tester
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.eclipse.core.runtime.ContributorFactoryOSGi;
+import org.eclipse.core.runtime.IContributor;
+import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.internal.workbench.ModelFragmentCache;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
+import org.eclipse.e4.ui.model.fragment.MFragmentFactory;
+import org.eclipse.e4.ui.model.fragment.MModelFragments;
+import org.eclipse.e4.ui.model.fragment.MStringModelFragment;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Tests for {@link ModelFragmentCache}.
+ */
+@SuppressWarnings("nls")
+public class ModelFragmentCacheTest {
+
+	private static final String WINDOW_ID = "_cachedWindowXmiId";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private IContributor contributor;
+
+	private File fragmentFile;
+
+	private URI fragmentURI;
+
+	private File cacheLocation;
+
+	private Logger logger;
+
+	@Before
+	public void setUp() throws IOException {
+		contributor = ContributorFactoryOSGi.createContributor(FrameworkUtil.getBundle(getClass()));
+		fragmentFile = folder.newFile("fragment.e4xmi");
+		fragmentURI = URI.createFileURI(fragmentFile.getAbsolutePath());
+		cacheLocation = new File(folder.getRoot(), "cache");
+		logger = mock(Logger.class);
+		writeFragment("original");
+	}
+
+	private void writeFragment(String label) throws IOException {
+		long lastModified = fragmentFile.lastModified();
+		MModelFragments fragments = MFragmentFactory.INSTANCE.createModelFragments();
+		MStringModelFragment fragment = MFragmentFactory.INSTANCE.createStringModelFragment();
+		fragment.setParentElementId("app");
+		fragment.setFeaturename("children");
+		MWindow window = MBasicFactory.INSTANCE.createWindow();
+		window.setLabel(label);
+		fragment.getElements().add(window);
+		fragments.getFragments().add(fragment);
+		E4XMIResource resource = (E4XMIResource) new E4XMIResourceFactory().createResource(fragmentURI);
+		resource.getContents().add((EObject) fragments);
+		resource.setID((EObject) window, WINDOW_ID);
+		resource.save(null);
+		// keeps the time-stamp, the tests change it explicitly
+		fragmentFile.setLastModified(lastModified);
+	}
+
+	private Resource load(ModelFragmentCache cache) {
+		ResourceSet resourceSet = new ResourceSetImpl();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+				.put(Resource.Factory.Registry.DEFAULT_EXTENSION, new E4XMIResourceFactory());
+		return cache.getResource(resourceSet, fragmentURI, contributor);
+	}
+
+	private static MWindow getWindow(Resource resource) {
+		MModelFragments fragments = (MModelFragments) resource.getContents().get(0);
+		return (MWindow) fragments.getFragments().get(0).getElements().get(0);
+	}
+
+	@Test
+	public void testCachedFragmentKeepsIds() {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		load(cache);
+		cache.save();
+
+		Resource resource = load(new ModelFragmentCache(cacheLocation, logger));
+		MWindow window = getWindow(resource);
+		assertEquals("original", window.getLabel());
+		assertEquals(WINDOW_ID, ((E4XMIResource) resource).getID((EObject) window));
+		assertEquals(WINDOW_ID, ((E4XMIResource) resource).getInternalId((EObject) window));
+	}
+
+	@Test
+	public void testUnchangedFragmentReadFromCache() throws IOException {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		load(cache);
+		cache.save();
+
+		// the fragment file is not read again while its time-stamp is the same
+		writeFragment("changed");
+		assertEquals("original", getWindow(load(new ModelFragmentCache(cacheLocation, logger))).getLabel());
+
+		fragmentFile.setLastModified(fragmentFile.lastModified() + 1000);
+		assertEquals("changed", getWindow(load(new ModelFragmentCache(cacheLocation, logger))).getLabel());
+	}
+
+	@Test
+	public void testCorruptCacheFallsBackToFragment() throws IOException {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		load(cache);
+		cache.save();
+		for (File file : cacheLocation.listFiles()) {
+			if (file.getName().endsWith(".bin")) {
+				Files.write(file.toPath(), "not a fragment".getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		assertEquals("original", getWindow(load(new ModelFragmentCache(cacheLocation, logger))).getLabel());
+		verify(logger).warn(any(Throwable.class), anyString());
+	}
+
+	@Test
+	public void testRemovedContributor() {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		load(cache);
+		cache.retainContributors(Collections.singleton(contributor.getName()));
+		cache.save();
+		assertEquals(2, cacheLocation.list().length);
+
+		cache.retainContributors(Collections.<String> emptySet());
+		cache.save();
+		assertEquals(1, cacheLocation.list().length);
+	}
+
+	@Test
+	public void testClear() {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		load(cache);
+		cache.save();
+		cache.clear();
+		assertEquals(0, cacheLocation.list().length);
+		assertFalse(new File(cacheLocation, "fragments.properties").exists());
+	}
+
+	@Test
+	public void testLoadedResourceReused() {
+		ModelFragmentCache cache = new ModelFragmentCache(cacheLocation, logger);
+		ResourceSet resourceSet = new ResourceSetImpl();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+				.put(Resource.Factory.Registry.DEFAULT_EXTENSION, new E4XMIResourceFactory());
+		Resource resource = cache.getResource(resourceSet, fragmentURI, contributor);
+		assertSame(resource, cache.getResource(resourceSet, fragmentURI, contributor));
+		assertTrue(resource.isLoaded());
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.internal.workbench.ModelSnapshot;
+import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
+import org.eclipse.e4.ui.internal.workbench.swt.E4Application;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ModelSnapshot}.
+ */
+public class ModelSnapshotTest {
+
+	private IEclipseContext applicationContext;
+
+	private UIEventPublisher publisher;
+
+	private MApplication application;
+
+	private MPartStack firstStack;
+
+	private MPartStack secondStack;
+
+	private ModelSnapshot snapshot;
+
+	@Before
+	public void setUp() {
+		application = MApplicationFactory.INSTANCE.createApplication();
+		MTrimmedWindow window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		application.getChildren().add(window);
+		firstStack = MBasicFactory.INSTANCE.createPartStack();
+		secondStack = MBasicFactory.INSTANCE.createPartStack();
+		window.getChildren().add(firstStack);
+		window.getChildren().add(secondStack);
+		for (int i = 0; i < 3; i++) {
+			firstStack.getChildren().add(createPart("part" + i));
+		}
+		applicationContext = E4Application.createDefaultContext();
+		publisher = new UIEventPublisher(applicationContext);
+		((Notifier) application).eAdapters().add(publisher);
+		snapshot = new ModelSnapshot((EObject) application, publisher);
+		// the changes made by the tests are copied incrementally
+		snapshot.update();
+	}
+
+	@After
+	public void tearDown() {
+		snapshot.dispose();
+		((Notifier) application).eAdapters().remove(publisher);
+		applicationContext.dispose();
+	}
+
+	private static MPart createPart(String label) {
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setLabel(label);
+		return part;
+	}
+
+	private void assertUpToDate() {
+		assertTrue(EcoreUtil.equals((EObject) application, snapshot.update()));
+	}
+
+	@Test
+	public void testCopy() {
+		EObject copy = snapshot.update();
+		assertNotSame(application, copy);
+		assertUpToDate();
+	}
+
+	@Test
+	public void testChangedAttribute() {
+		((MPart) firstStack.getChildren().get(1)).setLabel("changed");
+		firstStack.getChildren().get(2).getPersistedState().put("key", "value");
+		assertUpToDate();
+	}
+
+	@Test
+	public void testAddedAndRemovedChildren() {
+		firstStack.getChildren().remove(0);
+		MPart part = createPart("new");
+		part.getTags().add("tag");
+		secondStack.getChildren().add(part);
+		secondStack.setSelectedElement(part);
+		assertUpToDate();
+	}
+
+	@Test
+	public void testMovedChildKeepsCopy() {
+		MApplication copy = (MApplication) snapshot.update();
+		MPartStack firstStackCopy = (MPartStack) ((MTrimmedWindow) copy.getChildren().get(0)).getChildren().get(0);
+		MPart partCopy = (MPart) firstStackCopy.getChildren().get(0);
+
+		MPart part = (MPart) firstStack.getChildren().get(0);
+		secondStack.getChildren().add(part);
+		part.setLabel("moved");
+		assertUpToDate();
+
+		MPartStack secondStackCopy = (MPartStack) ((MTrimmedWindow) copy.getChildren().get(0)).getChildren().get(1);
+		assertSame(partCopy, secondStackCopy.getChildren().get(0));
+		assertEquals("moved", partCopy.getLabel());
+	}
+
+	@Test
+	public void testChangedWhileRemoved() {
+		MPart part = (MPart) firstStack.getChildren().remove(0);
+		part.setLabel("changed while removed");
+		firstStack.getChildren().add(part);
+		assertUpToDate();
+	}
+
+	@Test
+	public void testRemovedAndAddedBackAfterUpdate() {
+		MPart part = (MPart) firstStack.getChildren().remove(0);
+		assertUpToDate();
+		part.setLabel("changed while removed");
+		secondStack.getChildren().add(part);
+		assertUpToDate();
+	}
+
+	@Test
+	public void testUnchangedModelKeepsCopy() {
+		assertSame(snapshot.update(), snapshot.update());
+	}
+
+	@Test
+	public void testDisposeReleasesCopy() {
+		EObject copy = snapshot.update();
+		snapshot.dispose();
+		((MPart) firstStack.getChildren().get(0)).setLabel("changed");
+		assertNotSame(copy, snapshot.update());
+		assertUpToDate();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,7 +18,14 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
-
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
 import java.util.function.Consumer;
 import org.eclipse.core.databinding.observable.Realm;
 import org.eclipse.core.runtime.Platform;
@@ -50,9 +57,12 @@ import org.eclipse.e4.ui.workbench.modeling.EModelService;
 import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.EPartService.PartState;
 import org.eclipse.jface.databinding.swt.DisplayRealm;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImagePrefetcher;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.CTabFolder;
 import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
@@ -3504,4 +3514,68 @@ public class PartRenderingEngineTests {
 		modelService.removePerspectiveModel(perspectiveB, window);
 		assertNull(part.getCurSharedRef());
 	}
+
+	@Test
+	public void testPartStack_KeepsImagesPrefetchedByOthers() throws Exception {
+		String iconURI = "platform:/plugin/org.eclipse.e4.ui.tests/icons/filenav_nav.png";
+		File file = File.createTempFile("prefetched", ".png");
+		try {
+			try (InputStream in = new URL(iconURI).openStream()) {
+				Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			ImageDescriptor descriptor = ImageDescriptor.createFromURL(file.toURI().toURL());
+			ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+
+			MApplication application = ems.createModelElement(MApplication.class);
+			application.setContext(appContext);
+			appContext.set(MApplication.class, application);
+
+			MWindow window = ems.createModelElement(MWindow.class);
+			application.getChildren().add(window);
+
+			MPartStack stack = ems.createModelElement(MPartStack.class);
+			window.getChildren().add(stack);
+
+			MPart partA = ems.createModelElement(MPart.class);
+			partA.setIconURI(iconURI);
+			MPart partB = ems.createModelElement(MPart.class);
+			partB.setIconURI(iconURI);
+			stack.getChildren().add(partA);
+			stack.getChildren().add(partB);
+
+			wb = new E4Workbench(application, appContext);
+			wb.createAndRunUI(window);
+			assertNotNull(((CTabFolder) stack.getWidget()).getItem(1).getImage());
+
+			waitForDecoding();
+			// only the prefetched data is left to create the image with
+			assertTrue(file.delete());
+			Image image = descriptor.createImage(false);
+			assertNotNull("The part stack should only discard the icons it prefetched", image);
+			image.dispose();
+		} finally {
+			ImagePrefetcher.clear();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Waits until the threads decoding the prefetched images are idle.
+	 */
+	private static void waitForDecoding() throws InterruptedException {
+		long end = System.currentTimeMillis() + 10000;
+		while (System.currentTimeMillis() < end) {
+			boolean decoding = false;
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if ("Decoding images".equals(thread.getName()) && thread.getState() == Thread.State.RUNNABLE) {
+					decoding = true;
+				}
+			}
+			if (!decoding) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("The images are still being decoded");
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,9 @@ package org.eclipse.core.tests.databinding.observable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.TestCase;
 
@@ -253,6 +255,32 @@ public class Diffs_ListDiffTests extends TestCase {
 				Arrays.asList(new Object[] { "c", "a", "b" }));
 	}
 
+	public void testComputeListDiff_LargeShuffle() {
+		List<Object> oldList = new ArrayList<Object>();
+		for (int i = 0; i < 5000; i++) {
+			oldList.add(Integer.valueOf(i));
+		}
+		List<Object> newList = new ArrayList<Object>(oldList);
+		Collections.shuffle(newList, new Random(1));
+		checkComputedListDiff(oldList, newList);
+
+		Collections.reverse(newList);
+		checkComputedListDiff(oldList, newList);
+	}
+
+	public void testComputeListDiff_LargeWithDuplicatesAndNulls() {
+		Random random = new Random(2);
+		List<Object> oldList = new ArrayList<Object>();
+		List<Object> newList = new ArrayList<Object>();
+		for (int i = 0; i < 3000; i++) {
+			int value = random.nextInt(500);
+			oldList.add(value == 0 ? null : Integer.valueOf(value));
+			value = random.nextInt(500);
+			newList.add(value == 0 ? null : Integer.valueOf(value));
+		}
+		checkComputedListDiff(oldList, newList);
+	}
+
 	private static void checkComputedListDiff(List<Object> oldList, List<Object> newList) {
 		ListDiff diff = Diffs.computeListDiff(oldList, newList);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 Brad Reynolds and others.
+ * Copyright (c) 2006, 2018 Brad Reynolds and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,11 +11,29 @@
 
 package org.eclipse.core.tests.databinding.observable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.map.WritableMap;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.ValueChangeEvent;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.jface.databinding.conformance.util.CurrentRealm;
 import org.eclipse.jface.databinding.conformance.util.RealmTester;
+import org.eclipse.jface.databinding.conformance.util.ValueChangeEventTracker;
 
 /**
  * @since 3.2
@@ -35,4 +53,171 @@ public class RealmTest extends TestCase {
 
 		assertEquals("old realm should have been restored", oldRealm, Realm.getDefault());
 	}
+
+	public void testBatchMergesValueChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableValue<String> value = new WritableValue<>(realm, "old", String.class);
+		final ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(value);
+
+		realm.batch(() -> {
+			value.setValue("first");
+			value.setValue("second");
+			value.setValue("new");
+			assertEquals("no event should be fired during the batch", 0, tracker.count);
+		});
+
+		assertEquals(1, tracker.count);
+		assertEquals("old", tracker.event.diff.getOldValue());
+		assertEquals("new", tracker.event.diff.getNewValue());
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testBatchMergesListChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableList<String> list = new WritableList<>(realm);
+		list.addAll(Arrays.asList("a", "b", "c"));
+		final List<String> oldList = new ArrayList<>(list);
+		final List<List<String>> events = new ArrayList<>();
+		list.addListChangeListener(event -> {
+			List<String> copy = new ArrayList<>(oldList);
+			((ListDiff<String>) event.diff).applyTo(copy);
+			events.add(copy);
+		});
+
+		realm.batch(() -> {
+			list.add("d");
+			list.remove("a");
+			list.set(0, "e");
+			list.move(2, 0);
+		});
+
+		assertEquals(Collections.singletonList(list), events);
+	}
+
+	public void testBatchMergesSetChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableSet<String> set = new WritableSet<>(realm);
+		set.addAll(Arrays.asList("a", "b"));
+		final List<SetDiff<? extends String>> diffs = new ArrayList<>();
+		set.addSetChangeListener(event -> diffs.add(event.diff));
+
+		realm.batch(() -> {
+			set.add("c");
+			set.remove("a");
+			set.remove("c");
+			set.add("d");
+			set.remove("b");
+			set.add("b");
+		});
+
+		assertEquals(1, diffs.size());
+		assertEquals(Collections.singleton("d"), diffs.get(0).getAdditions());
+		assertEquals(Collections.singleton("a"), diffs.get(0).getRemovals());
+	}
+
+	@SuppressWarnings("unchecked")
+	public void testBatchMergesMapChanges() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableMap<String, String> map = new WritableMap<>(realm);
+		map.put("a", "1");
+		map.put("b", "2");
+		final Map<String, String> oldMap = new HashMap<>(map);
+		final List<MapDiff<String, String>> diffs = new ArrayList<>();
+		map.addMapChangeListener(event -> diffs.add((MapDiff<String, String>) event.diff));
+
+		realm.batch(() -> {
+			map.put("a", "3");
+			map.put("a", "4");
+			map.remove("b");
+			map.put("c", "5");
+			map.put("d", "6");
+			map.remove("d");
+		});
+
+		assertEquals(1, diffs.size());
+		MapDiff<String, String> diff = diffs.get(0);
+		assertEquals(Collections.singleton("c"), diff.getAddedKeys());
+		assertEquals(Collections.singleton("b"), diff.getRemovedKeys());
+		assertEquals(Collections.singleton("a"), diff.getChangedKeys());
+		assertEquals("1", diff.getOldValue("a"));
+		assertEquals("4", diff.getNewValue("a"));
+		Map<String, String> newMap = new HashMap<>(oldMap);
+		diff.applyTo(newMap);
+		assertEquals(map, newMap);
+	}
+
+	public void testComputedValueIsComputedOncePerBatch() throws Exception {
+		Realm realm = new CurrentRealm(true);
+		final WritableValue<Integer> first = new WritableValue<>(realm, Integer.valueOf(1), Integer.class);
+		final WritableValue<Integer> second = new WritableValue<>(realm, Integer.valueOf(2), Integer.class);
+		final int[] computations = new int[1];
+		final ComputedValue<Integer> sum = new ComputedValue<Integer>(realm, Integer.class) {
+			@Override
+			protected Integer calculate() {
+				computations[0]++;
+				return Integer.valueOf(first.getValue().intValue() + second.getValue().intValue());
+			}
+		};
+		final List<Integer> sums = new ArrayList<>();
+		sum.addValueChangeListener(event -> sums.add(event.diff.getNewValue()));
+		computations[0] = 0;
+
+		realm.batch(() -> {
+			first.setValue(Integer.valueOf(3));
+			second.setValue(Integer.valueOf(4));
+			first.setValue(Integer.valueOf(5));
+		});
+
+		assertEquals(Collections.singletonList(Integer.valueOf(9)), sums);
+		assertEquals(1, computations[0]);
+	}
+
+	public void testNestedBatch() throws Exception {
+		final Realm realm = new CurrentRealm(true);
+		final WritableValue<String> value = new WritableValue<>(realm, "old", String.class);
+		final ValueChangeEventTracker tracker = ValueChangeEventTracker.observe(value);
+
+		realm.batch(() -> {
+			realm.batch(() -> value.setValue("first"));
+			assertTrue(realm.isBatching());
+			assertEquals("no event should be fired before the outer batch completes", 0, tracker.count);
+			value.setValue("new");
+		});
+
+		assertFalse(realm.isBatching());
+		assertEquals(1, tracker.count);
+		assertEquals("old", tracker.event.diff.getOldValue());
+		assertEquals("new", tracker.event.diff.getNewValue());
+	}
+
+	public void testBatchFiresEventsWhenRunnableFails() throws Exception {
+		final Realm realm = new CurrentRealm(true);
+		final List<ValueChangeEvent<?>> events = new ArrayList<>();
+		final WritableValue<String> value = new WritableValue<>(realm, "old", String.class);
+		value.addValueChangeListener(events::add);
+
+		try {
+			realm.batch(() -> {
+				value.setValue("new");
+				throw new IllegalStateException();
+			});
+			fail("the exception should be thrown");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertFalse(realm.isBatching());
+		assertEquals(1, events.size());
+		assertEquals("new", events.get(0).diff.getNewValue());
+	}
+
+	public void testBatchOutsideRealm() throws Exception {
+		Realm realm = new CurrentRealm(false);
+		try {
+			realm.batch(() -> fail("the batch should not run outside of the realm"));
+			fail("an exception should be thrown");
+		} catch (AssertionFailedException e) {
+			// expected
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2007 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,7 +61,7 @@ public class ComputedValueTest extends AbstractDefaultRealmTestCase {
 
         ComputedValue cv = new ComputedValue() {
             @Override
-			protected Object calculate() {
+            protected Object calculate() {
                 return value.getValue();
             }
         };
@@ -124,6 +124,28 @@ public class ComputedValueTest extends AbstractDefaultRealmTestCase {
         assertFalse("because value2 is not a part of the calculation the listeners should have been removed", value2.hasListeners());
     }
 
+    public void testDirtyValueReleasesDependencies() throws Exception {
+        final WritableValueExt value = new WritableValueExt(Integer.TYPE, Integer.valueOf(1));
+        ComputedValue cv = new ComputedValue() {
+            @Override
+			protected Object calculate() {
+                return value.getValue();
+            }
+        };
+        cv.getValue();
+        assertTrue(value.hasListeners());
+
+        // a dirty value which is not read again does not keep listening
+        value.setValue(Integer.valueOf(2));
+        assertFalse(value.hasListeners());
+
+        assertEquals(Integer.valueOf(2), cv.getValue());
+        assertTrue(value.hasListeners());
+
+        cv.dispose();
+        assertFalse(value.hasListeners());
+    }
+
     public void testSetValueUnsupportedOperationException() throws Exception {
         ComputedValue cv = new ComputedValue() {
             @Override
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.beans;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.databinding.util.ILogger;
+import org.eclipse.core.databinding.util.Policy;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyAccessor;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+import org.eclipse.core.runtime.IStatus;
+
+/**
+ * Tests that {@link BeanPropertyAccessor} accesses the properties like
+ * {@link BeanPropertyHelper}.
+ */
+public class BeanPropertyAccessorTest extends TestCase {
+	private ILogger oldLog;
+
+	private int logCount;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		oldLog = Policy.getLog();
+		Policy.setLog(new ILogger() {
+			@Override
+			public void log(IStatus status) {
+				logCount++;
+			}
+		});
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		Policy.setLog(oldLog);
+		super.tearDown();
+	}
+
+	public void testReadWrite() {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				BeanPropertyHelper.getPropertyDescriptor(Bean.class, "value"));
+		Bean bean = new Bean("old");
+		assertEquals("old", accessor.read(bean));
+		accessor.write(bean, "new");
+		assertEquals("new", bean.getValue());
+		accessor.write(bean, null);
+		assertNull(accessor.read(bean));
+		assertEquals(0, logCount);
+	}
+
+	public void testReadWriteInterfaceProperty() {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				BeanPropertyHelper.getPropertyDescriptor(IBean.class, "value"));
+		Bean bean = new Bean("old");
+		assertEquals("old", accessor.read(bean));
+		accessor.write(bean, "new");
+		assertEquals("new", bean.getValue());
+	}
+
+	public void testPrimitiveProperty() {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				BeanPropertyHelper.getPropertyDescriptor(PrimitiveBean.class,
+						"count"));
+		PrimitiveBean bean = new PrimitiveBean();
+		accessor.write(bean, Long.valueOf(2));
+		assertEquals(Long.valueOf(2), accessor.read(bean));
+		// widened like a reflective call does
+		accessor.write(bean, Integer.valueOf(3));
+		assertEquals(Long.valueOf(3), accessor.read(bean));
+		assertEquals(0, logCount);
+
+		accessor.write(bean, null);
+		assertEquals(1, logCount);
+		assertEquals(Long.valueOf(3), accessor.read(bean));
+	}
+
+	public void testLogStatusWhenSourceIsNotABean() {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				BeanPropertyHelper.getPropertyDescriptor(Bean.class, "value"));
+		assertNull(accessor.read("not a bean"));
+		assertEquals(1, logCount);
+		accessor.write("not a bean", "value");
+		assertEquals(2, logCount);
+	}
+
+	public void testExceptionOfReadMethodIsWrapped() {
+		BeanPropertyAccessor accessor = new BeanPropertyAccessor(
+				BeanPropertyHelper.getPropertyDescriptor(PrimitiveBean.class,
+						"failing"));
+		try {
+			accessor.read(new PrimitiveBean());
+			fail("the exception of the read method should be thrown");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof UnsupportedOperationException);
+		}
+	}
+
+	public static class PrimitiveBean {
+		private long count;
+
+		public long getCount() {
+			return count;
+		}
+
+		public void setCount(long count) {
+			this.count = count;
+		}
+
+		public String getFailing() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
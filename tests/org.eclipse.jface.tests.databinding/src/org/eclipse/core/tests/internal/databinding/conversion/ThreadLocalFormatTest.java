@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.tests.internal.databinding.conversion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.databinding.conversion.NumberToStringConverter;
+import org.eclipse.core.databinding.conversion.StringToNumberConverter;
+import org.eclipse.core.internal.databinding.conversion.ThreadLocalFormat;
+
+import com.ibm.icu.text.NumberFormat;
+
+/**
+ * @since 1.1
+ */
+public class ThreadLocalFormatTest extends TestCase {
+	public void testGetReturnsSameFormatOnSameThread() throws Exception {
+		ThreadLocalFormat<NumberFormat> format = ThreadLocalFormat.of(NumberFormat.getIntegerInstance());
+		assertSame(format.get(), format.get());
+	}
+
+	public void testGetReturnsCopyForEachThread() throws Exception {
+		final ThreadLocalFormat<NumberFormat> format = ThreadLocalFormat.getIntegerInstance();
+		final NumberFormat[] other = new NumberFormat[1];
+		Thread thread = new Thread(() -> other[0] = format.get());
+		thread.start();
+		thread.join();
+
+		assertNotNull(other[0]);
+		assertNotSame(format.get(), other[0]);
+		assertEquals(format.get(), other[0]);
+	}
+
+	public void testFormatIsNotCopied() throws Exception {
+		NumberFormat numberFormat = NumberFormat.getIntegerInstance();
+		final ThreadLocalFormat<NumberFormat> format = ThreadLocalFormat.of(numberFormat);
+		final NumberFormat[] other = new NumberFormat[1];
+		Thread thread = new Thread(() -> other[0] = format.get());
+		thread.start();
+		thread.join();
+
+		assertSame(numberFormat, format.get());
+		assertSame(numberFormat, other[0]);
+	}
+
+	public void testConverterSeesChangesToFormat() throws Exception {
+		NumberFormat numberFormat = NumberFormat.getIntegerInstance();
+		numberFormat.setGroupingUsed(false);
+		NumberToStringConverter fromInteger = NumberToStringConverter.fromInteger(numberFormat, false);
+		assertEquals(numberFormat.format(10000), fromInteger.convert(Integer.valueOf(10000)));
+
+		numberFormat.setGroupingUsed(true);
+		assertEquals(numberFormat.format(10000), fromInteger.convert(Integer.valueOf(10000)));
+	}
+
+	public void testDefaultLocaleFormatsAreShared() throws Exception {
+		assertSame(ThreadLocalFormat.getIntegerInstance(), ThreadLocalFormat.getIntegerInstance());
+		assertSame(ThreadLocalFormat.getNumberInstance(), ThreadLocalFormat.getNumberInstance());
+		assertNotSame(ThreadLocalFormat.getIntegerInstance(), ThreadLocalFormat.getNumberInstance());
+		assertSame(ThreadLocalFormat.getDateFormat("yyyy-MM-dd"), ThreadLocalFormat.getDateFormat("yyyy-MM-dd"));
+		assertNotSame(ThreadLocalFormat.getDateFormat("yyyy-MM-dd"), ThreadLocalFormat.getDateFormat("dd.MM.yyyy"));
+	}
+
+	public void testConvertersAreUsableFromSeveralThreads() throws Exception {
+		final StringToNumberConverter toInteger = StringToNumberConverter.toInteger(false);
+		final NumberToStringConverter fromInteger = NumberToStringConverter.fromInteger(false);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				final int offset = i * 10000;
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() throws Exception {
+						for (int j = offset; j < offset + 10000; j++) {
+							Integer value = Integer.valueOf(j);
+							if (!value.equals(toInteger.convert(fromInteger.convert(value)))) {
+								return Boolean.FALSE;
+							}
+						}
+						return Boolean.TRUE;
+					}
+				}));
+			}
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get().booleanValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
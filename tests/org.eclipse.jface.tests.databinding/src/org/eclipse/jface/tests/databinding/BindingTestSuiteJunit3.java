@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -91,6 +91,7 @@ import org.eclipse.core.tests.internal.databinding.QueueTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableListDecoratorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableSetDecoratorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanObservableValueDecoratorTest;
+import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyAccessorTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyHelperTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyListenerSupportTest;
 import org.eclipse.core.tests.internal.databinding.beans.BeanPropertyListenerTest;
@@ -126,6 +127,7 @@ import org.eclipse.core.tests.internal.databinding.conversion.StringToNumberPars
 import org.eclipse.core.tests.internal.databinding.conversion.StringToNumberParserShortTest;
 import org.eclipse.core.tests.internal.databinding.conversion.StringToNumberParserTest;
 import org.eclipse.core.tests.internal.databinding.conversion.StringToShortConverterTest;
+import org.eclipse.core.tests.internal.databinding.conversion.ThreadLocalFormatTest;
 import org.eclipse.core.tests.internal.databinding.observable.ConstantObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.DelayedObservableValueTest;
 import org.eclipse.core.tests.internal.databinding.observable.EmptyObservableListTest;
@@ -355,6 +357,7 @@ public class BindingTestSuiteJunit3 extends TestSuite {
 		addTestSuite(StringToNumberParserShortTest.class);
 		addTestSuite(StringToNumberParserTest.class);
 		addTestSuite(StringToShortConverterTest.class);
+		addTestSuite(ThreadLocalFormatTest.class);
 
 		// org.eclipse.core.tests.internal.databinding.beans
 		addTest(BeanObservableListDecoratorTest.suite());
@@ -369,6 +372,7 @@ public class BindingTestSuiteJunit3 extends TestSuite {
 		addTest(JavaBeanObservableSetTest.suite());
 		addTest(JavaBeanObservableValueTest.suite());
 		addTestSuite(JavaBeanPropertyObservableMapTest.class);
+		addTestSuite(BeanPropertyAccessorTest.class);
 		addTestSuite(BeanPropertyHelperTest.class);
 		addTestSuite(BeanPropertyListenerSupportTest.class);
 		addTestSuite(BeanPropertyListenerTest.class);
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.e4.ui.css.core.impl.dom.CSSRuleIndex;
+import org.eclipse.e4.ui.css.core.impl.dom.DocumentCSSImpl;
+import org.eclipse.e4.ui.css.core.impl.dom.ViewCSSImpl;
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.w3c.dom.Element;
+import org.w3c.dom.css.CSSRule;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Measures how long the CSS rules matching the widgets of a shell take to be
+ * found, with the rules indexed by their rightmost selector and with a scan of
+ * all the rules, for a style sheet with as many rules as a theme with its
+ * contributed extensions. This test does not rely on the existence of the
+ * workbench. The measurements are compared with those of the baseline build.
+ */
+public final class CSSSelectorMatchingPerformanceTest extends BasicPerformanceTest {
+
+	/**
+	 * The number of CSS classes and ids the rules and the widgets use.
+	 */
+	private static final int NAMES = 100;
+
+	/**
+	 * The number of composites of each level of the widget tree.
+	 */
+	private static final int COMPOSITES = 10;
+
+	private static final String[] PSEUDO_CLASSES = { null, "selected", "focus" };
+
+	private CSSSWTEngineImpl engine;
+
+	private Shell shell;
+
+	private DocumentCSSImpl documentCSS;
+
+	private ViewCSSImpl viewCSS;
+
+	private List<CSSRule> allRules;
+
+	private List<Element> elements;
+
+	public CSSSelectorMatchingPerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		Display display = Display.getDefault();
+		engine = new CSSSWTEngineImpl(display);
+		CSSStyleSheet styleSheet = (CSSStyleSheet) engine.parseStyleSheet(new StringReader(createStyleSheet()));
+		documentCSS = new DocumentCSSImpl();
+		documentCSS.addStyleSheet(styleSheet);
+		viewCSS = new ViewCSSImpl(documentCSS);
+		allRules = new ArrayList<>();
+		CSSRuleList rules = styleSheet.getCssRules();
+		for (int i = 0; i < rules.getLength(); i++) {
+			allRules.add(rules.item(i));
+		}
+
+		shell = new Shell(display);
+		elements = new ArrayList<>();
+		int n = 0;
+		for (int i = 0; i < COMPOSITES; i++) {
+			Composite composite = new Composite(shell, SWT.NONE);
+			setNames(composite, n++);
+			for (int j = 0; j < COMPOSITES; j++) {
+				Composite child = new Composite(composite, SWT.NONE);
+				setNames(child, n++);
+				setNames(new Button(child, SWT.PUSH), n++);
+				setNames(new Label(child, SWT.NONE), n++);
+				setNames(new Text(child, SWT.BORDER), n++);
+			}
+		}
+		addElements(shell);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		if (shell != null) {
+			shell.dispose();
+			shell = null;
+		}
+		if (engine != null) {
+			engine.dispose();
+			engine = null;
+		}
+		documentCSS = null;
+		viewCSS = null;
+		allRules = null;
+		elements = null;
+		super.doTearDown();
+	}
+
+	private static String createStyleSheet() {
+		StringBuilder css = new StringBuilder();
+		css.append("* { margin: 1px; }\n");
+		css.append("Shell { background-color: white; }\n");
+		css.append("Composite > * { color: black; }\n");
+		css.append("Label, Text { color: gray; }\n");
+		for (int i = 0; i < NAMES; i++) {
+			css.append(".class" + i + " { color: #" + (100000 + i) + "; }\n");
+			css.append("Button.class" + i + " { font-weight: bold; }\n");
+			css.append("Composite.class" + i + " Label { font-style: italic; }\n");
+			css.append("#id" + i + " { background-color: #" + (200000 + i) + "; }\n");
+			css.append("Text#id" + i + ":focus { border-color: red; }\n");
+			css.append("Button.class" + i + ":selected { color: orange; }\n");
+		}
+		return css.toString();
+	}
+
+	private static void setNames(Control control, int n) {
+		WidgetElement.setCSSClass(control, "class" + (n % NAMES) + " other" + n);
+		if (n % 3 == 0) {
+			WidgetElement.setID(control, "id" + (n % NAMES));
+		}
+	}
+
+	private void addElements(Control control) {
+		elements.add(engine.getElement(control));
+		if (control instanceof Composite) {
+			for (Control child : ((Composite) control).getChildren()) {
+				addElements(child);
+			}
+		}
+	}
+
+	/**
+	 * Tests finding the matching rules among the candidates of the rule index.
+	 */
+	public void testIndexedRules() throws Exception {
+		final CSSRuleIndex ruleIndex = documentCSS.getRuleIndex();
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				for (Element element : elements) {
+					for (String pseudo : PSEUDO_CLASSES) {
+						viewCSS.getComputedStyle(ruleIndex, element, pseudo);
+					}
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Tests finding the matching rules among all the rules of the style sheet.
+	 */
+	public void testAllRules() throws Exception {
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				for (Element element : elements) {
+					for (String pseudo : PSEUDO_CLASSES) {
+						viewCSS.getComputedStyle(allRules, element, pseudo);
+					}
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.databinding.observable.Diffs;
+
+/**
+ * Measures how long {@link Diffs#computeListDiff(List, List)} takes to compute
+ * the differences between large lists, as when an observable list of many rows
+ * is sorted again. This test does not rely on the existence of the workbench.
+ * The measurements are compared with those of the baseline build.
+ */
+public final class ListDiffPerformanceTest extends BasicPerformanceTest {
+
+	/**
+	 * The number of elements of the lists.
+	 */
+	private static final int SIZE = 20000;
+
+	private List<String> oldList;
+
+	public ListDiffPerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		oldList = new ArrayList<>(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			oldList.add("row" + i);
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		oldList = null;
+		super.doTearDown();
+	}
+
+	/**
+	 * Tests the differences between a list and its shuffled elements.
+	 */
+	public void testShuffledList() throws Exception {
+		List<String> newList = new ArrayList<>(oldList);
+		Collections.shuffle(newList, new Random(SIZE));
+		measureListDiff(newList);
+	}
+
+	/**
+	 * Tests the differences between a list and its reversed elements.
+	 */
+	public void testReversedList() throws Exception {
+		List<String> newList = new ArrayList<>(oldList);
+		Collections.reverse(newList);
+		measureListDiff(newList);
+	}
+
+	/**
+	 * Tests the differences between a list and the same list with a few
+	 * elements moved, removed or added.
+	 */
+	public void testFewChanges() throws Exception {
+		List<String> newList = new ArrayList<>(oldList);
+		Random random = new Random(SIZE);
+		for (int i = 0; i < 100; i++) {
+			newList.add(random.nextInt(newList.size()), newList.remove(random.nextInt(newList.size())));
+			newList.remove(random.nextInt(newList.size()));
+			newList.add(random.nextInt(newList.size()), "new row" + i);
+		}
+		measureListDiff(newList);
+	}
+
+	private void measureListDiff(final List<String> newList) throws Exception {
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				startMeasuring();
+				Diffs.computeListDiff(oldList, newList).getDifferences();
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
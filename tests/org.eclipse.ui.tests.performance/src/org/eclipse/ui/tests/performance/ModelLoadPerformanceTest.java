@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+
+/**
+ * Measures how long the persisted workbench model takes to load at startup,
+ * saved in XMI and in the EMF binary format. The model has the size of the
+ * model of a long-used workbench with many perspectives. This test does not
+ * rely on the existence of the workbench. The measurements are compared with
+ * those of the baseline build.
+ */
+public final class ModelLoadPerformanceTest extends BasicPerformanceTest {
+
+	private static final int PERSPECTIVES = 40;
+
+	private static final int STACKS = 10;
+
+	private static final int PARTS = 25;
+
+	private static final Map<String, Boolean> BINARY_OPTIONS = Collections.singletonMap(XMLResource.OPTION_BINARY,
+			Boolean.TRUE);
+
+	private E4XMIResourceFactory factory;
+
+	private byte[] xmiModel;
+
+	private byte[] binaryModel;
+
+	public ModelLoadPerformanceTest(final String name) {
+		super(name);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		factory = new E4XMIResourceFactory();
+		Resource resource = factory.createResource(URI.createURI("workbench.xmi"));
+		resource.getContents().add((EObject) createApplication());
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		resource.save(outputStream, null);
+		xmiModel = outputStream.toByteArray();
+		outputStream = new ByteArrayOutputStream();
+		resource.save(outputStream, BINARY_OPTIONS);
+		binaryModel = outputStream.toByteArray();
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		factory = null;
+		xmiModel = null;
+		binaryModel = null;
+		super.doTearDown();
+	}
+
+	private static MApplication createApplication() {
+		MApplication application = MApplicationFactory.INSTANCE.createApplication();
+		MTrimmedWindow window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		application.getChildren().add(window);
+		application.setSelectedElement(window);
+		MPerspectiveStack perspectiveStack = MAdvancedFactory.INSTANCE.createPerspectiveStack();
+		window.getChildren().add(perspectiveStack);
+		for (int i = 0; i < PERSPECTIVES; i++) {
+			MPerspective perspective = MAdvancedFactory.INSTANCE.createPerspective();
+			perspective.setElementId("perspective" + i);
+			perspective.setLabel("Perspective " + i);
+			perspectiveStack.getChildren().add(perspective);
+			for (int j = 0; j < STACKS; j++) {
+				MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+				stack.setElementId("stack" + j);
+				perspective.getChildren().add(stack);
+				for (int k = 0; k < PARTS; k++) {
+					MPart part = MBasicFactory.INSTANCE.createPart();
+					part.setElementId("part" + k);
+					part.setLabel("Part " + k);
+					part.setContributionURI("bundleclass://org.eclipse.ui.workbench/Part" + k);
+					part.getTags().add("View");
+					part.getTags().add("categoryTag:General");
+					part.getPersistedState().put("memento", "<memento id=\"part" + k + "\"/>");
+					stack.getChildren().add(part);
+				}
+				stack.setSelectedElement(stack.getChildren().get(0));
+			}
+		}
+		perspectiveStack.setSelectedElement(perspectiveStack.getChildren().get(0));
+		return application;
+	}
+
+	/**
+	 * Tests loading the model saved in XMI.
+	 */
+	public void testLoadXMI() throws Exception {
+		measureLoad(xmiModel, null);
+	}
+
+	/**
+	 * Tests loading the model saved in the EMF binary format.
+	 */
+	public void testLoadBinary() throws Exception {
+		measureLoad(binaryModel, BINARY_OPTIONS);
+	}
+
+	private void measureLoad(final byte[] model, final Map<?, ?> options) throws Exception {
+		exercise(new TestRunnable() {
+			@Override
+			public void run() throws Exception {
+				Resource resource = factory.createResource(URI.createURI("workbench.xmi"));
+				startMeasuring();
+				resource.load(new ByteArrayInputStream(model), options);
+				stopMeasuring();
+				assertEquals(1, resource.getContents().size());
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
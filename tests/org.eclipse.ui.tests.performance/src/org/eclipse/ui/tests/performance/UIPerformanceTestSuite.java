@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,5 +37,8 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
 		addTest(new TestSuite(CommandsPerformanceTest.class));
 		addTest(new LabelProviderTestSuite());
 		addTest(new TestSuite(ProgressReportingTest.class));
+		addTest(new TestSuite(ListDiffPerformanceTest.class));
+		addTest(new TestSuite(ModelLoadPerformanceTest.class));
+		addTest(new TestSuite(CSSSelectorMatchingPerformanceTest.class));
 	}
 }
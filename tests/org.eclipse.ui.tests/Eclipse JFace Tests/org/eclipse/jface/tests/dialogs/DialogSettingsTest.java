@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,10 +12,13 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.dialogs;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.eclipse.jface.dialogs.DialogSettings;
 import org.eclipse.jface.dialogs.IDialogSettings;
@@ -509,6 +512,200 @@ public class DialogSettingsTest extends TestCase {
 
 	}
 
+	public void testLoadIgnoresOtherElements() {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<section name=\"root\">\n"
+				+ "\t<item key=\"key\" value=\"value\"/>\n"
+				+ "\t<other><item key=\"nested\" value=\"ignored\"/></other>\n"
+				+ "\t<list key=\"list\"><item value=\"1\"/><other><item value=\"ignored\"/></other><item value=\"2\"/></list>\n"
+				+ "\t<section name=\"child\"><item key=\"key\" value=\"child value\"/>"
+				+ "<section name=\"grandchild\"/></section>\n"
+				+ "</section>";
+		DialogSettings settings = new DialogSettings("");
+		settings.load(new StringReader(xml));
+		assertEquals("root", settings.getName());
+		assertEquals("value", settings.get("key"));
+		assertNull(settings.get("nested"));
+		String[] list = settings.getArray("list");
+		assertEquals(2, list.length);
+		assertEquals("1", list[0]);
+		assertEquals("2", list[1]);
+		assertEquals(1, settings.getSections().length);
+		IDialogSettings child = settings.getSection("child");
+		assertEquals("child value", child.get("key"));
+		assertNotNull(child.getSection("grandchild"));
+	}
+
+	public void testLoadMergesSettings() throws IOException {
+		DialogSettings settings = new DialogSettings("");
+		settings.put("key", "old");
+		settings.put("other", "kept");
+		settings.load(new StringReader("<section name=\"root\"><item key=\"key\" value=\"new\"/></section>"));
+		// saved before any entry is read
+		StringWriter writer = new StringWriter();
+		settings.save(writer);
+		DialogSettings saved = new DialogSettings("");
+		saved.load(new StringReader(writer.toString()));
+		assertEquals("root", saved.getName());
+		assertEquals("new", saved.get("key"));
+		assertEquals("kept", saved.get("other"));
+
+		assertEquals("new", settings.get("key"));
+		assertEquals("kept", settings.get("other"));
+		// content which cannot be parsed is ignored
+		settings.load(new StringReader("<section name=\"other\">"));
+		assertEquals("root", settings.getName());
+		assertEquals("new", settings.get("key"));
+	}
+
+	public void testUnreadSectionsSaved() throws IOException {
+		DialogSettings settings = new DialogSettings("root");
+		fill(settings);
+		StringWriter writer = new StringWriter();
+		settings.save(writer);
+
+		DialogSettings loaded = new DialogSettings("");
+		loaded.load(new StringReader(writer.toString()));
+		loaded.put("added", "value");
+		// its sections are saved without being read
+		writer = new StringWriter();
+		loaded.save(writer);
+
+		DialogSettings reloaded = new DialogSettings("");
+		reloaded.load(new StringReader(writer.toString()));
+		check(reloaded);
+		assertEquals("value", reloaded.get("added"));
+	}
+
+	public void testSaveUnchangedSettings() throws IOException {
+		File file = File.createTempFile("dialog_settings", ".xml");
+		try {
+			DialogSettings settings = new DialogSettings("root");
+			fill(settings);
+			settings.save(file.getPath());
+
+			DialogSettings loaded = new DialogSettings("");
+			loaded.load(file.getPath());
+			check(loaded);
+			// the file is not written again while neither is changed
+			writeMarker(file, file.lastModified());
+			loaded.put("stringKey", "a string");
+			loaded.put("stringArrayKey", new String[] { "some text data1", "some text data2" });
+			loaded.save(file.getPath());
+			assertMarker(file, true);
+
+			loaded.getSection("child1").getSection("child2").put("key", "value");
+			loaded.save(file.getPath());
+			assertMarker(file, false);
+			writeMarker(file, file.lastModified());
+			loaded.save(file.getPath());
+			assertMarker(file, true);
+
+			// other files are written
+			File other = new File(file.getPath() + ".other");
+			try {
+				loaded.save(other.getPath());
+				DialogSettings reloaded = new DialogSettings("");
+				reloaded.load(other.getPath());
+				check(reloaded);
+				assertEquals("value", reloaded.getSection("child1").getSection("child2").get("key"));
+			} finally {
+				other.delete();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testSaveReplacesFile() throws IOException {
+		File file = File.createTempFile("dialog_settings", ".xml");
+		try {
+			writeMarker(file, file.lastModified());
+			DialogSettings settings = new DialogSettings("root");
+			fill(settings);
+			settings.save(file.getPath());
+			assertMarker(file, false);
+			assertFalse(new File(file.getPath() + ".tmp").exists());
+
+			DialogSettings loaded = new DialogSettings("");
+			loaded.load(file.getPath());
+			check(loaded);
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testSaveModifiedFile() throws IOException {
+		File file = File.createTempFile("dialog_settings", ".xml");
+		try {
+			DialogSettings settings = new DialogSettings("root");
+			fill(settings);
+			settings.save(file.getPath());
+			// the file is written again once modified by someone else
+			writeMarker(file, file.lastModified() - 10000);
+			settings.save(file.getPath());
+			assertMarker(file, false);
+
+			DialogSettings loaded = new DialogSettings("");
+			loaded.load(file.getPath());
+			writeMarker(file, file.lastModified() - 10000);
+			loaded.save(file.getPath());
+			assertMarker(file, false);
+
+			assertTrue(file.delete());
+			loaded.save(file.getPath());
+			DialogSettings reloaded = new DialogSettings("");
+			reloaded.load(file.getPath());
+			check(reloaded);
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testConcurrentReads() throws Exception {
+		DialogSettings settings = new DialogSettings("root");
+		fill(settings);
+		StringWriter writer = new StringWriter();
+		settings.save(writer);
+
+		for (int i = 0; i < 20; i++) {
+			final DialogSettings loaded = new DialogSettings("");
+			loaded.load(new StringReader(writer.toString()));
+			final Throwable[] failure = new Throwable[1];
+			Thread[] threads = new Thread[4];
+			for (int j = 0; j < threads.length; j++) {
+				threads[j] = new Thread(() -> {
+					try {
+						check(loaded);
+					} catch (Throwable e) {
+						failure[0] = e;
+					}
+				});
+				threads[j].start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			if (failure[0] != null) {
+				throw new AssertionError(failure[0]);
+			}
+		}
+	}
+
+	/*
+	 * Replaces the content of the file by a marker, with the given time of
+	 * last modification.
+	 */
+	private static void writeMarker(File file, long lastModified) throws IOException {
+		Files.write(file.toPath(), "marker".getBytes(StandardCharsets.UTF_8));
+		assertTrue(file.setLastModified(lastModified));
+	}
+
+	private static void assertMarker(File file, boolean expected) throws IOException {
+		String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		assertEquals(expected, "marker".equals(content));
+	}
+
 	public void testSaveWithIOException() {
 		final DialogSettings settings = new DialogSettings("test");
 		try {
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.images;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jface.resource.DeviceResourceManager;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.ImagePrefetcher;
+import org.eclipse.jface.resource.ResourceManager;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.widgets.Display;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ImagePrefetcher}.
+ */
+public class ImagePrefetcherTest extends TestCase {
+
+	private static final String IMAGE = "anything.gif";
+
+	@Override
+	protected void tearDown() throws Exception {
+		ImagePrefetcher.clear();
+		super.tearDown();
+	}
+
+	public void testPrefetchedURLImage() {
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(getClass().getResource(IMAGE));
+		ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+		assertSameImage(descriptor, ImageDescriptor.createFromURL(getClass().getResource(IMAGE)));
+	}
+
+	public void testPrefetchedFileImage() {
+		ImageDescriptor descriptor = ImageDescriptor.createFromFile(getClass(), IMAGE);
+		ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+		assertSameImage(descriptor, ImageDescriptor.createFromFile(getClass(), IMAGE));
+	}
+
+	public void testPrefetchedImageInResourceManager() {
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(getClass().getResource(IMAGE));
+		ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+		ResourceManager resourceManager = new DeviceResourceManager(Display.getDefault());
+		try {
+			Image image = resourceManager.createImage(descriptor);
+			assertSameData(descriptor.getImageData(100), image.getImageData());
+		} finally {
+			resourceManager.dispose();
+		}
+	}
+
+	public void testMissingImage() {
+		ImageDescriptor descriptor = ImageDescriptor.createFromFile(getClass(), "missing.gif");
+		ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+		Image image = descriptor.createImage(false);
+		assertNull(image);
+	}
+
+	public void testOtherDescriptorsIgnored() {
+		ImageData data = ImageDescriptor.createFromFile(getClass(), IMAGE).getImageData(100);
+		ImageDescriptor descriptor = ImageDescriptor.createFromImageData(data);
+		ImagePrefetcher.prefetch(Arrays.asList(descriptor, ImageDescriptor.getMissingImageDescriptor()));
+		Image image = descriptor.createImage();
+		try {
+			assertSameData(data, image.getImageData());
+		} finally {
+			image.dispose();
+		}
+	}
+
+	public void testClear() {
+		ImageDescriptor descriptor = ImageDescriptor.createFromURL(getClass().getResource(IMAGE));
+		ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+		ImagePrefetcher.clear();
+		assertSameImage(descriptor, descriptor);
+	}
+
+	public void testDiscard() throws Exception {
+		File discardedFile = createImageFile();
+		File keptFile = createImageFile();
+		try {
+			ImageDescriptor discarded = ImageDescriptor.createFromURL(discardedFile.toURI().toURL());
+			ImageDescriptor kept = ImageDescriptor.createFromURL(keptFile.toURI().toURL());
+			ImagePrefetcher.prefetch(Collections.singleton(discarded));
+			ImagePrefetcher.prefetch(Collections.singleton(kept));
+			waitForDecoding();
+			ImagePrefetcher.discard(Collections.singleton(discarded));
+			// only the prefetched data is left to create the images with
+			assertTrue(discardedFile.delete());
+			assertTrue(keptFile.delete());
+			assertNull(discarded.createImage(false));
+			Image image = kept.createImage(false);
+			assertNotNull(image);
+			image.dispose();
+		} finally {
+			discardedFile.delete();
+			keptFile.delete();
+		}
+	}
+
+	public void testPrefetchAfterManyDescriptors() throws Exception {
+		List<ImageDescriptor> descriptors = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			descriptors.add(ImageDescriptor.createFromFile(getClass(), "missing" + i + ".gif"));
+		}
+		ImagePrefetcher.prefetch(descriptors);
+		File file = createImageFile();
+		try {
+			ImageDescriptor descriptor = ImageDescriptor.createFromURL(file.toURI().toURL());
+			ImageData expected = descriptor.getImageData(100);
+			ImagePrefetcher.prefetch(Collections.singleton(descriptor));
+			waitForDecoding();
+			// only the prefetched data is left to create the image with
+			assertTrue(file.delete());
+			Image image = descriptor.createImage(false);
+			assertNotNull(image);
+			try {
+				assertSameData(expected, image.getImageData());
+			} finally {
+				image.dispose();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Copies the test image to a temporary file, to be deleted once its image
+	 * data is prefetched.
+	 */
+	private File createImageFile() throws Exception {
+		File file = File.createTempFile("prefetched", ".gif");
+		try (InputStream in = getClass().getResourceAsStream(IMAGE)) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+
+	/**
+	 * Waits until the threads decoding the prefetched images are idle.
+	 */
+	private static void waitForDecoding() throws InterruptedException {
+		long end = System.currentTimeMillis() + 10000;
+		while (System.currentTimeMillis() < end) {
+			boolean decoding = false;
+			for (Thread thread : Thread.getAllStackTraces().keySet()) {
+				if ("Decoding images".equals(thread.getName()) && thread.getState() == Thread.State.RUNNABLE) {
+					decoding = true;
+				}
+			}
+			if (!decoding) {
+				return;
+			}
+			Thread.sleep(10);
+		}
+		fail("The images are still being decoded");
+	}
+
+	private static void assertSameImage(ImageDescriptor prefetched, ImageDescriptor expected) {
+		Image image = prefetched.createImage();
+		Image expectedImage = expected.createImage();
+		try {
+			assertSameData(expectedImage.getImageData(), image.getImageData());
+		} finally {
+			image.dispose();
+			expectedImage.dispose();
+		}
+	}
+
+	private static void assertSameData(ImageData expected, ImageData actual) {
+		assertEquals(expected.width, actual.width);
+		assertEquals(expected.height, actual.height);
+		for (int y = 0; y < expected.height; y++) {
+			for (int x = 0; x < expected.width; x++) {
+				assertEquals(expected.palette.getRGB(expected.getPixel(x, y)),
+						actual.palette.getRGB(actual.getPixel(x, y)));
+			}
+		}
+	}
+}
@@ -28,7 +28,9 @@ import org.junit.runners.Suite;
 		Bug201002TreeViewerTest.class, Bug200337TableViewerTest.class, Bug203657TreeViewerTest.class,
 		Bug203657TableViewerTest.class, Bug205700TreeViewerTest.class, Bug180504TableViewerTest.class,
 		Bug180504TreeViewerTest.class, Bug256889TableViewerTest.class, Bug287765Test.class, Bug242231Test.class,
-		StyledStringBuilderTest.class, TreeManagerTest.class })
+		StyledStringBuilderTest.class, TreeManagerTest.class, AsyncContentProviderTest.class,
+		AsyncTreeContentProviderTest.class,
+		ElementMapTest.class })
 public class AllTests {
 
 	public static void main(String[] args) {
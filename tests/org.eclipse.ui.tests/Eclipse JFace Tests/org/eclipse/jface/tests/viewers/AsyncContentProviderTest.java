@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.AsyncContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * Tests {@link AsyncContentProvider} with a virtual table.
+ *
+ * @since 3.14
+ */
+public class AsyncContentProviderTest extends ViewerTestCase {
+
+	private static final Integer[] ELEMENTS = { 3, 1, 4, 1, 5, 9, 2, 6 };
+
+	/**
+	 * The fetches scheduled in the background, run by the tests.
+	 */
+	private List<Runnable> pending;
+
+	private int fetchCount;
+
+	private AsyncContentProvider contentProvider;
+
+	public AsyncContentProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		pending = new ArrayList<>();
+		contentProvider = new AsyncContentProvider(new ArrayContentProvider() {
+			@Override
+			public Object[] getElements(Object inputElement) {
+				fetchCount++;
+				return super.getElements(inputElement);
+			}
+		}, pending::add);
+		TableViewer viewer = new TableViewer(parent, SWT.VIRTUAL);
+		viewer.setContentProvider(contentProvider);
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		fViewer.setInput(ELEMENTS);
+	}
+
+	private TableViewer getTableViewer() {
+		return (TableViewer) fViewer;
+	}
+
+	private void runFetches() {
+		List<Runnable> fetches = new ArrayList<>(pending);
+		pending.clear();
+		for (Runnable fetch : fetches) {
+			fetch.run();
+		}
+		processEvents();
+	}
+
+	public void testItemCountSetOnceFetched() {
+		assertEquals(0, getTableViewer().getTable().getItemCount());
+		runFetches();
+		assertEquals(ELEMENTS.length, getTableViewer().getTable().getItemCount());
+		assertEquals(1, fetchCount);
+	}
+
+	public void testSortOrderAndFilter() {
+		runFetches();
+		contentProvider.setSortOrder(Comparator.reverseOrder());
+		contentProvider.setFilter(element -> ((Integer) element).intValue() > 1);
+		runFetches();
+		assertEquals(6, getTableViewer().getTable().getItemCount());
+		assertEquals(Integer.valueOf(9), getTableViewer().getElementAt(0));
+		assertEquals(Integer.valueOf(2), getTableViewer().getElementAt(5));
+	}
+
+	public void testThreadSafeViewerFilter() {
+		fViewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				return ((Integer) element).intValue() % 2 == 0;
+			}
+
+			@Override
+			public boolean isThreadSafe() {
+				return true;
+			}
+		});
+		contentProvider.refresh(ELEMENTS);
+		runFetches();
+		assertEquals(3, getTableViewer().getTable().getItemCount());
+	}
+
+	public void testRefreshCancelsPendingFetch() {
+		contentProvider.refresh(ELEMENTS);
+		contentProvider.refresh(ELEMENTS);
+		runFetches();
+		assertEquals(1, fetchCount);
+		assertEquals(ELEMENTS.length, getTableViewer().getTable().getItemCount());
+	}
+
+	public void testInputChangeCancelsPendingFetch() {
+		fViewer.setInput(new Integer[] { 7 });
+		runFetches();
+		assertEquals(1, fetchCount);
+		assertEquals(1, getTableViewer().getTable().getItemCount());
+	}
+}
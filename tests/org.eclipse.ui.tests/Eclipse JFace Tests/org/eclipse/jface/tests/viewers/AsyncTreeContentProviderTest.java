@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.jface.viewers.AsyncContentProvider;
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+
+/**
+ * Tests {@link AsyncContentProvider} with a virtual tree whose elements are
+ * compared ignoring case.
+ *
+ * @since 3.14
+ */
+public class AsyncTreeContentProviderTest extends ViewerTestCase {
+
+	private static final String ROOT = "root";
+
+	/**
+	 * The children of each element, by lower case element.
+	 */
+	private Map<String, List<String>> model;
+
+	/**
+	 * The fetches scheduled in the background, run by the tests.
+	 */
+	private List<Runnable> pending;
+
+	private AsyncContentProvider contentProvider;
+
+	public AsyncTreeContentProviderTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		model = new HashMap<>();
+		model.put(ROOT, new ArrayList<>(Arrays.asList("a", "b")));
+		model.put("a", new ArrayList<>(Arrays.asList("a1", "a2")));
+		pending = new ArrayList<>();
+		contentProvider = new AsyncContentProvider(new ITreeContentProvider() {
+			@Override
+			public Object[] getElements(Object inputElement) {
+				return getChildren(inputElement);
+			}
+
+			@Override
+			public Object[] getChildren(Object parentElement) {
+				List<String> children = model.get(((String) parentElement).toLowerCase(Locale.ROOT));
+				return children == null ? new Object[0] : children.toArray();
+			}
+
+			@Override
+			public Object getParent(Object element) {
+				return null;
+			}
+
+			@Override
+			public boolean hasChildren(Object element) {
+				return model.containsKey(((String) element).toLowerCase(Locale.ROOT));
+			}
+		}, pending::add);
+		TreeViewer viewer = new TreeViewer(parent, SWT.VIRTUAL);
+		viewer.setComparer(new IElementComparer() {
+			@Override
+			public boolean equals(Object a, Object b) {
+				return ((String) a).equalsIgnoreCase((String) b);
+			}
+
+			@Override
+			public int hashCode(Object element) {
+				return ((String) element).toLowerCase(Locale.ROOT).hashCode();
+			}
+		});
+		viewer.setContentProvider(contentProvider);
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		fViewer.setInput(ROOT);
+	}
+
+	private Tree getTree() {
+		return ((TreeViewer) fViewer).getTree();
+	}
+
+	private void runFetches() {
+		List<Runnable> fetches = new ArrayList<>(pending);
+		pending.clear();
+		for (Runnable fetch : fetches) {
+			fetch.run();
+		}
+		processEvents();
+	}
+
+	/**
+	 * Fetches the children of the input and of its first element.
+	 *
+	 * @return the item of the first element
+	 */
+	private TreeItem fetchFirstItem() {
+		runFetches();
+		assertEquals(2, getTree().getItemCount());
+		TreeItem item = getTree().getItem(0);
+		item.getText();
+		assertEquals("a", item.getData());
+		runFetches();
+		return item;
+	}
+
+	public void testChildrenFetchedWhenItemShown() {
+		assertEquals(0, getTree().getItemCount());
+		TreeItem item = fetchFirstItem();
+		assertEquals(2, item.getItemCount());
+	}
+
+	public void testRefreshEqualElement() {
+		TreeItem item = fetchFirstItem();
+		model.get("a").add("a3");
+		contentProvider.refresh("A");
+		runFetches();
+		item = getTree().getItem(0);
+		assertEquals(3, item.getItemCount());
+		item.setExpanded(true);
+		TreeItem child = item.getItem(2);
+		child.getText();
+		assertEquals("a3", child.getData());
+	}
+}
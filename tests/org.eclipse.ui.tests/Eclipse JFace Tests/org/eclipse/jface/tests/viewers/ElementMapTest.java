@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.swt.widgets.Widget;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the map from the elements of a viewer to their items, through the
+ * element mapping methods of {@link StructuredViewer}.
+ */
+public class ElementMapTest extends TestCase {
+
+	private Shell shell;
+
+	private Table table;
+
+	private MappingViewer viewer;
+
+	public ElementMapTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		Display display = Display.getCurrent();
+		if (display == null) {
+			display = new Display();
+		}
+		shell = new Shell(display);
+		table = new Table(shell, SWT.NONE);
+		viewer = new MappingViewer(table);
+		viewer.setUseHashlookup(true);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		shell.dispose();
+		super.tearDown();
+	}
+
+	public void testMapElements() {
+		Widget item1 = newItem();
+		Widget item2 = newItem();
+		viewer.mapElement("a", item1);
+		viewer.mapElement("b", item2);
+		// mapping an element to the same item again has no effect
+		viewer.mapElement("a", item1);
+
+		assertItems("a", item1);
+		assertItems("b", item2);
+		assertItems("c");
+	}
+
+	public void testCollidingHashes() {
+		List<Widget> items = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Widget item = newItem();
+			items.add(item);
+			viewer.mapElement(new Colliding(i), item);
+		}
+		for (int i = 0; i < 10; i++) {
+			assertItems(new Colliding(i), items.get(i));
+		}
+
+		viewer.unmapElement(new Colliding(3));
+		viewer.unmapElement(new Colliding(0), items.get(0));
+		assertItems(new Colliding(0));
+		assertItems(new Colliding(3));
+		for (int i : new int[] { 1, 2, 4, 5, 6, 7, 8, 9 }) {
+			assertItems(new Colliding(i), items.get(i));
+		}
+	}
+
+	/**
+	 * The runs of colliding elements start from the slot of their hash code,
+	 * so some of the hash codes put them across the end of the table.
+	 */
+	public void testRemoveAcrossWrapAround() {
+		for (int hash = 0; hash < 64; hash++) {
+			viewer.unmapAllElements();
+			List<Widget> items = new ArrayList<>();
+			for (int i = 0; i < 12; i++) {
+				Widget item = newItem();
+				items.add(item);
+				viewer.mapElement(new Colliding(i, hash), item);
+			}
+			// several items of one element within the run
+			Widget extra = newItem();
+			viewer.mapElement(new Colliding(5, hash), extra);
+
+			for (int i = 0; i < 12; i += 3) {
+				viewer.unmapElement(new Colliding(i, hash));
+			}
+			for (int i = 0; i < 12; i++) {
+				Colliding element = new Colliding(i, hash);
+				if (i % 3 == 0) {
+					assertItems(element);
+				} else if (i == 5) {
+					assertItems(element, items.get(i), extra);
+				} else {
+					assertItems(element, items.get(i));
+				}
+			}
+			disposeItems();
+		}
+	}
+
+	public void testResize() {
+		List<Widget> items = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Widget item = newItem();
+			items.add(item);
+			viewer.mapElement(Integer.valueOf(i), item);
+			// colliding elements are moved with the others
+			viewer.mapElement(new Colliding(i), item);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertItems(Integer.valueOf(i), items.get(i));
+			assertItems(new Colliding(i), items.get(i));
+		}
+
+		viewer.unmapAllElements();
+		for (int i = 0; i < 1000; i++) {
+			assertItems(Integer.valueOf(i));
+		}
+		viewer.mapElement("a", items.get(0));
+		assertItems("a", items.get(0));
+	}
+
+	public void testItemOrderAfterRemovals() {
+		List<Widget> items = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Widget item = newItem();
+			items.add(item);
+			viewer.mapElement("element", item);
+			viewer.mapElement(new Colliding(i), item);
+		}
+		List<Widget> expected = new ArrayList<>(items);
+		for (int i = 0; i < 100; i += 7) {
+			viewer.unmapElement("element", items.get(i));
+			expected.remove(items.get(i));
+		}
+		assertEquals(expected, Arrays.asList(viewer.testFindItems("element")));
+
+		// the order is kept when the table grows
+		for (int i = 0; i < 1000; i++) {
+			viewer.mapElement(Integer.valueOf(i), items.get(0));
+		}
+		assertEquals(expected, Arrays.asList(viewer.testFindItems("element")));
+	}
+
+	public void testComparer() {
+		viewer.setComparer(new CaseInsensitiveComparer());
+		Widget item1 = newItem();
+		Widget item2 = newItem();
+		viewer.mapElement("element", item1);
+		viewer.mapElement("ELEMENT", item2);
+
+		assertItems("Element", item1, item2);
+		viewer.unmapElement("eLeMeNt", item1);
+		assertItems("element", item2);
+		viewer.unmapElement("ELEMENT");
+		assertItems("element");
+	}
+
+	public void testSetComparer() {
+		Widget item1 = newItem();
+		Widget item2 = newItem();
+		Widget item3 = newItem();
+		Widget item4 = newItem();
+		viewer.mapElement("element", item1);
+		viewer.mapElement("ELEMENT", item2);
+		viewer.mapElement("element", item3);
+		viewer.mapElement("other", item4);
+		assertItems("Element");
+
+		// the entries are hashed again with the comparer
+		viewer.setComparer(new CaseInsensitiveComparer());
+		List<Widget> items = Arrays.asList(viewer.testFindItems("Element"));
+		assertEquals(new HashSet<>(Arrays.asList(item1, item2, item3)), new HashSet<>(items));
+		// the items of an element keep their order
+		assertTrue(items.indexOf(item1) < items.indexOf(item3));
+		assertItems("OTHER", item4);
+
+		viewer.setComparer(null);
+		assertItems("Element");
+		assertItems("element", item1, item3);
+		assertItems("ELEMENT", item2);
+	}
+
+	private Widget newItem() {
+		return new TableItem(table, SWT.NONE);
+	}
+
+	private void disposeItems() {
+		table.removeAll();
+	}
+
+	private void assertItems(Object element, Widget... expected) {
+		Widget[] items = viewer.testFindItems(element);
+		assertEquals(String.valueOf(element), Arrays.asList(expected),
+				items == null ? Collections.emptyList() : Arrays.asList(items));
+	}
+
+	/**
+	 * An element whose hash code is shared with other elements.
+	 */
+	private static final class Colliding {
+
+		private final int id;
+
+		private final int hash;
+
+		Colliding(int id) {
+			this(id, 42);
+		}
+
+		Colliding(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Colliding && ((Colliding) obj).id == id && ((Colliding) obj).hash == hash;
+		}
+
+		@Override
+		public String toString() {
+			return "Colliding[" + id + ", " + hash + "]";
+		}
+	}
+
+	private static final class CaseInsensitiveComparer implements IElementComparer {
+
+		@Override
+		public boolean equals(Object a, Object b) {
+			return ((String) a).equalsIgnoreCase((String) b);
+		}
+
+		@Override
+		public int hashCode(Object element) {
+			return ((String) element).toLowerCase().hashCode();
+		}
+	}
+
+	/**
+	 * A viewer which only maps its elements to items.
+	 */
+	private static final class MappingViewer extends StructuredViewer {
+
+		private final Control control;
+
+		MappingViewer(Control control) {
+			this.control = control;
+		}
+
+		@Override
+		public void mapElement(Object element, Widget item) {
+			super.mapElement(element, item);
+		}
+
+		@Override
+		public void unmapElement(Object element) {
+			super.unmapElement(element);
+		}
+
+		@Override
+		public void unmapElement(Object element, Widget item) {
+			super.unmapElement(element, item);
+		}
+
+		@Override
+		public void unmapAllElements() {
+			super.unmapAllElements();
+		}
+
+		@Override
+		public Control getControl() {
+			return control;
+		}
+
+		@Override
+		protected Widget doFindInputItem(Object element) {
+			return null;
+		}
+
+		@Override
+		protected Widget doFindItem(Object element) {
+			return null;
+		}
+
+		@Override
+		protected void doUpdateItem(Widget item, Object element, boolean fullMap) {
+			// nothing to update
+		}
+
+		@Override
+		protected List getSelectionFromWidget() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		protected void internalRefresh(Object element) {
+			// nothing to refresh
+		}
+
+		@Override
+		public void reveal(Object element) {
+			// nothing to reveal
+		}
+
+		@Override
+		protected void setSelectionToWidget(List l, boolean reveal) {
+			// no selection
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.viewers;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.jface.util.Util;
 import org.eclipse.jface.viewers.ListViewer;
 import org.eclipse.jface.viewers.StructuredSelection;
@@ -167,4 +169,39 @@ public class ListViewerTest extends StructuredViewerTest {
 		fViewer.setSelection(new StructuredSelection(((ListViewer)fViewer).getElementAt(50)),false);
 		assertTrue(((ListViewer)fViewer).getList().getTopIndex() == 0);
 	}
+
+	public void testThreadSafeFilter() {
+		TestElement model = TestElement.createModel(1, 12000);
+		fViewer.setInput(TestElement.createModel(1, 0));
+		AtomicInteger selectCount = new AtomicInteger();
+		fViewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				selectCount.incrementAndGet();
+				return ((TestElement) element).getID().endsWith("0");
+			}
+
+			@Override
+			public boolean isThreadSafe() {
+				return true;
+			}
+		});
+		ListViewer v = (ListViewer) fViewer;
+		// filtered by the viewer
+		v.add(model.getChildren());
+		assertEquals(12000, selectCount.get());
+		assertFilteredChildren(model);
+		// filtered by the filter
+		v.setInput(model);
+		assertEquals(24000, selectCount.get());
+		assertFilteredChildren(model);
+	}
+
+	private void assertFilteredChildren(TestElement model) {
+		ListViewer v = (ListViewer) fViewer;
+		assertEquals(1200, v.getList().getItemCount());
+		for (int i = 0; i < 1200; i++) {
+			assertSame(model.getChildAt(i * 10), v.getElementAt(i));
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import org.eclipse.jface.viewers.ColumnWeightData;
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TableLayout;
 import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.jface.viewers.ViewerSorter;
 import org.eclipse.swt.SWT;
@@ -86,6 +87,56 @@ public class TableViewerComparatorTest extends ViewerComparatorTest {
 		assertSortedResult(TEAM1_SORTED_WITH_INSERT);
 	}
 
+	public void testViewerComparatorComputesLabelsOnce(){
+		final int[] count = new int[1];
+		fViewer.setLabelProvider(new TeamModelLabelProvider() {
+			@Override
+			public String getText(Object element) {
+				count[0]++;
+				return super.getText(element);
+			}
+		});
+		Object[] members = team1.members.clone();
+		count[0] = 0;
+		new ViewerComparator().sort(fViewer, members);
+		assertEquals(members.length, count[0]);
+		assertSortedMembers(TEAM1_SORTED, members);
+	}
+
+	public void testViewerComparatorSortsByCategory(){
+		Object[] members = team1.members.clone();
+		new ViewerComparator() {
+			@Override
+			public int category(Object element) {
+				return ((TeamMember) element).name.startsWith("M") ? 0 : 1;
+			}
+		}.sort(fViewer, members);
+		assertSortedMembers(new String[] { "Michael", "Mike", "Andrea", "Boris", "Eric", "Karice", "Kim", "Paul",
+				"Susan", "Tod" }, members);
+	}
+
+	public void testViewerComparatorOverridingCompare(){
+		Object[] members = team1.members.clone();
+		new ViewerComparator() {
+			@Override
+			public int compare(Viewer viewer, Object e1, Object e2) {
+				return super.compare(viewer, e2, e1);
+			}
+		}.sort(fViewer, members);
+		String[] expected = new String[TEAM1_SORTED.length];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = TEAM1_SORTED[expected.length - 1 - i];
+		}
+		assertSortedMembers(expected, members);
+	}
+
+	private void assertSortedMembers(String[] expected, Object[] members){
+		assertEquals(expected.length, members.length);
+		for (int i = 0; i < members.length; i++){
+			assertEquals(expected[i], ((TeamMember) members[i]).name);
+		}
+	}
+
 	private void assertSortedResult(String[] expected){
 		TableItem[] items = getTableViewer().getTable().getItems();
 		for (int i = 0; i < items.length; i++){
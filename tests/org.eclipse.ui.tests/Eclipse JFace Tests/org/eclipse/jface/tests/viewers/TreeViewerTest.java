@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,6 +51,40 @@ public class TreeViewerTest extends AbstractTreeViewerTest {
         return tree.getItems()[at].getText();
     }
 
+    public void testRefreshWithMovedChildKeepsItems() {
+        TestElement first = fRootElement.getFirstChild();
+        TestElement last = fRootElement.getLastChild();
+        TreeItem firstItem = (TreeItem) fViewer.testFindItem(first);
+        fTreeViewer.setExpandedState(last, true);
+        fRootElement.fChildren.remove(last);
+        fRootElement.fChildren.add(0, last);
+        fTreeViewer.refresh();
+
+        TreeItem[] items = ((Tree) fTreeViewer.getControl()).getItems();
+        assertEquals(last, items[0].getData());
+        assertSame("item of unmoved child is kept", firstItem, items[1]);
+        assertEquals(first, items[1].getData());
+        assertTrue("moved child stays expanded", fTreeViewer.getExpandedState(last));
+    }
+
+    public void testRefreshWithMovedExpandedChild() {
+        TestElement last = fRootElement.getLastChild();
+        TestElement lastChild = last.getFirstChild();
+        TestElement collapsedChild = last.getLastChild();
+        fTreeViewer.setExpandedState(last, true);
+        fTreeViewer.setExpandedState(lastChild, true);
+        fRootElement.fChildren.remove(last);
+        fRootElement.fChildren.add(0, last);
+        fTreeViewer.refresh();
+
+        assertEquals(last, ((Tree) fTreeViewer.getControl()).getItems()[0].getData());
+        assertTrue("moved child stays expanded", fTreeViewer.getExpandedState(last));
+        assertTrue("expanded grandchild stays expanded", fTreeViewer.getExpandedState(lastChild));
+        assertFalse("collapsed grandchild stays collapsed", fTreeViewer.getExpandedState(collapsedChild));
+        assertNotNull("children of expanded grandchild are shown",
+                fViewer.testFindItem(lastChild.getFirstChild()));
+    }
+
     public static void main(String args[]) {
         junit.textui.TestRunner.run(TreeViewerTest.class);
     }
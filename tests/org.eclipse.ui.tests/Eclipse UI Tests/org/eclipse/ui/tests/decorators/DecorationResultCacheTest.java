@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import org.eclipse.jface.viewers.DecorationContext;
+import org.eclipse.jface.viewers.IDecorationContext;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecorationResult;
+import org.eclipse.ui.internal.decorators.DecorationResultCache;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the bounded cache of the decoration results.
+ */
+public class DecorationResultCacheTest extends TestCase {
+
+	private DecorationResultCache cache;
+
+	private IDecorationContext context;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		cache = new DecorationResultCache(3);
+		context = new DecorationContext();
+	}
+
+	public void testLeastRecentlyUsedResultIsEvicted() {
+		for (int i = 0; i < 3; i++) {
+			cache.put("element" + i, context, newResult());
+		}
+		// element0 becomes the most recently used one
+		assertNotNull(cache.get("element0", context));
+		cache.put("element3", context, newResult());
+
+		assertEquals(3, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertTrue(cache.contains("element0", context));
+		assertFalse(cache.contains("element1", context));
+		assertTrue(cache.contains("element2", context));
+		assertTrue(cache.contains("element3", context));
+	}
+
+	public void testResultsAreKeptByContext() {
+		IDecorationContext otherContext = new DecorationContext();
+		DecorationResult result = newResult();
+		cache.put("element", context, result);
+
+		assertSame(result, cache.get("element", context));
+		assertNull(cache.get("element", otherContext));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	public void testContainsDoesNotChangeStatistics() {
+		cache.put("element", context, newResult());
+		assertTrue(cache.contains("element", context));
+		assertFalse(cache.contains("other", context));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(0, cache.getMissCount());
+	}
+
+	public void testClear() {
+		cache.put("element", context, newResult());
+		cache.get("element", context);
+		cache.clear();
+
+		assertEquals(0, cache.size());
+		assertNull(cache.get("element", context));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	private static DecorationResult newResult() {
+		return WorkbenchPlugin.getDefault().getDecoratorManager().getLightweightManager()
+				.getDecorationResult(new Object());
+	}
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.decorators;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.DecorationContext;
+import org.eclipse.jface.viewers.IDecorationContext;
+import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.decorators.DecoratorManager;
+import org.eclipse.ui.internal.decorators.VisibleElementsTracker;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+
+/**
+ * Tests that the decorator manager decorates the elements shown in the
+ * viewers first, and drops the requests of the hidden elements.
+ */
+public class DecorationVisibilityTest extends UITestCase {
+
+	private DecoratorManager manager;
+
+	private Set<Object> visibleElements;
+
+	private DecorationContext context;
+
+	private boolean suspended;
+
+	public DecorationVisibilityTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		manager = WorkbenchPlugin.getDefault().getDecoratorManager();
+		manager.setEnabled(VisibilityDecorator.ID, true);
+		VisibilityDecorator.clearDecoratedElements();
+		visibleElements = ConcurrentHashMap.newKeySet();
+		context = createContext(visibleElements);
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		resumeDecoration();
+		manager.setEnabled(VisibilityDecorator.ID, false);
+		super.doTearDown();
+	}
+
+	public void testHiddenElementIsNotDecorated() {
+		TreeElement visible = new TreeElement(null, 0);
+		TreeElement hidden = new TreeElement(null, 1);
+		visibleElements.add(visible);
+
+		manager.prepareDecoration(hidden, "hidden", context);
+		manager.prepareDecoration(visible, "visible", context);
+		waitForDecoration();
+
+		List<Object> decorated = VisibilityDecorator.getDecoratedElements();
+		assertTrue(decorated.contains(visible));
+		assertFalse(decorated.contains(hidden));
+	}
+
+	public void testElementWithoutTesterIsDecorated() {
+		TreeElement element = new TreeElement(null, 0);
+		manager.prepareDecoration(element, "element", DecorationContext.DEFAULT_CONTEXT);
+		waitForDecoration();
+		assertTrue(VisibilityDecorator.getDecoratedElements().contains(element));
+	}
+
+	public void testElementShownWhileQueued() {
+		TreeElement element = new TreeElement(null, 0);
+		suspendDecoration();
+		manager.prepareDecoration(element, "element", context);
+		visibleElements.add(element);
+		resumeDecoration();
+		waitForDecoration();
+		assertTrue(VisibilityDecorator.getDecoratedElements().contains(element));
+	}
+
+	public void testElementVisibleInOtherContext() {
+		TreeElement element = new TreeElement(null, 0);
+		Set<Object> otherVisibleElements = ConcurrentHashMap.newKeySet();
+		suspendDecoration();
+		manager.prepareDecoration(element, "element", context);
+		manager.prepareDecoration(element, "element", createContext(otherVisibleElements));
+		otherVisibleElements.add(element);
+		resumeDecoration();
+		waitForDecoration();
+		assertTrue(VisibilityDecorator.getDecoratedElements().contains(element));
+	}
+
+	public void testVisibleElementsDecoratedFirst() {
+		TreeElement[] others = new TreeElement[100];
+		TreeElement visible = new TreeElement(null, others.length);
+		visibleElements.add(visible);
+		suspendDecoration();
+		for (int i = 0; i < others.length; i++) {
+			others[i] = new TreeElement(null, i);
+			manager.prepareDecoration(others[i], "other", DecorationContext.DEFAULT_CONTEXT);
+		}
+		manager.prepareDecoration(visible, "visible", context);
+		resumeDecoration();
+		waitForDecoration();
+
+		List<Object> decorated = VisibilityDecorator.getDecoratedElements();
+		assertEquals(others.length + 1, decorated.size());
+		// the decoration jobs take the visible element before the others
+		// queued earlier, though they decorate a few elements concurrently
+		assertTrue("The visible element was decorated in position " + decorated.indexOf(visible),
+				decorated.indexOf(visible) < others.length / 2);
+	}
+
+	/**
+	 * Keeps the decoration jobs from running, so that the elements are only
+	 * queued.
+	 */
+	private void suspendDecoration() {
+		Job.getJobManager().suspend();
+		suspended = true;
+	}
+
+	private void resumeDecoration() {
+		if (suspended) {
+			suspended = false;
+			Job.getJobManager().resume();
+		}
+	}
+
+	/**
+	 * Waits until the decoration jobs and the label updates are done.
+	 */
+	private static void waitForDecoration() {
+		long end = System.currentTimeMillis() + 10000;
+		while (Job.getJobManager().find(DecoratorManager.FAMILY_DECORATE).length > 0) {
+			if (System.currentTimeMillis() > end) {
+				fail("The elements are still being decorated");
+			}
+			processEvents();
+			sleep(10);
+		}
+	}
+
+	private static DecorationContext createContext(Set<Object> visible) {
+		DecorationContext decorationContext = new DecorationContext();
+		Predicate<Object> tester = visible::contains;
+		decorationContext.putProperty(VisibleElementsTracker.VISIBILITY_TESTER, tester);
+		return decorationContext;
+	}
+}
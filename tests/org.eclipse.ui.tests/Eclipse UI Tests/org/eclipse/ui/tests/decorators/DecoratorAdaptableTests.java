@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,12 @@
  *******************************************************************************/
 package org.eclipse.ui.tests.decorators;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import junit.framework.TestSuite;
 
 import org.eclipse.core.resources.IProject;
@@ -32,6 +38,7 @@ public class DecoratorAdaptableTests extends UITestCase {
 		ts.addTest(new DecoratorAdaptableTests("testAdaptables"));
 		ts.addTest(new DecoratorAdaptableTests("testNonAdaptableContributions"));
 		ts.addTest(new DecoratorAdaptableTests("testContributorResourceAdapter"));
+		ts.addTest(new DecoratorAdaptableTests("testConcurrentDecoration"));
 		return ts;
 	}
 
@@ -180,4 +187,39 @@ public class DecoratorAdaptableTests extends UITestCase {
                 true
             );
     }
+
+    /**
+     * Decorate the same elements from several threads, as the decoration jobs
+     * do, and check that every thread gets the complete decorations.
+     */
+    public final void testConcurrentDecoration() throws Exception {
+        final Object[] elements = new Object[] {
+                new ObjectContributionClasses.Common(),
+                new ObjectContributionClasses.C(),
+                new ObjectContributionClasses.D()
+        };
+        final String[] expected = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            expected[i] = getDecorationTextFor(elements[i]);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int run = 0; run < 100; run++) {
+                        for (int i = 0; i < elements.length; i++) {
+                            assertEquals(expected[i], getDecorationTextFor(elements[i]));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
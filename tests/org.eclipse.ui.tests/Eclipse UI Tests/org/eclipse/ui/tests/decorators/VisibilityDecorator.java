@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jface.viewers.IDecoration;
+import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILightweightLabelDecorator;
+
+/**
+ * A lightweight decorator recording the order in which the elements are
+ * decorated, for the tests of the decoration of the visible elements.
+ */
+public class VisibilityDecorator implements ILightweightLabelDecorator {
+
+	public static final String ID = "org.eclipse.ui.tests.decorators.visibilityDecorator";
+
+	public static final String SUFFIX = "_VISIBILITY";
+
+	private static final List<Object> decoratedElements = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Return the elements decorated so far, in their decoration order.
+	 *
+	 * @return the decorated elements
+	 */
+	public static List<Object> getDecoratedElements() {
+		synchronized (decoratedElements) {
+			return new ArrayList<>(decoratedElements);
+		}
+	}
+
+	public static void clearDecoratedElements() {
+		decoratedElements.clear();
+	}
+
+	@Override
+	public void decorate(Object element, IDecoration decoration) {
+		decoratedElements.add(element);
+		decoration.addSuffix(SUFFIX);
+	}
+
+	@Override
+	public void addListener(ILabelProviderListener listener) {
+	}
+
+	@Override
+	public void dispose() {
+	}
+
+	@Override
+	public boolean isLabelProperty(Object element, String property) {
+		return false;
+	}
+
+	@Override
+	public void removeListener(ILabelProviderListener listener) {
+	}
+}
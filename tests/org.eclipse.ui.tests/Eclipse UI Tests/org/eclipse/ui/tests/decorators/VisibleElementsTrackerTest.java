@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.decorators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jface.tests.viewers.ViewerTestCase;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.ui.internal.decorators.VisibleElementsTracker;
+
+/**
+ * Tests for {@link VisibleElementsTracker}.
+ */
+public class VisibleElementsTrackerTest extends ViewerTestCase {
+
+	private static final int COUNT = 500;
+
+	private String[] elements;
+
+	private List<Object> labeledElements = new ArrayList<>();
+
+	public VisibleElementsTrackerTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected StructuredViewer createViewer(Composite parent) {
+		TableViewer viewer = new TableViewer(parent);
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		viewer.setLabelProvider(new LabelProvider() {
+			@Override
+			public String getText(Object element) {
+				labeledElements.add(element);
+				return super.getText(element);
+			}
+		});
+		return viewer;
+	}
+
+	@Override
+	protected void setInput() {
+		elements = new String[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			elements[i] = "element " + i;
+		}
+		fViewer.setInput(elements);
+	}
+
+	public void testElementsVisibleBeforePaint() {
+		VisibleElementsTracker tracker = new VisibleElementsTracker(fViewer);
+		assertTrue(tracker.test(elements[0]));
+		assertTrue(tracker.test(elements[COUNT - 1]));
+	}
+
+	public void testHiddenElements() {
+		VisibleElementsTracker tracker = new VisibleElementsTracker(fViewer);
+		fViewer.getControl().redraw();
+		waitFor(() -> !tracker.test(elements[COUNT - 1]));
+		assertTrue(tracker.test(elements[0]));
+		assertFalse(tracker.test(elements[COUNT - 1]));
+	}
+
+	public void testHiddenElementUpdatedWhenShown() {
+		VisibleElementsTracker tracker = new VisibleElementsTracker(fViewer);
+		fViewer.getControl().redraw();
+		waitFor(() -> !tracker.test(elements[COUNT - 1]));
+		labeledElements.clear();
+
+		fViewer.reveal(elements[COUNT - 1]);
+		waitFor(() -> labeledElements.contains(elements[COUNT - 1]));
+		assertTrue(labeledElements.contains(elements[COUNT - 1]));
+		assertTrue(tracker.test(elements[COUNT - 1]));
+		// the elements not tested while hidden are not updated
+		assertFalse(labeledElements.contains(elements[COUNT - 2]));
+	}
+
+	private void waitFor(BooleanSupplier condition) {
+		long end = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+			if (!fShell.getDisplay().readAndDispatch()) {
+				sleep(10);
+			}
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import junit.framework.TestCase;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessElement;
+import org.eclipse.ui.internal.quickaccess.QuickAccessIndex;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+
+/**
+ * Tests that the search index of the quick access providers finds the same
+ * elements as matching all of them.
+ */
+public class QuickAccessIndexTest extends TestCase {
+
+	private static final String[] LABELS = { "Open Type", "Show View", "New Java Project", "Package Explorer",
+			"Close All", " Leading Space", "CamelCaseLabel", "Toggle Breakpoint", "Open Type Hierarchy",
+			"Run As - Java Application", "Project Properties (Resource)", "", "Ünïcödé Label", "X" };
+
+	private static final String[] FILTERS = { "o", "op", "ope", "open", "open ", "open t", "open ty", "open type",
+			"open type h", "pe", "p e", "ja pr", "sv", "nj", "cca", "ccl", "view", "views", "views pa", "vo", "vot",
+			"tb", "run java", "ünï", "label", "x", "as - ja", "(resource", "o*e", "t?pe", "properties ", " leading" };
+
+	private static final Predicate<QuickAccessElement> ALL = element -> true;
+
+	private TestProvider provider;
+
+	private QuickAccessIndex index;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		provider = new TestProvider("Views");
+		for (String label : LABELS) {
+			provider.elements.add(new TestElement(provider, label));
+		}
+		index = new QuickAccessIndex(provider);
+		index.update(provider.getElementsSorted());
+	}
+
+	public void testIndexMatchesAllElements() {
+		for (String filter : FILTERS) {
+			// a new index does not refine a previous search
+			QuickAccessIndex newIndex = new QuickAccessIndex(provider);
+			newIndex.update(provider.getElementsSorted());
+			assertEquals(filter, getExpectedLabels(filter), getLabels(newIndex, filter));
+		}
+	}
+
+	public void testExtendedFilterRefinesMatches() {
+		for (String filter : FILTERS) {
+			assertEquals(filter, getExpectedLabels(filter), getLabels(index, filter));
+		}
+	}
+
+	public void testLimitedSearchIsRefined() {
+		assertEquals(2, index.match("o", Collections.emptySet(), ALL, 2, new NullProgressMonitor()).size());
+		assertEquals(getExpectedLabels("op"), getLabels(index, "op"));
+	}
+
+	public void testUpdate() {
+		assertEquals(getExpectedLabels("java"), getLabels(index, "java"));
+		provider.elements.remove(2);
+		provider.elements.add(new TestElement(provider, "Java Search"));
+		provider.reset();
+		index.update(provider.getElementsSorted());
+		List<String> labels = getLabels(index, "java");
+		assertEquals(getExpectedLabels("java"), labels);
+		assertTrue(labels.contains("Java Search"));
+		assertFalse(labels.contains("New Java Project"));
+	}
+
+	public void testExcludedIds() {
+		assertEquals(2, index.match("open", Collections.emptySet(), ALL, Integer.MAX_VALUE, new NullProgressMonitor())
+				.size());
+		assertEquals(1, index.match("open", Collections.singleton("Open Type"), ALL, Integer.MAX_VALUE,
+				new NullProgressMonitor()).size());
+	}
+
+	public void testLimitCountsEnabledElements() {
+		Predicate<QuickAccessElement> enabled = element -> !element.getLabel().equals("Open Type");
+		assertEquals(1, index.match("open", Collections.emptySet(), enabled, 1, new NullProgressMonitor()).size());
+		// the disabled element is matched and refines the next search
+		assertEquals(getExpectedLabels("open t"), getLabels(index, "open t"));
+	}
+
+	public void testCancelledSearch() {
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		for (int i = 0; i < 1000; i++) {
+			provider.elements.add(new TestElement(provider, "Element " + i));
+		}
+		provider.reset();
+		index.update(provider.getElementsSorted());
+		assertNull(index.match("element", Collections.emptySet(), ALL, Integer.MAX_VALUE, monitor));
+	}
+
+	private List<String> getExpectedLabels(String filter) {
+		List<String> labels = new ArrayList<>();
+		for (QuickAccessElement element : provider.getElementsSorted()) {
+			if (element.match(filter, provider) != null) {
+				labels.add(element.getLabel());
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Return the labels of the elements the index matches, each found by
+	 * excluding all the other elements from the search.
+	 */
+	private List<String> getLabels(QuickAccessIndex searchIndex, String filter) {
+		List<String> labels = new ArrayList<>();
+		for (QuickAccessElement element : provider.getElementsSorted()) {
+			Set<String> otherIds = new HashSet<>();
+			for (QuickAccessElement other : provider.getElementsSorted()) {
+				if (other != element) {
+					otherIds.add(other.getId());
+				}
+			}
+			if (!searchIndex.match(filter, otherIds, ALL, Integer.MAX_VALUE, new NullProgressMonitor()).isEmpty()) {
+				labels.add(element.getLabel());
+			}
+		}
+		return labels;
+	}
+
+	private static class TestProvider extends QuickAccessProvider {
+
+		final List<QuickAccessElement> elements = new ArrayList<>();
+
+		private final String name;
+
+		TestProvider(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getId() {
+			return name;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			return elements.toArray(new QuickAccessElement[elements.size()]);
+		}
+
+		@Override
+		public QuickAccessElement getElementForId(String id) {
+			return null;
+		}
+
+		@Override
+		protected void doReset() {
+			// the elements are kept
+		}
+	}
+
+	private static class TestElement extends QuickAccessElement {
+
+		private final String label;
+
+		TestElement(QuickAccessProvider provider, String label) {
+			super(provider);
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+			// not executed
+		}
+	}
+}